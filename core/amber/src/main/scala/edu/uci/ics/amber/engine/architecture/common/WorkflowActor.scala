@@ -3,16 +3,19 @@ package edu.uci.ics.amber.engine.architecture.common
 import akka.actor.{Actor, ActorRef, Stash}
 import com.softwaremill.macwire.wire
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.FatalErrorHandler.FatalError
+import edu.uci.ics.amber.engine.architecture.messaginglayer.CreditManager.FlushNetworkAcks
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.{
   GetActorRef,
   NetworkSenderActorRef,
   RegisterActorRef
 }
 import edu.uci.ics.amber.engine.architecture.messaginglayer.{
+  BackpressureGate,
   ControlOutputPort,
+  CreditManager,
   NetworkCommunicationActor
 }
-import edu.uci.ics.amber.engine.common.WorkflowLogger
+import edu.uci.ics.amber.engine.common.{Constants, WorkflowLogger}
 import edu.uci.ics.amber.engine.common.rpc.{
   AsyncRPCClient,
   AsyncRPCHandlerInitializer,
@@ -37,9 +40,19 @@ abstract class WorkflowActor(
     )
   })
 
+  val backpressureGate: BackpressureGate = new BackpressureGate(Constants.maxWaitingDataMessages)
   val networkCommunicationActor: NetworkSenderActorRef = NetworkSenderActorRef(
     // create a network communication actor on the same machine as the WorkflowActor itself
-    context.actorOf(NetworkCommunicationActor.props(parentNetworkCommunicationActorRef, logger))
+    context.actorOf(
+      NetworkCommunicationActor.props(parentNetworkCommunicationActorRef, logger, backpressureGate)
+    )
+  )
+  lazy val creditManager: CreditManager = new CreditManager(
+    self,
+    () => freeDataCredits,
+    () =>
+      context.system.scheduler
+        .scheduleOnce(Constants.ackFlushInterval, self, FlushNetworkAcks)(context.dispatcher)
   )
   lazy val controlOutputPort: ControlOutputPort = wire[ControlOutputPort]
   lazy val asyncRPCClient: AsyncRPCClient = wire[AsyncRPCClient]
@@ -48,6 +61,16 @@ abstract class WorkflowActor(
   // because it should be initialized with the actor itself
   val rpcHandlerInitializer: AsyncRPCHandlerInitializer
 
+  /** number of data messages this actor can buffer right now,
+    * the credits granted to its senders are taken from it.
+    */
+  def freeDataCredits: Int = Constants.dataQueueCapacity
+
+  def flushNetworkAcks: Receive = {
+    case FlushNetworkAcks =>
+      creditManager.flush()
+  }
+
   def disallowActorRefRelatedMessages: Receive = {
     case GetActorRef(id, replyTo) =>
       logger.logError(
@@ -12,6 +12,7 @@ import edu.uci.ics.amber.engine.architecture.controller.ControllerEvent.{
   WorkflowStatusUpdate
 }
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.LinkWorkersHandler.LinkWorkers
+import edu.uci.ics.amber.engine.architecture.messaginglayer.CreditManager.FlushNetworkAcks
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.{
   NetworkMessage,
   RegisterActorRef
@@ -68,7 +69,11 @@ class Controller(
     parentNetworkCommunicationActorRef: ActorRef
 ) extends WorkflowActor(CONTROLLER, parentNetworkCommunicationActorRef) {
   lazy val controlInputPort: NetworkInputPort[ControlPayload] =
-    new NetworkInputPort[ControlPayload](this.logger, this.handleControlPayloadWithTryCatch)
+    new NetworkInputPort[ControlPayload](
+      this.logger,
+      this.creditManager,
+      this.handleControlPayloadWithTryCatch
+    )
   implicit val ec: ExecutionContext = context.dispatcher
   implicit val timeout: Timeout = 5.seconds
   val rpcHandlerInitializer: ControllerAsyncRPCHandlerInitializer =
@@ -100,7 +105,7 @@ class Controller(
       workflow.getAllOperators.foreach(_.setAllWorkerState(Ready))
       if (eventListener.workflowStatusUpdateListener != null) {
         eventListener.workflowStatusUpdateListener
-          .apply(WorkflowStatusUpdate(workflow.getWorkflowStatus))
+          .apply(WorkflowStatusUpdate(workflow.getWorkflowStatus, workflow.getGcPausesByNode))
       }
       // for testing, report ready state to parent
       context.parent ! ControllerState.Ready
@@ -111,6 +116,8 @@ class Controller(
   override def receive: Receive = initializing
 
   def initializing: Receive = {
+    case FlushNetworkAcks =>
+      creditManager.flush()
     case NetworkMessage(id, WorkflowControlMessage(from, seqNum, payload: ReturnPayload)) =>
       //process reply messages
       controlInputPort.handleMessage(this.sender(), id, from, seqNum, payload)
@@ -131,7 +138,7 @@ class Controller(
   }
 
   def running: Receive = {
-    acceptDirectInvocations orElse {
+    acceptDirectInvocations orElse flushNetworkAcks orElse {
       case NetworkMessage(id, WorkflowControlMessage(from, seqNum, payload)) =>
         controlInputPort.handleMessage(this.sender(), id, from, seqNum, payload)
       case other =>
@@ -5,13 +5,12 @@ import edu.uci.ics.amber.engine.architecture.controller.ControllerEvent.{
   WorkflowResultUpdate,
   WorkflowStatusUpdate
 }
-import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.QueryWorkerStatisticsHandler.{
-  ControllerInitiateQueryResults,
-  ControllerInitiateQueryStatistics
-}
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.QueryWorkerStatisticsHandler.ControllerInitiateQueryResults
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerStatisticsUpdatedHandler.ControllerReportStatistics
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.{
   AssignBreakpointHandler,
   FatalErrorHandler,
+  HotKeysReportedHandler,
   KillWorkflowHandler,
   LinkCompletedHandler,
   LinkWorkersHandler,
@@ -19,14 +18,19 @@ import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.{
   LocalOperatorExceptionHandler,
   PauseHandler,
   QueryWorkerStatisticsHandler,
+  RangeSampleReportedHandler,
   ResumeHandler,
   StartWorkflowHandler,
   WorkerExecutionCompletedHandler,
-  WorkerExecutionStartedHandler
+  WorkerExecutionStartedHandler,
+  WorkerSatisfiedHandler,
+  WorkerStatisticsUpdatedHandler
 }
 import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
 import edu.uci.ics.amber.engine.architecture.messaginglayer.ControlOutputPort
-import edu.uci.ics.amber.engine.common.WorkflowLogger
+import edu.uci.ics.amber.engine.architecture.principal.{OperatorResult, ThroughputSeries}
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.QueryStatisticsHandler.StartStatisticsPush
+import edu.uci.ics.amber.engine.common.{Constants, PagedResultStore, WorkflowLogger}
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.ControlInvocation
 import edu.uci.ics.amber.engine.common.rpc.{
   AsyncRPCClient,
@@ -34,6 +38,7 @@ import edu.uci.ics.amber.engine.common.rpc.{
   AsyncRPCServer
 }
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.IncrementalOutputMode
 
 import scala.collection.mutable
 import scala.concurrent.duration.{DurationInt, FiniteDuration, MILLISECONDS}
@@ -57,16 +62,37 @@ class ControllerAsyncRPCHandlerInitializer(
     with LocalOperatorExceptionHandler
     with PauseHandler
     with QueryWorkerStatisticsHandler
+    with WorkerStatisticsUpdatedHandler
     with ResumeHandler
     with StartWorkflowHandler
     with KillWorkflowHandler
     with LinkCompletedHandler
+    with RangeSampleReportedHandler
+    with HotKeysReportedHandler
+    with WorkerSatisfiedHandler
     with FatalErrorHandler {
 
   var statusUpdateAskHandle: Option[Cancellable] = None
   var resultUpdateAskHandle: Option[Cancellable] = None
+  var statisticsPushStarted = false
+  // whether a worker pushed its statistics since the last report to the frontend
+  var workerStatisticsUpdated = false
+  // the throughput of each operator, sampled when the status is sent to the frontend
+  val operatorThroughput = new mutable.HashMap[String, ThroughputSeries]()
+
+  // the version of the result of each sink worker applied to the result of its operator
+  val sinkWorkerVersions = new mutable.HashMap[ActorVirtualIdentity, Long]()
+  // the output mode and the result of each sink operator,
+  // kept up to date with the changes reported by its workers
+  val sinkOperatorResults = new mutable.HashMap[String, (IncrementalOutputMode, PagedResultStore)]()
 
   def enableStatusUpdate(): Unit = {
+    if (controllerConfig.statusUpdateIntervalMs.nonEmpty && !statisticsPushStarted) {
+      // workers push their statistics on their own from now on
+      val intervalMs = statisticsPushIntervalMs(workflow.getAllWorkers.size)
+      workflow.getAllWorkers.foreach(worker => send(StartStatisticsPush(intervalMs), worker))
+      statisticsPushStarted = true
+    }
     if (controllerConfig.statusUpdateIntervalMs.nonEmpty && statusUpdateAskHandle.isEmpty) {
       statusUpdateAskHandle = Option(
         actorContext.system.scheduler.scheduleAtFixedRate(
@@ -75,7 +101,7 @@ class ControllerAsyncRPCHandlerInitializer(
           actorContext.self,
           ControlInvocation(
             AsyncRPCClient.IgnoreReplyAndDoNotLog,
-            ControllerInitiateQueryStatistics()
+            ControllerReportStatistics()
           )
         )(actorContext.dispatcher)
       )
@@ -106,13 +132,41 @@ class ControllerAsyncRPCHandlerInitializer(
     }
   }
 
+  /** the interval a worker pushes its statistics at, the status update interval
+    * unless the workers would push more than Constants.maxStatisticsPushesPerSecond together.
+    */
+  def statisticsPushIntervalMs(workerCount: Int): Long = {
+    Math.max(
+      controllerConfig.statusUpdateIntervalMs.get,
+      workerCount * 1000L / Constants.maxStatisticsPushesPerSecond
+    )
+  }
+
   def updateFrontendWorkflowStatus(): Unit = {
     if (eventListener.workflowStatusUpdateListener != null) {
-      eventListener.workflowStatusUpdateListener
-        .apply(WorkflowStatusUpdate(workflow.getWorkflowStatus))
+      val now = System.currentTimeMillis()
+      val status = workflow.getWorkflowStatus.map {
+        case (operatorID, stats) =>
+          val series = operatorThroughput.getOrElseUpdate(operatorID, new ThroughputSeries())
+          series.add(now, stats.aggregatedInputRowCount, stats.aggregatedOutputRowCount)
+          (operatorID, stats.copy(throughput = series.getSamples))
+      }
+      eventListener.workflowStatusUpdateListener.apply(
+        WorkflowStatusUpdate(status, workflow.getGcPausesByNode)
+      )
     }
   }
 
+  /**
+    * The result of each sink operator, as of the last changes reported by its workers.
+    */
+  def getSinkOperatorResults: Map[String, OperatorResult] = {
+    sinkOperatorResults.map {
+      case (operatorID, (outputMode, result)) =>
+        (operatorID, OperatorResult(outputMode, result.getTuples))
+    }.toMap
+  }
+
   def updateFrontendWorkflowResult(workflowResultUpdate: WorkflowResultUpdate): Unit = {
     if (eventListener.workflowResultUpdateListener != null) {
       eventListener.workflowResultUpdateListener.apply(workflowResultUpdate)
@@ -3,9 +3,11 @@ package edu.uci.ics.amber.engine.architecture.controller
 import edu.uci.ics.amber.engine.architecture.breakpoint.FaultedTuple
 import edu.uci.ics.amber.engine.architecture.principal.{
   OperatorResult,
+  OperatorResultUpdate,
   OperatorState,
   OperatorStatistics
 }
+import edu.uci.ics.amber.engine.common.HistogramSnapshot
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import edu.uci.ics.amber.error.WorkflowRuntimeError
@@ -23,10 +25,12 @@ object ControllerEvent {
   case class WorkflowPaused()
 
   case class WorkflowStatusUpdate(
-      operatorStatistics: Map[String, OperatorStatistics]
+      operatorStatistics: Map[String, OperatorStatistics],
+      // garbage collection pauses, by node address
+      gcPausesByNode: Map[String, HistogramSnapshot] = Map()
   )
 
-  case class WorkflowResultUpdate(operatorResults: Map[String, OperatorResult])
+  case class WorkflowResultUpdate(operatorResults: Map[String, OperatorResultUpdate])
 
   case class ModifyLogicCompleted()
 
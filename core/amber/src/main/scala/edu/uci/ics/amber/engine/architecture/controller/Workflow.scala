@@ -6,7 +6,7 @@ import edu.uci.ics.amber.engine.architecture.linksemantics._
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkSenderActorRef
 import edu.uci.ics.amber.engine.architecture.principal.OperatorState.Completed
 import edu.uci.ics.amber.engine.architecture.principal.OperatorStatistics
-import edu.uci.ics.amber.engine.common.{AmberUtils, Constants}
+import edu.uci.ics.amber.engine.common.{AmberUtils, Constants, HistogramSnapshot}
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import edu.uci.ics.amber.engine.common.virtualidentity.{
   LayerIdentity,
@@ -35,6 +35,9 @@ class Workflow(
     new mutable.HashMap[OperatorIdentity, mutable.ArrayBuffer[LinkStrategy]]
   }
   private val idToLink = new mutable.HashMap[LinkIdentity, LinkStrategy]()
+  // workers and operators which need no more input, e.g. a limit that has output enough tuples
+  private val satisfiedWorkers = new mutable.HashSet[ActorVirtualIdentity]()
+  private val satisfiedOperators = new mutable.HashSet[OperatorIdentity]()
 
   def getSources(operator: OperatorIdentity): Set[OperatorIdentity] = {
     var result = Set[OperatorIdentity]()
@@ -54,9 +57,22 @@ class Workflow(
   }
 
   def getWorkflowStatus: Map[String, OperatorStatistics] = {
-    operators.map { op =>
-      (op._1.operator, op._2.getOperatorStatistics)
-    }.toMap
+    operators.values.flatMap(_.getOperatorStatisticsByID).toMap
+  }
+
+  /**
+    * The garbage collection pauses of each node, by node address. The workers of a node share
+    * its JVM, so the node reports the pauses seen by its longest-running worker instead of
+    * their sum.
+    */
+  def getGcPausesByNode: Map[String, HistogramSnapshot] = {
+    getAllLayers
+      .filter(_.isBuilt)
+      .flatMap(_.workers.values)
+      .groupBy(_.address.toString)
+      .map {
+        case (node, workers) => (node, workers.map(_.stats.gcPauses).maxBy(_.count))
+      }
   }
 
   def getStartOperators: Iterable[OpExecConfig] = sourceOperators.map(operators(_))
@@ -97,6 +113,38 @@ class Workflow(
 
   def getLink(linkID: LinkIdentity): LinkStrategy = idToLink(linkID)
 
+  /**
+    * Records that a worker needs no more input. Once all the workers of the first layer
+    * of its operator do, the upstream operators whose output only satisfied operators
+    * consume are satisfied as well.
+    * @return the upstream operators which can stop producing.
+    */
+  def markSatisfied(workerID: ActorVirtualIdentity): Iterable[OpExecConfig] = {
+    satisfiedWorkers.add(workerID)
+    val operator = getOperator(workerID)
+    if (
+      satisfiedOperators.contains(operator.id) ||
+      !operator.topology.layers.head.identifiers.forall(satisfiedWorkers.contains)
+    ) {
+      return Iterable.empty
+    }
+    satisfiedOperators.add(operator.id)
+    val stopped = new mutable.ArrayBuffer[OpExecConfig]()
+    var current = inLinks.getOrElse(operator.id, Set[OperatorIdentity]())
+    while (current.nonEmpty) {
+      // an operator is reached again once another of its downstream operators is satisfied
+      val next = current.filter(op =>
+        !satisfiedOperators.contains(op) && outLinks(op).forall(satisfiedOperators.contains)
+      )
+      next.foreach { op =>
+        satisfiedOperators.add(op)
+        stopped.append(operators(op))
+      }
+      current = next.flatMap(op => inLinks.getOrElse(op, Set[OperatorIdentity]()))
+    }
+    stopped
+  }
+
   def isCompleted: Boolean = operators.values.forall(op => op.getState == Completed)
 
   def buildOperator(
@@ -149,12 +197,21 @@ class Workflow(
   ): LinkStrategy = {
     val sender = from._2
     val receiver = to._2
-    if (to._1.requiredShuffle) {
+    if (to._1.requiredRangeShuffle) {
+      new RangeBasedShuffle(
+        sender,
+        receiver,
+        Constants.defaultBatchSize,
+        to._1.getPartitionColumnIndices(sender.id),
+        to._1.getPartitionDescending(sender.id)
+      )
+    } else if (to._1.requiredShuffle) {
       new HashBasedShuffle(
         sender,
         receiver,
         Constants.defaultBatchSize,
-        to._1.getPartitionColumnIndices(sender.id)
+        to._1.getPartitionColumnIndices(sender.id),
+        to._1.getSkewHandling(sender.id)
       )
     } else if (to._1.isInstanceOf[SinkOpExecConfig]) {
       new AllToOne(sender, receiver, Constants.defaultBatchSize)
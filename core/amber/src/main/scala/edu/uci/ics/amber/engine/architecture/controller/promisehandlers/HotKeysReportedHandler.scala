@@ -0,0 +1,53 @@
+package edu.uci.ics.amber.engine.architecture.controller.promisehandlers
+
+import com.twitter.util.Future
+import edu.uci.ics.amber.engine.architecture.controller.ControllerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.HotKeysReportedHandler.ReportHotKeys
+import edu.uci.ics.amber.engine.architecture.linksemantics.HashBasedShuffle
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.ReplicateHotKeys
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.UpdateHotKeysHandler.UpdateHotKeys
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+
+object HotKeysReportedHandler {
+  final case class ReportHotKeys(linkID: LinkIdentity, hotKeys: Array[Int])
+      extends ControlCommand[CommandCompleted]
+}
+
+/** Collect the hot keys split by the senders of a hash shuffle
+  * (a sender reports the keys it split at the end of its output, once every sender
+  * reported, the keys are sent to the senders of the links into the same receivers
+  * which replicate them)
+  *
+  * possible sender: worker
+  */
+trait HotKeysReportedHandler {
+  this: ControllerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: ReportHotKeys, sender) =>
+    {
+      val link = workflow.getLink(msg.linkID).asInstanceOf[HashBasedShuffle]
+      link.addHotKeys(msg.hotKeys)
+      if (link.isHotKeysReported) {
+        val hotKeys = link.getHotKeys
+        val replicatingLinks = workflow.getAllLinks.collect {
+          case other: HashBasedShuffle
+              if other.to == link.to && other.skewHandling.isInstanceOf[ReplicateHotKeys] =>
+            other
+        }
+        Future
+          .collect(
+            replicatingLinks
+              .flatMap(other =>
+                other.from.identifiers.map(send(UpdateHotKeys(other.id, hotKeys), _))
+              )
+              .toSeq
+          )
+          .map(ret => CommandCompleted())
+      } else {
+        Future { CommandCompleted() }
+      }
+    }
+  }
+
+}
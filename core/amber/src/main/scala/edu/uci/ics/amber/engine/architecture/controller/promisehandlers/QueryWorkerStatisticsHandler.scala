@@ -7,11 +7,12 @@ import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.QueryWor
   ControllerInitiateQueryResults,
   ControllerInitiateQueryStatistics
 }
-import edu.uci.ics.amber.engine.architecture.principal.OperatorResult
+import edu.uci.ics.amber.engine.architecture.principal.OperatorResultUpdate
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.QueryStatisticsHandler.{
   QueryStatistics,
   QueryWorkerResult
 }
+import edu.uci.ics.amber.engine.common.PagedResultStore
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.ControlCommand
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 
@@ -25,14 +26,16 @@ object QueryWorkerStatisticsHandler {
 
   // ask the controller to initiate querying worker results
   // optionally specify the workers to query, None indicates querying all sink workers
+  // returns the changes to the result of each operator since the last query
   final case class ControllerInitiateQueryResults(
       filterByWorkers: Option[List[ActorVirtualIdentity]] = None
-  ) extends ControlCommand[Map[String, OperatorResult]]
+  ) extends ControlCommand[Map[String, OperatorResultUpdate]]
 }
 
-/** Get statistics from all the workers
+/** Get statistics from all the workers, or from the specified workers
+  * (workers also push their statistics periodically, see WorkerStatisticsUpdatedHandler)
   *
-  * possible sender: controller(by statusUpdateAskHandle)
+  * possible sender: controller(when a worker completes)
   */
 trait QueryWorkerStatisticsHandler {
   this: ControllerAsyncRPCHandlerInitializer =>
@@ -45,8 +48,14 @@ trait QueryWorkerStatisticsHandler {
     val requests = workers.map(worker =>
       // must immediately update worker state and stats after reply
       send(QueryStatistics(), worker).map(res => {
-        workflow.getOperator(worker).getWorker(worker).state = res.workerState
-        workflow.getOperator(worker).getWorker(worker).stats = res
+        val workerInfo = workflow.getOperator(worker).getWorker(worker)
+        if (res.hotKeyCount > workerInfo.stats.hotKeyCount) {
+          logger.logInfo(
+            s"$worker detected ${res.hotKeyCount} hot keys, splitting them across its receivers"
+          )
+        }
+        workerInfo.state = res.workerState
+        workerInfo.stats = res
       })
     )
 
@@ -58,9 +67,11 @@ trait QueryWorkerStatisticsHandler {
     val sinkWorkers = workflow.getSinkLayers.flatMap(l => l.workers.keys).toList
     val workers = msg.filterByWorkers.getOrElse(sinkWorkers)
 
-    // send all sink worker QueryResult message
+    // send all sink worker QueryResult message,
+    // acknowledging the changes already applied to the result of their operator
     val requests = workers.map(worker => {
-      send(QueryWorkerResult(), worker).map(res => (worker, res))
+      val ackedVersion = sinkWorkerVersions.getOrElse(worker, 0L)
+      send(QueryWorkerResult(ackedVersion), worker).map(res => (worker, res))
     })
 
     // wait for all workers to reply, accumulate response from all workers
@@ -68,21 +79,27 @@ trait QueryWorkerStatisticsHandler {
 
     allResponses
       .map(responses => {
-        // combine results of all workers to a single result list of this operator
-        val operatorResultUpdate = new mutable.HashMap[String, OperatorResult]()
+        // apply the changes of all workers to the result of their operator
+        val operatorResultUpdate = new mutable.HashMap[String, OperatorResultUpdate]()
         responses
-          .groupBy(workerResult => workflow.getOperator(workerResult._1).id)
-          .foreach(operatorResult => {
-            // filter out all Option.Empty from worker result response
-            val workerResultList = operatorResult._2.flatMap(r => r._2)
-            // construct operator result if list is not empty
-            if (workerResultList.nonEmpty) {
-              val operatorID = operatorResult._1.operator
-              val outputMode = workerResultList.head.outputMode
-              val workerResultUnion = workerResultList.flatMap(r => r.result).toList
-              operatorResultUpdate(operatorID) = OperatorResult(outputMode, workerResultUnion)
-            }
-          })
+          .collect { case (worker, Some(res)) => (worker, res) }
+          .foreach {
+            case (worker, res) =>
+              val operatorID = workflow.getOperator(worker).id.operator
+              val (_, result) = sinkOperatorResults
+                .getOrElseUpdate(operatorID, (res.outputMode, new PagedResultStore()))
+              // skip the changes already applied by an earlier reply
+              val version = sinkWorkerVersions.getOrElse(worker, 0L)
+              val changes = res.changes.drop((version - res.fromVersion).toInt)
+              sinkWorkerVersions(worker) = Math.max(version, res.fromVersion + res.changes.size)
+              // construct operator result update if there are changes
+              if (changes.nonEmpty) {
+                val applied = result.applyChanges(changes)
+                val previous = operatorResultUpdate.get(operatorID).toList.flatMap(_.changes)
+                operatorResultUpdate(operatorID) =
+                  OperatorResultUpdate(res.outputMode, previous ++ applied)
+              }
+          }
         // send update result to frontend
         if (operatorResultUpdate.nonEmpty) {
           updateFrontendWorkflowResult(WorkflowResultUpdate(operatorResultUpdate.toMap))
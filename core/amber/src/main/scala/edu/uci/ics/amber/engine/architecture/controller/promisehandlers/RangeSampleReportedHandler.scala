@@ -0,0 +1,47 @@
+package edu.uci.ics.amber.engine.architecture.controller.promisehandlers
+
+import com.twitter.util.Future
+import edu.uci.ics.amber.engine.architecture.controller.ControllerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.RangeSampleReportedHandler.ReportRangeSample
+import edu.uci.ics.amber.engine.architecture.linksemantics.RangeBasedShuffle
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.UpdateRangeBoundariesHandler.UpdateRangeBoundaries
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+
+object RangeSampleReportedHandler {
+  final case class ReportRangeSample(
+      linkID: LinkIdentity,
+      tupleCount: Long,
+      sample: Array[Array[AnyRef]]
+  ) extends ControlCommand[CommandCompleted]
+}
+
+/** Collect the key samples of the senders of a range shuffle
+  * (a sender has buffered all its output of the link and waits for the range boundaries,
+  * once every sender reported its sample the boundaries are sent to all of them)
+  *
+  * possible sender: worker
+  */
+trait RangeSampleReportedHandler {
+  this: ControllerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: ReportRangeSample, sender) =>
+    {
+      val link = workflow.getLink(msg.linkID).asInstanceOf[RangeBasedShuffle]
+      link.addSample(msg.tupleCount, msg.sample)
+      if (link.isSampled) {
+        val boundaries = link.computeBoundaries()
+        Future
+          .collect(
+            link.from.identifiers
+              .map(send(UpdateRangeBoundaries(msg.linkID, boundaries), _))
+              .toSeq
+          )
+          .map(ret => CommandCompleted())
+      } else {
+        Future { CommandCompleted() }
+      }
+    }
+  }
+
+}
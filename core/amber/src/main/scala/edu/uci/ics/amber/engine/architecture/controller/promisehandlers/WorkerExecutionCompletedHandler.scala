@@ -12,7 +12,7 @@ import edu.uci.ics.amber.engine.architecture.controller.{
   ControllerAsyncRPCHandlerInitializer,
   ControllerState
 }
-import edu.uci.ics.amber.engine.architecture.principal.OperatorResult
+import edu.uci.ics.amber.engine.architecture.principal.OperatorResultUpdate
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.ControlCommand
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import edu.uci.ics.amber.engine.common.virtualidentity.util.CONTROLLER
@@ -47,7 +47,7 @@ trait WorkerExecutionCompletedHandler {
       statsRequests += execute(ControllerInitiateQueryStatistics(Option(List(sender))), CONTROLLER)
 
       // if operator is sink, additionally query result immediately one last time
-      val resultRequests = new mutable.MutableList[Future[Map[String, OperatorResult]]]()
+      val resultRequests = new mutable.MutableList[Future[Map[String, OperatorResultUpdate]]]()
       if (operator.isInstanceOf[SinkOpExecConfig]) {
         resultRequests += execute(ControllerInitiateQueryResults(Option(List(sender))), CONTROLLER)
       }
@@ -60,10 +60,12 @@ trait WorkerExecutionCompletedHandler {
           // send query result again to collect final execution result
           val finalResult = execute(ControllerInitiateQueryResults(), CONTROLLER)
           // after query result come back: send completed event, cleanup ,and kill workflow
-          finalResult.flatMap(ret => {
+          finalResult.flatMap(_ => {
             if (eventListener.workflowCompletedListener != null) {
-              eventListener.workflowCompletedListener.apply(WorkflowCompleted(ret))
+              eventListener.workflowCompletedListener
+                .apply(WorkflowCompleted(getSinkOperatorResults))
             }
+            sinkOperatorResults.values.foreach(_._2.close())
             disableStatusUpdate()
             actorContext.parent ! ControllerState.Completed // for testing
             // clean up all workers and terminate self
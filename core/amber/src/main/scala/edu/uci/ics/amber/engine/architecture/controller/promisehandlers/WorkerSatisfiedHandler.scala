@@ -0,0 +1,38 @@
+package edu.uci.ics.amber.engine.architecture.controller.promisehandlers
+
+import com.twitter.util.Future
+import edu.uci.ics.amber.engine.architecture.controller.ControllerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerSatisfiedHandler.WorkerSatisfied
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.StopProducingHandler.StopProducing
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+
+object WorkerSatisfiedHandler {
+  final case class WorkerSatisfied() extends ControlCommand[CommandCompleted]
+}
+
+/** Notify that a worker needs no more input
+  * (e.g. a limit has output enough tuples, once all the workers of its operator
+  * are satisfied, the upstream operators whose output no other operator needs
+  * stop producing and complete early)
+  *
+  * possible sender: worker
+  */
+trait WorkerSatisfiedHandler {
+  this: ControllerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: WorkerSatisfied, sender) =>
+    {
+      val stoppedOperators = workflow.markSatisfied(sender)
+      stoppedOperators.foreach(op => logger.logInfo(s"operator ${op.id} stops producing"))
+      Future
+        .collect(
+          stoppedOperators
+            .flatMap(_.getAllWorkers)
+            .map(send(StopProducing(), _))
+            .toSeq
+        )
+        .map(ret => CommandCompleted())
+    }
+  }
+
+}
@@ -0,0 +1,50 @@
+package edu.uci.ics.amber.engine.architecture.controller.promisehandlers
+
+import edu.uci.ics.amber.engine.architecture.controller.ControllerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerStatisticsUpdatedHandler.{
+  ControllerReportStatistics,
+  WorkerStatisticsUpdated
+}
+import edu.uci.ics.amber.engine.architecture.worker.WorkerStatistics
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.ControlCommand
+
+object WorkerStatisticsUpdatedHandler {
+  final case class WorkerStatisticsUpdated(stats: WorkerStatistics) extends ControlCommand[Unit]
+
+  // report the statistics merged since the last report to the frontend
+  final case class ControllerReportStatistics() extends ControlCommand[Unit]
+}
+
+/** merge the statistics pushed by a worker, without waiting for the other workers
+  *
+  * possible sender: worker(WorkerStatisticsUpdated),
+  * controller(ControllerReportStatistics, by statusUpdateAskHandle)
+  */
+trait WorkerStatisticsUpdatedHandler {
+  this: ControllerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: WorkerStatisticsUpdated, sender) =>
+    val workerInfo = workflow.getWorkerInfo(sender)
+    val stats = msg.stats
+    if (stats.hotKeyCount > workerInfo.stats.hotKeyCount) {
+      logger.logInfo(
+        s"$sender detected ${stats.hotKeyCount} hot keys, splitting them across its receivers"
+      )
+    }
+    // a push can be read before the reply of a query sent after it, so the counts only grow
+    // and the state is left to the state changes reported by the worker
+    workerInfo.stats = stats.copy(
+      workerState = workerInfo.state,
+      inputRowCount = Math.max(stats.inputRowCount, workerInfo.stats.inputRowCount),
+      outputRowCount = Math.max(stats.outputRowCount, workerInfo.stats.outputRowCount)
+    )
+    workerStatisticsUpdated = true
+  }
+
+  registerHandler { (msg: ControllerReportStatistics, sender) =>
+    if (workerStatisticsUpdated) {
+      workerStatisticsUpdated = false
+      updateFrontendWorkflowStatus()
+    }
+  }
+}
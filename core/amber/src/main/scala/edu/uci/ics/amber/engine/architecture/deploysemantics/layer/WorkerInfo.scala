@@ -1,7 +1,14 @@
 package edu.uci.ics.amber.engine.architecture.deploysemantics.layer
 
+import akka.actor.Address
 import edu.uci.ics.amber.engine.architecture.worker.WorkerStatistics
 import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager.WorkerState
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 
-case class WorkerInfo(id: ActorVirtualIdentity, var state: WorkerState, var stats: WorkerStatistics)
+// address: the node the worker is deployed on
+case class WorkerInfo(
+    id: ActorVirtualIdentity,
+    address: Address,
+    var state: WorkerState,
+    var stats: WorkerStatistics
+)
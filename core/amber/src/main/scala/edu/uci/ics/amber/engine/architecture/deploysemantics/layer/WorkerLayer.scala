@@ -72,6 +72,7 @@ class WorkerLayer(
       workerToLayer(workerID) = this
       workerID -> WorkerInfo(
         workerID,
+        d,
         Uninitialized,
         WorkerStatistics(Uninitialized, 0, 0)
       )
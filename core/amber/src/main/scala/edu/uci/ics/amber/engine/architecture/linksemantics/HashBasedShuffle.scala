@@ -2,17 +2,27 @@ package edu.uci.ics.amber.engine.architecture.linksemantics
 
 import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning,
+  NoSkewHandling,
   Partitioning,
-  HashBasedShufflePartitioning
+  SkewHandling
 }
 import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
 
+import scala.collection.mutable
+
 class HashBasedShuffle(
     from: WorkerLayer,
     to: WorkerLayer,
     batchSize: Int,
-    hashColumnIndices: Array[Int]
+    hashColumnIndices: Array[Int],
+    val skewHandling: SkewHandling = NoSkewHandling
 ) extends LinkStrategy(from, to, batchSize) {
+
+  // the keys split by the senders, reported at the end of their output
+  private val hotKeys = new mutable.HashSet[Int]()
+  private var reportedSenders = 0
+
   override def getPartitioning: Iterable[
     (ActorVirtualIdentity, LinkIdentity, Partitioning, Seq[ActorVirtualIdentity])
   ] = {
@@ -21,10 +31,19 @@ class HashBasedShuffle(
       (
         x,
         id,
-        HashBasedShufflePartitioning(batchSize, to.identifiers, hashColumnIndices),
+        HashBasedShufflePartitioning(batchSize, to.identifiers, hashColumnIndices, skewHandling),
         to.identifiers.toSeq
       )
     )
   }
 
+  def addHotKeys(senderHotKeys: Array[Int]): Unit = {
+    reportedSenders += 1
+    hotKeys ++= senderHotKeys
+  }
+
+  def isHotKeysReported: Boolean = reportedSenders == from.numWorkers
+
+  def getHotKeys: Array[Int] = hotKeys.toArray
+
 }
@@ -0,0 +1,76 @@
+package edu.uci.ics.amber.engine.architecture.linksemantics
+
+import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.KeyComparator
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  Partitioning,
+  RangeBasedShufflePartitioning
+}
+import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
+
+import scala.collection.mutable.ArrayBuffer
+
+class RangeBasedShuffle(
+    from: WorkerLayer,
+    to: WorkerLayer,
+    batchSize: Int,
+    keyColumnIndices: Array[Int],
+    descending: Array[Boolean]
+) extends LinkStrategy(from, to, batchSize) {
+
+  // the key samples reported by the senders, each key weighted by the number of
+  // tuples it stands for
+  private val weightedKeys = new ArrayBuffer[(Array[AnyRef], Double)]()
+  private var reportedSenders = 0
+
+  override def getPartitioning: Iterable[
+    (ActorVirtualIdentity, LinkIdentity, Partitioning, Seq[ActorVirtualIdentity])
+  ] = {
+    assert(from.isBuilt && to.isBuilt)
+    from.identifiers.map(x =>
+      (
+        x,
+        id,
+        RangeBasedShufflePartitioning(batchSize, to.identifiers, keyColumnIndices, descending),
+        to.identifiers.toSeq
+      )
+    )
+  }
+
+  def addSample(tupleCount: Long, sample: Array[Array[AnyRef]]): Unit = {
+    reportedSenders += 1
+    if (sample.nonEmpty) {
+      val weight = tupleCount.toDouble / sample.length
+      sample.foreach(key => weightedKeys.append((key, weight)))
+    }
+  }
+
+  def isSampled: Boolean = reportedSenders == from.numWorkers
+
+  /**
+    * Splits the sampled keys into ranges of about the same number of tuples.
+    * @return the upper bounds of the ranges of all receivers but the last.
+    */
+  def computeBoundaries(): Array[Array[AnyRef]] = {
+    val comparator = new KeyComparator(keyColumnIndices, descending)
+    val sorted = weightedKeys.sortBy(_._1)(comparator.keyOrdering)
+    val totalWeight = sorted.map(_._2).sum
+    val boundaries = new ArrayBuffer[Array[AnyRef]]()
+    var cumulativeWeight = 0.0
+    var i = 0
+    while (i < sorted.length && boundaries.length < to.numWorkers - 1) {
+      cumulativeWeight += sorted(i)._2
+      // a key can close several ranges if it accounts for more than one range of tuples
+      while (
+        boundaries.length < to.numWorkers - 1 &&
+        cumulativeWeight >= totalWeight * (boundaries.length + 1) / to.numWorkers
+      ) {
+        boundaries.append(sorted(i)._1)
+      }
+      i += 1
+    }
+    weightedKeys.clear()
+    boundaries.toArray
+  }
+
+}
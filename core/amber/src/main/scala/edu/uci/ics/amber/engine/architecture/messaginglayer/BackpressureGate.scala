@@ -0,0 +1,39 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/** Shared by the DP thread and the network communication actor of a workflow actor.
+  * Counts the data messages the DP thread has sent which still wait for the credits
+  * of their receivers. The DP thread stops producing while the gate is blocked.
+  * @param limit number of waiting data messages which blocks the gate.
+  */
+class BackpressureGate(limit: Int) {
+
+  private val waiting = new AtomicInteger()
+
+  def isBlocked: Boolean = waiting.get() >= limit
+
+  def messageQueued(): Unit = waiting.incrementAndGet()
+
+  def messageSent(): Unit = {
+    if (waiting.getAndDecrement() == limit) {
+      wakeUp()
+    }
+  }
+
+  /** Wakes up the DP thread waiting on this gate, e.g. to process a control command.
+    */
+  def wakeUp(): Unit =
+    synchronized {
+      notifyAll()
+    }
+
+  /** Blocks the calling thread while the gate is blocked, at most for timeoutMs.
+    */
+  def await(timeoutMs: Long): Unit =
+    synchronized {
+      if (isBlocked) {
+        wait(timeoutMs)
+      }
+    }
+}
@@ -4,10 +4,16 @@ import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue
 import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue.{
   EndMarker,
   EndOfAllMarker,
-  InputTuple,
+  InputBatch,
+  InputColumnarBatch,
   SenderChangeMarker
 }
-import edu.uci.ics.amber.engine.common.ambermessage.{DataFrame, DataPayload, EndOfUpstream}
+import edu.uci.ics.amber.engine.common.ambermessage.{
+  ColumnarDataFrame,
+  DataFrame,
+  DataPayload,
+  EndOfUpstream
+}
 import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
 
 import scala.collection.mutable
@@ -22,7 +28,7 @@ class BatchToTupleConverter(workerInternalQueue: WorkerInternalQueue) {
     */
   private val inputMap = new mutable.HashMap[ActorVirtualIdentity, LinkIdentity]
   private val upstreamMap = new mutable.HashMap[LinkIdentity, mutable.HashSet[ActorVirtualIdentity]]
-  private var currentLink: LinkIdentity = _
+  private var currentSender: ActorVirtualIdentity = _
 
   def registerInput(identifier: ActorVirtualIdentity, input: LinkIdentity): Unit = {
     upstreamMap.getOrElseUpdate(input, new mutable.HashSet[ActorVirtualIdentity]()).add(identifier)
@@ -32,26 +38,29 @@ class BatchToTupleConverter(workerInternalQueue: WorkerInternalQueue) {
   /** This method handles various data payloads and put different
     * element into the internal queue.
     * data payloads:
-    * 1. Data Payload, it will be split into tuples and add to the queue.
+    * 1. Data Payload, its tuples are added to the queue as one batch.
     * 2. End Of Upstream, this payload will be received once per upstream actor.
     *    Note that multiple upstream actors can be there for one upstream.
     *    We emit EOU marker when one upstream exhausts. Also, we emit End Of All marker
     *    when ALL upstreams exhausts.
+    * 3. Columnar Data Payload, its batch is added as it is, the rows are only materialized
+    *    for the operators which process one tuple at a time.
+    * A Sender Change marker is added before the payloads of another upstream actor.
     *
     * @param from
     * @param dataPayload
     */
   def processDataPayload(from: ActorVirtualIdentity, dataPayload: DataPayload): Unit = {
     val link = inputMap(from)
-    if (currentLink == null || currentLink != link) {
-      workerInternalQueue.appendElement(SenderChangeMarker(link))
-      currentLink = link
+    if (currentSender == null || currentSender != from) {
+      workerInternalQueue.appendElement(SenderChangeMarker(link, from))
+      currentSender = from
     }
     dataPayload match {
       case DataFrame(payload) =>
-        payload.foreach { i =>
-          workerInternalQueue.appendElement(InputTuple(i))
-        }
+        workerInternalQueue.appendElement(InputBatch(payload))
+      case ColumnarDataFrame(batch) =>
+        workerInternalQueue.appendElement(InputColumnarBatch(batch))
       case EndOfUpstream() =>
         upstreamMap(link).remove(from)
         if (upstreamMap(link).isEmpty) {
@@ -16,6 +16,8 @@ import scala.collection.mutable
 /** This class handles the assignment of sequence numbers to controls
   * The internal logic can send control messages to other actor without knowing
   * where the actor is and without determining the sequence number.
+  * Both the actor thread and the DP thread of a worker send controls, so a sequence number
+  * is taken and its message sent atomically, which also keeps the messages in order.
   */
 class ControlOutputPort(selfID: ActorVirtualIdentity, networkSenderActor: NetworkSenderActorRef) {
 
@@ -23,15 +25,17 @@ class ControlOutputPort(selfID: ActorVirtualIdentity, networkSenderActor: Networ
 
   private val idToSequenceNums = new mutable.AnyRefMap[ActorVirtualIdentity, AtomicLong]()
 
-  def sendTo(to: ActorVirtualIdentity, payload: ControlPayload): Unit = {
-    var receiverId = to
-    if (to == SELF) {
-      // selfID and VirtualIdentity.SELF should be one key
-      receiverId = selfID
+  def sendTo(to: ActorVirtualIdentity, payload: ControlPayload): Unit =
+    synchronized {
+      var receiverId = to
+      if (to == SELF) {
+        // selfID and VirtualIdentity.SELF should be one key
+        receiverId = selfID
+      }
+      val seqNum =
+        idToSequenceNums.getOrElseUpdate(receiverId, new AtomicLong()).getAndIncrement()
+      val msg = WorkflowControlMessage(selfID, seqNum, payload)
+      networkSenderActor ! SendRequest(to, msg)
     }
-    val seqNum = idToSequenceNums.getOrElseUpdate(receiverId, new AtomicLong()).getAndIncrement()
-    val msg = WorkflowControlMessage(selfID, seqNum, payload)
-    networkSenderActor ! SendRequest(to, msg)
-  }
 
 }
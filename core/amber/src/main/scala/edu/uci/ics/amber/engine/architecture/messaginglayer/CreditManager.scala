@@ -0,0 +1,121 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import akka.actor.ActorRef
+import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkAck
+import edu.uci.ics.amber.engine.common.Constants
+
+import scala.collection.mutable
+
+object CreditManager {
+
+  /** Sent by a workflow actor to itself to flush the delayed acks of its CreditManager.
+    */
+  case object FlushNetworkAcks
+
+  private final class SenderState {
+    var receivedUpTo = -1L
+    var unacked = 0
+    // credits the sender still holds, as far as the receiver knows
+    var credits: Int = Constants.initialCredits
+    var sendsData = false
+    // message ID of the end of the sender's data, -1 while it still sends data
+    var endOfDataID = -1L
+  }
+}
+
+/** Receiver side of the credit-based flow control.
+  * Acks the network messages of each sender cumulatively, either after ackBatchSize
+  * messages or when the flush timer fires, and grants each sender credits from
+  * the free space of the receiver. A sender without credits gets an ack as soon as
+  * space becomes available again. A sender stops sharing the free space once its
+  * end of data is received.
+  * @param receiver the actor receiving the messages, acks are sent on its behalf.
+  * @param freeCredits number of data messages the receiver can buffer right now.
+  * @param scheduleFlush schedules a FlushNetworkAcks to the receiver.
+  */
+class CreditManager(
+    receiver: ActorRef,
+    freeCredits: () => Int,
+    scheduleFlush: () => Unit
+) {
+  import CreditManager._
+
+  private val senders = new mutable.HashMap[ActorRef, SenderState]()
+  private var numDataSenders = 0
+  private var flushScheduled = false
+
+  /** @param isEndOfData whether the message ends the data the sender sends to this receiver.
+    */
+  def receive(
+      sender: ActorRef,
+      messageID: Long,
+      isData: Boolean,
+      isEndOfData: Boolean = false
+  ): Unit = {
+    val state = senders.getOrElseUpdate(sender, new SenderState)
+    if (messageID > state.receivedUpTo) {
+      state.receivedUpTo = messageID
+    }
+    state.unacked += 1
+    if (isData) {
+      // a message sent before the end of data can arrive after it
+      if (!state.sendsData && messageID > state.endOfDataID) {
+        state.sendsData = true
+        state.endOfDataID = -1
+        numDataSenders += 1
+      }
+      state.credits -= 1
+    }
+    if (isEndOfData && state.sendsData) {
+      state.sendsData = false
+      state.endOfDataID = messageID
+      numDataSenders -= 1
+    }
+    if (state.unacked >= Constants.ackBatchSize || (state.sendsData && state.credits <= 0)) {
+      ack(sender, state)
+    } else {
+      requestFlush()
+    }
+  }
+
+  /** Acks all senders with unacked messages and re-opens the window of the senders
+    * which ran out of credits. Keeps polling while a sender has no credits.
+    */
+  def flush(): Unit = {
+    flushScheduled = false
+    var waitingForSpace = false
+    senders.foreach {
+      case (sender, state) =>
+        if (state.unacked > 0 || (state.sendsData && state.credits <= 0 && grant() > 0)) {
+          ack(sender, state)
+        }
+        waitingForSpace |= state.sendsData && state.credits <= 0
+    }
+    if (waitingForSpace) {
+      requestFlush()
+    }
+  }
+
+  private[this] def ack(sender: ActorRef, state: SenderState): Unit = {
+    val credits = grant()
+    sender.tell(NetworkAck(state.receivedUpTo, credits), receiver)
+    state.credits = credits
+    state.unacked = 0
+    if (credits <= 0) {
+      requestFlush()
+    }
+  }
+
+  // splits the free space among the data senders, at least one credit while there is space
+  private[this] def grant(): Int = {
+    val free = freeCredits()
+    if (free <= 0) 0 else math.max(1, free / math.max(1, numDataSenders))
+  }
+
+  private[this] def requestFlush(): Unit = {
+    if (!flushScheduled) {
+      flushScheduled = true
+      scheduleFlush()
+    }
+  }
+}
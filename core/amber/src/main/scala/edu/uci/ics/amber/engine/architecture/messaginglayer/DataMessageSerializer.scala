@@ -0,0 +1,88 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import akka.actor.ExtendedActorSystem
+import akka.serialization.{SerializationExtension, Serializer}
+import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkMessage
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.ambermessage.{WorkflowDataMessage, WorkflowMessage}
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+
+import java.io.{
+  ByteArrayInputStream,
+  ByteArrayOutputStream,
+  DataInput,
+  DataInputStream,
+  DataOutput,
+  DataOutputStream
+}
+
+object DataMessageSerializer {
+  // kinds of messages
+  private final val DATA_MESSAGE = 0
+  private final val NETWORK_DATA_MESSAGE = 1
+  private final val NETWORK_OTHER_MESSAGE = 2
+}
+
+/** Akka serializer of the data messages exchanged by workers, bound to WorkflowDataMessage
+  * and to the NetworkMessage envelope it travels in. Payloads are encoded by the
+  * DataPayloadCodec, the other messages of an envelope are delegated to the serializer
+  * Akka binds to them.
+  */
+class DataMessageSerializer(system: ExtendedActorSystem) extends Serializer {
+  import DataMessageSerializer._
+
+  private lazy val codec = new DataPayloadCodec(SerializationExtension(system))
+
+  override def identifier: Int = 7301
+
+  override def includeManifest: Boolean = false
+
+  override def toBinary(obj: AnyRef): Array[Byte] = {
+    val buffer = new ByteArrayOutputStream(256)
+    val out = new DataOutputStream(buffer)
+    obj match {
+      case message: WorkflowDataMessage =>
+        out.writeByte(DATA_MESSAGE)
+        writeDataMessage(out, message)
+      case NetworkMessage(messageID, message: WorkflowDataMessage) =>
+        out.writeByte(NETWORK_DATA_MESSAGE)
+        BatchSpillFile.writeZigZag(out, messageID)
+        writeDataMessage(out, message)
+      case NetworkMessage(messageID, message) =>
+        out.writeByte(NETWORK_OTHER_MESSAGE)
+        BatchSpillFile.writeZigZag(out, messageID)
+        codec.writeObject(out, message)
+      case other =>
+        throw new IllegalArgumentException(s"cannot serialize ${other.getClass}")
+    }
+    out.flush()
+    buffer.toByteArray
+  }
+
+  override def fromBinary(bytes: Array[Byte], manifest: Option[Class[_]]): AnyRef = {
+    val in = new DataInputStream(new ByteArrayInputStream(bytes))
+    in.readByte().toInt match {
+      case DATA_MESSAGE =>
+        readDataMessage(in)
+      case NETWORK_DATA_MESSAGE =>
+        NetworkMessage(BatchSpillFile.readZigZag(in), readDataMessage(in))
+      case NETWORK_OTHER_MESSAGE =>
+        val messageID = BatchSpillFile.readZigZag(in)
+        NetworkMessage(messageID, codec.readObject(in).asInstanceOf[WorkflowMessage])
+      case kind =>
+        throw new IllegalArgumentException(s"unknown message kind $kind")
+    }
+  }
+
+  private[this] def writeDataMessage(out: DataOutput, message: WorkflowDataMessage): Unit = {
+    out.writeUTF(message.from.name)
+    BatchSpillFile.writeZigZag(out, message.sequenceNumber)
+    codec.write(out, message.payload)
+  }
+
+  private[this] def readDataMessage(in: DataInput): WorkflowDataMessage = {
+    val from = ActorVirtualIdentity(in.readUTF())
+    val sequenceNumber = BatchSpillFile.readZigZag(in)
+    WorkflowDataMessage(from, sequenceNumber, codec.read(in))
+  }
+}
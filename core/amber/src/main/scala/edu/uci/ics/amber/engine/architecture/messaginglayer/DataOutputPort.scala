@@ -16,7 +16,11 @@ import scala.collection.mutable
   * The internal logic can send data messages to other actor without knowing
   * where the actor is and without determining the sequence number.
   */
-class DataOutputPort(selfID: ActorVirtualIdentity, networkSenderActor: NetworkSenderActorRef) {
+class DataOutputPort(
+    selfID: ActorVirtualIdentity,
+    networkSenderActor: NetworkSenderActorRef,
+    backpressureGate: BackpressureGate
+) {
 
   private val idToSequenceNums = new mutable.AnyRefMap[ActorVirtualIdentity, AtomicLong]()
 
@@ -32,6 +36,7 @@ class DataOutputPort(selfID: ActorVirtualIdentity, networkSenderActor: NetworkSe
       idToSequenceNums.getOrElseUpdate(to, new AtomicLong()).getAndIncrement(),
       payload
     )
+    backpressureGate.messageQueued()
     networkSenderActor ! SendRequest(to, msg)
   }
 
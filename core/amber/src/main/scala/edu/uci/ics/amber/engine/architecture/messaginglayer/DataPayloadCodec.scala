@@ -0,0 +1,111 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import akka.serialization.{Serialization, Serializers}
+import edu.uci.ics.amber.engine.architecture.worker.{TupleReader, TupleWriter}
+import edu.uci.ics.amber.engine.common.ambermessage.{
+  ColumnarDataFrame,
+  DataFrame,
+  DataPayload,
+  EndOfUpstream
+}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+
+import java.io.{DataInput, DataOutput}
+
+object DataPayloadCodec {
+  // kinds of payloads
+  private final val END_OF_UPSTREAM = 0
+  private final val FRAME = 1
+  private final val COLUMNAR_BATCH = 2
+}
+
+/** Binary encoding of data payloads, used by the DataMessageSerializer.
+  *
+  * The tuples of a payload are written by a TupleWriter, in the format of the spill files:
+  * a tag per field, and the schema of texera tuples only when it changes, so once per frame
+  * whose tuples share a schema. The rows of a columnar batch are written the same way and
+  * read back into columns.
+  *
+  * The schema travels with every frame rather than being replaced by an id the receiver
+  * has acknowledged: Akka serializes each message on its own without knowing its recipient,
+  * and a message can be resent, or reach a worker that restarted, after the sender has
+  * moved on. A frame must therefore be readable on its own.
+  *
+  * Values of other types are delegated to the serializer Akka binds to them.
+  * This class is thread-safe.
+  */
+class DataPayloadCodec(serialization: Serialization) {
+  import DataPayloadCodec._
+
+  private[this] val writeObjectField: (DataOutput, AnyRef) => Unit = writeObject
+  private[this] val readObjectField: DataInput => AnyRef = readObject
+
+  def write(out: DataOutput, payload: DataPayload): Unit = {
+    payload match {
+      case EndOfUpstream() =>
+        out.writeByte(END_OF_UPSTREAM)
+      case DataFrame(frame) =>
+        out.writeByte(FRAME)
+        out.writeInt(frame.length)
+        val tupleWriter = new TupleWriter(out, writeObjectField)
+        frame.foreach(tupleWriter.write)
+      case ColumnarDataFrame(batch) =>
+        out.writeByte(COLUMNAR_BATCH)
+        out.writeInt(batch.rowCount)
+        val tupleWriter = new TupleWriter(out, writeObjectField)
+        var row = 0
+        while (row < batch.rowCount) {
+          tupleWriter.write(batch, row)
+          row += 1
+        }
+    }
+  }
+
+  def read(in: DataInput): DataPayload = {
+    in.readByte().toInt match {
+      case END_OF_UPSTREAM =>
+        EndOfUpstream()
+      case FRAME =>
+        val tupleReader = new TupleReader(in, readObjectField)
+        DataFrame(Array.fill[ITuple](in.readInt())(tupleReader.read()))
+      case COLUMNAR_BATCH =>
+        val rowCount = in.readInt()
+        val tupleReader = new TupleReader(in, readObjectField)
+        var builder: ColumnarBatchBuilder = null
+        (0 until rowCount).foreach { _ =>
+          val tuple = tupleReader.read().asInstanceOf[Tuple]
+          if (builder == null) {
+            builder = new ColumnarBatchBuilder(tuple.getSchema, rowCount)
+          }
+          builder.append(tuple)
+        }
+        if (builder == null) {
+          throw new IllegalArgumentException("empty columnar batch")
+        }
+        ColumnarDataFrame(builder.build())
+      case kind =>
+        throw new IllegalArgumentException(s"unknown data payload kind $kind")
+    }
+  }
+
+  /** writes an object with the serializer Akka binds to its class.
+    */
+  def writeObject(out: DataOutput, obj: AnyRef): Unit = {
+    val serializer = serialization.findSerializerFor(obj)
+    out.writeInt(serializer.identifier)
+    out.writeUTF(Serializers.manifestFor(serializer, obj))
+    val bytes = serializer.toBinary(obj)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  def readObject(in: DataInput): AnyRef = {
+    val serializerID = in.readInt()
+    val manifest = in.readUTF()
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    serialization.deserialize(bytes, serializerID, manifest).get
+  }
+}
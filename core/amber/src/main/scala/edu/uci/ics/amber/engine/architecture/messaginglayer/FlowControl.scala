@@ -0,0 +1,99 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkMessage
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.ambermessage.{WorkflowDataMessage, WorkflowMessage}
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+object FlowControl {
+  private final class InTransitMessage(val message: NetworkMessage, var sentTime: Long)
+}
+
+/** Sender side of the credit-based flow control of one output channel.
+  * The receiver grants credits for the data messages it can buffer, together with
+  * a cumulative ack of the messages it received. Data messages beyond the credits wait
+  * here until the receiver grants more, control messages never wait for credits.
+  */
+class FlowControl {
+  import FlowControl._
+
+  // if the ack for a message is not received after 60s,
+  // we trigger the resending logic.
+  // Note that the resend is not guaranteed to happen
+  // after sending the message for 60s
+  final val resendTimeLimit = 60000 // 60s
+
+  // number of data messages that can be in transit after the last acked message
+  private var credits = Constants.initialCredits
+  private var ackedUpTo = -1L
+  private var dataInTransit = 0
+
+  private val toBeSent = new mutable.Queue[WorkflowMessage]
+  // ordered by message ID since IDs are assigned when a message is sent
+  private val inTransit = new mutable.Queue[InTransitMessage]
+
+  def canSend(message: WorkflowMessage): Boolean = {
+    message match {
+      case _: WorkflowDataMessage => toBeSent.isEmpty && dataInTransit < credits
+      case _                      => true
+    }
+  }
+
+  def enqueueMessage(message: WorkflowMessage): Unit = {
+    toBeSent.enqueue(message)
+  }
+
+  def markMessageInTransit(message: NetworkMessage): Unit = {
+    inTransit.enqueue(new InTransitMessage(message, System.currentTimeMillis()))
+    if (message.internalMessage.isInstanceOf[WorkflowDataMessage]) {
+      dataInTransit += 1
+    }
+  }
+
+  /** Acks all messages up to the given ID and replaces the credits of this channel.
+    * @param messageID the last message the receiver received.
+    * @param newCredits number of data messages the receiver accepts after that message.
+    */
+  def ack(messageID: Long, newCredits: Int): Unit = {
+    if (messageID < ackedUpTo) return
+    ackedUpTo = messageID
+    credits = newCredits
+    while (inTransit.nonEmpty && inTransit.head.message.messageID <= messageID) {
+      if (inTransit.dequeue().message.internalMessage.isInstanceOf[WorkflowDataMessage]) {
+        dataInTransit -= 1
+      }
+    }
+  }
+
+  /** @return the waiting data messages which the current credits allow to send.
+    */
+  def getBufferedMessagesToSend: Iterable[WorkflowMessage] = {
+    val messages = new ArrayBuffer[WorkflowMessage]()
+    while (toBeSent.nonEmpty && dataInTransit + messages.length < credits) {
+      messages.append(toBeSent.dequeue())
+    }
+    messages
+  }
+
+  def isInTransit(messageID: Long): Boolean = inTransit.exists(_.message.messageID == messageID)
+
+  def getTimedOutInTransitMessages: Iterable[NetworkMessage] = {
+    val now = System.currentTimeMillis()
+    inTransit.filter(_.sentTime < now - resendTimeLimit).map { msg =>
+      msg.sentTime = now
+      msg.message
+    }
+  }
+
+  def getInTransitMessages: Iterable[NetworkMessage] = {
+    inTransit.map(_.message)
+  }
+
+  def getStatusReport: String = {
+    s"credits = $credits \t data in transit = $dataInTransit \t " +
+      s"in transit = ${inTransit.size} \t waiting = ${toBeSent.size}"
+  }
+
+}
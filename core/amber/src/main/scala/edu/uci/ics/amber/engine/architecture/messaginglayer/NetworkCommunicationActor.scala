@@ -3,7 +3,7 @@ package edu.uci.ics.amber.engine.architecture.messaginglayer
 import akka.actor.{Actor, ActorRef, Cancellable, Props}
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor._
 import edu.uci.ics.amber.engine.common.WorkflowLogger
-import edu.uci.ics.amber.engine.common.ambermessage.WorkflowMessage
+import edu.uci.ics.amber.engine.common.ambermessage.{WorkflowDataMessage, WorkflowMessage}
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import edu.uci.ics.amber.engine.common.virtualidentity.util.SELF
 import edu.uci.ics.amber.error.WorkflowRuntimeError
@@ -13,8 +13,12 @@ import scala.concurrent.duration._
 
 object NetworkCommunicationActor {
 
-  def props(parentSender: ActorRef, workerLogger: WorkflowLogger): Props =
-    Props(new NetworkCommunicationActor(parentSender, workerLogger))
+  def props(
+      parentSender: ActorRef,
+      workerLogger: WorkflowLogger,
+      backpressureGate: BackpressureGate
+  ): Props =
+    Props(new NetworkCommunicationActor(parentSender, workerLogger, backpressureGate))
 
   /** to distinguish between main actor self ref and
     * network sender actor
@@ -41,11 +45,12 @@ object NetworkCommunicationActor {
     */
   final case class NetworkMessage(messageID: Long, internalMessage: WorkflowMessage)
 
-  /** Ack for NetworkMessage
+  /** Cumulative ack for NetworkMessages, sent by the receiving actor
     * note that it should NEVER be handled by the main thread
-    * @param messageID
+    * @param messageID the last message received from the network communication actor
+    * @param credits number of data messages the receiver accepts after that message
     */
-  final case class NetworkAck(messageID: Long)
+  final case class NetworkAck(messageID: Long, credits: Int)
 
   final case class ResendMessages()
 
@@ -56,13 +61,18 @@ object NetworkCommunicationActor {
   * and also sends message to other actors. This is the most outer part of
   * the messaging layer.
   */
-class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogger) extends Actor {
+class NetworkCommunicationActor(
+    parentRef: ActorRef,
+    workerLogger: WorkflowLogger,
+    backpressureGate: BackpressureGate
+) extends Actor {
 
   val idToActorRefs = new mutable.HashMap[ActorVirtualIdentity, ActorRef]()
-  val idToCongestionControls = new mutable.HashMap[ActorVirtualIdentity, CongestionControl]()
+  // acks come from the receiving actor, which might be known under several identifiers
+  val actorRefToIds = new mutable.HashMap[ActorRef, mutable.Set[ActorVirtualIdentity]]()
+  val idToFlowControls = new mutable.HashMap[ActorVirtualIdentity, FlowControl]()
   val queriedActorVirtualIdentities = new mutable.HashSet[ActorVirtualIdentity]()
   val messageStash = new mutable.HashMap[ActorVirtualIdentity, mutable.Queue[WorkflowMessage]]
-  val messageIDToIdentity = new mutable.LongMap[ActorVirtualIdentity]
   //register timer for resending messages
   val resendHandle: Cancellable = context.system.scheduler.schedule(
     30.seconds,
@@ -72,10 +82,11 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
   )(context.dispatcher)
 
   //add parent actor into idMap
-  idToActorRefs(SELF) = context.parent
+  setActorRef(SELF, context.parent)
 
   /** keeps track of every outgoing message.
-    * Each message is identified by this monotonic increasing ID.
+    * Each message is identified by this monotonic increasing ID,
+    * assigned when the message is sent so that the receiver can ack cumulatively.
     * It's different from the sequence number and it will only
     * be used by the output gate.
     */
@@ -113,16 +124,26 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
     * otherwise it asks parent for help.
     */
   def forwardMessage(to: ActorVirtualIdentity, msg: WorkflowMessage): Unit = {
-    val congestionControl = idToCongestionControls.getOrElseUpdate(to, new CongestionControl())
-    val data = NetworkMessage(networkMessageID, msg)
-    messageIDToIdentity(networkMessageID) = to
-    if (congestionControl.canSend) {
-      congestionControl.markMessageInTransit(data)
-      sendOrGetActorRef(to, data)
+    val flowControl = idToFlowControls.getOrElseUpdate(to, new FlowControl())
+    if (flowControl.canSend(msg)) {
+      sendMessage(to, flowControl, msg)
     } else {
-      congestionControl.enqueueMessage(data)
+      flowControl.enqueueMessage(msg)
     }
+  }
+
+  def sendMessage(
+      to: ActorVirtualIdentity,
+      flowControl: FlowControl,
+      msg: WorkflowMessage
+  ): Unit = {
+    val data = NetworkMessage(networkMessageID, msg)
     networkMessageID += 1
+    flowControl.markMessageInTransit(data)
+    if (msg.isInstanceOf[WorkflowDataMessage]) {
+      backpressureGate.messageSent()
+    }
+    sendOrGetActorRef(to, data)
   }
 
   /** Add one mapping from Identifier to ActorRef into its state.
@@ -131,7 +152,7 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
     * @param ref
     */
   def registerActorRef(actorID: ActorVirtualIdentity, ref: ActorRef): Unit = {
-    idToActorRefs(actorID) = ref
+    setActorRef(actorID, ref)
     if (messageStash.contains(actorID)) {
       val stash = messageStash(actorID)
       while (stash.nonEmpty) {
@@ -149,17 +170,20 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
         stash.enqueue(msg)
         getActorRefMappingFromParent(id)
       }
-    case NetworkAck(id) =>
-      val actorID = messageIDToIdentity(id)
-      val congestionControl = idToCongestionControls(actorID)
-      congestionControl.ack(id)
-      congestionControl.getBufferedMessagesToSend.foreach { msg =>
-        congestionControl.markMessageInTransit(msg)
-        sendOrGetActorRef(actorID, msg)
+    case NetworkAck(id, credits) =>
+      actorRefToIds.get(sender()).foreach { actorIDs =>
+        actorIDs.foreach { actorID =>
+          idToFlowControls.get(actorID).foreach { flowControl =>
+            flowControl.ack(id, credits)
+            flowControl.getBufferedMessagesToSend.foreach { msg =>
+              sendMessage(actorID, flowControl, msg)
+            }
+          }
+        }
       }
     case ResendMessages =>
       queriedActorVirtualIdentities.clear()
-      idToCongestionControls.foreach {
+      idToFlowControls.foreach {
         case (actorID, ctrl) =>
           val msgsNeedResend = ctrl.getTimedOutInTransitMessages
           if (msgsNeedResend.nonEmpty) {
@@ -172,11 +196,13 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
     case MessageBecomesDeadLetter(msg) =>
       // only remove the mapping from id to actorRef
       // to trigger discover mechanism
-      val actorID = messageIDToIdentity(msg.messageID)
-      workerLogger.logWarning(s"actor for $actorID might have crashed or failed")
-      idToActorRefs.remove(actorID)
-      if (parentRef != null) {
-        getActorRefMappingFromParent(actorID)
+      idToFlowControls.find(_._2.isInTransit(msg.messageID)).foreach {
+        case (actorID, _) =>
+          workerLogger.logWarning(s"actor for $actorID might have crashed or failed")
+          idToActorRefs.remove(actorID).foreach(ref => actorRefToIds.get(ref).foreach(_ -= actorID))
+          if (parentRef != null) {
+            getActorRefMappingFromParent(actorID)
+          }
       }
   }
 
@@ -189,6 +215,13 @@ class NetworkCommunicationActor(parentRef: ActorRef, workerLogger: WorkflowLogge
     workerLogger.logInfo(s"network communication actor stopped!")
   }
 
+  private[this] def setActorRef(actorID: ActorVirtualIdentity, ref: ActorRef): Unit = {
+    idToActorRefs
+      .put(actorID, ref)
+      .foreach(oldRef => actorRefToIds.get(oldRef).foreach(_ -= actorID))
+    actorRefToIds.getOrElseUpdate(ref, new mutable.HashSet[ActorVirtualIdentity]()) += actorID
+  }
+
   @inline
   private[this] def sendOrGetActorRef(actorID: ActorVirtualIdentity, msg: NetworkMessage): Unit = {
     if (idToActorRefs.contains(actorID)) {
@@ -1,14 +1,15 @@
 package edu.uci.ics.amber.engine.architecture.messaginglayer
 
 import akka.actor.ActorRef
-import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkAck
 import edu.uci.ics.amber.engine.common.WorkflowLogger
+import edu.uci.ics.amber.engine.common.ambermessage.{DataPayload, EndOfUpstream}
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 
 import scala.collection.mutable
 
 class NetworkInputPort[T](
     val logger: WorkflowLogger,
+    val creditManager: CreditManager,
     val handler: (ActorVirtualIdentity, T) => Unit
 ) {
 
@@ -22,7 +23,12 @@ class NetworkInputPort[T](
       sequenceNumber: Long,
       payload: T
   ): Unit = {
-    sender ! NetworkAck(messageID)
+    creditManager.receive(
+      sender,
+      messageID,
+      payload.isInstanceOf[DataPayload],
+      payload.isInstanceOf[EndOfUpstream]
+    )
 
     OrderingEnforcer.reorderMessage[T](
       idToOrderingEnforcers,
@@ -4,6 +4,7 @@ import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.{
   HashBasedShufflePartitioner,
   OneToOnePartitioner,
   Partitioner,
+  RangeBasedShufflePartitioner,
   RoundRobinPartitioner
 }
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings._
@@ -36,6 +37,8 @@ class TupleToBatchConverter(
         RoundRobinPartitioner(roundRobinPartitioning)
       case hashBasedShufflePartitioning: HashBasedShufflePartitioning =>
         HashBasedShufflePartitioner(hashBasedShufflePartitioning)
+      case rangeBasedShufflePartitioning: RangeBasedShufflePartitioning =>
+        RangeBasedShufflePartitioner(rangeBasedShufflePartitioning)
     }
 
     // update the existing partitioners.
@@ -56,6 +59,76 @@ class TupleToBatchConverter(
     )
   }
 
+  /**
+    * Number of heavy hitter keys the partitioners are currently splitting.
+    */
+  def hotKeyCount: Int = partitioners.valuesIterator.map(_.hotKeyCount).sum
+
+  /**
+    * The keys the hash shuffles split because they are hot, to report at the end of the output.
+    * @return (link, hashes of the split keys) of each hash shuffle which splits hot keys.
+    */
+  def hotKeyReports: Iterable[(LinkIdentity, Array[Int])] = {
+    partitioners.collect {
+      case (link, partitioner: HashBasedShufflePartitioner) if partitioner.isSplittingHotKeys =>
+        (link, partitioner.getHotKeys)
+    }
+  }
+
+  /**
+    * Pass the keys split by the paired link to a hash shuffle which replicates them,
+    * and send the tuples it buffered while it waited for them.
+    */
+  def setHotKeys(link: LinkIdentity, hotKeys: Array[Int]): Unit = {
+    partitioners(link)
+      .asInstanceOf[HashBasedShufflePartitioner]
+      .setHotKeys(hotKeys) foreach tupled((to, batch) => dataOutputPort.sendTo(to, batch))
+  }
+
+  def isAwaitingHotKeys: Boolean =
+    partitioners.valuesIterator.exists {
+      case partitioner: HashBasedShufflePartitioner => partitioner.isAwaitingHotKeys
+      case _                                        => false
+    }
+
+  /**
+    * The key samples of the range shuffles which wait for their boundaries.
+    * @return (link, number of tuples buffered, sample of their keys) of each such link.
+    */
+  def rangeSamples: Iterable[(LinkIdentity, Long, Array[Array[AnyRef]])] = {
+    partitioners.collect {
+      case (link, partitioner: RangeBasedShufflePartitioner)
+          if partitioner.isAwaitingBoundaries =>
+        val (tupleCount, sample) = partitioner.getSample
+        (link, tupleCount, sample)
+    }
+  }
+
+  def setRangeBoundaries(link: LinkIdentity, boundaries: Array[Array[AnyRef]]): Unit = {
+    partitioners(link).asInstanceOf[RangeBasedShufflePartitioner].setBoundaries(boundaries)
+  }
+
+  def isAwaitingRangeBoundaries: Boolean =
+    partitioners.valuesIterator.exists {
+      case partitioner: RangeBasedShufflePartitioner => partitioner.isAwaitingBoundaries
+      case _                                         => false
+    }
+
+  /**
+    * Send the tuples the range shuffles buffered while they waited for their boundaries.
+    * @param afterBatch called after each batch is sent, e.g. to wait for credits.
+    */
+  def drainRangeBuffers(afterBatch: () => Unit): Unit = {
+    partitioners.valuesIterator.foreach {
+      case partitioner: RangeBasedShufflePartitioner =>
+        partitioner.drainBuffered() foreach tupled { (to, batch) =>
+          dataOutputPort.sendTo(to, batch)
+          afterBatch()
+        }
+      case _ =>
+    }
+  }
+
   /* Old API: for compatibility */
   @deprecated
   def resetPolicies(): Unit = {
@@ -1,15 +1,30 @@
 package edu.uci.ics.amber.engine.architecture.principal
 
+import edu.uci.ics.amber.engine.architecture.worker.WorkerMetrics
+import edu.uci.ics.amber.engine.common.ResultChange
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.texera.workflow.common.IncrementalOutputMode
 
 case class OperatorStatistics(
     operatorState: OperatorState,
     aggregatedInputRowCount: Long,
-    aggregatedOutputRowCount: Long
+    aggregatedOutputRowCount: Long,
+    // the metrics of all the workers of the operator merged
+    metrics: WorkerMetrics = WorkerMetrics(),
+    // the recent throughput of the operator, oldest first
+    throughput: List[ThroughputSample] = List()
 )
 
+// the rows an operator processed per second over the interval ending at timeMs
+case class ThroughputSample(timeMs: Long, inputRowsPerSecond: Double, outputRowsPerSecond: Double)
+
 case class OperatorResult(
     outputMode: IncrementalOutputMode,
     result: List[ITuple]
 )
+
+// the changes to the result of an operator, in the order the controller applied them
+case class OperatorResultUpdate(
+    outputMode: IncrementalOutputMode,
+    changes: List[ResultChange]
+)
@@ -0,0 +1,39 @@
+package edu.uci.ics.amber.engine.architecture.principal
+
+import edu.uci.ics.amber.engine.common.Constants
+
+import scala.collection.mutable
+
+/**
+  * The throughput of an operator over time, computed from the row counts of its statistics.
+  * A sample is taken at most every Constants.throughputSampleIntervalMs, and only the last
+  * Constants.throughputSeriesLength samples are kept.
+  */
+class ThroughputSeries {
+
+  private val samples = new mutable.Queue[ThroughputSample]()
+  private var lastTimeMs = -1L
+  private var lastInputRowCount = 0L
+  private var lastOutputRowCount = 0L
+
+  def add(timeMs: Long, inputRowCount: Long, outputRowCount: Long): Unit = {
+    if (lastTimeMs < 0 || timeMs - lastTimeMs >= Constants.throughputSampleIntervalMs) {
+      if (lastTimeMs >= 0) {
+        val seconds = (timeMs - lastTimeMs) / 1000.0
+        samples += ThroughputSample(
+          timeMs,
+          (inputRowCount - lastInputRowCount) / seconds,
+          (outputRowCount - lastOutputRowCount) / seconds
+        )
+        while (samples.size > Constants.throughputSeriesLength) {
+          samples.dequeue()
+        }
+      }
+      lastTimeMs = timeMs
+      lastInputRowCount = inputRowCount
+      lastOutputRowCount = outputRowCount
+    }
+  }
+
+  def getSamples: List[ThroughputSample] = samples.toList
+}
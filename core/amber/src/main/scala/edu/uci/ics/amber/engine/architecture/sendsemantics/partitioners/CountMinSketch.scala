@@ -0,0 +1,48 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import scala.util.hashing.MurmurHash3
+
+/**
+  * A count-min sketch over 32-bit key hashes. Estimates never under-count a key,
+  * and over-count it by at most totalCount * e / width with probability 1 - e^-depth.
+  * @param depth number of hash rows.
+  * @param width number of counters per row, must be a power of 2.
+  */
+class CountMinSketch(depth: Int, width: Int) extends Serializable {
+  require(Integer.bitCount(width) == 1, "width of a count-min sketch must be a power of 2")
+
+  private[this] val counts = new Array[Long](depth * width)
+  private[this] var total = 0L
+
+  def totalCount: Long = total
+
+  /**
+    * Counts one occurrence of the key.
+    * @return the estimated count of the key after adding it.
+    */
+  def add(keyHash: Int): Long = {
+    total += 1
+    var estimate = Long.MaxValue
+    var row = 0
+    while (row < depth) {
+      val slot = row * width + column(row, keyHash)
+      counts(slot) += 1
+      estimate = math.min(estimate, counts(slot))
+      row += 1
+    }
+    estimate
+  }
+
+  def estimate(keyHash: Int): Long = {
+    var estimate = Long.MaxValue
+    var row = 0
+    while (row < depth) {
+      estimate = math.min(estimate, counts(row * width + column(row, keyHash)))
+      row += 1
+    }
+    estimate
+  }
+
+  private[this] def column(row: Int, keyHash: Int): Int =
+    MurmurHash3.finalizeHash(MurmurHash3.mix(row, keyHash), 1) & (width - 1)
+}
@@ -0,0 +1,83 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.common.ambermessage.{ColumnarDataFrame, DataFrame, DataPayload}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+
+/**
+  * Accumulates the tuples going to one receiver into a data payload.
+  * Texera tuples that share one schema are appended straight into a
+  * ColumnarBatchBuilder and shipped as a ColumnarDataFrame. Any other tuple
+  * (e.g. a plain AmberTuple, or a tuple with a different schema in the same batch)
+  * switches the current batch back to a row-based DataFrame.
+  * @param batchSize maximum number of tuples in one payload.
+  */
+class DataFrameBuilder(batchSize: Int) {
+  private var columnarBuilder: ColumnarBatchBuilder = _
+  private var rows: Array[ITuple] = _
+  private var size = 0
+
+  def currentSize: Int = size
+
+  def isEmpty: Boolean = size == 0
+
+  /**
+    * Adds a tuple to the current batch.
+    * @return true if the batch is full and should be built.
+    */
+  def add(tuple: ITuple): Boolean = {
+    if (rows == null) {
+      tuple match {
+        case texeraTuple: Tuple =>
+          if (columnarBuilder == null || !columnarBuilder.accepts(texeraTuple)) {
+            if (size == 0) {
+              columnarBuilder = new ColumnarBatchBuilder(texeraTuple.getSchema, batchSize)
+            } else {
+              switchToRows()
+            }
+          }
+        case _ =>
+          switchToRows()
+      }
+    }
+    if (rows == null) {
+      columnarBuilder.append(tuple.asInstanceOf[Tuple])
+    } else {
+      rows(size) = tuple
+    }
+    size += 1
+    size == batchSize
+  }
+
+  /**
+    * Returns the accumulated tuples as a payload and resets the builder.
+    */
+  def build(): DataPayload = {
+    val payload =
+      if (rows == null) {
+        ColumnarDataFrame(columnarBuilder.build())
+      } else if (size == batchSize) {
+        DataFrame(rows)
+      } else {
+        DataFrame(rows.slice(0, size))
+      }
+    rows = null
+    size = 0
+    payload
+  }
+
+  def reset(): Unit = {
+    columnarBuilder = null
+    rows = null
+    size = 0
+  }
+
+  private[this] def switchToRows(): Unit = {
+    val switched = new Array[ITuple](batchSize)
+    if (size > 0) {
+      columnarBuilder.build().toArray.copyToArray(switched)
+    }
+    rows = switched
+  }
+}
@@ -1,16 +1,175 @@
 package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
 
-import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.HashBasedShufflePartitioning
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning,
+  ReplicateHotKeys,
+  SplitHotKeys
+}
+import edu.uci.ics.amber.engine.common.ambermessage.DataPayload
 import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.Schema
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+object HashBasedShufflePartitioner {
+  // on average one out of sampleInterval tuples is counted in the count-min sketch
+  val sampleInterval = 16
+  // no key is considered hot before this many tuples have been sampled
+  val minSamples = 256
+  val maxHotKeys = 64
+}
 
 case class HashBasedShufflePartitioner(partitioning: HashBasedShufflePartitioning)
     extends ParallelBatchingPartitioner() {
+  import HashBasedShufflePartitioner._
+
+  private[this] val numReceivers = partitioning.receivers.length
+  private[this] val genericHasher = new GenericKeyHasher(partitioning.hashColumnIndices)
+  // hasher specialized on the key types of the last seen texera schema
+  private[this] var hasherSchema: Schema = _
+  private[this] var schemaHasher: KeyHasher = _
+
+  private[this] val splitFanout = partitioning.skewHandling match {
+    case SplitHotKeys(fanout) => math.min(fanout, numReceivers)
+    case _                    => 1
+  }
+  private[this] val replicas = partitioning.skewHandling match {
+    case ReplicateHotKeys(fanout) => math.min(fanout, numReceivers)
+    case _                        => 1
+  }
+  private[this] val sketch = if (splitFanout > 1) new CountMinSketch(4, 1024) else null
+  // randomized gap between samples, a fixed gap could alias with periodic key patterns
+  private[this] val random = new java.util.SplittableRandom()
+  private[this] var nextSample = sampleInterval
+  private[this] val hotKeys = new Array[Int](maxHotKeys)
+  private[this] var numHotKeys = 0
+  private[this] var splitIndex = 0
+
+  // hashes of the keys split by the paired SplitHotKeys link, null until they are known.
+  // without replicas there is nothing to wait for.
+  private[this] var replicatedKeys: mutable.HashSet[Int] =
+    if (replicas == 1) mutable.HashSet() else null
+  // tuples added before the replicated keys are known
+  private[this] val buffer = new ArrayBuffer[ITuple]()
+
+  override def hotKeyCount: Int = numHotKeys
+
+  /**
+    * Whether this partitioner splits hot keys, and has to report them at the end of its output.
+    */
+  def isSplittingHotKeys: Boolean = splitFanout > 1
+
+  /**
+    * @return the hashes of the keys this partitioner split.
+    */
+  def getHotKeys: Array[Int] = hotKeys.take(numHotKeys)
+
+  def isAwaitingHotKeys: Boolean = replicatedKeys == null
+
+  /**
+    * @param hotKeys the hashes of the keys split by the paired SplitHotKeys link.
+    * @return the batches of the tuples buffered so far which are ready to be sent.
+    */
+  def setHotKeys(hotKeys: Array[Int]): Iterable[(ActorVirtualIdentity, DataPayload)] = {
+    replicatedKeys = mutable.HashSet(hotKeys: _*)
+    val readyBatches = buffer.flatMap(addTupleToBatch)
+    buffer.clear()
+    readyBatches
+  }
+
   override def selectBatchingIndex(tuple: ITuple): Int = {
-    val numBuckets = partitioning.receivers.length
+    val hash = hasherFor(tuple).hash(tuple)
+    val index = Math.floorMod(hash, numReceivers)
+    if (splitFanout > 1 && isHotKey(hash)) {
+      splitIndex = (splitIndex + 1) % splitFanout
+      (index + splitIndex) % numReceivers
+    } else {
+      index
+    }
+  }
+
+  override def addTupleToBatch(tuple: ITuple): Iterable[(ActorVirtualIdentity, DataPayload)] = {
+    if (replicas == 1) {
+      return super.addTupleToBatch(tuple)
+    }
+    if (replicatedKeys == null) {
+      buffer.append(tuple)
+      return Iterable.empty
+    }
+    val hash = hasherFor(tuple).hash(tuple)
+    val index = Math.floorMod(hash, numReceivers)
+    if (!replicatedKeys.contains(hash)) {
+      if (batches(index).add(tuple)) {
+        return Iterable((partitioning.receivers(index), batches(index).build()))
+      }
+      return Iterable.empty
+    }
+    val readyBatches = new ArrayBuffer[(ActorVirtualIdentity, DataPayload)]()
+    var i = 0
+    while (i < replicas) {
+      val replica = (index + i) % numReceivers
+      if (batches(replica).add(tuple)) {
+        readyBatches.append((partitioning.receivers(replica), batches(replica).build()))
+      }
+      i += 1
+    }
+    readyBatches
+  }
+
+  override def noMore(): Array[(ActorVirtualIdentity, DataPayload)] = {
+    assert(replicatedKeys != null)
+    super.noMore()
+  }
+
+  override def reset(): Unit = {
+    super.reset()
+    buffer.clear()
+    replicatedKeys = if (replicas == 1) mutable.HashSet() else null
+  }
+
+  private[this] def hasherFor(tuple: ITuple): KeyHasher = {
+    tuple match {
+      case texeraTuple: Tuple =>
+        val schema = texeraTuple.getSchema
+        if (schema ne hasherSchema) {
+          if (!schema.equals(hasherSchema)) {
+            schemaHasher = KeyHasher(schema, partitioning.hashColumnIndices)
+          }
+          hasherSchema = schema
+        }
+        schemaHasher
+      case _ => genericHasher
+    }
+  }
 
-    (partitioning.hashColumnIndices
-      .map(i => tuple.get(i))
-      .toList
-      .hashCode() % numBuckets + numBuckets) % numBuckets
+  /**
+    * Samples the key into the count-min sketch, a key becomes hot once it alone is
+    * estimated to account for more than the average share of one receiver.
+    */
+  private[this] def isHotKey(hash: Int): Boolean = {
+    var i = 0
+    while (i < numHotKeys) {
+      if (hotKeys(i) == hash) {
+        return true
+      }
+      i += 1
+    }
+    nextSample -= 1
+    if (nextSample == 0) {
+      nextSample = 1 + random.nextInt(2 * sampleInterval - 1)
+      val estimate = sketch.add(hash)
+      if (
+        numHotKeys < maxHotKeys && sketch.totalCount >= minSamples &&
+        estimate * numReceivers > sketch.totalCount
+      ) {
+        hotKeys(numHotKeys) = hash
+        numHotKeys += 1
+        return true
+      }
+    }
+    false
   }
 }
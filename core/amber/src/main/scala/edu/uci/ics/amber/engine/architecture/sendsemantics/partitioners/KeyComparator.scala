@@ -0,0 +1,97 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+
+object KeyComparator {
+
+  /**
+    * Compares two fields of a key, dispatched on the runtime class of the values.
+    * Nulls come first, numbers of different classes are compared as doubles.
+    */
+  def compareFields(a: Any, b: Any): Int = {
+    (a, b) match {
+      case (null, null)                                 => 0
+      case (null, _)                                    => -1
+      case (_, null)                                    => 1
+      case (x: java.lang.Integer, y: java.lang.Integer) => java.lang.Integer.compare(x, y)
+      case (x: java.lang.Long, y: java.lang.Long)       => java.lang.Long.compare(x, y)
+      case (x: java.lang.Double, y: java.lang.Double)   => java.lang.Double.compare(x, y)
+      case (x: String, y: String)                       => x.compareTo(y)
+      case (x: Number, y: Number) =>
+        java.lang.Double.compare(x.doubleValue(), y.doubleValue())
+      case (x: Comparable[_], y) if x.getClass == y.getClass =>
+        x.asInstanceOf[Comparable[Any]].compareTo(y)
+      case (x, y) => x.toString.compareTo(y.toString)
+    }
+  }
+}
+
+/**
+  * Orders tuples and keys by the given key columns, each column ascending or descending.
+  * A key is the array of the key fields of a tuple, as extracted by `key`.
+  * Senders, the controller and the sort operators use the same comparator, so that they
+  * agree on the order of the range boundaries.
+  */
+final class KeyComparator(keyColumns: Array[Int], descending: Array[Boolean]) {
+  import KeyComparator._
+
+  require(keyColumns.length == descending.length)
+
+  def key(tuple: ITuple): Array[AnyRef] = {
+    val key = new Array[AnyRef](keyColumns.length)
+    var i = 0
+    while (i < keyColumns.length) {
+      key(i) = tuple.get(keyColumns(i)).asInstanceOf[AnyRef]
+      i += 1
+    }
+    key
+  }
+
+  def compareKeys(a: Array[AnyRef], b: Array[AnyRef]): Int = {
+    var i = 0
+    while (i < keyColumns.length) {
+      val c = compareFields(a(i), b(i))
+      if (c != 0) {
+        return if (descending(i)) -c else c
+      }
+      i += 1
+    }
+    0
+  }
+
+  /**
+    * Compares the key of a tuple with a key, without extracting the key of the tuple.
+    */
+  def compare(tuple: ITuple, key: Array[AnyRef]): Int = {
+    var i = 0
+    while (i < keyColumns.length) {
+      val c = compareFields(tuple.get(keyColumns(i)), key(i))
+      if (c != 0) {
+        return if (descending(i)) -c else c
+      }
+      i += 1
+    }
+    0
+  }
+
+  def compareTuples(a: ITuple, b: ITuple): Int = {
+    var i = 0
+    while (i < keyColumns.length) {
+      val c = compareFields(a.get(keyColumns(i)), b.get(keyColumns(i)))
+      if (c != 0) {
+        return if (descending(i)) -c else c
+      }
+      i += 1
+    }
+    0
+  }
+
+  val keyOrdering: Ordering[Array[AnyRef]] = new Ordering[Array[AnyRef]] {
+    override def compare(a: Array[AnyRef], b: Array[AnyRef]): Int = compareKeys(a, b)
+  }
+
+  def tupleOrdering[T <: ITuple]: Ordering[T] =
+    new Ordering[T] {
+      override def compare(a: T, b: T): Int = compareTuples(a, b)
+    }
+}
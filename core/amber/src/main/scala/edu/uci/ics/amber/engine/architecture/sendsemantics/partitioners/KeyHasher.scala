@@ -0,0 +1,124 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{AttributeType, Schema}
+
+import scala.util.hashing.MurmurHash3
+
+object KeyHasher {
+  val seed: Int = MurmurHash3.seqSeed
+
+  def hashInt(value: Int): Int = value
+
+  // numbers hash like Scala's ##, so that equal integer, long and double keys
+  // (e.g. 1 and 1.0) are sent to the same receiver
+  def hashLong(value: Long): Int = {
+    val intValue = value.toInt
+    if (intValue == value) intValue else java.lang.Long.hashCode(value)
+  }
+
+  def hashDouble(value: Double): Int = {
+    val longValue = value.toLong
+    if (longValue == value) hashLong(longValue) else java.lang.Double.hashCode(value)
+  }
+
+  // String caches its own hashCode, the murmur3 finalization takes care of the mixing
+  def hashString(value: String): Int = value.hashCode
+
+  /**
+    * Hash of a single key field, dispatched on the runtime class of the value.
+    * Every specialized hasher must produce the same hash as this function for the
+    * values it accepts, so that senders using different hashers agree on the receiver.
+    */
+  def hashField(value: Any): Int = {
+    value match {
+      case null                 => 0
+      case v: java.lang.Integer => hashInt(v.intValue())
+      case v: java.lang.Long    => hashLong(v.longValue())
+      case v: java.lang.Double  => hashDouble(v.doubleValue())
+      case v: String            => hashString(v)
+      case v                    => v.hashCode()
+    }
+  }
+
+  /**
+    * Mixes the field hashes of a key with murmur3, so that keys which differ only in
+    * a few bits (e.g. consecutive integers) still spread evenly across receivers.
+    */
+  @inline def mix(hash: Int, fieldHash: Int): Int = MurmurHash3.mix(hash, fieldHash)
+
+  @inline def finalizeHash(hash: Int, numFields: Int): Int =
+    MurmurHash3.finalizeHash(hash, numFields)
+
+  /**
+    * Creates a hasher for the given key columns, specialized on the attribute types of
+    * the schema when there is only one key column of a primitive or string type.
+    */
+  def apply(schema: Schema, keyColumns: Array[Int]): KeyHasher = {
+    if (keyColumns.length == 1) {
+      val column = keyColumns(0)
+      schema.getAttributes.get(column).getType match {
+        case AttributeType.INTEGER => new IntKeyHasher(column)
+        case AttributeType.LONG    => new LongKeyHasher(column)
+        case AttributeType.DOUBLE  => new DoubleKeyHasher(column)
+        case AttributeType.STRING  => new StringKeyHasher(column)
+        case _                     => new GenericKeyHasher(keyColumns)
+      }
+    } else {
+      new GenericKeyHasher(keyColumns)
+    }
+  }
+}
+
+/**
+  * Computes the hash of the key columns of a tuple without collecting the key fields.
+  */
+sealed abstract class KeyHasher {
+  def hash(tuple: ITuple): Int
+}
+
+final class GenericKeyHasher(keyColumns: Array[Int]) extends KeyHasher {
+  override def hash(tuple: ITuple): Int = {
+    var h = KeyHasher.seed
+    var i = 0
+    while (i < keyColumns.length) {
+      h = KeyHasher.mix(h, KeyHasher.hashField(tuple.get(keyColumns(i))))
+      i += 1
+    }
+    KeyHasher.finalizeHash(h, keyColumns.length)
+  }
+}
+
+final class IntKeyHasher(column: Int) extends KeyHasher {
+  override def hash(tuple: ITuple): Int = {
+    val value = tuple.get(column)
+    val fieldHash = if (value == null) 0 else KeyHasher.hashInt(value.asInstanceOf[Integer])
+    KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, fieldHash), 1)
+  }
+}
+
+final class LongKeyHasher(column: Int) extends KeyHasher {
+  override def hash(tuple: ITuple): Int = {
+    val value = tuple.get(column)
+    val fieldHash =
+      if (value == null) 0 else KeyHasher.hashLong(value.asInstanceOf[java.lang.Long])
+    KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, fieldHash), 1)
+  }
+}
+
+final class DoubleKeyHasher(column: Int) extends KeyHasher {
+  override def hash(tuple: ITuple): Int = {
+    val value = tuple.get(column)
+    val fieldHash =
+      if (value == null) 0 else KeyHasher.hashDouble(value.asInstanceOf[java.lang.Double])
+    KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, fieldHash), 1)
+  }
+}
+
+final class StringKeyHasher(column: Int) extends KeyHasher {
+  override def hash(tuple: ITuple): Int = {
+    val value = tuple.get(column)
+    val fieldHash = if (value == null) 0 else KeyHasher.hashString(value.asInstanceOf[String])
+    KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, fieldHash), 1)
+  }
+}
@@ -1,14 +1,13 @@
 package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
 
-import edu.uci.ics.amber.engine.common.ambermessage.{DataFrame, DataPayload, EndOfUpstream}
+import edu.uci.ics.amber.engine.common.ambermessage.{DataPayload, EndOfUpstream}
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 
 import scala.collection.mutable.ArrayBuffer
 
 abstract class ParallelBatchingPartitioner extends Partitioner {
-  var batches: Array[Array[ITuple]] = _
-  var currentSizes: Array[Int] = _
+  var batches: Array[DataFrameBuilder] = _
 
   initializeInternalState(partitioning.receivers)
 
@@ -17,10 +16,8 @@ abstract class ParallelBatchingPartitioner extends Partitioner {
   override def noMore(): Array[(ActorVirtualIdentity, DataPayload)] = {
     val receiversAndBatches = new ArrayBuffer[(ActorVirtualIdentity, DataPayload)]
     for (k <- partitioning.receivers.indices) {
-      if (currentSizes(k) > 0) {
-        receiversAndBatches.append(
-          (partitioning.receivers(k), DataFrame(batches(k).slice(0, currentSizes(k))))
-        )
+      if (!batches(k).isEmpty) {
+        receiversAndBatches.append((partitioning.receivers(k), batches(k).build()))
       }
       receiversAndBatches.append((partitioning.receivers(k), EndOfUpstream()))
     }
@@ -29,17 +26,12 @@ abstract class ParallelBatchingPartitioner extends Partitioner {
 
   override def addTupleToBatch(
       tuple: ITuple
-  ): Option[(ActorVirtualIdentity, DataPayload)] = {
+  ): Iterable[(ActorVirtualIdentity, DataPayload)] = {
     val index = selectBatchingIndex(tuple)
-    batches(index)(currentSizes(index)) = tuple
-    currentSizes(index) += 1
-    if (currentSizes(index) == partitioning.batchSize) {
-      currentSizes(index) = 0
-      val retBatch = batches(index)
-      batches(index) = new Array[ITuple](partitioning.batchSize)
-      return Some((partitioning.receivers(index), DataFrame(retBatch)))
+    if (batches(index).add(tuple)) {
+      return Iterable((partitioning.receivers(index), batches(index).build()))
     }
-    None
+    Iterable.empty
   }
 
   override def reset(): Unit = {
@@ -47,11 +39,10 @@ abstract class ParallelBatchingPartitioner extends Partitioner {
   }
 
   private[this] def initializeInternalState(_receivers: Array[ActorVirtualIdentity]): Unit = {
-    batches = new Array[Array[ITuple]](_receivers.length)
+    batches = new Array[DataFrameBuilder](_receivers.length)
     for (i <- _receivers.indices) {
-      batches(i) = new Array[ITuple](partitioning.batchSize)
+      batches(i) = new DataFrameBuilder(partitioning.batchSize)
     }
-    currentSizes = new Array[Int](_receivers.length)
   }
 
 }
@@ -13,11 +13,17 @@ abstract class Partitioner() {
     * to send the batch to.
     * @param tuple ITuple to be added.
     * @return When return condition is met, return the (to: ActorVirtualIdentity, payload:
+    *         DataPayload) of every batch that is ready to be sent.
     */
-  def addTupleToBatch(tuple: ITuple): Option[(ActorVirtualIdentity, DataPayload)]
+  def addTupleToBatch(tuple: ITuple): Iterable[(ActorVirtualIdentity, DataPayload)]
 
   def noMore(): Array[(ActorVirtualIdentity, DataPayload)]
 
   def reset(): Unit
 
+  /**
+    * Number of keys this partitioner currently treats as heavy hitters.
+    */
+  def hotKeyCount: Int = 0
+
 }
@@ -0,0 +1,142 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.RangeBasedShufflePartitioning
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.ambermessage.DataPayload
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+
+import scala.collection.mutable.ArrayBuffer
+
+case class RangeBasedShufflePartitioner(partitioning: RangeBasedShufflePartitioning)
+    extends ParallelBatchingPartitioner() {
+
+  private[this] val numReceivers = partitioning.receivers.length
+  private[this] val comparator =
+    new KeyComparator(partitioning.keyColumnIndices, partitioning.descending)
+  // upper bounds of the ranges of all receivers but the last, null until they are known.
+  // a single receiver gets every tuple, there is nothing to wait for.
+  private[this] var boundaries: Array[Array[AnyRef]] =
+    if (numReceivers == 1) Array.empty else null
+
+  // tuples added before the boundaries are known, spilled beyond Constants.sortMemoryBudget
+  private[this] val buffer = new ArrayBuffer[ITuple]()
+  private[this] var bufferedBytes = 0L
+  private[this] val spillFile = new BatchSpillFile("amber-range-")
+
+  // reservoir sample of the keys of the buffered tuples
+  private[this] val sample = new ArrayBuffer[Array[AnyRef]]()
+  private[this] var tupleCount = 0L
+  private[this] val random = new java.util.SplittableRandom()
+  // spreads the tuples of a key equal to some boundaries over the receivers these bound
+  private[this] var tieIndex = 0
+
+  def isAwaitingBoundaries: Boolean = boundaries == null
+
+  /**
+    * @return the number of tuples buffered so far, and a uniform sample of their keys.
+    */
+  def getSample: (Long, Array[Array[AnyRef]]) = (tupleCount, sample.toArray)
+
+  /**
+    * @param rangeBoundaries the upper bounds of the ranges of all receivers but the last,
+    *                        in the order of the comparator.
+    */
+  def setBoundaries(rangeBoundaries: Array[Array[AnyRef]]): Unit = {
+    require(rangeBoundaries.length < numReceivers)
+    boundaries = rangeBoundaries
+    sample.clear()
+  }
+
+  override def selectBatchingIndex(tuple: ITuple): Int = {
+    // the first boundary which is not less than the key
+    var low = 0
+    var high = boundaries.length
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (comparator.compare(tuple, boundaries(mid)) > 0) {
+        low = mid + 1
+      } else {
+        high = mid
+      }
+    }
+    if (low == boundaries.length || comparator.compare(tuple, boundaries(low)) != 0) {
+      return low
+    }
+    // the key of a heavy hitter can be several boundaries, the receivers between
+    // them only get tuples of this key so their order among each other does not matter
+    val first = low
+    high = boundaries.length
+    while (low < high) {
+      val mid = (low + high) >>> 1
+      if (comparator.compare(tuple, boundaries(mid)) >= 0) {
+        low = mid + 1
+      } else {
+        high = mid
+      }
+    }
+    if (low - first == 1) {
+      return first
+    }
+    tieIndex = (tieIndex + 1) % (low - first + 1)
+    first + tieIndex
+  }
+
+  override def addTupleToBatch(tuple: ITuple): Iterable[(ActorVirtualIdentity, DataPayload)] = {
+    if (boundaries != null) {
+      return super.addTupleToBatch(tuple)
+    }
+    sampleKey(tuple)
+    buffer.append(tuple)
+    bufferedBytes += BatchSpillFile.estimateSize(tuple)
+    if (bufferedBytes > Constants.sortMemoryBudget) {
+      buffer.grouped(partitioning.batchSize).foreach(batch => spillFile.write(batch.toArray))
+      buffer.clear()
+      bufferedBytes = 0
+    }
+    Iterable.empty
+  }
+
+  /**
+    * Routes the tuples buffered before the boundaries were known.
+    * @return the batches which are ready to be sent, produced lazily so that the caller
+    *         can wait for credits in between.
+    */
+  def drainBuffered(): Iterator[(ActorVirtualIdentity, DataPayload)] = {
+    assert(boundaries != null)
+    val spilled = Iterator.continually(spillFile).takeWhile(_.nonEmpty).flatMap(_.read())
+    (spilled ++ buffer.iterator).flatMap(addTupleToBatch) ++ {
+      buffer.clear()
+      bufferedBytes = 0
+      Iterator.empty
+    }
+  }
+
+  override def noMore(): Array[(ActorVirtualIdentity, DataPayload)] = {
+    spillFile.close()
+    super.noMore()
+  }
+
+  override def reset(): Unit = {
+    super.reset()
+    buffer.clear()
+    bufferedBytes = 0
+    spillFile.close()
+    sample.clear()
+    tupleCount = 0
+    boundaries = if (numReceivers == 1) Array.empty else null
+  }
+
+  private[this] def sampleKey(tuple: ITuple): Unit = {
+    tupleCount += 1
+    if (sample.length < Constants.rangeSampleSize) {
+      sample.append(comparator.key(tuple))
+    } else {
+      val index = random.nextLong(tupleCount)
+      if (index < Constants.rangeSampleSize) {
+        sample(index.toInt) = comparator.key(tuple)
+      }
+    }
+  }
+}
@@ -13,9 +13,51 @@ sealed trait Partitioning {
 case class HashBasedShufflePartitioning(
     batchSize: Int,
     receivers: Array[ActorVirtualIdentity],
-    hashColumnIndices: Array[Int]
+    hashColumnIndices: Array[Int],
+    skewHandling: SkewHandling = NoSkewHandling
 ) extends Partitioning {}
 
+/**
+  * Sends every tuple to the receiver whose key range contains its key, so that the receivers
+  * hold consecutive ranges in the order given by the key columns and the descending flags.
+  * The senders buffer their output until the controller sends them the range boundaries,
+  * computed from the key samples they report at the end of their input.
+  */
+case class RangeBasedShufflePartitioning(
+    batchSize: Int,
+    receivers: Array[ActorVirtualIdentity],
+    keyColumnIndices: Array[Int],
+    descending: Array[Boolean]
+) extends Partitioning {}
+
+/**
+  * How a hash shuffle deals with keys that are much more frequent than the others.
+  */
+sealed trait SkewHandling
+
+/**
+  * Every key goes to exactly one receiver.
+  */
+case object NoSkewHandling extends SkewHandling
+
+/**
+  * Heavy hitters are detected at runtime, the tuples of a hot key are spread over
+  * `fanout` receivers starting from the receiver the key hashes to. At the end of its output
+  * the sender reports its hot keys to the controller, which passes the hot keys of all the
+  * senders to the senders of the links into the same receivers that use ReplicateHotKeys.
+  * Only valid if the receivers can process the tuples of one key independently, e.g. the
+  * build side of a join.
+  */
+case class SplitHotKeys(fanout: Int) extends SkewHandling
+
+/**
+  * The tuples of a key split by the SplitHotKeys link into the same receivers are sent to
+  * `fanout` receivers starting from the receiver the key hashes to, so that each of them can
+  * handle its share of the split key, every other tuple is sent to one receiver. The sender
+  * buffers its output until the controller sends it the split keys.
+  */
+case class ReplicateHotKeys(fanout: Int) extends SkewHandling
+
 case class OneToOnePartitioning(
     batchSize: Int,
     receivers: Array[ActorVirtualIdentity]
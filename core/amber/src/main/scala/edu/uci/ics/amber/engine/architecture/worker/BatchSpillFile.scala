@@ -0,0 +1,388 @@
+package edu.uci.ics.amber.engine.architecture.worker
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.{
+  BooleanColumnVector,
+  ColumnVector,
+  ColumnarBatch,
+  DoubleColumnVector,
+  IntColumnVector,
+  LongColumnVector,
+  TimestampColumnVector
+}
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.sql.Timestamp
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+object BatchSpillFile {
+  // kinds of tuples
+  private[worker] final val PLAIN_TUPLE = 0
+  private[worker] final val SAME_SCHEMA = 1
+  private[worker] final val NEW_SCHEMA = 2
+
+  // tags of field values
+  private[worker] final val NULL = 0
+  private[worker] final val INT = 1
+  private[worker] final val LONG = 2
+  private[worker] final val DOUBLE = 3
+  private[worker] final val BOOLEAN = 4
+  private[worker] final val STRING = 5
+  private[worker] final val TIMESTAMP = 6
+  private[worker] final val OBJECT = 7
+
+  // tuples sampled to estimate the size of a batch
+  private final val sampleSize = 8
+
+  /** Writes a long as a varint of its zigzag encoding, so small negative numbers are short.
+    */
+  def writeZigZag(out: DataOutput, value: Long): Unit = {
+    var remaining = (value << 1) ^ (value >> 63)
+    while ((remaining & ~0x7fL) != 0) {
+      out.writeByte(((remaining & 0x7f) | 0x80).toInt)
+      remaining >>>= 7
+    }
+    out.writeByte(remaining.toInt)
+  }
+
+  def readZigZag(in: DataInput): Long = {
+    var value = 0L
+    var shift = 0
+    var byte = 0
+    do {
+      byte = in.readByte()
+      value |= (byte & 0x7fL) << shift
+      shift += 7
+    } while ((byte & 0x80) != 0)
+    (value >>> 1) ^ -(value & 1)
+  }
+
+  /** Writes a value of another type with Java serialization.
+    */
+  def writeSerializable(out: DataOutput, value: AnyRef): Unit = {
+    val buffer = new ByteArrayOutputStream()
+    val objectOut = new ObjectOutputStream(buffer)
+    objectOut.writeObject(value)
+    objectOut.close()
+    out.writeInt(buffer.size())
+    out.write(buffer.toByteArray)
+  }
+
+  def readSerializable(in: DataInput): AnyRef = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    val objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))
+    try objectIn.readObject()
+    finally objectIn.close()
+  }
+
+  /** Estimates the heap size of a batch from a sample of its tuples.
+    */
+  def estimateSize(tuples: Array[ITuple]): Long = {
+    if (tuples.isEmpty) {
+      return 0
+    }
+    val step = math.max(1, tuples.length / sampleSize)
+    var sampled = 0
+    var sampledBytes = 0L
+    var i = 0
+    while (i < tuples.length) {
+      sampledBytes += estimateSize(tuples(i))
+      sampled += 1
+      i += step
+    }
+    sampledBytes * tuples.length / sampled
+  }
+
+  /** Estimates the heap size of a columnar batch from the types of its columns,
+    * the sizes of strings and other objects are estimated from a sample of their rows.
+    */
+  def estimateSize(batch: ColumnarBatch): Long = {
+    val rowCount = batch.rowCount
+    var bytes = 16L
+    batch.columns.foreach {
+      case _: IntColumnVector                          => bytes += 4L * rowCount
+      case _: LongColumnVector | _: DoubleColumnVector => bytes += 8L * rowCount
+      case _: BooleanColumnVector                      => bytes += rowCount / 8 + 1
+      case _: TimestampColumnVector                    => bytes += 12L * rowCount
+      case column                                      => bytes += estimateSize(column, rowCount)
+    }
+    bytes
+  }
+
+  private def estimateSize(column: ColumnVector, rowCount: Int): Long = {
+    if (rowCount == 0) {
+      return 0
+    }
+    val step = math.max(1, rowCount / sampleSize)
+    var sampled = 0
+    var sampledBytes = 0L
+    var row = 0
+    while (row < rowCount) {
+      sampledBytes += estimateFieldSize(column.get(row))
+      sampled += 1
+      row += step
+    }
+    sampledBytes * rowCount / sampled
+  }
+
+  /** Estimates the heap size of a tuple.
+    */
+  def estimateSize(tuple: ITuple): Long = {
+    var bytes = 16L
+    var field = 0
+    while (field < tuple.length) {
+      bytes += estimateFieldSize(tuple.get(field))
+      field += 1
+    }
+    bytes
+  }
+
+  private def estimateFieldSize(value: Any): Long = {
+    value match {
+      case null                                        => 8
+      case s: String                                   => 48 + 2L * s.length
+      case _: java.lang.Integer | _: java.lang.Boolean => 24
+      case _: java.lang.Long | _: java.lang.Double     => 32
+      case _: Timestamp                                => 40
+      case _                                           => 64
+    }
+  }
+}
+
+/** A temp file holding batches of tuples in FIFO order, e.g. the batches which overflow
+  * the data queue of a worker.
+  * Tuples are written in a compact binary format: a tag per field, integers as varints,
+  * and the schema of texera tuples only when it changes.
+  * The file is deleted once all its batches are read, the next write starts a new file.
+  * The owner must call close() when it stops reading, so that a file which is not drained
+  * is deleted as well.
+  * Batches can be written and read by different threads.
+  * @param prefix the prefix of the temp file name.
+  */
+class BatchSpillFile(prefix: String = "amber-queue-") {
+  import BatchSpillFile._
+
+  private var file: File = _
+  private var out: DataOutputStream = _
+  private var in: DataInputStream = _
+  private var tupleWriter: TupleWriter = _
+  private var tupleReader: TupleReader = _
+  private val batchSizes = new mutable.Queue[Int]()
+  @volatile private var bytes = 0L
+
+  /** @return bytes of the batches written but not read yet.
+    */
+  def spilledBytes: Long = bytes
+
+  /** @return whether there are batches written but not read yet.
+    */
+  def nonEmpty: Boolean = synchronized(batchSizes.nonEmpty)
+
+  def write(tuples: Array[ITuple]): Unit =
+    writeBatch(tuples.length, writer => tuples.foreach(writer.write))
+
+  /** Writes the rows of a columnar batch, they are read back as a batch of tuples.
+    */
+  def write(batch: ColumnarBatch): Unit =
+    writeBatch(
+      batch.rowCount,
+      writer => (0 until batch.rowCount).foreach(row => writer.write(batch, row))
+    )
+
+  private[this] def writeBatch(tupleCount: Int, writeTuples: TupleWriter => Unit): Unit =
+    synchronized {
+      if (out == null) {
+        file = File.createTempFile(prefix, ".spill")
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+        tupleWriter = new TupleWriter(out)
+      }
+      val start = out.size()
+      out.writeInt(tupleCount)
+      writeTuples(tupleWriter)
+      out.flush()
+      // size() wraps around after 2GB, but the difference is still right
+      val size = out.size() - start
+      batchSizes.enqueue(size)
+      bytes += size
+    }
+
+  def read(): Array[ITuple] =
+    synchronized {
+      if (in == null) {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+        tupleReader = new TupleReader(in)
+      }
+      val tuples = Array.fill[ITuple](in.readInt())(tupleReader.read())
+      bytes -= batchSizes.dequeue()
+      if (batchSizes.isEmpty) {
+        close()
+      }
+      tuples
+    }
+
+  def close(): Unit =
+    synchronized {
+      if (out != null) {
+        out.close()
+        out = null
+      }
+      if (in != null) {
+        in.close()
+        in = null
+      }
+      if (file != null) {
+        file.delete()
+        file = null
+      }
+      tupleWriter = null
+      tupleReader = null
+      batchSizes.clear()
+      bytes = 0
+    }
+}
+
+/** Writes tuples in the format of BatchSpillFile, the schema of texera tuples is written
+  * only when it changes from the previous tuple. The same format is used on the wire,
+  * see DataPayloadCodec.
+  * @param writeObject writes the values of types without a tag of their own.
+  */
+class TupleWriter(
+    out: DataOutput,
+    writeObject: (DataOutput, AnyRef) => Unit = BatchSpillFile.writeSerializable
+) {
+  import BatchSpillFile._
+
+  private var outSchema: Schema = _
+
+  def write(tuple: ITuple): Unit = {
+    tuple match {
+      case texeraTuple: Tuple =>
+        writeSchema(texeraTuple.getSchema)
+      case _ =>
+        out.writeByte(PLAIN_TUPLE)
+        out.writeInt(tuple.length)
+    }
+    var i = 0
+    while (i < tuple.length) {
+      writeField(tuple.get(i))
+      i += 1
+    }
+  }
+
+  /** Writes a row of a columnar batch as a texera tuple, without materializing the tuple.
+    */
+  def write(batch: ColumnarBatch, row: Int): Unit = {
+    writeSchema(batch.schema)
+    var i = 0
+    while (i < batch.columns.length) {
+      writeField(batch.getField(row, i))
+      i += 1
+    }
+  }
+
+  private[this] def writeSchema(schema: Schema): Unit = {
+    if (schema eq outSchema) {
+      out.writeByte(SAME_SCHEMA)
+    } else {
+      out.writeByte(NEW_SCHEMA)
+      val attributes = schema.getAttributes
+      out.writeInt(attributes.size())
+      attributes.asScala.foreach { attribute =>
+        out.writeUTF(attribute.getName)
+        out.writeUTF(attribute.getType.name())
+      }
+      outSchema = schema
+    }
+  }
+
+  private[this] def writeField(value: Any): Unit = {
+    value match {
+      case null =>
+        out.writeByte(NULL)
+      case v: java.lang.Integer =>
+        out.writeByte(INT)
+        writeZigZag(out, v.longValue())
+      case v: java.lang.Long =>
+        out.writeByte(LONG)
+        writeZigZag(out, v)
+      case v: java.lang.Double =>
+        out.writeByte(DOUBLE)
+        out.writeDouble(v)
+      case v: java.lang.Boolean =>
+        out.writeByte(BOOLEAN)
+        out.writeBoolean(v)
+      case v: String =>
+        out.writeByte(STRING)
+        writeBytes(v.getBytes(StandardCharsets.UTF_8))
+      case v: Timestamp =>
+        out.writeByte(TIMESTAMP)
+        writeZigZag(out, v.getTime)
+        writeZigZag(out, v.getNanos)
+      case v =>
+        out.writeByte(OBJECT)
+        writeObject(out, v.asInstanceOf[AnyRef])
+    }
+  }
+
+  private[this] def writeBytes(value: Array[Byte]): Unit = {
+    writeZigZag(out, value.length)
+    out.write(value)
+  }
+}
+
+/** Reads the tuples written by a TupleWriter.
+  * @param readObject reads the values written by the writeObject of the TupleWriter.
+  */
+class TupleReader(
+    in: DataInput,
+    readObject: DataInput => AnyRef = BatchSpillFile.readSerializable
+) {
+  import BatchSpillFile._
+
+  private var inSchema: Schema = _
+
+  def read(): ITuple = {
+    in.readByte().toInt match {
+      case PLAIN_TUPLE =>
+        ITuple.fromSeq(Array.fill[Any](in.readInt())(readField()))
+      case kind =>
+        if (kind == NEW_SCHEMA) {
+          val builder = Schema.newBuilder()
+          (0 until in.readInt()).foreach { _ =>
+            val name = in.readUTF()
+            builder.add(new Attribute(name, AttributeType.valueOf(in.readUTF())))
+          }
+          inSchema = builder.build()
+        }
+        val fields = Array.fill[AnyRef](inSchema.getAttributes.size())(readField())
+        new Tuple(inSchema, fields: _*)
+    }
+  }
+
+  private[this] def readField(): AnyRef = {
+    in.readByte().toInt match {
+      case NULL    => null
+      case INT     => Int.box(readZigZag(in).toInt)
+      case LONG    => Long.box(readZigZag(in))
+      case DOUBLE  => Double.box(in.readDouble())
+      case BOOLEAN => Boolean.box(in.readBoolean())
+      case STRING  => new String(readBytes(), StandardCharsets.UTF_8)
+      case TIMESTAMP =>
+        val timestamp = new Timestamp(readZigZag(in))
+        timestamp.setNanos(readZigZag(in).toInt)
+        timestamp
+      case OBJECT => readObject(in)
+    }
+  }
+
+  private[this] def readBytes(): Array[Byte] = {
+    val value = new Array[Byte](readZigZag(in).toInt)
+    in.readFully(value)
+    value
+  }
+}
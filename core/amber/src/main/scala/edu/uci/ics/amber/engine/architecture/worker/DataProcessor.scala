@@ -1,12 +1,27 @@
 package edu.uci.ics.amber.engine.architecture.worker
 
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.HotKeysReportedHandler.ReportHotKeys
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.LinkCompletedHandler.LinkCompleted
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.LocalOperatorExceptionHandler.LocalOperatorException
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.RangeSampleReportedHandler.ReportRangeSample
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerExecutionCompletedHandler.WorkerExecutionCompleted
-import edu.uci.ics.amber.engine.architecture.messaginglayer.TupleToBatchConverter
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerSatisfiedHandler.WorkerSatisfied
+import edu.uci.ics.amber.engine.architecture.messaginglayer.{
+  BackpressureGate,
+  TupleToBatchConverter
+}
 import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue._
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.PauseHandler.PauseWorker
-import edu.uci.ics.amber.engine.common.{IOperatorExecutor, InputExhausted, WorkflowLogger}
+import edu.uci.ics.amber.engine.common.{
+  Constants,
+  IBatchOperatorExecutor,
+  IOperatorExecutor,
+  ISatisfiableOperatorExecutor,
+  ISenderAwareOperatorExecutor,
+  InputExhausted,
+  LatencyHistogram,
+  WorkflowLogger
+}
 import edu.uci.ics.amber.engine.common.ambermessage.ControlPayload
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.{ControlInvocation, ReturnPayload}
 import edu.uci.ics.amber.engine.common.rpc.{AsyncRPCClient, AsyncRPCServer}
@@ -18,6 +33,7 @@ import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, Li
 import edu.uci.ics.amber.error.ErrorUtils.safely
 import edu.uci.ics.amber.error.WorkflowRuntimeError
 
+import java.util.concurrent.atomic.AtomicLong
 import java.util.concurrent.{ExecutorService, Executors, Future}
 
 class DataProcessor( // dependencies:
@@ -28,8 +44,24 @@ class DataProcessor( // dependencies:
     pauseManager: PauseManager, // to pause/resume
     breakpointManager: BreakpointManager, // to evaluate breakpoints
     stateManager: WorkerStateManager,
-    asyncRPCServer: AsyncRPCServer
+    asyncRPCServer: AsyncRPCServer,
+    backpressureGate: BackpressureGate // to wait for credits of downstream workers
 ) extends WorkerInternalQueue {
+  // batch-at-a-time path, only used if the operator supports it.
+  // initialized before the dp thread starts since the dp thread reads them.
+  private val batchOperator: IBatchOperatorExecutor = operator match {
+    case batchExecutor: IBatchOperatorExecutor => batchExecutor
+    case _                                     => null
+  }
+  private val satisfiableOperator: ISatisfiableOperatorExecutor = operator match {
+    case satisfiableExecutor: ISatisfiableOperatorExecutor => satisfiableExecutor
+    case _                                                 => null
+  }
+  private val senderAwareOperator: ISenderAwareOperatorExecutor = operator match {
+    case senderAwareExecutor: ISenderAwareOperatorExecutor => senderAwareExecutor
+    case _                                                 => null
+  }
+
   // initialize dp thread upon construction
   private val dpThreadExecutor: ExecutorService = Executors.newSingleThreadExecutor
   private val dpThread: Future[_] = dpThreadExecutor.submit(new Runnable() {
@@ -50,17 +82,28 @@ class DataProcessor( // dependencies:
   })
   // dp thread stats:
   // TODO: add another variable for recovery index instead of using the counts below.
-  private var inputTupleCount = 0L
-  private var outputTupleCount = 0L
+  // only written by the dp thread, read by the worker actor when it pushes its statistics
+  private val inputTupleCount = new AtomicLong()
+  private val outputTupleCount = new AtomicLong()
   private var currentInputTuple: Either[ITuple, InputExhausted] = _
   private var currentInputLink: LinkIdentity = _
   private var currentOutputIterator: Iterator[ITuple] = _
   private var isCompleted = false
+  // the operator needs no more input, further input tuples are dropped
+  private var isSatisfied = false
+  // no operator downstream needs more output, further input tuples are dropped
+  // and the operator is no longer called
+  private var isStopped = false
+  // time spent on controls, pauses and backpressure, excluded from the processing time
+  private var nonProcessingNanos = 0L
+
+  val processingTime = new LatencyHistogram()
+  val backpressureTime = new LatencyHistogram()
 
-  /** provide API for actor to get stats of this operator
+  /** provide API for actor to get stats of this operator, without blocking the dp thread
     * @return (input tuple count, output tuple count)
     */
-  def collectStatistics(): (Long, Long) = (inputTupleCount, outputTupleCount)
+  def collectStatistics(): (Long, Long) = (inputTupleCount.get(), outputTupleCount.get())
 
   /** provide API for actor to get current input tuple of this operator
     * @return current input tuple if it exists
@@ -78,9 +121,13 @@ class DataProcessor( // dependencies:
   }
 
   def shutdown(): Unit = {
-    operator.close() // close operator
-    dpThread.cancel(true) // interrupt
-    dpThreadExecutor.shutdownNow() // destroy thread
+    try {
+      operator.close() // close operator
+    } finally {
+      dpThread.cancel(true) // interrupt
+      dpThreadExecutor.shutdownNow() // destroy thread
+      closeSpillFile() // delete the spilled batches which are not processed
+    }
   }
 
   /** process currentInputTuple through operator logic.
@@ -92,7 +139,7 @@ class DataProcessor( // dependencies:
     try {
       outputIterator = operator.processTuple(currentInputTuple, currentInputLink)
       if (currentInputTuple.isLeft) {
-        inputTupleCount += 1
+        inputTupleCount.incrementAndGet()
       }
     } catch safely {
       case e =>
@@ -119,12 +166,19 @@ class DataProcessor( // dependencies:
         handleOperatorException(e)
     }
     if (outputTuple != null) {
-      if (breakpointManager.evaluateTuple(outputTuple)) {
-        pauseManager.pause()
-      } else {
-        outputTupleCount += 1
-        batchProducer.passTupleToDownstream(outputTuple)
-      }
+      passOutputTuple(outputTuple)
+    }
+  }
+
+  /** evaluate breakpoints on one output tuple and send it to downstream.
+    * this function is only called by the DP thread
+    */
+  private[this] def passOutputTuple(outputTuple: ITuple): Unit = {
+    if (breakpointManager.evaluateTuple(outputTuple)) {
+      pauseManager.pause()
+    } else {
+      outputTupleCount.incrementAndGet()
+      batchProducer.passTupleToDownstream(outputTuple)
     }
   }
 
@@ -137,20 +191,41 @@ class DataProcessor( // dependencies:
     while (!isCompleted) {
       // take the next data element from internal queue, blocks if not available.
       getElement match {
-        case InputTuple(tuple) =>
-          currentInputTuple = Left(tuple)
-          handleInputTuple()
-        case SenderChangeMarker(link) =>
+        // the output of the batch is not needed anymore, drop it
+        case InputBatch(_) | InputColumnarBatch(_) if isSatisfied || isStopped =>
+        case InputBatch(tuples) =>
+          handleInput(
+            tuples.length,
+            i => tuples(i),
+            () => batchOperator.processBatch(tuples, currentInputLink, handleBatchTupleException)
+          )
+        case InputColumnarBatch(batch) =>
+          handleInput(
+            batch.rowCount,
+            batch.getTuple,
+            () =>
+              batchOperator.processColumnarBatch(batch, currentInputLink, handleBatchTupleException)
+          )
+        case SenderChangeMarker(link, sender) =>
           currentInputLink = link
+          if (senderAwareOperator != null) {
+            senderAwareOperator.setInputSender(sender)
+          }
         case EndMarker =>
-          currentInputTuple = Right(InputExhausted())
-          handleInputTuple()
+          // blocking operators do their work at the end of their input
+          if (!isStopped) {
+            val start = startProcessing()
+            currentInputTuple = Right(InputExhausted())
+            handleInputTuple()
+            endProcessing(start)
+          }
           if (currentInputLink != null) {
             asyncRPCClient.send(LinkCompleted(currentInputLink), CONTROLLER)
           }
         case EndOfAllMarker =>
           // end of processing, break DP loop
           isCompleted = true
+          sendBufferedOutput()
           batchProducer.emitEndOfUpstream()
         case ControlElement(cmd, from) =>
           processControlCommand(cmd, from)
@@ -164,6 +239,40 @@ class DataProcessor( // dependencies:
     processControlCommandsAfterCompletion()
   }
 
+  /** stop producing output since no operator downstream needs it anymore,
+    * the rest of the input is dropped and the worker completes at the end of its input,
+    * right away for a source.
+    * this function is only called by the DP thread
+    */
+  def stopProducing(): Unit = {
+    isStopped = true
+    currentOutputIterator = null
+  }
+
+  /** the hash shuffles which split hot keys report them to the controller.
+    * the range shuffles buffer all the output of this worker, report the samples of their
+    * keys to the controller, wait for the range boundaries, then send the buffered output.
+    * the hash shuffles which replicate hot keys wait for them before the end of the output.
+    * this function is only called by the DP thread
+    */
+  private[this] def sendBufferedOutput(): Unit = {
+    batchProducer.hotKeyReports.foreach {
+      case (link, hotKeys) =>
+        asyncRPCClient.send(ReportHotKeys(link, hotKeys), CONTROLLER)
+    }
+    batchProducer.rangeSamples.foreach {
+      case (link, tupleCount, sample) =>
+        asyncRPCClient.send(ReportRangeSample(link, tupleCount, sample), CONTROLLER)
+    }
+    while (batchProducer.isAwaitingRangeBoundaries) {
+      takeOneControlCommandAndProcess()
+    }
+    batchProducer.drainRangeBuffers(() => processControlCommandsDuringExecution())
+    while (batchProducer.isAwaitingHotKeys) {
+      takeOneControlCommandAndProcess()
+    }
+  }
+
   private[this] def handleOperatorException(e: Throwable): Unit = {
     if (currentInputTuple.isLeft) {
       asyncRPCClient.send(
@@ -181,10 +290,41 @@ class DataProcessor( // dependencies:
     asyncRPCServer.execute(PauseWorker(), SELF)
   }
 
+  /** pass the tuples of an input batch to the operator logic, as a whole if the operator
+    * supports it, otherwise one at a time. The tuples are only materialized
+    * when the operator takes them.
+    * this function is only called by the DP thread
+    * @param size the number of tuples in the batch
+    * @param tupleAt materializes the tuple at an index of the batch
+    * @param processBatch passes the whole batch to the batch operator
+    */
+  private[this] def handleInput(
+      size: Int,
+      tupleAt: Int => ITuple,
+      processBatch: () => Array[ITuple]
+  ): Unit = {
+    val start = startProcessing()
+    if (batchOperator != null) {
+      handleInputBatch(size, tupleAt, processBatch)
+    } else {
+      var i = 0
+      while (i < size && !isStopped) {
+        currentInputTuple = Left(tupleAt(i))
+        handleInputTuple()
+        i += 1
+      }
+    }
+    endProcessing(start)
+    if (satisfiableOperator != null && satisfiableOperator.isSatisfied) {
+      isSatisfied = true
+      asyncRPCClient.send(WorkerSatisfied(), CONTROLLER)
+    }
+  }
+
   private[this] def handleInputTuple(): Unit = {
     // process controls before processing the input tuple.
     processControlCommandsDuringExecution()
-    if (currentInputTuple != null) {
+    if (currentInputTuple != null && !isStopped) {
       // pass input tuple to operator logic.
       currentOutputIterator = processInputTuple()
       // process controls before outputting tuples.
@@ -199,6 +339,58 @@ class DataProcessor( // dependencies:
     }
   }
 
+  /** pass a whole input batch to the operator logic.
+    * Controls are processed once before and once after the batch.
+    * A tuple that fails is reported right away and the DP thread pauses in-place,
+    * the operator goes on with the next tuple of the batch once the user resumes.
+    * this function is only called by the DP thread
+    * @param size the number of tuples in the input batch just taken from the queue
+    * @param tupleAt materializes the tuple at an index of the batch
+    * @param processBatch passes the whole batch to the batch operator
+    */
+  private[this] def handleInputBatch(
+      size: Int,
+      tupleAt: Int => ITuple,
+      processBatch: () => Array[ITuple]
+  ): Unit = {
+    if (size == 0) {
+      return
+    }
+    processControlCommandsDuringExecution()
+    var outputs: Array[ITuple] = null
+    try {
+      outputs = processBatch()
+    } catch safely {
+      case e =>
+        // the failure is not tied to one tuple, none of the batch is processed again
+        currentInputTuple = Left(tupleAt(size - 1))
+        handleOperatorException(e)
+    }
+    inputTupleCount.addAndGet(size)
+    currentInputTuple = Left(tupleAt(size - 1))
+    if (outputs != null) {
+      var i = 0
+      while (i < outputs.length && !isStopped) {
+        passOutputTuple(outputs(i))
+        if (pauseManager.isPaused || backpressureGate.isBlocked) {
+          // a breakpoint is triggered or downstream is slow, wait for resume or credits
+          processControlCommandsDuringExecution()
+        }
+        i += 1
+      }
+    }
+    processControlCommandsDuringExecution()
+  }
+
+  /** report a tuple of a batch that failed and wait until the user resumes.
+    * this function is only called by the DP thread
+    */
+  private[this] def handleBatchTupleException(tuple: ITuple, e: Throwable): Unit = {
+    currentInputTuple = Left(tuple)
+    handleOperatorException(e)
+    processControlCommandsDuringExecution()
+  }
+
   private[this] def outputAvailable(outputIterator: Iterator[ITuple]): Boolean = {
     try {
       outputIterator != null && outputIterator.hasNext
@@ -209,10 +401,37 @@ class DataProcessor( // dependencies:
     }
   }
 
+  private[this] def startProcessing(): Long = {
+    nonProcessingNanos = 0
+    System.nanoTime()
+  }
+
+  private[this] def endProcessing(start: Long): Unit = {
+    processingTime.record(System.nanoTime() - start - nonProcessingNanos)
+  }
+
   private[this] def processControlCommandsDuringExecution(): Unit = {
-    while (!isControlQueueEmpty || pauseManager.isPaused) {
-      takeOneControlCommandAndProcess()
+    if (isControlQueueEmpty && !pauseManager.isPaused && !backpressureGate.isBlocked) {
+      return
+    }
+    val start = System.nanoTime()
+    var blockedSince = -1L
+    while (!isControlQueueEmpty || pauseManager.isPaused || backpressureGate.isBlocked) {
+      if (isControlQueueEmpty && !pauseManager.isPaused) {
+        if (blockedSince < 0) {
+          blockedSince = System.nanoTime()
+        }
+        // downstream workers have no credits for more output, controls wake us up
+        backpressureGate.await(Constants.ackFlushInterval.toMillis)
+      } else {
+        takeOneControlCommandAndProcess()
+      }
+    }
+    val end = System.nanoTime()
+    if (blockedSince >= 0) {
+      backpressureTime.record(end - blockedSince)
     }
+    nonProcessingNanos += end - start
   }
 
   private[this] def processControlCommandsAfterCompletion(): Unit = {
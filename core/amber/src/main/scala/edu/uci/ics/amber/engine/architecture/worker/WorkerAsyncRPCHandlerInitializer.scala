@@ -1,6 +1,6 @@
 package edu.uci.ics.amber.engine.architecture.worker
 
-import akka.actor.ActorContext
+import akka.actor.{ActorContext, Cancellable}
 import edu.uci.ics.amber.engine.architecture.messaginglayer.{
   BatchToTupleConverter,
   ControlOutputPort,
@@ -8,7 +8,12 @@ import edu.uci.ics.amber.engine.architecture.messaginglayer.{
   TupleToBatchConverter
 }
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers._
-import edu.uci.ics.amber.engine.common.{IOperatorExecutor, WorkflowLogger}
+import edu.uci.ics.amber.engine.common.{
+  GcPauseMonitor,
+  HistogramSnapshot,
+  IOperatorExecutor,
+  WorkflowLogger
+}
 import edu.uci.ics.amber.engine.common.rpc.{
   AsyncRPCClient,
   AsyncRPCHandlerInitializer,
@@ -40,7 +45,13 @@ class WorkerAsyncRPCHandlerInitializer(
     with ResumeHandler
     with StartHandler
     with UpdateInputLinkingHandler
+    with UpdateRangeBoundariesHandler
+    with UpdateHotKeysHandler
+    with StopProducingHandler
     with ShutdownDPThreadHandler {
   val logger: WorkflowLogger = WorkflowLogger("WorkerControlHandler")
-  var lastReportTime = 0L
+  @volatile var lastReportTime = 0L
+  val gcPausesAtStart: HistogramSnapshot = GcPauseMonitor.snapshot()
+  // set by the dp thread, cancelled by the worker actor when it stops
+  @volatile var statisticsPushHandle: Option[Cancellable] = None
 }
@@ -1,26 +1,29 @@
 package edu.uci.ics.amber.engine.architecture.worker
 
-import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue.{
-  CONTROL_QUEUE,
-  ControlElement,
-  DATA_QUEUE,
-  InternalQueueElement
-}
+import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue._
+import edu.uci.ics.amber.engine.common.{Constants, LatencyHistogram}
 import edu.uci.ics.amber.engine.common.ambermessage.ControlPayload
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
 import lbmq.LinkedBlockingMultiQueue
 
+import java.util.concurrent.atomic.AtomicLong
+
 object WorkerInternalQueue {
   final val DATA_QUEUE = 1
   final val CONTROL_QUEUE = 0
 
-  // 4 kinds of elements can be accepted by internal queue
+  // 5 kinds of elements can be accepted by internal queue
   sealed trait InternalQueueElement
 
-  case class InputTuple(tuple: ITuple) extends InternalQueueElement
+  case class InputBatch(tuples: Array[ITuple]) extends InternalQueueElement
 
-  case class SenderChangeMarker(newUpstreamLink: LinkIdentity) extends InternalQueueElement
+  // the rows are kept in columns until the operator takes them
+  case class InputColumnarBatch(batch: ColumnarBatch) extends InternalQueueElement
+
+  case class SenderChangeMarker(newUpstreamLink: LinkIdentity, sender: ActorVirtualIdentity)
+      extends InternalQueueElement
 
   case class ControlElement(cmd: ControlPayload, from: ActorVirtualIdentity)
       extends InternalQueueElement
@@ -29,10 +32,19 @@ object WorkerInternalQueue {
 
   case object EndOfAllMarker extends InternalQueueElement
 
+  // how batches are kept inside the data queue, with the time they were queued at
+  private case class QueuedBatch(batch: InternalQueueElement, bytes: Long, queuedAt: Long)
+      extends InternalQueueElement
+
+  private case class SpilledBatch(queuedAt: Long) extends InternalQueueElement
+
 }
 
 /** Inspired by the mailbox-ed thread, the internal queue should
   * be a part of DP thread.
+  * The data queue holds whole input batches and keeps track of their estimated size.
+  * Once the batches in memory exceed Constants.dataQueueMaxBytes, further batches are
+  * spilled to a temp file until the DP thread reaches them.
   */
 trait WorkerInternalQueue {
 
@@ -45,15 +57,53 @@ trait WorkerInternalQueue {
 
   private val controlQueue = lbmq.getSubQueue(CONTROL_QUEUE)
 
+  private val queuedBytes = new AtomicLong()
+
+  private val spillFile = new BatchSpillFile()
+
+  // time the input batches waited in the data queue
+  val queueWaitTime = new LatencyHistogram()
+
   def appendElement(elem: InternalQueueElement): Unit = {
-    dataQueue.add(elem)
+    elem match {
+      case InputBatch(tuples) =>
+        queueBatch(elem, BatchSpillFile.estimateSize(tuples), spillFile.write(tuples))
+      case InputColumnarBatch(batch) =>
+        // a spilled batch is read back as tuples
+        queueBatch(elem, BatchSpillFile.estimateSize(batch), spillFile.write(batch))
+      case other =>
+        dataQueue.add(other)
+    }
+  }
+
+  private[this] def queueBatch(batch: InternalQueueElement, bytes: Long, spill: => Unit): Unit = {
+    val inMemory = queuedBytes.get()
+    if (inMemory > 0 && inMemory + bytes > Constants.dataQueueMaxBytes) {
+      spill
+      dataQueue.add(SpilledBatch(System.nanoTime()))
+    } else {
+      queuedBytes.addAndGet(bytes)
+      dataQueue.add(QueuedBatch(batch, bytes, System.nanoTime()))
+    }
   }
 
   def enqueueCommand(cmd: ControlPayload, from: ActorVirtualIdentity): Unit = {
     controlQueue.add(ControlElement(cmd, from))
   }
 
-  def getElement: InternalQueueElement = lbmq.take()
+  def getElement: InternalQueueElement = {
+    lbmq.take() match {
+      case QueuedBatch(batch, bytes, queuedAt) =>
+        queuedBytes.addAndGet(-bytes)
+        queueWaitTime.record(System.nanoTime() - queuedAt)
+        batch
+      case SpilledBatch(queuedAt) =>
+        queueWaitTime.record(System.nanoTime() - queuedAt)
+        InputBatch(spillFile.read())
+      case other =>
+        other
+    }
+  }
 
   def disableDataQueue(): Unit = dataQueue.enable(false)
 
@@ -61,6 +111,13 @@ trait WorkerInternalQueue {
 
   def getDataQueueLength: Int = dataQueue.size()
 
+  // estimated size of the batches in memory
+  def getDataQueueBytes: Long = queuedBytes.get()
+
+  def getSpilledBytes: Long = spillFile.spilledBytes
+
+  def closeSpillFile(): Unit = spillFile.close()
+
   def getControlQueueLength: Int = controlQueue.size()
 
   def isControlQueueEmpty: Boolean = controlQueue.isEmpty
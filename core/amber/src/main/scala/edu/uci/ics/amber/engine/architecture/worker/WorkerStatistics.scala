@@ -1,16 +1,45 @@
 package edu.uci.ics.amber.engine.architecture.worker
 
 import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager.WorkerState
-import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.{HistogramSnapshot, ResultChange}
 import edu.uci.ics.texera.workflow.common.IncrementalOutputMode
 
 case class WorkerStatistics(
     workerState: WorkerState,
     inputRowCount: Long,
-    outputRowCount: Long
+    outputRowCount: Long,
+    hotKeyCount: Int = 0,
+    dataQueueLength: Int = 0,
+    dataQueueBytes: Long = 0,
+    spilledBytes: Long = 0,
+    metrics: WorkerMetrics = WorkerMetrics(),
+    // garbage collection pauses of the JVM of the worker since it started, every worker of a JVM
+    // sees the same pauses, so they are reported per node instead of merged into the metrics
+    gcPauses: HistogramSnapshot = HistogramSnapshot.empty,
+    // output row count of each operator fused into this worker, in pipeline order
+    fusedStageOutputCounts: List[Long] = List()
 )
 
+// where the time of a worker goes, all durations are in nanoseconds
+case class WorkerMetrics(
+    // running the operator logic on an input batch, or on the end of its input
+    processingTime: HistogramSnapshot = HistogramSnapshot.empty,
+    // an input batch waiting in the internal queue before the DP thread takes it
+    queueWaitTime: HistogramSnapshot = HistogramSnapshot.empty,
+    // the DP thread waiting for the credits of downstream workers
+    backpressureTime: HistogramSnapshot = HistogramSnapshot.empty
+) {
+  def merge(other: WorkerMetrics): WorkerMetrics =
+    WorkerMetrics(
+      processingTime.merge(other.processingTime),
+      queueWaitTime.merge(other.queueWaitTime),
+      backpressureTime.merge(other.backpressureTime)
+    )
+}
+
+// the changes to the result of a sink worker after fromVersion
 case class WorkerResult(
     outputMode: IncrementalOutputMode,
-    result: List[ITuple]
+    fromVersion: Long,
+    changes: List[ResultChange]
 )
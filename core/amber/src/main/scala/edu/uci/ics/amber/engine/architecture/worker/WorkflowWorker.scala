@@ -5,6 +5,7 @@ import akka.util.Timeout
 import com.softwaremill.macwire.wire
 import edu.uci.ics.amber.engine.architecture.common.WorkflowActor
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerExecutionStartedHandler.WorkerStateUpdated
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerStatisticsUpdatedHandler.WorkerStatisticsUpdated
 import edu.uci.ics.amber.engine.architecture.messaginglayer.{
   BatchToTupleConverter,
   DataOutputPort,
@@ -15,15 +16,16 @@ import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunication
   NetworkMessage,
   RegisterActorRef
 }
+import edu.uci.ics.amber.engine.architecture.worker.WorkflowWorker.PushStatistics
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.ShutdownDPThreadHandler.ShutdownDPThread
-import edu.uci.ics.amber.engine.common.IOperatorExecutor
+import edu.uci.ics.amber.engine.common.{Constants, IOperatorExecutor}
 import edu.uci.ics.amber.engine.common.ambermessage.{
   ControlPayload,
   DataPayload,
   WorkflowControlMessage,
   WorkflowDataMessage
 }
-import edu.uci.ics.amber.engine.common.rpc.{AsyncRPCClient, AsyncRPCHandlerInitializer}
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.{ControlInvocation, ReturnPayload}
 import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager
 import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager._
@@ -42,6 +44,9 @@ object WorkflowWorker {
       parentNetworkCommunicationActorRef: ActorRef
   ): Props =
     Props(new WorkflowWorker(id, op, parentNetworkCommunicationActorRef))
+
+  // sent by the scheduler to a worker to push its statistics to the controller
+  case object PushStatistics
 }
 
 class WorkflowWorker(
@@ -52,9 +57,13 @@ class WorkflowWorker(
   lazy val pauseManager: PauseManager = wire[PauseManager]
   lazy val dataProcessor: DataProcessor = wire[DataProcessor]
   lazy val dataInputPort: NetworkInputPort[DataPayload] =
-    new NetworkInputPort[DataPayload](this.logger, this.handleDataPayload)
+    new NetworkInputPort[DataPayload](this.logger, this.creditManager, this.handleDataPayload)
   lazy val controlInputPort: NetworkInputPort[ControlPayload] =
-    new NetworkInputPort[ControlPayload](this.logger, this.handleControlPayload)
+    new NetworkInputPort[ControlPayload](
+      this.logger,
+      this.creditManager,
+      this.handleControlPayload
+    )
   lazy val dataOutputPort: DataOutputPort = wire[DataOutputPort]
   lazy val batchProducer: TupleToBatchConverter = wire[TupleToBatchConverter]
   lazy val tupleProducer: BatchToTupleConverter = wire[BatchToTupleConverter]
@@ -62,11 +71,12 @@ class WorkflowWorker(
   implicit val ec: ExecutionContext = context.dispatcher
   implicit val timeout: Timeout = 5.seconds
   val workerStateManager: WorkerStateManager = new WorkerStateManager()
-  val rpcHandlerInitializer: AsyncRPCHandlerInitializer =
+  val rpcHandlerInitializer: WorkerAsyncRPCHandlerInitializer =
     wire[WorkerAsyncRPCHandlerInitializer]
 
   val receivedFaultedTupleIds: mutable.HashSet[Long] = new mutable.HashSet[Long]()
   var isCompleted = false
+  var lastPushedStatistics: WorkerStatistics = _
 
   if (parentNetworkCommunicationActorRef != null) {
     parentNetworkCommunicationActorRef ! RegisterActorRef(identifier, self)
@@ -78,11 +88,13 @@ class WorkflowWorker(
   override def receive: Receive = receiveAndProcessMessages
 
   def receiveAndProcessMessages: Receive = {
-    disallowActorRefRelatedMessages orElse {
+    disallowActorRefRelatedMessages orElse flushNetworkAcks orElse {
       case NetworkMessage(id, WorkflowDataMessage(from, seqNum, payload)) =>
         dataInputPort.handleMessage(this.sender(), id, from, seqNum, payload)
       case NetworkMessage(id, WorkflowControlMessage(from, seqNum, payload)) =>
         controlInputPort.handleMessage(this.sender(), id, from, seqNum, payload)
+      case PushStatistics =>
+        pushStatistics()
       case other =>
         logger.logError(
           WorkflowRuntimeError(s"unhandled message: $other", identifier.toString, Map.empty)
@@ -90,6 +102,25 @@ class WorkflowWorker(
     }
   }
 
+  override def freeDataCredits: Int =
+    Constants.dataQueueCapacity - dataProcessor.getDataQueueLength
+
+  /** sends the statistics of this worker to the controller if they changed since the last push.
+    * the dp thread is not involved, the counters it updates are read directly,
+    * and the control output port can be shared with the dp thread.
+    */
+  def pushStatistics(): Unit = {
+    val stats = rpcHandlerInitializer.collectStatistics()
+    if (stats != lastPushedStatistics) {
+      // sent without a reply, the controller merges it on arrival
+      controlOutputPort.sendTo(
+        CONTROLLER,
+        ControlInvocation(AsyncRPCClient.IgnoreReplyAndDoNotLog, WorkerStatisticsUpdated(stats))
+      )
+      lastPushedStatistics = stats
+    }
+  }
+
   final def handleDataPayload(from: ActorVirtualIdentity, dataPayload: DataPayload): Unit = {
     if (workerStateManager.getCurrentState == Ready) {
       workerStateManager.transitTo(Running)
@@ -110,6 +141,8 @@ class WorkflowWorker(
     controlPayload match {
       case controlCommand @ (ControlInvocation(_, _) | ReturnPayload(_, _)) =>
         dataProcessor.enqueueCommand(controlCommand, from)
+        // the dp thread might be waiting for credits
+        backpressureGate.wakeUp()
       case _ =>
         logger.logError(
           WorkflowRuntimeError(
@@ -122,6 +155,7 @@ class WorkflowWorker(
   }
 
   override def postStop(): Unit = {
+    rpcHandlerInitializer.statisticsPushHandle.foreach(_.cancel())
     // shutdown dp thread by sending a command
     dataProcessor.enqueueCommand(
       ControlInvocation(AsyncRPCClient.IgnoreReply, ShutdownDPThread()),
@@ -1,31 +1,63 @@
 package edu.uci.ics.amber.engine.architecture.worker.promisehandlers
 
+import edu.uci.ics.amber.engine.architecture.worker.WorkflowWorker.PushStatistics
 import edu.uci.ics.amber.engine.architecture.worker.{
   WorkerAsyncRPCHandlerInitializer,
+  WorkerMetrics,
   WorkerResult,
   WorkerStatistics
 }
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.QueryStatisticsHandler.{
   QueryStatistics,
-  QueryWorkerResult
+  QueryWorkerResult,
+  StartStatisticsPush
 }
-import edu.uci.ics.amber.engine.common.{Constants, ITupleSinkOperatorExecutor}
-import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.ControlCommand
+import edu.uci.ics.amber.engine.common.{Constants, GcPauseMonitor, ITupleSinkOperatorExecutor}
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+import edu.uci.ics.texera.workflow.common.operators.FusedOpExec
+
+import scala.concurrent.duration.{FiniteDuration, MILLISECONDS}
 
 object QueryStatisticsHandler {
   final case class QueryStatistics() extends ControlCommand[WorkerStatistics]
-  final case class QueryWorkerResult() extends ControlCommand[Option[WorkerResult]]
+  // the changes to the result of a sink worker after the version acknowledged by the sender
+  final case class QueryWorkerResult(ackedVersion: Long = 0)
+      extends ControlCommand[Option[WorkerResult]]
+  // push the statistics of the worker to the controller every intervalMs if they changed
+  final case class StartStatisticsPush(intervalMs: Long) extends ControlCommand[CommandCompleted]
 }
 
 trait QueryStatisticsHandler {
   this: WorkerAsyncRPCHandlerInitializer =>
 
   registerHandler { (msg: QueryStatistics, sender) =>
+    collectStatistics()
+  }
+
+  registerHandler { (msg: StartStatisticsPush, sender) =>
+    statisticsPushHandle.foreach(_.cancel())
+    val interval = FiniteDuration(msg.intervalMs, MILLISECONDS)
+    statisticsPushHandle = Option(
+      actorContext.system.scheduler.scheduleWithFixedDelay(
+        interval,
+        interval,
+        actorContext.self,
+        PushStatistics
+      )(actorContext.dispatcher)
+    )
+    CommandCompleted()
+  }
+
+  /** collects the statistics of this worker, only reads counters and queue sizes
+    * so it can be called by the worker actor while the dp thread is running.
+    */
+  def collectStatistics(): WorkerStatistics = {
     // report internal queue length if the gap > 30s
     val now = System.currentTimeMillis()
     if (now - lastReportTime > Constants.loggingQueueSizeInterval) {
       logger.logInfo(
-        s"Data Queue Length = ${dataProcessor.getDataQueueLength}, Control Queue Length = ${dataProcessor.getControlQueueLength}"
+        s"Data Queue Length = ${dataProcessor.getDataQueueLength}, Control Queue Length = ${dataProcessor.getControlQueueLength}, " +
+          s"Data Queue Bytes = ${dataProcessor.getDataQueueBytes}, Spilled Bytes = ${dataProcessor.getSpilledBytes}"
       )
       lastReportTime = now
     }
@@ -44,13 +76,34 @@ trait QueryStatisticsHandler {
 
     val state = stateManager.getCurrentState
 
-    WorkerStatistics(state, in, displayOut)
+    val fusedStageOutputCounts = operator match {
+      case fused: FusedOpExec => fused.stageOutputCounts
+      case _                  => List()
+    }
+
+    WorkerStatistics(
+      state,
+      in,
+      displayOut,
+      tupleToBatchConverter.hotKeyCount,
+      dataProcessor.getDataQueueLength,
+      dataProcessor.getDataQueueBytes,
+      dataProcessor.getSpilledBytes,
+      WorkerMetrics(
+        dataProcessor.processingTime.snapshot(),
+        dataProcessor.queueWaitTime.snapshot(),
+        dataProcessor.backpressureTime.snapshot()
+      ),
+      GcPauseMonitor.snapshot().minus(gcPausesAtStart),
+      fusedStageOutputCounts
+    )
   }
 
   registerHandler((msg: QueryWorkerResult, sender) => {
     operator match {
       case sink: ITupleSinkOperatorExecutor =>
-        Option(WorkerResult(sink.getOutputMode(), sink.getResultTuples()))
+        val changes = sink.getResultChanges(msg.ackedVersion)
+        Option(WorkerResult(sink.getOutputMode(), msg.ackedVersion, changes))
       case _ =>
         Option.empty
     }
@@ -0,0 +1,19 @@
+package edu.uci.ics.amber.engine.architecture.worker.promisehandlers
+
+import edu.uci.ics.amber.engine.architecture.worker.WorkerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.StopProducingHandler.StopProducing
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+
+object StopProducingHandler {
+  final case class StopProducing() extends ControlCommand[CommandCompleted]
+}
+
+trait StopProducingHandler {
+  this: WorkerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: StopProducing, sender) =>
+    dataProcessor.stopProducing()
+    CommandCompleted()
+  }
+
+}
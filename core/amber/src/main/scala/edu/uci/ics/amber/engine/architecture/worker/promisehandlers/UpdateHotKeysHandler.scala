@@ -0,0 +1,21 @@
+package edu.uci.ics.amber.engine.architecture.worker.promisehandlers
+
+import edu.uci.ics.amber.engine.architecture.worker.WorkerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.UpdateHotKeysHandler.UpdateHotKeys
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+
+object UpdateHotKeysHandler {
+  final case class UpdateHotKeys(linkID: LinkIdentity, hotKeys: Array[Int])
+      extends ControlCommand[CommandCompleted]
+}
+
+trait UpdateHotKeysHandler {
+  this: WorkerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: UpdateHotKeys, sender) =>
+    tupleToBatchConverter.setHotKeys(msg.linkID, msg.hotKeys)
+    CommandCompleted()
+  }
+
+}
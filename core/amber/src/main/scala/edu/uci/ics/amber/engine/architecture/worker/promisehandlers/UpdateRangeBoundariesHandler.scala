@@ -0,0 +1,21 @@
+package edu.uci.ics.amber.engine.architecture.worker.promisehandlers
+
+import edu.uci.ics.amber.engine.architecture.worker.WorkerAsyncRPCHandlerInitializer
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.UpdateRangeBoundariesHandler.UpdateRangeBoundaries
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+
+object UpdateRangeBoundariesHandler {
+  final case class UpdateRangeBoundaries(linkID: LinkIdentity, boundaries: Array[Array[AnyRef]])
+      extends ControlCommand[CommandCompleted]
+}
+
+trait UpdateRangeBoundariesHandler {
+  this: WorkerAsyncRPCHandlerInitializer =>
+
+  registerHandler { (msg: UpdateRangeBoundaries, sender) =>
+    tupleToBatchConverter.setRangeBoundaries(msg.linkID, msg.boundaries)
+    CommandCompleted()
+  }
+
+}
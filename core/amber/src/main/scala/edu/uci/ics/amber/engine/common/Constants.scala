@@ -14,6 +14,51 @@ object Constants {
   var dataVolumePerNode = 10
   var defaultTau: FiniteDuration = 10.milliseconds
 
+  // fuse chains of one-to-one operators into a single layer of workers
+  var enableOperatorFusion = true
+
+  // number of receivers the tuples of a hot join key are spread over, 1 disables it
+  var hotKeyFanout = 4
+
+  // credit-based flow control, counted in data messages (batches)
+  // data messages a worker buffers, its senders are granted credits from the free space
+  var dataQueueCapacity = 64
+  // credits a sender assumes before the first ack of a receiver
+  var initialCredits = 8
+  // the DP thread stops producing while this many of its data messages wait for credits
+  var maxWaitingDataMessages = 16
+  // a receiver acks after this many messages, or after ackFlushInterval
+  val ackBatchSize = 4
+  val ackFlushInterval: FiniteDuration = 10.milliseconds
+  // batches queued at a worker beyond this estimated size are spilled to a temp file
+  var dataQueueMaxBytes: Long = 64L * 1024 * 1024
+
+  // estimated size of the build side a hash join keeps in memory, its partitions beyond it
+  // are spilled to disk together with their probe tuples and joined in a second pass
+  var joinMemoryBudget: Long = 256L * 1024 * 1024
+  var joinPartitions = 32
+  // estimated size of the groups an aggregation keeps in memory, beyond it partial
+  // aggregations emit their groups early and final aggregations spill them to disk
+  var aggregationMemoryBudget: Long = 256L * 1024 * 1024
+  var aggregationPartitions = 32
+  // estimated size of the tuples a sort worker keeps in memory, beyond it they are sorted
+  // and spilled as a run. senders of a range shuffle buffer their output the same way
+  // until the range boundaries are known
+  var sortMemoryBudget: Long = 256L * 1024 * 1024
+  // keys each sender of a range shuffle samples to compute the range boundaries
+  var rangeSampleSize = 1000
+  // tuples per page of a result store, and estimated size of the pages it keeps in memory,
+  // its oldest pages beyond it are spilled to a segment file
+  var resultPageSize = 1024
+  var resultStoreMemoryBudget: Long = 64L * 1024 * 1024
+
+  // statistics pushes the controller receives per second at most, workers of a large
+  // workflow push less often than the status update interval to stay below it
+  var maxStatisticsPushesPerSecond = 1000
+  // the controller keeps the throughput of each operator over the last 5 minutes
+  var throughputSampleIntervalMs = 1000
+  var throughputSeriesLength = 300
+
   // time interval for logging queue sizes - 30s
   val loggingQueueSizeInterval = 30000
 }
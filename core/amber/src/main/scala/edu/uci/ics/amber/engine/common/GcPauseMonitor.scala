@@ -0,0 +1,42 @@
+package edu.uci.ics.amber.engine.common
+
+import com.sun.management.GarbageCollectionNotificationInfo
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+import javax.management.openmbean.CompositeData
+import javax.management.{Notification, NotificationEmitter, NotificationListener}
+import scala.collection.JavaConverters._
+
+/**
+  * Records the garbage collection pauses of this JVM, from the notifications of its collectors.
+  * A worker reports the pauses since it started, so every worker of a JVM sees the same pauses.
+  */
+object GcPauseMonitor {
+
+  private val pauses = new LatencyHistogram()
+
+  private val listener = new NotificationListener {
+    override def handleNotification(notification: Notification, handback: Any): Unit = {
+      if (
+        notification.getType == GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+      ) {
+        val info = GarbageCollectionNotificationInfo.from(
+          notification.getUserData.asInstanceOf[CompositeData]
+        )
+        // concurrent cycles run alongside the application without pausing it
+        if (!info.getGcName.contains("Concurrent")) {
+          pauses.record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo.getDuration))
+        }
+      }
+    }
+  }
+
+  ManagementFactory.getGarbageCollectorMXBeans.asScala.foreach {
+    case emitter: NotificationEmitter =>
+      emitter.addNotificationListener(listener, null, null)
+    case _ =>
+  }
+
+  def snapshot(): HistogramSnapshot = pauses.snapshot()
+}
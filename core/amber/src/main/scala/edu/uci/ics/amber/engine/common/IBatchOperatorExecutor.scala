@@ -0,0 +1,49 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
+
+/**
+  * An operator executor that can also process a whole batch of input tuples at a time.
+  * The DataProcessor uses processBatch for consecutive input tuples of the same link,
+  * processColumnarBatch for the columnar batches it receives, and still uses processTuple
+  * for InputExhausted.
+  */
+trait IBatchOperatorExecutor extends IOperatorExecutor {
+
+  /**
+    * Process a batch of input tuples that all come from the same input link.
+    * The result must be the same as calling processTuple on each tuple in order
+    * and concatenating the outputs. Every tuple is processed exactly once: when
+    * processing a tuple throws, the executor passes that tuple and the exception to
+    * onFailure, which returns once the user resumes, then goes on with the next tuple.
+    * @param batch input tuples, the array must not be modified.
+    * @param input the input link of all the tuples in the batch.
+    * @param onFailure reports a tuple that could not be processed.
+    * @return output tuples of the whole batch, without outputs of failed tuples.
+    */
+  def processBatch(
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple]
+
+  /**
+    * Process the rows of a columnar batch, with the same contract as processBatch.
+    * By default the rows are materialized as tuples and passed to processBatch,
+    * executors which can work on the columns override it.
+    * @param batch input rows, all from the same input link.
+    * @param input the input link of all the rows in the batch.
+    * @param onFailure reports a row that could not be processed.
+    * @return output tuples of the whole batch, without outputs of failed rows.
+    */
+  def processColumnarBatch(
+      batch: ColumnarBatch,
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    processBatch(Array.tabulate[ITuple](batch.rowCount)(batch.getTuple), input, onFailure)
+  }
+
+}
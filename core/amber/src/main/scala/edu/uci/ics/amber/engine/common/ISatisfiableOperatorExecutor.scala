@@ -0,0 +1,17 @@
+package edu.uci.ics.amber.engine.common
+
+/**
+  * An operator executor that can need no more input before its input is exhausted,
+  * e.g. a limit that has output enough tuples.
+  * Once it is satisfied, the DataProcessor drops its further input tuples and the
+  * controller stops the upstream operators whose output no other operator needs.
+  */
+trait ISatisfiableOperatorExecutor extends IOperatorExecutor {
+
+  /**
+    * Checked after each input tuple or batch, once it is true it must stay true.
+    * @return whether more input tuples can no longer change the output.
+    */
+  def isSatisfied: Boolean
+
+}
@@ -0,0 +1,17 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+
+/**
+  * An operator executor that needs to know which upstream worker sent its input,
+  * e.g. to put the ranges of a range shuffle together in order.
+  */
+trait ISenderAwareOperatorExecutor extends IOperatorExecutor {
+
+  /**
+    * Called by the DataProcessor before the input from another upstream worker.
+    * @param sender the upstream worker which sent the following input tuples.
+    */
+  def setInputSender(sender: ActorVirtualIdentity): Unit
+
+}
@@ -1,11 +1,14 @@
 package edu.uci.ics.amber.engine.common
 
-import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.texera.workflow.common.IncrementalOutputMode
 
 trait ITupleSinkOperatorExecutor extends IOperatorExecutor {
 
-  def getResultTuples(): List[ITuple]
+  /**
+    * Returns the changes to the result after ackedVersion,
+    * the changes up to ackedVersion have been received and can be discarded.
+    */
+  def getResultChanges(ackedVersion: Long): List[ResultChange]
 
   def getOutputMode(): IncrementalOutputMode
 
@@ -0,0 +1,115 @@
+package edu.uci.ics.amber.engine.common
+
+import java.util.concurrent.atomic.{AtomicLong, AtomicLongArray}
+
+object LatencyHistogram {
+  // each power of two is split into this many linear sub-buckets, i.e. 12.5% precision
+  private val SUB_BUCKET_BITS = 3
+  private val SUB_BUCKETS = 1 << SUB_BUCKET_BITS
+  private val BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS
+
+  def bucketOf(nanos: Long): Int = {
+    if (nanos < SUB_BUCKETS) {
+      nanos.toInt
+    } else {
+      val exponent = 63 - java.lang.Long.numberOfLeadingZeros(nanos)
+      val subBucket = (nanos >>> (exponent - SUB_BUCKET_BITS)).toInt & (SUB_BUCKETS - 1)
+      (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket
+    }
+  }
+
+  // the smallest duration of a bucket
+  def lowerBoundOf(bucket: Int): Long = {
+    if (bucket < SUB_BUCKETS) {
+      bucket
+    } else {
+      val exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1
+      (SUB_BUCKETS + bucket % SUB_BUCKETS).toLong << (exponent - SUB_BUCKET_BITS)
+    }
+  }
+}
+
+/**
+  * A histogram of durations in nanoseconds, in the style of HdrHistogram: buckets grow
+  * exponentially, and every power of two is split into linear sub-buckets, so percentiles
+  * are exact up to 12.5% and the histogram takes a few KB whatever it records.
+  *
+  * It is recorded by one thread and read by others, e.g. recorded by the DP thread and read
+  * by the worker actor when it reports the statistics of the worker.
+  */
+class LatencyHistogram {
+  import LatencyHistogram._
+
+  private val counts = new AtomicLongArray(BUCKET_COUNT)
+  private val totalNanos = new AtomicLong()
+  private val maxNanos = new AtomicLong()
+
+  def record(nanos: Long): Unit = {
+    val value = Math.max(nanos, 0)
+    counts.incrementAndGet(bucketOf(value))
+    totalNanos.addAndGet(value)
+    if (value > maxNanos.get()) {
+      maxNanos.set(value)
+    }
+  }
+
+  def snapshot(): HistogramSnapshot = {
+    val buckets = (0 until BUCKET_COUNT).iterator
+      .map(bucket => (bucket, counts.get(bucket)))
+      .filter(_._2 > 0)
+      .toMap
+    HistogramSnapshot(buckets, totalNanos.get(), maxNanos.get())
+  }
+}
+
+object HistogramSnapshot {
+  val empty: HistogramSnapshot = HistogramSnapshot(Map(), 0, 0)
+}
+
+/**
+  * The counts of the non-empty buckets of a LatencyHistogram at some point,
+  * small enough to be sent along with the statistics of a worker.
+  */
+case class HistogramSnapshot(buckets: Map[Int, Long], totalNanos: Long, maxNanos: Long) {
+
+  def count: Long = buckets.values.sum
+
+  def meanNanos: Long = if (count == 0) 0 else totalNanos / count
+
+  /**
+    * @param percentile between 0 and 100.
+    * @return the highest duration of the bucket the percentile falls into.
+    */
+  def percentileNanos(percentile: Double): Long = {
+    val total = count
+    if (total == 0) {
+      0
+    } else {
+      val rank = Math.max(1, Math.ceil(total * percentile / 100).toLong)
+      var seen = 0L
+      val bucket = buckets.keys.toArray.sorted.find(bucket => {
+        seen += buckets(bucket)
+        seen >= rank
+      })
+      Math.min(LatencyHistogram.lowerBoundOf(bucket.get + 1) - 1, maxNanos)
+    }
+  }
+
+  def merge(other: HistogramSnapshot): HistogramSnapshot = {
+    val merged = (buckets.keySet ++ other.buckets.keySet)
+      .map(bucket => (bucket, buckets.getOrElse(bucket, 0L) + other.buckets.getOrElse(bucket, 0L)))
+      .toMap
+    HistogramSnapshot(merged, totalNanos + other.totalNanos, Math.max(maxNanos, other.maxNanos))
+  }
+
+  /**
+    * The durations recorded since an earlier snapshot of the same histogram,
+    * the maximum is kept since it cannot be taken back.
+    */
+  def minus(earlier: HistogramSnapshot): HistogramSnapshot = {
+    val remaining = buckets
+      .map { case (bucket, count) => (bucket, count - earlier.buckets.getOrElse(bucket, 0L)) }
+      .filter(_._2 > 0)
+    HistogramSnapshot(remaining, totalNanos - earlier.totalNanos, maxNanos)
+  }
+}
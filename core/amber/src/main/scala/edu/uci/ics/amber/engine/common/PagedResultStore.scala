@@ -0,0 +1,394 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.architecture.worker.{BatchSpillFile, TupleReader, TupleWriter}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+
+import java.io.{
+  ByteArrayInputStream,
+  ByteArrayOutputStream,
+  DataInputStream,
+  DataOutputStream,
+  File,
+  RandomAccessFile
+}
+import java.util
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * The tuples of a result in insertion order, kept in pages of Constants.resultPageSize slots.
+  *
+  * A retraction finds the earliest slot of an equal tuple through a hash index and leaves
+  * a hole in its page. A Fenwick tree over the live counts of the pages locates a position
+  * in O(log pages) plus a scan of one page. Once the holes outnumber the live tuples, the
+  * live tuples are compacted into new pages, which reclaims the pages, the index entries
+  * and the spilled segments of the holes. The oldest full pages beyond
+  * Constants.resultStoreMemoryBudget are spilled to a segment file, and read back on access.
+  *
+  * The first position changed since the last call to dirtyPageIndices is tracked on write.
+  * This class is thread-safe.
+  */
+class PagedResultStore {
+
+  private class Page {
+    // null once the page is spilled
+    var tuples: Array[ITuple] = new Array[ITuple](pageSize)
+    var slotCount = 0
+    var liveCount = 0
+    var bytes = 0L
+    var spillOffset = 0L
+    var spillLength = 0
+  }
+
+  /**
+    * The slots of the tuples in insertion order, with the pages they are kept in.
+    */
+  private class Slots {
+    val pages = new ArrayBuffer[Page]()
+    val live = new util.BitSet()
+    var slotCount = 0
+    // a Fenwick tree over the live counts of the pages, node i covers the pages (i - lowbit(i), i]
+    private var pageLiveCounts = new Array[Int](16)
+
+    private var memoryBytes = 0L
+    private var nextPageToSpill = 0
+    private var segmentFile: File = _
+    private var segment: RandomAccessFile = _
+    // the last spilled page read back
+    private var cachedPage = -1
+    private var cachedTuples: Array[ITuple] = _
+
+    /** @return the slot of the tuple.
+      */
+    def append(tuple: ITuple): Int = {
+      val slot = slotCount
+      if (slot % pageSize == 0) {
+        addPage()
+      }
+      val page = pages.last
+      page.tuples(slot % pageSize) = tuple
+      page.slotCount += 1
+      val bytes = BatchSpillFile.estimateSize(tuple)
+      page.bytes += bytes
+      memoryBytes += bytes
+      setLive(slot)
+      slotCount += 1
+      releaseMemory()
+      slot
+    }
+
+    def remove(slot: Int): Unit = {
+      val page = pages(slot / pageSize)
+      if (page.tuples != null) {
+        page.tuples(slot % pageSize) = null
+      }
+      page.liveCount -= 1
+      addToPageLiveCount(slot / pageSize, -1)
+      live.clear(slot)
+    }
+
+    def get(slot: Int): ITuple = {
+      val pageIndex = slot / pageSize
+      val page = pages(pageIndex)
+      if (page.tuples != null) {
+        page.tuples(slot % pageSize)
+      } else {
+        if (cachedPage != pageIndex) {
+          val bytes = new Array[Byte](page.spillLength)
+          segment.seek(page.spillOffset)
+          segment.readFully(bytes)
+          val reader = new TupleReader(new DataInputStream(new ByteArrayInputStream(bytes)))
+          cachedTuples = Array.fill(page.slotCount)(reader.read())
+          cachedPage = pageIndex
+        }
+        cachedTuples(slot % pageSize)
+      }
+    }
+
+    def positionOf(slot: Int): Int = {
+      val pageIndex = slot / pageSize
+      livePagesPrefix(pageIndex) + live.get(pageIndex * pageSize, slot).cardinality()
+    }
+
+    def slotAt(position: Int): Int = {
+      // descend the Fenwick tree to the last page whose preceding pages hold at most position tuples
+      var pageIndex = 0
+      var remaining = position
+      var step = Integer.highestOneBit(pages.size)
+      while (step > 0) {
+        val node = pageIndex + step
+        if (node <= pages.size && pageLiveCounts(node) <= remaining) {
+          pageIndex = node
+          remaining -= pageLiveCounts(node)
+        }
+        step >>>= 1
+      }
+      var slot = live.nextSetBit(pageIndex * pageSize)
+      while (remaining > 0) {
+        slot = live.nextSetBit(slot + 1)
+        remaining -= 1
+      }
+      slot
+    }
+
+    def close(): Unit = {
+      pages.clear()
+      live.clear()
+      cachedTuples = null
+      if (segment != null) {
+        segment.close()
+        segment = null
+        segmentFile.delete()
+        segmentFile = null
+      }
+    }
+
+    private[this] def setLive(slot: Int): Unit = {
+      pages(slot / pageSize).liveCount += 1
+      addToPageLiveCount(slot / pageSize, 1)
+      live.set(slot)
+    }
+
+    private[this] def addPage(): Unit = {
+      val node = pages.size + 1
+      if (node == pageLiveCounts.length) {
+        pageLiveCounts = util.Arrays.copyOf(pageLiveCounts, node * 2)
+      }
+      // the new page is empty, its node holds the counts of the pages before it which it covers
+      pageLiveCounts(node) = livePagesPrefix(node - 1) - livePagesPrefix(node - (node & -node))
+      pages += new Page()
+    }
+
+    private[this] def addToPageLiveCount(pageIndex: Int, delta: Int): Unit = {
+      var node = pageIndex + 1
+      while (node <= pages.size) {
+        pageLiveCounts(node) += delta
+        node += node & -node
+      }
+    }
+
+    /** @return the number of live tuples in the pages before the given page.
+      */
+    private[this] def livePagesPrefix(pageIndex: Int): Int = {
+      var count = 0
+      var node = pageIndex
+      while (node > 0) {
+        count += pageLiveCounts(node)
+        node -= node & -node
+      }
+      count
+    }
+
+    /** spills the oldest full pages until memory fits the budget.
+      */
+    private[this] def releaseMemory(): Unit = {
+      while (
+        memoryBytes > Constants.resultStoreMemoryBudget && nextPageToSpill < pages.size - 1
+      ) {
+        val page = pages(nextPageToSpill)
+        if (segment == null) {
+          segmentFile = File.createTempFile("amber-result-", ".segment")
+          segment = new RandomAccessFile(segmentFile, "rw")
+        }
+        // the holes of retracted tuples are written as well, to keep the slots in place
+        val buffer = new ByteArrayOutputStream()
+        val writer = new TupleWriter(new DataOutputStream(buffer))
+        page.tuples.take(page.slotCount).foreach(t => writer.write(if (t == null) ITuple() else t))
+        page.spillOffset = segment.length()
+        page.spillLength = buffer.size()
+        segment.seek(page.spillOffset)
+        segment.write(buffer.toByteArray)
+        page.tuples = null
+        memoryBytes -= page.bytes
+        nextPageToSpill += 1
+      }
+    }
+  }
+
+  private val pageSize = Constants.resultPageSize
+  private var slots = new Slots()
+  private var tupleCount = 0
+
+  // the hash index: a chain of slots in insertion order per bucket, live slots only
+  private var bucketHeads = Array.fill(1024)(-1)
+  private var bucketTails = Array.fill(1024)(-1)
+  private var nextSlots = new Array[Int](1024)
+  private var slotHashes = new Array[Int](1024)
+
+  private var firstDirtyPosition = 0
+  private var checkedSize = 0
+
+  def size: Int = synchronized(tupleCount)
+
+  /**
+    * @return the number of pages, including the pages of retracted tuples not compacted yet.
+    */
+  private[common] def pageCount: Int = synchronized(slots.pages.size)
+
+  /**
+    * Appends a tuple.
+    * @return its position.
+    */
+  def insert(tuple: ITuple): Int =
+    synchronized {
+      val slot = slots.append(tuple)
+      tupleCount += 1
+      addToIndex(slot, tuple.hashCode())
+      markDirty(tupleCount - 1)
+      tupleCount - 1
+    }
+
+  /**
+    * Retracts the earliest tuple equal to the given one.
+    * @return its position, or -1 if there is no such tuple.
+    */
+  def retract(tuple: ITuple): Int =
+    synchronized {
+      val hash = tuple.hashCode()
+      val bucket = bucketOf(hash)
+      var previous = -1
+      var slot = bucketHeads(bucket)
+      while (slot != -1 && (slotHashes(slot) != hash || slots.get(slot) != tuple)) {
+        previous = slot
+        slot = nextSlots(slot)
+      }
+      if (slot == -1) {
+        -1
+      } else {
+        // unlink the slot from its chain
+        if (previous == -1) bucketHeads(bucket) = nextSlots(slot)
+        else nextSlots(previous) = nextSlots(slot)
+        if (bucketTails(bucket) == slot) {
+          bucketTails(bucket) = previous
+        }
+        val position = slots.positionOf(slot)
+        slots.remove(slot)
+        tupleCount -= 1
+        markDirty(position)
+        if (slots.slotCount - tupleCount > Math.max(tupleCount, pageSize)) {
+          compact()
+        }
+        position
+      }
+    }
+
+  /**
+    * Applies changes made to another result, the positions of the changes are ignored.
+    * @return the changes with their positions in this result, without the retractions
+    *         of tuples it doesn't have.
+    */
+  def applyChanges(changes: Iterable[ResultChange]): List[ResultChange] =
+    synchronized {
+      changes.flatMap { change =>
+        if (change.isInsertion) {
+          Some(change.copy(position = insert(change.tuple)))
+        } else {
+          val position = retract(change.tuple)
+          if (position == -1) None else Some(change.copy(position = position))
+        }
+      }.toList
+    }
+
+  /**
+    * @return the tuples between the positions from (inclusive) and until (exclusive).
+    */
+  def slice(from: Int, until: Int): List[ITuple] =
+    synchronized {
+      val result = new ArrayBuffer[ITuple]()
+      val end = Math.min(until, tupleCount)
+      if (from < end) {
+        var slot = slots.slotAt(from)
+        while (result.size < end - from) {
+          result += slots.get(slot)
+          slot = slots.live.nextSetBit(slot + 1)
+        }
+      }
+      result.toList
+    }
+
+  def getTuples: List[ITuple] = slice(0, Int.MaxValue)
+
+  /**
+    * Returns the pages whose tuples changed since the last call: an insertion or a retraction
+    * shifts all the tuples after it, so every page from the first changed position to the end
+    * is dirty.
+    * @return list of indices of modified pages, index starts from 1
+    */
+  def dirtyPageIndices(pageSize: Int): List[Int] =
+    synchronized {
+      val lastPosition = Math.max(checkedSize, tupleCount) - 1
+      val indices =
+        if (firstDirtyPosition > lastPosition) List()
+        else (firstDirtyPosition / pageSize + 1 to lastPosition / pageSize + 1).toList
+      firstDirtyPosition = tupleCount
+      checkedSize = tupleCount
+      indices
+    }
+
+  def close(): Unit =
+    synchronized {
+      slots.close()
+      slots = new Slots()
+      tupleCount = 0
+      util.Arrays.fill(bucketHeads, -1)
+      util.Arrays.fill(bucketTails, -1)
+      firstDirtyPosition = 0
+      checkedSize = 0
+    }
+
+  private[this] def markDirty(position: Int): Unit = {
+    firstDirtyPosition = Math.min(firstDirtyPosition, position)
+  }
+
+  /**
+    * Moves the live tuples into new slots in the same order, and rebuilds the hash index.
+    * The positions of the tuples don't change.
+    */
+  private[this] def compact(): Unit = {
+    val oldSlots = slots
+    val oldHashes = slotHashes
+    slots = new Slots()
+    nextSlots = new Array[Int](Math.max(1024, tupleCount))
+    slotHashes = new Array[Int](nextSlots.length)
+    util.Arrays.fill(bucketHeads, -1)
+    util.Arrays.fill(bucketTails, -1)
+    var oldSlot = oldSlots.live.nextSetBit(0)
+    while (oldSlot != -1) {
+      val slot = slots.append(oldSlots.get(oldSlot))
+      slotHashes(slot) = oldHashes(oldSlot)
+      appendToChain(slot)
+      oldSlot = oldSlots.live.nextSetBit(oldSlot + 1)
+    }
+    oldSlots.close()
+  }
+
+  private[this] def addToIndex(slot: Int, hash: Int): Unit = {
+    if (slot == nextSlots.length) {
+      nextSlots = util.Arrays.copyOf(nextSlots, slot * 2)
+      slotHashes = util.Arrays.copyOf(slotHashes, slot * 2)
+    }
+    slotHashes(slot) = hash
+    if (tupleCount > bucketHeads.length) {
+      // rebuild the chains from the live slots, in insertion order
+      bucketHeads = Array.fill(bucketHeads.length * 2)(-1)
+      bucketTails = Array.fill(bucketTails.length * 2)(-1)
+      var liveSlot = slots.live.nextSetBit(0)
+      while (liveSlot != -1) {
+        appendToChain(liveSlot)
+        liveSlot = slots.live.nextSetBit(liveSlot + 1)
+      }
+    } else {
+      appendToChain(slot)
+    }
+  }
+
+  private[this] def appendToChain(slot: Int): Unit = {
+    val bucket = bucketOf(slotHashes(slot))
+    nextSlots(slot) = -1
+    if (bucketTails(bucket) == -1) bucketHeads(bucket) = slot
+    else nextSlots(bucketTails(bucket)) = slot
+    bucketTails(bucket) = slot
+  }
+
+  private[this] def bucketOf(hash: Int): Int = (hash ^ (hash >>> 16)) & (bucketHeads.length - 1)
+
+}
@@ -0,0 +1,69 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * A change to a result: a tuple inserted at, or retracted from, a position of the result.
+  * Positions refer to the result right before the change is applied.
+  */
+case class ResultChange(isInsertion: Boolean, position: Int, tuple: ITuple)
+
+/**
+  * A result whose every change bumps its version by one.
+  *
+  * A sink worker records its changes with insert and retract, and hands out the changes after
+  * the version its reader acknowledged with changesSince, discarding the acknowledged ones.
+  * The reader applies them to its own PagedResultStore.
+  *
+  * @param keepTuples whether to keep the tuples of the result, a sink that only outputs
+  *                   deltas doesn't need them and only keeps the changes not acknowledged yet.
+  */
+class VersionedResultStore(val keepTuples: Boolean = true) {
+
+  private val tuples = if (keepTuples) new PagedResultStore() else null
+  // the changes after baseVersion
+  private val changes = new ArrayBuffer[ResultChange]()
+  private var baseVersion = 0L
+  private var insertCount = 0
+
+  def version: Long = baseVersion + changes.size
+
+  def insert(tuple: ITuple): Unit = {
+    val position = if (keepTuples) tuples.insert(tuple) else insertCount
+    changes += ResultChange(isInsertion = true, position, tuple)
+    insertCount += 1
+  }
+
+  def retract(tuple: ITuple): Unit = {
+    assert(keepTuples, "cannot retract from a result without its tuples")
+    val position = tuples.retract(tuple)
+    if (position >= 0) {
+      changes += ResultChange(isInsertion = false, position, tuple)
+    }
+  }
+
+  /**
+    * Discards the changes up to ackedVersion and returns the changes after it.
+    */
+  def changesSince(ackedVersion: Long): List[ResultChange] = {
+    assert(
+      ackedVersion >= baseVersion && ackedVersion <= version,
+      s"acknowledged version $ackedVersion is not between $baseVersion and $version"
+    )
+    changes.remove(0, (ackedVersion - baseVersion).toInt)
+    baseVersion = ackedVersion
+    changes.toList
+  }
+
+  /**
+    * Drops the tuples of the result, the changes not acknowledged yet are kept.
+    */
+  def close(): Unit = {
+    if (keepTuples) {
+      tuples.close()
+    }
+  }
+
+}
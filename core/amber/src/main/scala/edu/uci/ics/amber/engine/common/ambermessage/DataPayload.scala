@@ -1,6 +1,7 @@
 package edu.uci.ics.amber.engine.common.ambermessage
 
 import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
 
 sealed trait DataPayload extends Serializable {}
 
@@ -24,3 +25,9 @@ final case class DataFrame(frame: Array[ITuple]) extends DataPayload {
     true
   }
 }
+
+/**
+  * A batch of Texera tuples in columnar layout: the schema is shipped once
+  * per batch and the values sit in typed column vectors.
+  */
+final case class ColumnarDataFrame(batch: ColumnarBatch) extends DataPayload
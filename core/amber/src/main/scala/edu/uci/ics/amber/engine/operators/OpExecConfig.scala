@@ -5,6 +5,11 @@ import edu.uci.ics.amber.engine.architecture.controller.Workflow
 import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.{WorkerInfo, WorkerLayer}
 import edu.uci.ics.amber.engine.architecture.linksemantics.LinkStrategy
 import edu.uci.ics.amber.engine.architecture.principal.{OperatorState, OperatorStatistics}
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  NoSkewHandling,
+  SkewHandling
+}
+import edu.uci.ics.amber.engine.architecture.worker.WorkerMetrics
 import edu.uci.ics.amber.engine.common.WorkflowLogger
 import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager._
 import edu.uci.ics.amber.engine.common.virtualidentity.{
@@ -43,7 +48,13 @@ abstract class OpExecConfig(val id: OperatorIdentity) extends Serializable {
     topology.layers.find(_.identifiers.contains(id)).get
 
   def getOperatorStatistics: OperatorStatistics =
-    OperatorStatistics(getState, getInputRowCount, getOutputRowCount)
+    OperatorStatistics(getState, getInputRowCount, getOutputRowCount, getMetrics)
+
+  /**
+    * Statistics of the logical operators this config runs, keyed by operator ID.
+    */
+  def getOperatorStatisticsByID: Map[String, OperatorStatistics] =
+    Map(id.operator -> getOperatorStatistics)
 
   def getState: OperatorState = {
     val workerStates = getAllWorkerStates
@@ -71,18 +82,39 @@ abstract class OpExecConfig(val id: OperatorIdentity) extends Serializable {
 
   def getOutputRowCount: Long = topology.layers.last.statistics.map(_.outputRowCount).sum
 
+  def getMetrics: WorkerMetrics =
+    topology.layers.flatMap(_.statistics).map(_.metrics).foldLeft(WorkerMetrics())(_.merge(_))
+
   def checkStartDependencies(workflow: Workflow): Unit = {
     //do nothing by default
   }
 
   def requiredShuffle: Boolean = false
 
+  /**
+    * Whether the input is shuffled by ranges of the partition columns instead of hashes,
+    * e.g. to sort it in parallel.
+    */
+  def requiredRangeShuffle: Boolean = false
+
   def setInputToOrdinalMapping(input: LinkIdentity, ordinal: Integer): Unit = {
     this.inputToOrdinalMapping.update(input, ordinal)
   }
 
   def getPartitionColumnIndices(layer: LayerIdentity): Array[Int] = ???
 
+  /**
+    * Whether each partition column of the range shuffle from the given upstream layer
+    * is in descending order, all ascending by default.
+    */
+  def getPartitionDescending(layer: LayerIdentity): Array[Boolean] =
+    getPartitionColumnIndices(layer).map(_ => false)
+
+  /**
+    * How the hash shuffle from the given upstream layer handles heavy hitters.
+    */
+  def getSkewHandling(layer: LayerIdentity): SkewHandling = NoSkewHandling
+
   def assignBreakpoint(breakpoint: GlobalBreakpoint[_]): Array[ActorVirtualIdentity]
 
   class Topology(
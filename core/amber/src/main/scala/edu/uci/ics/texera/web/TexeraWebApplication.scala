@@ -76,6 +76,7 @@ class TexeraWebApplication extends io.dropwizard.Application[TexeraWebConfigurat
     environment.jersey.register(classOf[MultiPartFeature])
 
     environment.jersey().register(classOf[SystemMetadataResource])
+    environment.jersey().register(classOf[MetricsResource])
 //    environment.jersey().register(classOf[MockKillWorkerResource])
     environment.jersey().register(classOf[SchemaPropagationResource])
     environment.jersey().register(classOf[UserResource])
@@ -0,0 +1,4 @@
+package edu.uci.ics.texera.web.model.event
+
+case class ResultExportProgressEvent(downloadType: String, exportedRows: Int, totalRows: Int)
+    extends TexeraWebSocketEvent
@@ -1,7 +1,7 @@
 package edu.uci.ics.texera.web.model.event
 
 import edu.uci.ics.amber.engine.architecture.controller.ControllerEvent.WorkflowStatusUpdate
-import edu.uci.ics.amber.engine.architecture.principal.{OperatorState, OperatorStatistics}
+import edu.uci.ics.amber.engine.architecture.principal.OperatorState
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.texera.workflow.common.IncrementalOutputMode
 import edu.uci.ics.texera.workflow.common.Utils.objectMapper
@@ -9,9 +9,26 @@ import edu.uci.ics.texera.workflow.common.workflow.WorkflowCompiler
 
 object WebWorkflowStatusUpdateEvent {
   def apply(update: WorkflowStatusUpdate): WebWorkflowStatusUpdateEvent = {
-    WebWorkflowStatusUpdateEvent(update.operatorStatistics)
+    // the metrics are served by MetricsResource, the frontend only shows the row counts
+    WebWorkflowStatusUpdateEvent(update.operatorStatistics.map {
+      case (operatorID, stats) =>
+        (
+          operatorID,
+          WebOperatorStatistics(
+            stats.operatorState,
+            stats.aggregatedInputRowCount,
+            stats.aggregatedOutputRowCount
+          )
+        )
+    })
   }
 }
 
-case class WebWorkflowStatusUpdateEvent(operatorStatistics: Map[String, OperatorStatistics])
+case class WebOperatorStatistics(
+    operatorState: OperatorState,
+    aggregatedInputRowCount: Long,
+    aggregatedOutputRowCount: Long
+)
+
+case class WebWorkflowStatusUpdateEvent(operatorStatistics: Map[String, WebOperatorStatistics])
     extends TexeraWebSocketEvent
@@ -0,0 +1,121 @@
+package edu.uci.ics.texera.web.resource
+
+import edu.uci.ics.amber.engine.architecture.principal.{
+  OperatorState,
+  OperatorStatistics,
+  ThroughputSample
+}
+import edu.uci.ics.amber.engine.common.HistogramSnapshot
+import edu.uci.ics.texera.web.resource.MetricsResource.WorkflowMetrics
+import edu.uci.ics.texera.web.resource.auth.UserResource
+import io.dropwizard.jersey.sessions.Session
+import javax.servlet.http.HttpSession
+import javax.ws.rs.core.{MediaType, Response}
+import javax.ws.rs.{GET, Path, Produces}
+
+object MetricsResource {
+
+  // a latency histogram summarized in milliseconds
+  case class LatencySummary(
+      count: Long,
+      mean: Double,
+      p50: Double,
+      p90: Double,
+      p99: Double,
+      max: Double
+  )
+
+  case class OperatorMetrics(
+      operatorState: OperatorState,
+      inputRowCount: Long,
+      outputRowCount: Long,
+      processingTime: LatencySummary,
+      queueWaitTime: LatencySummary,
+      backpressureTime: LatencySummary,
+      throughput: List[ThroughputSample]
+  )
+
+  // gcPauses: the garbage collection pauses of each node the workflow runs on, by node address
+  case class WorkflowMetrics(
+      operators: Map[String, OperatorMetrics],
+      gcPauses: Map[String, LatencySummary]
+  )
+
+  def summarize(histogram: HistogramSnapshot): LatencySummary = {
+    def millis(nanos: Long): Double = nanos / 1e6
+    LatencySummary(
+      histogram.count,
+      millis(histogram.meanNanos),
+      millis(histogram.percentileNanos(50)),
+      millis(histogram.percentileNanos(90)),
+      millis(histogram.percentileNanos(99)),
+      millis(histogram.maxNanos)
+    )
+  }
+
+  def toOperatorMetrics(stats: OperatorStatistics): OperatorMetrics = {
+    OperatorMetrics(
+      stats.operatorState,
+      stats.aggregatedInputRowCount,
+      stats.aggregatedOutputRowCount,
+      summarize(stats.metrics.processingTime),
+      summarize(stats.metrics.queueWaitTime),
+      summarize(stats.metrics.backpressureTime),
+      stats.throughput
+    )
+  }
+}
+
+/**
+  * Where the time of the operators of the current workflow of each session goes:
+  * a slow operator has a high processing time, one stuck on the network a high backpressure
+  * time, and one waiting on an upstream a low queue wait time and a low throughput.
+  */
+@Path("/metrics")
+@Produces(Array(MediaType.APPLICATION_JSON))
+class MetricsResource {
+
+  /**
+    * Only the workflows of the sessions of the current user are returned.
+    *
+    * @param session HttpSession
+    * @return the metrics of each workflow, by job ID.
+    */
+  @GET
+  @Path("/workflows") def getWorkflowMetrics(@Session session: HttpSession): Response = {
+    UserResource.getUser(session) match {
+      case Some(user) =>
+        val metrics: Map[String, WorkflowMetrics] =
+          WorkflowWebsocketResource.sessionStatistics
+            .filter {
+              case (sessionID, _) =>
+                WorkflowWebsocketResource.sessionMap
+                  .get(sessionID)
+                  .flatMap { case (_, httpSession) => Option(httpSession) }
+                  .flatMap(UserResource.getUser)
+                  .exists(_.getUid == user.getUid)
+            }
+            .values
+            .map {
+              case (jobID, statusUpdate) =>
+                (
+                  jobID,
+                  WorkflowMetrics(
+                    statusUpdate.operatorStatistics.map {
+                      case (operatorID, stats) =>
+                        (operatorID, MetricsResource.toOperatorMetrics(stats))
+                    },
+                    statusUpdate.gcPausesByNode.map {
+                      case (node, pauses) => (node, MetricsResource.summarize(pauses))
+                    }
+                  )
+                )
+            }
+            .toMap
+        Response.ok(metrics).build()
+      case None =>
+        Response.status(Response.Status.UNAUTHORIZED).build()
+    }
+  }
+
+}
@@ -7,17 +7,22 @@ import com.google.api.services.drive.model.{File, FileList, Permission}
 import com.google.api.services.sheets.v4.Sheets
 import com.google.api.services.sheets.v4.model.{Spreadsheet, SpreadsheetProperties, ValueRange}
 import edu.uci.ics.amber.engine.common.tuple.ITuple
-import edu.uci.ics.texera.web.model.event.ResultDownloadResponse
+import edu.uci.ics.texera.web.model.event.{ResultDownloadResponse, ResultExportProgressEvent}
 import edu.uci.ics.texera.web.model.request.ResultDownloadRequest
 import edu.uci.ics.texera.web.resource.WorkflowWebsocketResource.{
+  send,
   sessionDownloadCache,
+  sessionMap,
   sessionResults
 }
+import edu.uci.ics.texera.workflow.common.Utils
 import edu.uci.ics.texera.workflow.common.Utils.retry
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 
+import java.lang.management.ManagementFactory
+import java.nio.file.Path
 import java.util
-import java.util.concurrent.{Executors, ThreadPoolExecutor}
+import java.util.concurrent.{ConcurrentHashMap, Executors, ThreadPoolExecutor}
 import scala.annotation.tailrec
 import scala.collection.JavaConverters._
 import scala.collection.mutable
@@ -30,6 +35,10 @@ object ResultDownloadResource {
   private final val pool: ThreadPoolExecutor =
     Executors.newFixedThreadPool(3).asInstanceOf[ThreadPoolExecutor]
   @volatile private var WORKFLOW_RESULT_FOLDER_ID: String = _
+  private final val RESULT_EXPORT_PATH: Path =
+    Utils.amberHomePath.resolve("user-resources").resolve("results")
+  // the files being exported to
+  private final val exportingFiles = ConcurrentHashMap.newKeySet[String]()
 
   def apply(
       sessionId: String,
@@ -51,15 +60,15 @@ object ResultDownloadResource {
     // By now the workflow should finish running. Only one operator should contain results
     // TODO: currently assume only one operator should contains the result
     // TODO: change status checking of the workflow
-    val operatorWithResult =
-      sessionResults(sessionId).operatorResults.values.count(p => p.getResult.nonEmpty)
-    if (operatorWithResult == 0) {
+    val operatorsWithResult =
+      sessionResults(sessionId).operatorResults.filter(p => p._2.getResultSize > 0)
+    if (operatorsWithResult.isEmpty) {
       return ResultDownloadResponse(
         request.downloadType,
         "",
         "The workflow contains no results"
       )
-    } else if (operatorWithResult > 1) {
+    } else if (operatorsWithResult.size > 1) {
       // more than one operator contains results means the workflow does not finish running.
       return ResultDownloadResponse(
         request.downloadType,
@@ -67,42 +76,32 @@ object ResultDownloadResource {
         "The workflow does not finish running"
       )
     }
-
-    // convert the ITuple into tuple
-    // TODO: currently only accept the tuple as input
-    val results: List[Tuple] =
-      sessionResults(sessionId).operatorResults.values
-        .find(p => p.getResult.nonEmpty)
-        .get
-        .getResult
-        .map(iTuple => iTuple.asInstanceOf[Tuple])
-    val schema = getSchema(results.head)
+    val (operatorID, operatorResult) = operatorsWithResult.head
 
     // handle the request according to download type
-    var response: ResultDownloadResponse = null
     request.downloadType match {
       case "google_sheet" =>
-        response = handleGoogleSheetRequest(request, results, schema)
+        val response = handleGoogleSheetRequest(request, operatorResult)
+        // save the file link in the session cache
+        if (!sessionDownloadCache.contains(sessionId)) {
+          sessionDownloadCache.put(
+            sessionId,
+            mutable.HashMap(request.downloadType -> response.link)
+          )
+        } else {
+          sessionDownloadCache(sessionId)
+            .put(request.downloadType, response.link)
+        }
+        response
+      case format if ResultExporter.formats.contains(format) =>
+        handleLocalExportRequest(sessionId, request, operatorID, operatorResult)
       case _ =>
-        response = ResultDownloadResponse(
+        ResultDownloadResponse(
           request.downloadType,
           "",
           s"Unknown download type: ${request.downloadType}"
         )
     }
-
-    // save the file link in the session cache
-    if (!sessionDownloadCache.contains(sessionId)) {
-      sessionDownloadCache.put(
-        sessionId,
-        mutable.HashMap(request.downloadType -> response.link)
-      )
-    } else {
-      sessionDownloadCache(sessionId)
-        .put(request.downloadType, response.link)
-    }
-
-    response
   }
 
   // get the schema from the sample tuple
@@ -111,11 +110,72 @@ object ResultDownloadResource {
       .asInstanceOf[util.List[AnyRef]]
   }
 
+  /**
+    * export the result to a local file in the background, the progress is reported to the session.
+    * An export interrupted before completion resumes when it is requested again.
+    */
+  private def handleLocalExportRequest(
+      sessionId: String,
+      request: ResultDownloadRequest,
+      operatorID: String,
+      result: WorkflowResultService#OperatorResultService
+  ): ResultDownloadResponse = {
+    val fileName = s"${request.workflowName}-$operatorID".replaceAll("[^\\w.-]", "_") +
+      "." + ResultExporter.formats(request.downloadType)
+    val file = RESULT_EXPORT_PATH.resolve(fileName).toFile
+    if (!exportingFiles.add(file.getPath)) {
+      return ResultDownloadResponse(
+        request.downloadType,
+        file.getPath,
+        "The result is being exported to this file."
+      )
+    }
+
+    val resultSize = result.getResultSize
+    // job IDs restart with the server, the start time of the server tells them apart
+    val jobID = sessionResults(sessionId).workflowCompiler.context.jobID
+    val exporter = new ResultExporter(
+      (from, until) => result.getResult(from, until),
+      resultSize,
+      request.downloadType,
+      file,
+      s"${ManagementFactory.getRuntimeMXBean.getStartTime}-$jobID"
+    )
+    val session = sessionMap(sessionId)._1
+    pool.submit(() =>
+      {
+        try {
+          exporter.export((exportedRows, totalRows) =>
+            send(session, ResultExportProgressEvent(request.downloadType, exportedRows, totalRows))
+          )
+        } catch {
+          case e: Exception =>
+            send(
+              session,
+              ResultDownloadResponse(
+                request.downloadType,
+                "",
+                s"Fail to export the result, request it again to resume: ${e.getMessage}"
+              )
+            )
+        } finally {
+          exportingFiles.remove(file.getPath)
+        }
+      }.asInstanceOf[Runnable]
+    )
+
+    ResultDownloadResponse(
+      request.downloadType,
+      file.getPath,
+      s"Exporting $resultSize rows. The file may be still being written."
+    )
+  }
+
   private def handleGoogleSheetRequest(
       resultDownloadRequest: ResultDownloadRequest,
-      result: List[ITuple],
-      schema: util.List[AnyRef]
+      result: WorkflowResultService#OperatorResultService
   ): ResultDownloadResponse = {
+    val schema = getSchema(result.getResult(0, 1).head.asInstanceOf[Tuple])
     // create google sheet
     val sheetService: Sheets = GoogleResource.getSheetService
     val sheetId: String =
@@ -239,11 +299,17 @@ object ResultDownloadResource {
   /**
     * upload the result body to the google sheet
     */
-  private def uploadResult(sheetService: Sheets, sheetId: String, result: List[ITuple]): Unit = {
+  private def uploadResult(
+      sheetService: Sheets,
+      sheetId: String,
+      result: WorkflowResultService#OperatorResultService
+  ): Unit = {
     val content: util.List[util.List[AnyRef]] =
       Lists.newArrayListWithCapacity(UPLOAD_BATCH_ROW_COUNT)
-    // use for loop to avoid copying the whole result at the same time
-    for (tuple: ITuple <- result) {
+    // read the result batch by batch to avoid copying the whole result at the same time
+    val tuples = (0 until result.getResultSize by UPLOAD_BATCH_ROW_COUNT).iterator
+      .flatMap(from => result.getResult(from, from + UPLOAD_BATCH_ROW_COUNT))
+    for (tuple: ITuple <- tuples) {
 
       val tupleContent: util.List[AnyRef] =
         tuple
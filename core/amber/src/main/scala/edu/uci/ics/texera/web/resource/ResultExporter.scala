@@ -0,0 +1,203 @@
+package edu.uci.ics.texera.web.resource
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{AttributeType, Schema}
+import edu.uci.ics.texera.workflow.operators.pythonUDF.ArrowUtils
+import org.apache.arrow.memory.RootAllocator
+import org.apache.arrow.vector.ipc.message.{IpcOption, MessageSerializer}
+import org.apache.arrow.vector.ipc.{ArrowStreamWriter, WriteChannel}
+import org.apache.arrow.vector.{VectorSchemaRoot, VectorUnloader}
+
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, StandardCopyOption, StandardOpenOption}
+import scala.collection.JavaConverters._
+
+object ResultExporter {
+
+  // rows read from the result store and written at a time
+  final val CHUNK_ROW_COUNT = 10000
+
+  // file extension of each export format
+  final val formats: Map[String, String] = Map(
+    "csv" -> "csv",
+    "jsonl" -> "jsonl",
+    // the Arrow IPC streaming format
+    "arrow" -> "arrows"
+  )
+
+  private val allocator = new RootAllocator()
+}
+
+/**
+  * Exports a result to a local file chunk by chunk, reading CHUNK_ROW_COUNT rows at a time
+  * straight from the result store, so at most one chunk is held in memory.
+  *
+  * After each chunk, the exported rows and the file length are checkpointed to a progress file
+  * next to the export. An export which is interrupted resumes from its last checkpoint, as long
+  * as the checkpoint was written for the same result, identified by resultID and its number of
+  * rows. Otherwise the file is exported again from the start. The progress file is deleted once
+  * the export completes.
+  *
+  * @param readResult reads the rows between two positions of the result.
+  * @param resultSize the number of rows of the result.
+  * @param format one of ResultExporter.formats.
+  * @param resultID identifies the execution which produced the result, must not contain spaces.
+  */
+class ResultExporter(
+    readResult: (Int, Int) => List[ITuple],
+    resultSize: Int,
+    format: String,
+    val file: File,
+    resultID: String
+) {
+  import ResultExporter._
+
+  private val progressFile = new File(file.getPath + ".progress")
+  private var channel: FileChannel = _
+  private var arrowRoot: VectorSchemaRoot = _
+  private var arrowChannel: WriteChannel = _
+
+  def isCompleted: Boolean = file.exists() && !progressFile.exists()
+
+  /**
+    * Exports the result, resuming from the last checkpoint if there is one.
+    * @param onProgress called with the exported rows and the total rows after each chunk.
+    */
+  def export(onProgress: (Int, Int) => Unit): Unit = {
+    var exportedRows = 0
+    var fileLength = 0L
+    if (progressFile.exists()) {
+      val checkpoint = new String(Files.readAllBytes(progressFile.toPath), StandardCharsets.UTF_8)
+      checkpoint.trim.split(" ") match {
+        case Array(rows, length, total, id)
+            if id == resultID && total.toLong == resultSize && length.toLong <= file.length() =>
+          exportedRows = rows.toInt
+          fileLength = length.toLong
+        // the checkpoint belongs to another result, the file is exported from the start
+        case _ =>
+      }
+    }
+
+    file.getParentFile.mkdirs()
+    channel = FileChannel.open(file.toPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)
+    try {
+      channel.truncate(fileLength)
+      channel.position(fileLength)
+      while (exportedRows < resultSize) {
+        val chunk = readResult(exportedRows, exportedRows + CHUNK_ROW_COUNT)
+        if (chunk.isEmpty) {
+          throw new IllegalStateException(s"the result has less than $resultSize rows")
+        }
+        val schema = chunk.head.asInstanceOf[Tuple].getSchema
+        if (exportedRows == 0) {
+          writeHeader(schema)
+        } else if (format == "arrow" && arrowRoot == null) {
+          startArrow(schema)
+        }
+        writeChunk(chunk.map(_.asInstanceOf[Tuple]))
+        exportedRows += chunk.size
+        if (exportedRows >= resultSize) {
+          writeFooter()
+        }
+        channel.force(false)
+        checkpoint(exportedRows, channel.position())
+        onProgress(exportedRows, resultSize)
+      }
+      progressFile.delete()
+    } finally {
+      channel.close()
+      if (arrowRoot != null) {
+        arrowRoot.close()
+      }
+    }
+  }
+
+  private[this] def checkpoint(exportedRows: Int, fileLength: Long): Unit = {
+    val temp = new File(progressFile.getPath + ".tmp")
+    val checkpoint = s"$exportedRows $fileLength $resultSize $resultID"
+    Files.write(temp.toPath, checkpoint.getBytes(StandardCharsets.UTF_8))
+    Files.move(temp.toPath, progressFile.toPath, StandardCopyOption.REPLACE_EXISTING)
+  }
+
+  private[this] def write(text: String): Unit = {
+    val buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8))
+    while (buffer.hasRemaining) {
+      channel.write(buffer)
+    }
+  }
+
+  private[this] def writeHeader(schema: Schema): Unit = {
+    format match {
+      case "csv" =>
+        write(schema.getAttributeNames.asScala.map(csvField).mkString(",") + "\n")
+      case "jsonl" =>
+      case "arrow" =>
+        startArrow(schema)
+        MessageSerializer.serialize(arrowChannel, arrowRoot.getSchema)
+    }
+  }
+
+  private[this] def writeChunk(chunk: List[Tuple]): Unit = {
+    format match {
+      case "csv" =>
+        val text = new StringBuilder()
+        chunk.foreach(tuple => {
+          val fields = tuple.getFields.asScala.map(value => csvField(toText(value)))
+          text.append(fields.mkString(",")).append('\n')
+        })
+        write(text.toString())
+      case "jsonl" =>
+        val text = new StringBuilder()
+        chunk.foreach(tuple => text.append(tuple.asKeyValuePairJson().toString).append('\n'))
+        write(text.toString())
+      case "arrow" =>
+        arrowRoot.getFieldVectors.asScala.foreach(_.setInitialCapacity(chunk.size))
+        arrowRoot.allocateNew()
+        chunk.foreach(tuple => ArrowUtils.appendTexeraTuple(arrowTuple(tuple), arrowRoot))
+        val batch = new VectorUnloader(arrowRoot).getRecordBatch
+        try MessageSerializer.serialize(arrowChannel, batch)
+        finally batch.close()
+        arrowRoot.clear()
+    }
+  }
+
+  private[this] def writeFooter(): Unit = {
+    if (format == "arrow") {
+      ArrowStreamWriter.writeEndOfStream(arrowChannel, new IpcOption())
+    }
+  }
+
+  private[this] def startArrow(schema: Schema): Unit = {
+    // ANY fields are exported as strings
+    arrowRoot = VectorSchemaRoot.create(ArrowUtils.fromTexeraSchema(schema), allocator)
+    arrowChannel = new WriteChannel(channel)
+  }
+
+  private[this] def arrowTuple(tuple: Tuple): Tuple = {
+    val schema = tuple.getSchema
+    if (!schema.getAttributes.asScala.exists(_.getType == AttributeType.ANY)) {
+      tuple
+    } else {
+      val fields = schema.getAttributes.asScala.zip(tuple.getFields.asScala).map {
+        case (attribute, value) if attribute.getType == AttributeType.ANY && value != null =>
+          value.toString
+        case (_, value) => value
+      }
+      new Tuple(schema, fields: _*)
+    }
+  }
+
+  private[this] def toText(value: AnyRef): String = if (value == null) "" else value.toString
+
+  private[this] def csvField(text: String): String = {
+    if (text.exists(c => c == ',' || c == '"' || c == '\n' || c == '\r')) {
+      "\"" + text.replace("\"", "\"\"") + "\""
+    } else {
+      text
+    }
+  }
+}
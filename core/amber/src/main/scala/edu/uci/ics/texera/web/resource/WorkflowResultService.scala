@@ -3,7 +3,8 @@ package edu.uci.ics.texera.web.resource
 import com.fasterxml.jackson.annotation.{JsonTypeInfo, JsonTypeName}
 import com.fasterxml.jackson.databind.node.ObjectNode
 import edu.uci.ics.amber.engine.architecture.controller.ControllerEvent.WorkflowResultUpdate
-import edu.uci.ics.amber.engine.architecture.principal.OperatorResult
+import edu.uci.ics.amber.engine.architecture.principal.OperatorResultUpdate
+import edu.uci.ics.amber.engine.common.PagedResultStore
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.texera.web.model.event.TexeraWebSocketEvent
 import edu.uci.ics.texera.web.resource.WorkflowResultService.{
@@ -16,7 +17,6 @@ import edu.uci.ics.texera.web.resource.WorkflowResultService.{
   defaultPageSize,
   webDataFromTuple
 }
-import edu.uci.ics.texera.web.resource.WorkflowResultService.calculateDirtyPageIndices
 import edu.uci.ics.texera.web.resource.WorkflowWebsocketResource.send
 import edu.uci.ics.texera.workflow.common.workflow.WorkflowCompiler
 import edu.uci.ics.texera.workflow.operators.sink.SimpleSinkOpDesc
@@ -24,7 +24,6 @@ import edu.uci.ics.texera.workflow.common.IncrementalOutputMode.{SET_DELTA, SET_
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 
 import javax.websocket.Session
-import scala.collection.mutable
 
 object WorkflowResultService {
 
@@ -74,33 +73,6 @@ object WorkflowResultService {
     WebDataUpdate(mode, tableInJson, chartType)
   }
 
-  /**
-    * Calculates the dirty pages (pages with changed tuples) between two progressive updates,
-    * by comparing the "before" snapshot and "after" snapshot tuple-by-tuple.
-    * Used by WebPaginationUpdate
-    *
-    * @return list of indices of modified pages, index starts from 1
-    */
-  def calculateDirtyPageIndices(
-      beforeSnapshot: List[ITuple],
-      afterSnapshot: List[ITuple],
-      pageSize: Int
-  ): List[Int] = {
-    var currentIndex = 1
-    var currentIndexPageCount = 0
-    val dirtyPageIndices = new mutable.HashSet[Int]()
-    for ((before, after) <- beforeSnapshot.zipAll(afterSnapshot, null, null)) {
-      if (before == null || after == null || !before.equals(after)) {
-        dirtyPageIndices.add(currentIndex)
-      }
-      currentIndexPageCount += 1
-      if (currentIndexPageCount == pageSize) {
-        currentIndexPageCount = 0
-        currentIndex += 1
-      }
-    }
-    dirtyPageIndices.toList
-  }
 }
 
 case class WebResultUpdateEvent(updates: Map[String, WebResultUpdate]) extends TexeraWebSocketEvent
@@ -120,18 +92,17 @@ class WorkflowResultService(val workflowCompiler: WorkflowCompiler) {
       .map(sink => (sink, new OperatorResultService(sink, workflowCompiler)))
       .toMap
 
+  def close(): Unit = operatorResults.values.foreach(_.close())
+
   def onResultUpdate(resultUpdate: WorkflowResultUpdate, session: Session): Unit = {
 
-    // prepare web update event to frontend
+    // update the result snapshot of each operator, and prepare web update event to frontend
     val webUpdateEvent = resultUpdate.operatorResults.map(e => {
       val opResultService = operatorResults(e._1)
-      val webUpdateEvent = opResultService.convertWebResultUpdate(e._2)
+      val webUpdateEvent = opResultService.updateResult(e._2)
       (e._1, webUpdateEvent)
     })
 
-    // update the result snapshot of each operator
-    resultUpdate.operatorResults.foreach(e => operatorResults(e._1).updateResult(e._2))
-
     // send update event to frontend
     send(session, WebResultUpdateEvent(webUpdateEvent))
 
@@ -175,20 +146,25 @@ class WorkflowResultService(val workflowCompiler: WorkflowCompiler) {
       *   - for insert-only delta: effectively the same as latest snapshot
       *   - for insert-retract delta: the union of all delta outputs, not compacted to a snapshot
       */
-    private var result: List[ITuple] = List()
+    private val result = new PagedResultStore()
 
     /**
-      * Produces the WebResultUpdate to send to frontend from a result update from the engine.
+      * Applies a result update from the engine to the current result of this operator,
+      * and produces the WebResultUpdate to send to frontend.
       */
-    def convertWebResultUpdate(resultUpdate: OperatorResult): WebResultUpdate = {
+    def updateResult(resultUpdate: OperatorResultUpdate): WebResultUpdate = {
+      result.applyChanges(resultUpdate.changes)
+
       (webOutputMode, resultUpdate.outputMode) match {
         case (PaginationMode(), SET_SNAPSHOT) =>
-          val dirtyPageIndices =
-            calculateDirtyPageIndices(result, resultUpdate.result, defaultPageSize)
-          WebPaginationUpdate(PaginationMode(), resultUpdate.result.size, dirtyPageIndices)
+          val dirtyPageIndices = result.dirtyPageIndices(defaultPageSize)
+          WebPaginationUpdate(PaginationMode(), result.size, dirtyPageIndices)
 
-        case (SetSnapshotMode(), SET_SNAPSHOT) | (SetDeltaMode(), SET_DELTA) =>
-          webDataFromTuple(webOutputMode, resultUpdate.result, chartType)
+        case (SetSnapshotMode(), SET_SNAPSHOT) =>
+          webDataFromTuple(webOutputMode, result.getTuples, chartType)
+
+        case (SetDeltaMode(), SET_DELTA) =>
+          webDataFromTuple(webOutputMode, resultUpdate.changes.map(_.tuple), chartType)
 
         // currently not supported mode combinations
         // (PaginationMode, SET_DELTA) | (DataSnapshotMode, SET_DELTA) | (DataDeltaMode, SET_SNAPSHOT)
@@ -199,19 +175,16 @@ class WorkflowResultService(val workflowCompiler: WorkflowCompiler) {
       }
     }
 
+    def getResult: List[ITuple] = result.getTuples
+
     /**
-      * Updates the current result of this operator.
+      * @return the result tuples between the positions from (inclusive) and until (exclusive).
       */
-    def updateResult(resultUpdate: OperatorResult): Unit = {
-      resultUpdate.outputMode match {
-        case SET_SNAPSHOT =>
-          this.result = resultUpdate.result
-        case SET_DELTA =>
-          this.result = (this.result ++ resultUpdate.result)
-      }
-    }
+    def getResult(from: Int, until: Int): List[ITuple] = result.slice(from, until)
+
+    def getResultSize: Int = result.size
 
-    def getResult: List[ITuple] = this.result
+    def close(): Unit = result.close()
 
   }
 }
@@ -6,6 +6,7 @@ import edu.uci.ics.amber.engine.architecture.controller.{
   ControllerConfig,
   ControllerEventListener
 }
+import edu.uci.ics.amber.engine.architecture.controller.ControllerEvent.WorkflowStatusUpdate
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.PauseHandler.PauseWorkflow
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.ResumeHandler.ResumeWorkflow
 import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.StartWorkflowHandler.StartWorkflow
@@ -21,7 +22,8 @@ import edu.uci.ics.texera.web.resource.WorkflowWebsocketResource.{
   sessionDownloadCache,
   sessionJobs,
   sessionMap,
-  sessionResults
+  sessionResults,
+  sessionStatistics
 }
 import edu.uci.ics.texera.web.resource.auth.UserResource
 import edu.uci.ics.texera.workflow.common.{Utils, WorkflowContext}
@@ -34,7 +36,7 @@ import javax.servlet.http.HttpSession
 import javax.websocket.{EndpointConfig, _}
 import javax.websocket.server.ServerEndpoint
 
-import scala.collection.mutable
+import scala.collection.{concurrent, mutable}
 
 object WorkflowWebsocketResource {
   // TODO should reorganize this resource.
@@ -50,6 +52,10 @@ object WorkflowWebsocketResource {
   // Map[sessionId, Map[operatorId, List[ITuple]]]
   val sessionResults = new mutable.HashMap[String, WorkflowResultService]
 
+  // Map[sessionId, (jobID, WorkflowStatusUpdate)], the last status of each job,
+  // read by MetricsResource
+  val sessionStatistics = new concurrent.TrieMap[String, (String, WorkflowStatusUpdate)]
+
   // Map[sessionId, Map[downloadType, googleSheetLink]
   val sessionDownloadCache = new mutable.HashMap[String, mutable.HashMap[String, String]]
 
@@ -122,8 +128,8 @@ class WorkflowWebsocketResource {
     val opResultService = sessionResults(session.getId).operatorResults(request.operatorID)
     // calculate from index (pageIndex starts from 1 instead of 0)
     val from = request.pageSize * (request.pageIndex - 1)
-    val paginationResults = opResultService.getResult
-      .slice(from, from + request.pageSize)
+    val paginationResults = opResultService
+      .getResult(from, from + request.pageSize)
       .map(tuple => tuple.asInstanceOf[Tuple].asKeyValuePairJson())
 
     send(session, PaginatedResultEvent.apply(request, paginationResults))
@@ -187,7 +193,7 @@ class WorkflowWebsocketResource {
     val workflowTag = WorkflowIdentity(jobID)
 
     val workflowResultService = new WorkflowResultService(texeraWorkflowCompiler)
-    sessionResults(session.getId) = workflowResultService
+    sessionResults.put(session.getId, workflowResultService).foreach(_.close())
 
     val eventListener = ControllerEventListener(
       workflowCompletedListener = completed => {
@@ -196,6 +202,7 @@ class WorkflowWebsocketResource {
         WorkflowWebsocketResource.sessionJobs.remove(session.getId)
       },
       workflowStatusUpdateListener = statusUpdate => {
+        sessionStatistics.put(session.getId, (jobID, statusUpdate))
         send(session, WebWorkflowStatusUpdateEvent.apply(statusUpdate))
       },
       workflowResultUpdateListener = resultUpdate => {
@@ -254,10 +261,11 @@ class WorkflowWebsocketResource {
       this.killWorkflow(session)
     }
 
-    sessionResults.remove(session.getId)
+    sessionResults.remove(session.getId).foreach(_.close())
     sessionJobs.remove(session.getId)
     sessionMap.remove(session.getId)
     sessionDownloadCache.remove(session.getId)
+    sessionStatistics.remove(session.getId)
   }
 
   def removeBreakpoint(session: Session, removeBreakpoint: RemoveBreakpointRequest): Unit = {
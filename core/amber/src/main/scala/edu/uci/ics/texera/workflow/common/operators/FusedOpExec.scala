@@ -0,0 +1,168 @@
+package edu.uci.ics.texera.workflow.common.operators
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.amber.engine.common.{
+  IBatchOperatorExecutor,
+  IOperatorExecutor,
+  ISourceOperatorExecutor,
+  InputExhausted
+}
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
+
+object FusedOpExec {
+
+  /**
+    * Creates the executor of a fused chain. A chain that starts with a source is itself
+    * a source, and a chain whose executors all support batches supports batches as well.
+    * @param executors executors of the chain, in pipeline order.
+    * @param links the input link each executor used to see before fusion,
+    *              the first element is ignored since the first executor keeps its real input.
+    */
+  def apply(executors: Array[IOperatorExecutor], links: Array[LinkIdentity]): FusedOpExec = {
+    if (executors.head.isInstanceOf[ISourceOperatorExecutor]) {
+      new FusedSourceOpExec(executors, links)
+    } else if (executors.forall(_.isInstanceOf[IBatchOperatorExecutor])) {
+      new FusedBatchOpExec(executors, links)
+    } else {
+      new FusedOpExec(executors, links)
+    }
+  }
+}
+
+/**
+  * Runs a chain of one-to-one operators inside one worker. The output iterator of each
+  * executor is directly flat-mapped into the next one, so tuples never leave the DP thread
+  * between the fused operators. InputExhausted is passed down the chain only after
+  * everything the upstream executor emits on exhaustion went through the rest of the chain.
+  * The number of tuples each executor emits is counted, so that every fused operator
+  * still reports its own statistics.
+  */
+class FusedOpExec(val executors: Array[IOperatorExecutor], links: Array[LinkIdentity])
+    extends IOperatorExecutor {
+
+  // number of output tuples of each executor, read by the worker actor for statistics
+  protected val outputCounts = new AtomicLongArray(executors.length)
+
+  /**
+    * The number of tuples each executor of the chain has emitted so far, in pipeline order.
+    */
+  def stageOutputCounts: List[Long] = executors.indices.map(outputCounts.get).toList
+
+  override def open(): Unit = executors.foreach(_.open())
+
+  override def close(): Unit = executors.foreach(_.close())
+
+  override def processTuple(
+      tuple: Either[ITuple, InputExhausted],
+      input: LinkIdentity
+  ): Iterator[ITuple] = {
+    tuple match {
+      case Left(_) =>
+        pipe(counted(executors(0).processTuple(tuple, input), 0), 1)
+      case Right(exhausted) =>
+        exhaust(exhausted, 0, input)
+    }
+  }
+
+  /**
+    * Passes the tuples through the executors starting at the given index.
+    */
+  protected def pipe(tuples: Iterator[ITuple], from: Int): Iterator[ITuple] = {
+    var output = tuples
+    var i = from
+    while (i < executors.length) {
+      val executor = executors(i)
+      val link = links(i)
+      val index = i
+      output = output.flatMap(t => counted(executor.processTuple(Left(t), link), index))
+      i += 1
+    }
+    output
+  }
+
+  protected def counted(tuples: Iterator[ITuple], index: Int): Iterator[ITuple] =
+    tuples.map { t =>
+      outputCounts.incrementAndGet(index)
+      t
+    }
+
+  /**
+    * Sends InputExhausted to the executor at the given index, then to all of its downstream
+    * executors once its own remaining output has been consumed.
+    */
+  protected def exhaust(
+      exhausted: InputExhausted,
+      index: Int,
+      input: LinkIdentity
+  ): Iterator[ITuple] = {
+    if (index == executors.length) {
+      Iterator()
+    } else {
+      pipe(
+        counted(executors(index).processTuple(Right(exhausted), linkOf(index, input)), index),
+        index + 1
+      ) ++
+        exhaust(exhausted, index + 1, input)
+    }
+  }
+
+  protected def linkOf(index: Int, input: LinkIdentity): LinkIdentity =
+    if (index == 0) input else links(index)
+}
+
+class FusedBatchOpExec(executors: Array[IOperatorExecutor], links: Array[LinkIdentity])
+    extends FusedOpExec(executors, links)
+    with IBatchOperatorExecutor {
+
+  override def processBatch(
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    processFrom(0, batch, input, onFailure)
+  }
+
+  /**
+    * The first executor takes the columnar batch directly, the next ones the tuples
+    * it outputs.
+    */
+  override def processColumnarBatch(
+      batch: ColumnarBatch,
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    val output = executors(0)
+      .asInstanceOf[IBatchOperatorExecutor]
+      .processColumnarBatch(batch, linkOf(0, input), onFailure)
+    outputCounts.addAndGet(0, output.length)
+    processFrom(1, output, input, onFailure)
+  }
+
+  private[this] def processFrom(
+      first: Int,
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    var output = batch
+    var i = first
+    while (i < executors.length && output.nonEmpty) {
+      output = executors(i)
+        .asInstanceOf[IBatchOperatorExecutor]
+        .processBatch(output, linkOf(i, input), onFailure)
+      outputCounts.addAndGet(i, output.length)
+      i += 1
+    }
+    output
+  }
+}
+
+class FusedSourceOpExec(executors: Array[IOperatorExecutor], links: Array[LinkIdentity])
+    extends FusedOpExec(executors, links)
+    with ISourceOperatorExecutor {
+
+  override def produce(): Iterator[ITuple] = exhaust(InputExhausted(), 0, null)
+}
@@ -0,0 +1,60 @@
+package edu.uci.ics.texera.workflow.common.operators
+
+import edu.uci.ics.amber.engine.architecture.principal.OperatorStatistics
+import edu.uci.ics.amber.engine.common.virtualidentity.util.makeLayer
+import edu.uci.ics.amber.engine.common.virtualidentity.{LinkIdentity, OperatorIdentity}
+
+/**
+  * A chain of one-to-one operators compiled into one layer of workers.
+  * Every worker runs the executors of all the fused operators through a FusedOpExec,
+  * so the operators in the chain exchange tuples without going through the network layer.
+  * The fused operator takes the identity of the first operator in the chain.
+  * @param fusedOperators the operators of the chain, in pipeline order.
+  */
+class FusedOpExecConfig(val fusedOperators: Array[OneToOneOpExecConfig])
+    extends OneToOneOpExecConfig(
+      fusedOperators.head.id,
+      FusedOpExecConfig.fuseExecutors(fusedOperators)
+    ) {
+
+  /**
+    * The row counts of each fused operator come from the output counts of its stage
+    * in the workers. The state and the timing metrics are shared by the whole chain.
+    */
+  override def getOperatorStatisticsByID: Map[String, OperatorStatistics] = {
+    val statistics = getOperatorStatistics
+    val workerStatistics = topology.layers.head.statistics
+    def stageOutputRowCount(stage: Int): Long =
+      workerStatistics.map(_.fusedStageOutputCounts.lift(stage).getOrElse(0L)).sum
+    fusedOperators.indices.map { i =>
+      val inputRowCount = if (i == 0) statistics.aggregatedInputRowCount else stageOutputRowCount(i - 1)
+      val outputRowCount =
+        if (i == fusedOperators.length - 1) statistics.aggregatedOutputRowCount else stageOutputRowCount(i)
+      fusedOperators(i).id.operator -> statistics.copy(
+        aggregatedInputRowCount = inputRowCount,
+        aggregatedOutputRowCount = outputRowCount
+      )
+    }.toMap
+  }
+}
+
+object FusedOpExecConfig {
+
+  private def fuseExecutors(
+      fusedOperators: Array[OneToOneOpExecConfig]
+  ): Int => FusedOpExec = {
+    // the input links the executors would have seen if they were not fused
+    val links = fusedOperators.indices.map { i =>
+      if (i == 0) {
+        null
+      } else {
+        LinkIdentity(
+          Option(makeLayer(fusedOperators(i - 1).id, "main")),
+          Option(makeLayer(fusedOperators(i).id, "main"))
+        )
+      }
+    }.toArray
+    val opExecs = fusedOperators.map(_.opExec)
+    i => FusedOpExec(opExecs.map(opExec => opExec(i)), links)
+  }
+}
@@ -1,15 +1,23 @@
 package edu.uci.ics.texera.workflow.common.operators.aggregate
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
 import edu.uci.ics.texera.workflow.common.operators.aggregate.PartialAggregateOpExec.INTERNAL_AGGREGATE_PARTIAL_OBJECT
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, Schema}
 
-import scala.collection.convert.ImplicitConversions.`collection AsScalaIterable`
-import scala.collection.{JavaConverters, mutable}
+import scala.collection.JavaConverters
+import scala.collection.mutable.ArrayBuffer
 
+/**
+  * Merges the partial objects of each group and computes the final results.
+  * When the groups exceed Constants.aggregationMemoryBudget, they are spilled to
+  * Constants.aggregationPartitions files by the hash of their key, and each file is
+  * merged on its own once the input is exhausted.
+  */
 class FinalAggregateOpExec[Partial <: AnyRef](
     val aggFunc: DistributedAggregation[Partial]
 ) extends OperatorExecutor {
@@ -17,11 +25,22 @@ class FinalAggregateOpExec[Partial <: AnyRef](
   var groupByKeyAttributes: Array[Attribute] = _
   var schema: Schema = _
 
-  var partialObjectPerKey = new mutable.HashMap[List[AnyRef], Partial]()
+  var partialObjectPerKey: GroupByHashTable[Partial] = _
   var outputIterator: Iterator[Tuple] = _
 
+  private var inputSchema: Schema = _
+  private var partialObjectIndex = 0
+  private var spillFiles: Array[BatchSpillFile] = _
+
   override def open(): Unit = {}
-  override def close(): Unit = {}
+  override def close(): Unit = {
+    if (partialObjectPerKey != null) {
+      partialObjectPerKey.clear()
+    }
+    if (spillFiles != null) {
+      spillFiles.foreach(_.close())
+    }
+  }
 
   override def processTexeraTuple(
       tuple: Either[Tuple, InputExhausted],
@@ -29,46 +48,92 @@ class FinalAggregateOpExec[Partial <: AnyRef](
   ): Iterator[Tuple] = {
     tuple match {
       case Left(t) =>
-        val groupBySchema = if (aggFunc == null) null else aggFunc.groupByFunc(t.getSchema)
-        val builder = Tuple.newBuilder(groupBySchema)
-        groupBySchema.getAttributeNames.foreach(attrName =>
-          builder.add(t.getSchema.getAttribute(attrName), t.getField(attrName))
-        )
-        val groupByKey = if (aggFunc == null) null else builder.build()
-        if (groupByKeyAttributes == null) {
+        if (partialObjectPerKey == null) {
+          inputSchema = t.getSchema
+          partialObjectIndex = inputSchema.getIndex(INTERNAL_AGGREGATE_PARTIAL_OBJECT)
           groupByKeyAttributes =
-            if (aggFunc == null) Array()
-            else groupByKey.getSchema.getAttributes.toArray(new Array[Attribute](0))
+            GroupByHashTable.groupByAttributes(inputSchema, aggFunc.groupByFunc)
+          partialObjectPerKey = GroupByHashTable(inputSchema, aggFunc.groupByFunc)
         }
-        val key =
-          if (groupByKey == null) List()
-          else JavaConverters.asScalaBuffer(groupByKey.getFields).toList
-
-        val partialObject = t.getField[Partial](INTERNAL_AGGREGATE_PARTIAL_OBJECT)
-        if (!partialObjectPerKey.contains(key)) {
-          partialObjectPerKey.put(key, partialObject)
-        } else {
-          partialObjectPerKey.put(key, aggFunc.merge(partialObjectPerKey(key), partialObject))
+        val groupCount = partialObjectPerKey.size
+        merge(t)
+        if (
+          partialObjectPerKey.size > groupCount &&
+          partialObjectPerKey.memoryBytes > Constants.aggregationMemoryBudget
+        ) {
+          spill()
         }
         Iterator()
       case Right(_) =>
-        partialObjectPerKey.iterator.map(pair => {
-          val finalObject = aggFunc.finalAgg(pair._2)
-          // TODO Find a way to get this from the OpDesc. Since this is generic, trying to get the
-          // right schema from there is a bit challenging.
-          // See https://github.com/Texera/texera/pull/1166#discussion_r654863854
-          if (schema == null) {
-            schema = Schema
-              .newBuilder()
-              .add(groupByKeyAttributes.toArray: _*)
-              .add(finalObject.getSchema)
-              .build()
-          }
-          val fields: Array[Object] =
-            (pair._1 ++ JavaConverters.asScalaBuffer(finalObject.getFields)).toArray
-          Tuple.newBuilder(schema).addSequentially(fields).build()
-        })
+        if (partialObjectPerKey == null) {
+          Iterator()
+        } else if (spillFiles == null) {
+          outputGroups()
+        } else {
+          spill()
+          spillFiles.iterator.flatMap(spillFile => {
+            while (spillFile.nonEmpty) {
+              spillFile.read().foreach(merge)
+            }
+            val outputTuples = outputGroups().toArray
+            partialObjectPerKey.clear()
+            outputTuples
+          })
+        }
     }
   }
 
+  private[this] def merge(t: ITuple): Unit = {
+    val group = partialObjectPerKey.findOrInsert(t)
+    val partialObject = t.get(partialObjectIndex).asInstanceOf[Partial]
+    val mergedObject = partialObjectPerKey.getState(group)
+    partialObjectPerKey.setState(
+      group,
+      if (mergedObject == null) partialObject else aggFunc.merge(mergedObject, partialObject)
+    )
+  }
+
+  /** moves all groups to the spill files by the hash of their key.
+    */
+  private[this] def spill(): Unit = {
+    if (spillFiles == null) {
+      spillFiles = Array.fill(Constants.aggregationPartitions)(new BatchSpillFile("amber-agg-"))
+    }
+    val partitions = Array.fill(spillFiles.length)(new ArrayBuffer[ITuple]())
+    (0 until partialObjectPerKey.size).foreach(group => {
+      val fields = new Array[AnyRef](inputSchema.getAttributes.size())
+      val keyFields = partialObjectPerKey.keyFields(group)
+      keyFields.indices.foreach(i => fields(partialObjectPerKey.keyIndices(i)) = keyFields(i))
+      fields(partialObjectIndex) = partialObjectPerKey.getState(group)
+      val partition = partialObjectPerKey.groupHash(group) % spillFiles.length
+      partitions(partition) += new Tuple(inputSchema, fields: _*)
+    })
+    partitions.indices.foreach(i => {
+      if (partitions(i).nonEmpty) {
+        spillFiles(i).write(partitions(i).toArray)
+      }
+    })
+    partialObjectPerKey.clear()
+  }
+
+  private[this] def outputGroups(): Iterator[Tuple] = {
+    (0 until partialObjectPerKey.size).iterator.map(group => {
+      val finalObject = aggFunc.finalAgg(partialObjectPerKey.getState(group))
+      // TODO Find a way to get this from the OpDesc. Since this is generic, trying to get the
+      // right schema from there is a bit challenging.
+      // See https://github.com/Texera/texera/pull/1166#discussion_r654863854
+      if (schema == null) {
+        schema = Schema
+          .newBuilder()
+          .add(groupByKeyAttributes.toArray: _*)
+          .add(finalObject.getSchema)
+          .build()
+      }
+      val fields: Array[Object] =
+        partialObjectPerKey.keyFields(group) ++
+          JavaConverters.asScalaBuffer(finalObject.getFields)
+      Tuple.newBuilder(schema).addSequentially(fields).build()
+    })
+  }
+
 }
@@ -0,0 +1,388 @@
+package edu.uci.ics.texera.workflow.common.operators.aggregate
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+
+import java.sql.Timestamp
+import java.util
+import scala.util.hashing.MurmurHash3
+
+object GroupByHashTable {
+  // tags of key fields in the key arena
+  private final val NULL = 0
+  private final val INT = 1
+  private final val LONG = 2
+  private final val DOUBLE = 3
+  private final val FALSE = 4
+  private final val TRUE = 5
+  private final val STRING = 6
+  private final val TIMESTAMP = 7
+  private final val OBJECT = 8
+
+  private final val initialCapacity = 64
+  // estimated size of a partial aggregation object
+  private final val stateBytes = 32L
+
+  /**
+    * Creates a table for the group-by attributes of an aggregation.
+    * @param schema the schema of the input tuples.
+    * @param groupByFunc computes the group-by attributes from the input schema, or null.
+    */
+  def apply[P <: AnyRef](schema: Schema, groupByFunc: Schema => Schema): GroupByHashTable[P] = {
+    val attributes = groupByAttributes(schema, groupByFunc)
+    new GroupByHashTable[P](
+      attributes.map(attribute => schema.getIndex(attribute.getName).intValue()),
+      attributes.map(_.getType)
+    )
+  }
+
+  def groupByAttributes(schema: Schema, groupByFunc: Schema => Schema): Array[Attribute] = {
+    if (groupByFunc == null) Array()
+    else groupByFunc(schema).getAttributes.toArray(new Array[Attribute](0))
+  }
+}
+
+/**
+  * Open-addressing hash table from group-by keys to partial aggregation states.
+  *
+  * A single integer or long key is kept in a primitive array. Other keys are serialized
+  * into one contiguous byte arena, fields of other classes are compared with equals and
+  * kept aside. Slots hold group IDs and are probed linearly, groups are numbered in
+  * insertion order and their states sit in a parallel array.
+  * No object is allocated per input tuple for an existing group.
+  *
+  * @param keyIndices the indices of the group-by fields in the input tuples.
+  * @param keyTypes the types of the group-by fields.
+  */
+class GroupByHashTable[P <: AnyRef](
+    val keyIndices: Array[Int],
+    keyTypes: Array[AttributeType]
+) {
+  import GroupByHashTable._
+
+  private val numericKey =
+    keyIndices.length == 1 &&
+      (keyTypes(0) == AttributeType.INTEGER || keyTypes(0) == AttributeType.LONG)
+
+  // slot -> group ID, -1 if the slot is empty
+  private var slots: Array[Int] = _
+  private var mask = 0
+
+  private var groupCount = 0
+  private var groupHashes: Array[Int] = _
+  private var states: Array[AnyRef] = _
+  // keys of a numeric table
+  private var longKeys: Array[Long] = _
+  private var nullGroup = -1
+  // keys of other tables, the key of group g is arena(keyOffsets(g) until keyOffsets(g + 1))
+  private var keyOffsets: Array[Int] = _
+  private var arena: Array[Byte] = _
+  private var objectKeys: Array[Array[AnyRef]] = _
+
+  // the key of the current tuple
+  private var scratch = new Array[Byte](64)
+  private var scratchLength = 0
+  private val scratchObjects = new util.ArrayList[AnyRef]()
+
+  clear()
+
+  def size: Int = groupCount
+
+  /**
+    * @return estimated size of the table and its states.
+    */
+  def memoryBytes: Long = {
+    4L * slots.length + 4L * groupHashes.length + 4L * keyOffsets.length +
+      8L * (if (numericKey) longKeys.length else 0) + arena.length +
+      8L * states.length + stateBytes * groupCount
+  }
+
+  /**
+    * Finds the group of the tuple by its group-by fields, and adds a group if there is none.
+    * @return the group ID, the ID of a new group equals the size of the table before.
+    */
+  def findOrInsert(tuple: ITuple): Int = {
+    if (numericKey) {
+      val value = tuple.get(keyIndices(0))
+      if (value == null) {
+        if (nullGroup < 0) {
+          nullGroup = addGroup(0, -1)
+        }
+        nullGroup
+      } else {
+        findOrInsertLong(value.asInstanceOf[Number].longValue())
+      }
+    } else {
+      encodeKey(tuple)
+      findOrInsertScratch()
+    }
+  }
+
+  def getState(group: Int): P = states(group).asInstanceOf[P]
+
+  def setState(group: Int, state: P): Unit = states(group) = state
+
+  /**
+    * @return the group-by fields of a group, in the order of the key indices.
+    */
+  def keyFields(group: Int): Array[AnyRef] = {
+    if (numericKey) {
+      if (group == nullGroup) Array(null)
+      else if (keyTypes(0) == AttributeType.INTEGER) Array(Int.box(longKeys(group).toInt))
+      else Array(Long.box(longKeys(group)))
+    } else {
+      decodeKey(group)
+    }
+  }
+
+  /**
+    * @return a hash of the key of a group, independent of the slot it is stored in.
+    */
+  def groupHash(group: Int): Int = groupHashes(group) >>> 16
+
+  def clear(): Unit = {
+    slots = new Array[Int](initialCapacity)
+    util.Arrays.fill(slots, -1)
+    mask = initialCapacity - 1
+    groupCount = 0
+    groupHashes = new Array[Int](initialCapacity)
+    states = new Array[AnyRef](initialCapacity)
+    nullGroup = -1
+    longKeys = if (numericKey) new Array[Long](initialCapacity) else null
+    keyOffsets = new Array[Int](initialCapacity + 1)
+    arena = new Array[Byte](if (numericKey) 0 else 1024)
+    objectKeys = null
+  }
+
+  private[this] def findOrInsertLong(key: Long): Int = {
+    val hash = MurmurHash3.finalizeHash(MurmurHash3.mix(key.toInt, (key >>> 32).toInt), 2)
+    var slot = hash & mask
+    while (slots(slot) >= 0) {
+      val group = slots(slot)
+      if (group != nullGroup && longKeys(group) == key) {
+        return group
+      }
+      slot = (slot + 1) & mask
+    }
+    val group = addGroup(hash, slot)
+    longKeys(group) = key
+    group
+  }
+
+  private[this] def findOrInsertScratch(): Int = {
+    val hash = hashScratch()
+    var slot = hash & mask
+    while (slots(slot) >= 0) {
+      val group = slots(slot)
+      if (groupHashes(group) == hash && scratchEquals(group)) {
+        return group
+      }
+      slot = (slot + 1) & mask
+    }
+    val group = addGroup(hash, slot)
+    val offset = keyOffsets(group)
+    if (offset + scratchLength > arena.length) {
+      arena = util.Arrays.copyOf(arena, math.max(arena.length * 2, offset + scratchLength))
+    }
+    System.arraycopy(scratch, 0, arena, offset, scratchLength)
+    keyOffsets(group + 1) = offset + scratchLength
+    if (!scratchObjects.isEmpty) {
+      if (objectKeys == null) {
+        objectKeys = new Array[Array[AnyRef]](groupHashes.length)
+      }
+      objectKeys(group) = scratchObjects.toArray
+    }
+    group
+  }
+
+  /** adds a group without a state into the given empty slot (none if negative),
+    * and keeps the load factor of the slots under 1/2.
+    */
+  private[this] def addGroup(hash: Int, slot: Int): Int = {
+    if (groupCount == groupHashes.length) {
+      val capacity = groupCount * 2
+      groupHashes = util.Arrays.copyOf(groupHashes, capacity)
+      states = util.Arrays.copyOf(states, capacity)
+      keyOffsets = util.Arrays.copyOf(keyOffsets, capacity + 1)
+      if (longKeys != null) longKeys = util.Arrays.copyOf(longKeys, capacity)
+      if (objectKeys != null) objectKeys = util.Arrays.copyOf(objectKeys, capacity)
+    }
+    val group = groupCount
+    groupHashes(group) = hash
+    groupCount += 1
+    if (slot >= 0) {
+      slots(slot) = group
+    }
+    if (groupCount * 2 > slots.length) {
+      rehash()
+    }
+    group
+  }
+
+  private[this] def rehash(): Unit = {
+    slots = new Array[Int](slots.length * 2)
+    util.Arrays.fill(slots, -1)
+    mask = slots.length - 1
+    var group = 0
+    while (group < groupCount) {
+      // the null group of a numeric table is not in the slots
+      if (group != nullGroup) {
+        var slot = groupHashes(group) & mask
+        while (slots(slot) >= 0) {
+          slot = (slot + 1) & mask
+        }
+        slots(slot) = group
+      }
+      group += 1
+    }
+  }
+
+  private[this] def encodeKey(tuple: ITuple): Unit = {
+    scratchLength = 0
+    scratchObjects.clear()
+    var i = 0
+    while (i < keyIndices.length) {
+      tuple.get(keyIndices(i)) match {
+        case null =>
+          writeByte(NULL)
+        case v: java.lang.Integer =>
+          writeByte(INT)
+          writeInt(v)
+        case v: java.lang.Long =>
+          writeByte(LONG)
+          writeLong(v)
+        case v: java.lang.Double =>
+          writeByte(DOUBLE)
+          writeLong(java.lang.Double.doubleToLongBits(v))
+        case v: java.lang.Boolean =>
+          writeByte(if (v) TRUE else FALSE)
+        case v: String =>
+          writeByte(STRING)
+          writeInt(v.length)
+          ensureScratch(2 * v.length)
+          var c = 0
+          while (c < v.length) {
+            val char = v.charAt(c)
+            scratch(scratchLength) = (char >>> 8).toByte
+            scratch(scratchLength + 1) = char.toByte
+            scratchLength += 2
+            c += 1
+          }
+        case v: Timestamp =>
+          writeByte(TIMESTAMP)
+          writeLong(v.getTime)
+          writeInt(v.getNanos)
+        case v: AnyRef =>
+          writeByte(OBJECT)
+          writeInt(v.hashCode())
+          scratchObjects.add(v)
+      }
+      i += 1
+    }
+  }
+
+  private[this] def decodeKey(group: Int): Array[AnyRef] = {
+    val fields = new Array[AnyRef](keyIndices.length)
+    var position = keyOffsets(group)
+    var objectIndex = 0
+    def readInt(): Int = {
+      var value = 0
+      var b = 0
+      while (b < 4) {
+        value = (value << 8) | (arena(position + b) & 0xff)
+        b += 1
+      }
+      position += 4
+      value
+    }
+    def readLong(): Long = (readInt().toLong << 32) | (readInt() & 0xffffffffL)
+    var i = 0
+    while (i < fields.length) {
+      val tag = arena(position).toInt
+      position += 1
+      fields(i) = tag match {
+        case NULL   => null
+        case INT    => Int.box(readInt())
+        case LONG   => Long.box(readLong())
+        case DOUBLE => Double.box(java.lang.Double.longBitsToDouble(readLong()))
+        case FALSE  => java.lang.Boolean.FALSE
+        case TRUE   => java.lang.Boolean.TRUE
+        case STRING =>
+          val chars = new Array[Char](readInt())
+          var c = 0
+          while (c < chars.length) {
+            chars(c) = (((arena(position) & 0xff) << 8) | (arena(position + 1) & 0xff)).toChar
+            position += 2
+            c += 1
+          }
+          new String(chars)
+        case TIMESTAMP =>
+          val timestamp = new Timestamp(readLong())
+          timestamp.setNanos(readInt())
+          timestamp
+        case OBJECT =>
+          readInt()
+          objectIndex += 1
+          objectKeys(group)(objectIndex - 1)
+      }
+      i += 1
+    }
+    fields
+  }
+
+  private[this] def scratchEquals(group: Int): Boolean = {
+    val offset = keyOffsets(group)
+    if (keyOffsets(group + 1) - offset != scratchLength) {
+      return false
+    }
+    var i = 0
+    while (i < scratchLength) {
+      if (arena(offset + i) != scratch(i)) {
+        return false
+      }
+      i += 1
+    }
+    if (scratchObjects.isEmpty) {
+      true
+    } else {
+      util.Arrays.equals(objectKeys(group), scratchObjects.toArray)
+    }
+  }
+
+  private[this] def hashScratch(): Int = {
+    var hash = 0x811c9dc5
+    var i = 0
+    while (i < scratchLength) {
+      hash = (hash ^ (scratch(i) & 0xff)) * 0x01000193
+      i += 1
+    }
+    MurmurHash3.finalizeHash(hash, scratchLength)
+  }
+
+  private[this] def ensureScratch(length: Int): Unit = {
+    if (scratchLength + length > scratch.length) {
+      scratch = util.Arrays.copyOf(scratch, math.max(scratch.length * 2, scratchLength + length))
+    }
+  }
+
+  private[this] def writeByte(value: Int): Unit = {
+    ensureScratch(1)
+    scratch(scratchLength) = value.toByte
+    scratchLength += 1
+  }
+
+  private[this] def writeInt(value: Int): Unit = {
+    ensureScratch(4)
+    var b = 0
+    while (b < 4) {
+      scratch(scratchLength + b) = (value >>> (24 - 8 * b)).toByte
+      b += 1
+    }
+    scratchLength += 4
+  }
+
+  private[this] def writeLong(value: Long): Unit = {
+    writeInt((value >>> 32).toInt)
+    writeInt(value.toInt)
+  }
+}
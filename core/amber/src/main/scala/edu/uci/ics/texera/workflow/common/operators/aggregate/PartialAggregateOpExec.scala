@@ -1,6 +1,6 @@
 package edu.uci.ics.texera.workflow.common.operators.aggregate
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
@@ -8,24 +8,30 @@ import edu.uci.ics.texera.workflow.common.operators.aggregate.PartialAggregateOp
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
 
-import scala.collection.convert.ImplicitConversions.`collection AsScalaIterable`
-import scala.collection.{JavaConverters, mutable}
-
 object PartialAggregateOpExec {
   val INTERNAL_AGGREGATE_PARTIAL_OBJECT = "__internal_aggregate_partial_object__";
 }
 
+/**
+  * Aggregates the tuples of each group into a partial object. When the groups exceed
+  * Constants.aggregationMemoryBudget, their partial objects are emitted early and the
+  * table starts over, the final aggregation merges the partial objects of a group anyway.
+  */
 class PartialAggregateOpExec[Partial <: AnyRef](
     val aggFunc: DistributedAggregation[Partial]
 ) extends OperatorExecutor {
 
   var groupByKeyAttributes: Array[Attribute] = _
   var schema: Schema = _
-  var partialObjectPerKey = new mutable.HashMap[List[AnyRef], Partial]()
+  var partialObjectPerKey: GroupByHashTable[Partial] = _
   var outputIterator: Iterator[ITuple] = _
 
   override def open(): Unit = {}
-  override def close(): Unit = {}
+  override def close(): Unit = {
+    if (partialObjectPerKey != null) {
+      partialObjectPerKey.clear()
+    }
+  }
 
   override def processTexeraTuple(
       tuple: Either[Tuple, InputExhausted],
@@ -33,38 +39,47 @@ class PartialAggregateOpExec[Partial <: AnyRef](
   ): scala.Iterator[Tuple] = {
     tuple match {
       case Left(t) =>
-        val groupBySchema = if (aggFunc == null) null else aggFunc.groupByFunc(t.getSchema)
-        val builder = Tuple.newBuilder(groupBySchema)
-        groupBySchema.getAttributeNames.foreach(attrName =>
-          builder.add(t.getSchema.getAttribute(attrName), t.getField(attrName))
-        )
-        val groupByKey = if (aggFunc == null) null else builder.build()
         // TODO Find a way to get this from the OpDesc. Since this is generic, trying to get the
         // right schema from there is a bit challenging.
         // See https://github.com/Texera/texera/pull/1166#discussion_r654863854
         if (schema == null) {
           groupByKeyAttributes =
-            if (aggFunc == null) Array()
-            else groupByKey.getSchema.getAttributes.toArray(new Array[Attribute](0))
+            GroupByHashTable.groupByAttributes(t.getSchema, aggFunc.groupByFunc)
           schema = Schema
             .newBuilder()
             .add(groupByKeyAttributes.toArray: _*)
             .add(INTERNAL_AGGREGATE_PARTIAL_OBJECT, AttributeType.ANY)
             .build()
+          partialObjectPerKey = GroupByHashTable(t.getSchema, aggFunc.groupByFunc)
+        }
+        val groupCount = partialObjectPerKey.size
+        val group = partialObjectPerKey.findOrInsert(t)
+        val partialObject = partialObjectPerKey.getState(group)
+        partialObjectPerKey.setState(
+          group,
+          aggFunc.iterate(if (partialObject == null) aggFunc.init() else partialObject, t)
+        )
+        if (
+          partialObjectPerKey.size > groupCount &&
+          partialObjectPerKey.memoryBytes > Constants.aggregationMemoryBudget
+        ) {
+          val outputTuples = outputGroups().toArray
+          partialObjectPerKey.clear()
+          outputTuples.iterator
+        } else {
+          Iterator()
         }
-        val key =
-          if (groupByKey == null) List()
-          else JavaConverters.asScalaBuffer(groupByKey.getFields).toList
-
-        val partialObject = aggFunc.iterate(partialObjectPerKey.getOrElse(key, aggFunc.init()), t)
-        partialObjectPerKey.put(key, partialObject)
-        Iterator()
       case Right(_) =>
-        partialObjectPerKey.iterator.map(pair => {
-          val fields: Array[Object] = (pair._1 :+ pair._2).toArray
-          Tuple.newBuilder(schema).addSequentially(fields).build()
-        })
+        if (partialObjectPerKey == null) Iterator() else outputGroups()
     }
   }
 
+  private[this] def outputGroups(): Iterator[Tuple] = {
+    (0 until partialObjectPerKey.size).iterator.map(group => {
+      val fields: Array[Object] =
+        partialObjectPerKey.keyFields(group) :+ partialObjectPerKey.getState(group)
+      Tuple.newBuilder(schema).addSequentially(fields).build()
+    })
+  }
+
 }
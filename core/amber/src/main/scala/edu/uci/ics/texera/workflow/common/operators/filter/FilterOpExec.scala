@@ -1,11 +1,17 @@
 package edu.uci.ics.texera.workflow.common.operators.filter
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.{IBatchOperatorExecutor, InputExhausted}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.amber.error.ErrorUtils.safely
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
 
-abstract class FilterOpExec() extends OperatorExecutor with Serializable {
+abstract class FilterOpExec()
+    extends OperatorExecutor
+    with IBatchOperatorExecutor
+    with Serializable {
 
   var filterFunc: Tuple => java.lang.Boolean = _
 
@@ -27,4 +33,46 @@ abstract class FilterOpExec() extends OperatorExecutor with Serializable {
     }
   }
 
+  override def processBatch(
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    filterRows(batch.length, row => batch(row).asInstanceOf[Tuple], onFailure)
+  }
+
+  override def processColumnarBatch(
+      batch: ColumnarBatch,
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    filterRows(batch.rowCount, batch.getTuple, onFailure)
+  }
+
+  /**
+    * Filters the rows of a batch, each row is only materialized when it is tested.
+    */
+  private[this] def filterRows(
+      rowCount: Int,
+      tupleAt: Int => Tuple,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    val output = new Array[ITuple](rowCount)
+    var outputSize = 0
+    var row = 0
+    while (row < rowCount) {
+      val tuple = tupleAt(row)
+      try {
+        if (filterFunc(tuple)) {
+          output(outputSize) = tuple
+          outputSize += 1
+        }
+      } catch safely {
+        case e => onFailure(tuple, e)
+      }
+      row += 1
+    }
+    if (outputSize == rowCount) output else output.slice(0, outputSize)
+  }
+
 }
@@ -1,15 +1,21 @@
 package edu.uci.ics.texera.workflow.common.operators.map
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.{IBatchOperatorExecutor, InputExhausted}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.amber.error.ErrorUtils.safely
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
 
 /**
   * Common operator executor of a map() function
   * A map() function transforms one input tuple to exactly one output tuple.
   */
-abstract class MapOpExec() extends OperatorExecutor with Serializable {
+abstract class MapOpExec()
+    extends OperatorExecutor
+    with IBatchOperatorExecutor
+    with Serializable {
 
   var mapFunc: Tuple => Tuple = _
 
@@ -35,4 +41,44 @@ abstract class MapOpExec() extends OperatorExecutor with Serializable {
       case Right(_) => Iterator()
     }
   }
+
+  override def processBatch(
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    mapRows(batch.length, row => batch(row).asInstanceOf[Tuple], onFailure)
+  }
+
+  override def processColumnarBatch(
+      batch: ColumnarBatch,
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    mapRows(batch.rowCount, batch.getTuple, onFailure)
+  }
+
+  /**
+    * Maps the rows of a batch, each row is only materialized when it is mapped.
+    */
+  private[this] def mapRows(
+      rowCount: Int,
+      tupleAt: Int => Tuple,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    val output = new Array[ITuple](rowCount)
+    var outputSize = 0
+    var row = 0
+    while (row < rowCount) {
+      val tuple = tupleAt(row)
+      try {
+        output(outputSize) = mapFunc(tuple)
+        outputSize += 1
+      } catch safely {
+        case e => onFailure(tuple, e)
+      }
+      row += 1
+    }
+    if (outputSize == rowCount) output else output.slice(0, outputSize)
+  }
 }
@@ -0,0 +1,132 @@
+package edu.uci.ics.texera.workflow.common.scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines which start in a byte range of a file into a reused buffer.
+ * <p>
+ * Unless a range starts at the beginning of the file, it starts after the first line break
+ * at or after its start offset, which is where the previous range stops. A trailing '\r' is
+ * not part of a line.
+ */
+public class LineBlockReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final long endOffset;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    // the file offset of buffer[0]
+    private long bufferOffset;
+    private int limit;
+    private int cursor;
+    private int lineStart;
+    private int lineLength;
+
+    /**
+     * @param file        the file to read.
+     * @param startOffset the first byte of the range.
+     * @param endOffset   the byte after the range.
+     */
+    public LineBlockReader(Path file, long startOffset, long endOffset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.endOffset = endOffset;
+        if (startOffset > 0) {
+            // skip the rest of the line before the range
+            bufferOffset = startOffset - 1;
+            channel.position(bufferOffset);
+            while (cursor < limit || fill()) {
+                if (buffer[cursor++] == '\n') {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves to the next line of the range.
+     *
+     * @return false if there are no more lines.
+     */
+    public boolean nextLine() throws IOException {
+        if (bufferOffset + cursor >= endOffset) {
+            return false;
+        }
+        int scan = cursor;
+        while (true) {
+            if (scan == limit) {
+                scan -= cursor;
+                if (!fill()) {
+                    break;
+                }
+            }
+            if (buffer[scan] == '\n') {
+                break;
+            }
+            scan++;
+        }
+        if (scan == cursor && scan == limit) {
+            return false;
+        }
+        lineStart = cursor;
+        cursor = scan < limit ? scan + 1 : scan;
+        if (scan > lineStart && buffer[scan - 1] == '\r') {
+            scan--;
+        }
+        lineLength = scan - lineStart;
+        return true;
+    }
+
+    /**
+     * @return the buffer holding the current line, valid until the next call of nextLine.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    public int getLineLength() {
+        return lineLength;
+    }
+
+    public String getLine() {
+        return new String(buffer, lineStart, lineLength, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Drops the bytes before the cursor and reads more, growing the buffer if a line fills it.
+     *
+     * @return false at the end of the file.
+     */
+    private boolean fill() throws IOException {
+        if (cursor > 0) {
+            System.arraycopy(buffer, cursor, buffer, 0, limit - cursor);
+            bufferOffset += cursor;
+            limit -= cursor;
+            cursor = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,385 @@
+package edu.uci.ics.texera.workflow.common.scanner;
+
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeType;
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the CSV records of a byte range of a file through memory mapped windows.
+ * <p>
+ * A range reads the records which start inside it. Unless a range starts at the beginning
+ * of the file, it starts after the first line break which is followed by a few well-formed
+ * records of at most the number of columns. The previous range ends at the same position,
+ * so every record is read by exactly one range. This is a heuristic: a line break inside a
+ * quoted field is skipped when the text after it does not parse as such records, but a
+ * quoted field which itself contains lines that look like records can still be split at
+ * one of its line breaks.
+ * <p>
+ * Fields may be quoted with '"', a quote inside a quoted field is escaped as "". Fields are
+ * parsed from the mapped bytes into the values of their attribute types, numbers without
+ * an intermediate String.
+ */
+public class MappedCSVBlockReader implements Closeable {
+    // bytes mapped at a time
+    private static final int MAP_SIZE = 64 << 20;
+    // well-formed records required after a line break for a range to start there
+    private static final int BOUNDARY_RECORDS = 4;
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final byte delimiter;
+    private final AttributeType[] attributeTypes;
+    // the index of each column in the output fields, -1 if the column is not kept
+    private final int[] outputIndices;
+    private final int outputSize;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private long bufferEnd;
+
+    // the fields of the current record, the content of a field is [start, end)
+    private long recordStart;
+    private int fieldCount;
+    private final long[] fieldStarts;
+    private final long[] fieldEnds;
+    private final boolean[] fieldQuoted;
+    private final boolean[] fieldEscaped;
+    private byte[] stringBytes = new byte[256];
+    private long longValue;
+    private double doubleValue;
+
+    private long position;
+    private final long end;
+
+    /**
+     * @param file           the CSV file.
+     * @param startOffset    the first byte of the range.
+     * @param endOffset      the byte after the range.
+     * @param delimiter      the delimiter of fields, an ASCII character.
+     * @param attributeTypes the types of all columns of the file.
+     * @param kept           the indices of the columns to read in ascending order, or null
+     *                       to read all columns.
+     */
+    public MappedCSVBlockReader(Path file, long startOffset, long endOffset, char delimiter,
+                                AttributeType[] attributeTypes, int[] kept) throws IOException {
+        if (delimiter > 127 || delimiter == CR || delimiter == LF || delimiter == QUOTE) {
+            throw new IllegalArgumentException("unsupported delimiter: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+        this.attributeTypes = attributeTypes;
+        this.outputIndices = new int[attributeTypes.length];
+        if (kept == null) {
+            Arrays.setAll(outputIndices, i -> i);
+            outputSize = attributeTypes.length;
+        } else {
+            Arrays.fill(outputIndices, -1);
+            for (int i = 0; i < kept.length; i++) {
+                outputIndices[kept[i]] = i;
+            }
+            outputSize = kept.length;
+        }
+        fieldStarts = new long[attributeTypes.length];
+        fieldEnds = new long[attributeTypes.length];
+        fieldQuoted = new boolean[attributeTypes.length];
+        fieldEscaped = new boolean[attributeTypes.length];
+
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+        position = recordStartAfter(startOffset);
+        end = recordStartAfter(endOffset);
+    }
+
+    public boolean hasNext() {
+        return position < end;
+    }
+
+    /**
+     * Skips the next record, e.g. the header line.
+     */
+    public void skipRecord() throws IOException {
+        if (hasNext()) {
+            position = scanRecord(position, false);
+        }
+    }
+
+    /**
+     * Reads the next record. Omitted trailing fields and empty unquoted fields are null.
+     *
+     * @return the kept fields of the record, or null if the record is blank, has more fields
+     * than columns, or has a field which does not parse into the type of its column.
+     */
+    public Object[] readRecord() throws IOException {
+        position = scanRecord(position, false);
+        if (fieldCount > attributeTypes.length) {
+            return null;
+        }
+        Object[] fields = new Object[outputSize];
+        boolean isBlank = true;
+        try {
+            for (int i = 0; i < fieldCount; i++) {
+                if (outputIndices[i] >= 0) {
+                    Object field = parseField(i);
+                    fields[outputIndices[i]] = field;
+                    isBlank &= field == null;
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return isBlank ? null : fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private byte byteAt(long pos) throws IOException {
+        if (pos < bufferStart || pos >= bufferEnd) {
+            map(pos);
+        }
+        return buffer.get((int) (pos - bufferStart));
+    }
+
+    private void map(long pos) throws IOException {
+        // keep the current record in the window, unless it is too long
+        bufferStart = pos >= recordStart && pos - recordStart < MAP_SIZE / 2 ? recordStart : pos;
+        bufferEnd = Math.min(fileSize, bufferStart + MAP_SIZE);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, bufferStart, bufferEnd - bufferStart);
+    }
+
+    /**
+     * @return the first position at or after the offset which starts a record.
+     */
+    private long recordStartAfter(long offset) throws IOException {
+        if (offset <= 0) {
+            return 0;
+        }
+        long candidate = offset;
+        while (candidate < fileSize) {
+            if (byteAt(candidate - 1) == LF && isRecordStart(candidate)) {
+                return candidate;
+            }
+            candidate++;
+        }
+        return fileSize;
+    }
+
+    private boolean isRecordStart(long pos) throws IOException {
+        for (int i = 0; i < BOUNDARY_RECORDS && pos < fileSize; i++) {
+            pos = scanRecord(pos, true);
+            if (pos < 0 || fieldCount > attributeTypes.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the fields of the record starting at the position. A quote inside an unquoted
+     * field is part of its content, characters between a closing quote and the next
+     * delimiter are dropped.
+     *
+     * @param strict whether to reject both cases above and an unclosed quote instead.
+     * @return the position after the record, or -1 if the record is rejected.
+     */
+    private long scanRecord(long pos, boolean strict) throws IOException {
+        recordStart = pos;
+        fieldCount = 0;
+        while (true) {
+            long start = pos;
+            long contentEnd;
+            boolean quoted = false;
+            boolean escaped = false;
+            byte b = pos < fileSize ? byteAt(pos) : LF;
+            if (b == QUOTE) {
+                quoted = true;
+                start = ++pos;
+                while (pos < fileSize) {
+                    if (byteAt(pos) != QUOTE) {
+                        pos++;
+                    } else if (pos + 1 < fileSize && byteAt(pos + 1) == QUOTE) {
+                        escaped = true;
+                        pos += 2;
+                    } else {
+                        break;
+                    }
+                }
+                if (pos >= fileSize && strict) {
+                    return -1;
+                }
+                contentEnd = pos;
+                b = ++pos < fileSize ? byteAt(pos) : LF;
+                while (b != delimiter && b != LF) {
+                    if (strict && b != CR) {
+                        return -1;
+                    }
+                    b = ++pos < fileSize ? byteAt(pos) : LF;
+                }
+            } else {
+                while (b != delimiter && b != LF) {
+                    if (strict && b == QUOTE) {
+                        return -1;
+                    }
+                    b = ++pos < fileSize ? byteAt(pos) : LF;
+                }
+                contentEnd = pos;
+                // the CR of a CRLF line break
+                if (b == LF && contentEnd > start && byteAt(contentEnd - 1) == CR) {
+                    contentEnd--;
+                }
+            }
+            if (fieldCount < attributeTypes.length) {
+                fieldStarts[fieldCount] = start;
+                fieldEnds[fieldCount] = contentEnd;
+                fieldQuoted[fieldCount] = quoted;
+                fieldEscaped[fieldCount] = escaped;
+            }
+            fieldCount++;
+            if (b == delimiter) {
+                pos++;
+            } else {
+                return Math.min(pos + 1, fileSize);
+            }
+        }
+    }
+
+    private Object parseField(int i) throws IOException {
+        long start = fieldStarts[i];
+        long end = fieldEnds[i];
+        if (start == end && !fieldQuoted[i]) {
+            return null;
+        }
+        if (!fieldEscaped[i]) {
+            switch (attributeTypes[i]) {
+                case INTEGER:
+                    if (parseLong(start, end) && longValue == (int) longValue) {
+                        return (int) longValue;
+                    }
+                    break;
+                case LONG:
+                    if (parseLong(start, end)) {
+                        return longValue;
+                    }
+                    break;
+                case DOUBLE:
+                    if (parseDouble(start, end)) {
+                        return doubleValue;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        // other types and other number formats are parsed from the String
+        return AttributeTypeUtils.parseField(decodeString(i), attributeTypes[i]);
+    }
+
+    /**
+     * Parses an optionally signed integer of at most 18 digits, surrounded by whitespaces.
+     */
+    private boolean parseLong(long start, long end) throws IOException {
+        while (start < end && (byteAt(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (byteAt(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        boolean negative = false;
+        if (start < end && (byteAt(start) == '-' || byteAt(start) == '+')) {
+            negative = byteAt(start) == '-';
+            start++;
+        }
+        if (start == end || end - start > 18) {
+            return false;
+        }
+        long value = 0;
+        for (long pos = start; pos < end; pos++) {
+            int digit = byteAt(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+        }
+        longValue = negative ? -value : value;
+        return true;
+    }
+
+    /**
+     * Parses an optionally signed decimal of at most 15 digits without exponent, surrounded
+     * by whitespaces. Its digits and the power of ten it is divided by are exact doubles,
+     * so the division is rounded the same as Double.parseDouble.
+     */
+    private boolean parseDouble(long start, long end) throws IOException {
+        while (start < end && (byteAt(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (byteAt(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        boolean negative = false;
+        if (start < end && (byteAt(start) == '-' || byteAt(start) == '+')) {
+            negative = byteAt(start) == '-';
+            start++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean hasPoint = false;
+        for (long pos = start; pos < end; pos++) {
+            byte b = byteAt(pos);
+            if (b == '.' && !hasPoint) {
+                hasPoint = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > 15) {
+                return false;
+            }
+            mantissa = mantissa * 10 + digit;
+            if (hasPoint) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        doubleValue = negative ? -value : value;
+        return true;
+    }
+
+    private String decodeString(int i) throws IOException {
+        long start = fieldStarts[i];
+        int length = (int) (fieldEnds[i] - start);
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+        }
+        int size = 0;
+        for (long pos = start; pos < start + length; pos++) {
+            byte b = byteAt(pos);
+            stringBytes[size++] = b;
+            // an escaped quote is a pair of quotes
+            if (b == QUOTE && fieldEscaped[i]) {
+                pos++;
+            }
+        }
+        return new String(stringBytes, 0, size, StandardCharsets.UTF_8);
+    }
+}
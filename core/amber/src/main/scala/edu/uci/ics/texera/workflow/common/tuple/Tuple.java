@@ -47,6 +47,24 @@ public class Tuple implements ITuple, Serializable {
         this.fields = Collections.unmodifiableList(fields);
     }
 
+    private Tuple(Schema schema, Object[] fields) {
+        this.schema = schema;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * Creates a tuple without checking its fields against the schema.
+     * Only for fields which are known to match the schema already,
+     * e.g. the values of the typed columns of a ColumnarBatch.
+     *
+     * @param schema the schema of the tuple.
+     * @param fields the fields of the tuple, the array is not copied.
+     * @return a tuple backed by the fields.
+     */
+    public static Tuple ofTrustedFields(Schema schema, Object[] fields) {
+        return new Tuple(schema, fields);
+    }
+
     @Override
     @JsonIgnore
     public int length() {
@@ -0,0 +1,200 @@
+package edu.uci.ics.texera.workflow.common.tuple.columnar
+
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeType
+
+import java.sql.Timestamp
+import java.util
+
+object ColumnVector {
+
+  /**
+    * Allocates an empty column vector that stores values of the given AttributeType.
+    * @param attributeType the type of all the values in this column.
+    * @param capacity the maximum number of values this column can hold.
+    * @return a typed ColumnVector.
+    */
+  def allocate(attributeType: AttributeType, capacity: Int): ColumnVector = {
+    attributeType match {
+      case AttributeType.INTEGER   => new IntColumnVector(capacity)
+      case AttributeType.LONG      => new LongColumnVector(capacity)
+      case AttributeType.DOUBLE    => new DoubleColumnVector(capacity)
+      case AttributeType.BOOLEAN   => new BooleanColumnVector(capacity)
+      case AttributeType.TIMESTAMP => new TimestampColumnVector(capacity)
+      case AttributeType.STRING    => new StringColumnVector(capacity)
+      case AttributeType.ANY | _   => new ObjectColumnVector(capacity)
+    }
+  }
+}
+
+/**
+  * A column of values of the same AttributeType, backed by a primitive array whenever
+  * the type allows it. Null values are tracked in a separate bitmap so that the
+  * primitive arrays never need to be boxed.
+  */
+sealed abstract class ColumnVector(val capacity: Int) extends Serializable {
+  protected val nulls = new util.BitSet(capacity)
+
+  def isNullAt(row: Int): Boolean = nulls.get(row)
+
+  /**
+    * Writes a field into the given row. A null field only sets the null bit.
+    */
+  def set(row: Int, value: AnyRef): Unit = {
+    if (value == null) {
+      nulls.set(row)
+    } else {
+      setNonNull(row, value)
+    }
+  }
+
+  /**
+    * Reads the field at the given row, boxed into the Java class of its AttributeType.
+    */
+  def get(row: Int): AnyRef = {
+    if (nulls.get(row)) null else getNonNull(row)
+  }
+
+  /**
+    * Copies the first `length` rows into a new vector of exactly that capacity.
+    */
+  def truncate(length: Int): ColumnVector
+
+  protected def setNonNull(row: Int, value: AnyRef): Unit
+
+  protected def getNonNull(row: Int): AnyRef
+
+  protected def copyNullsTo(other: ColumnVector, length: Int): ColumnVector = {
+    other.nulls.or(nulls.get(0, length))
+    other
+  }
+}
+
+final class IntColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new Array[Int](capacity)
+
+  def getInt(row: Int): Int = values(row)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit =
+    values(row) = value.asInstanceOf[java.lang.Integer]
+
+  override protected def getNonNull(row: Int): AnyRef = Int.box(values(row))
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new IntColumnVector(length)
+    System.arraycopy(values, 0, other.values, 0, length)
+    copyNullsTo(other, length)
+  }
+}
+
+final class LongColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new Array[Long](capacity)
+
+  def getLong(row: Int): Long = values(row)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit =
+    values(row) = value.asInstanceOf[java.lang.Long]
+
+  override protected def getNonNull(row: Int): AnyRef = Long.box(values(row))
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new LongColumnVector(length)
+    System.arraycopy(values, 0, other.values, 0, length)
+    copyNullsTo(other, length)
+  }
+}
+
+final class DoubleColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new Array[Double](capacity)
+
+  def getDouble(row: Int): Double = values(row)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit =
+    values(row) = value.asInstanceOf[java.lang.Double]
+
+  override protected def getNonNull(row: Int): AnyRef = Double.box(values(row))
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new DoubleColumnVector(length)
+    System.arraycopy(values, 0, other.values, 0, length)
+    copyNullsTo(other, length)
+  }
+}
+
+final class BooleanColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new util.BitSet(capacity)
+
+  def getBoolean(row: Int): Boolean = values.get(row)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit =
+    values.set(row, value.asInstanceOf[java.lang.Boolean].booleanValue())
+
+  override protected def getNonNull(row: Int): AnyRef = Boolean.box(values.get(row))
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new BooleanColumnVector(length)
+    other.values.or(values.get(0, length))
+    copyNullsTo(other, length)
+  }
+}
+
+/**
+  * Timestamps are stored as epoch milliseconds plus the sub-millisecond nanos,
+  * so that a round trip through the vector preserves the full precision.
+  */
+final class TimestampColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val millis = new Array[Long](capacity)
+  val nanos = new Array[Int](capacity)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit = {
+    val timestamp = value.asInstanceOf[Timestamp]
+    millis(row) = timestamp.getTime
+    nanos(row) = timestamp.getNanos
+  }
+
+  override protected def getNonNull(row: Int): AnyRef = {
+    val timestamp = new Timestamp(millis(row))
+    timestamp.setNanos(nanos(row))
+    timestamp
+  }
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new TimestampColumnVector(length)
+    System.arraycopy(millis, 0, other.millis, 0, length)
+    System.arraycopy(nanos, 0, other.nanos, 0, length)
+    copyNullsTo(other, length)
+  }
+}
+
+final class StringColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new Array[String](capacity)
+
+  def getString(row: Int): String = values(row)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit =
+    values(row) = value.asInstanceOf[String]
+
+  override protected def getNonNull(row: Int): AnyRef = values(row)
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new StringColumnVector(length)
+    System.arraycopy(values, 0, other.values, 0, length)
+    copyNullsTo(other, length)
+  }
+}
+
+/**
+  * Fallback column for AttributeType.ANY, values are kept as they are.
+  */
+final class ObjectColumnVector(capacity: Int) extends ColumnVector(capacity) {
+  val values = new Array[AnyRef](capacity)
+
+  override protected def setNonNull(row: Int, value: AnyRef): Unit = values(row) = value
+
+  override protected def getNonNull(row: Int): AnyRef = values(row)
+
+  override def truncate(length: Int): ColumnVector = {
+    val other = new ObjectColumnVector(length)
+    System.arraycopy(values, 0, other.values, 0, length)
+    copyNullsTo(other, length)
+  }
+}
@@ -0,0 +1,131 @@
+package edu.uci.ics.texera.workflow.common.tuple.columnar
+
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.Schema
+
+/**
+  * A batch of tuples sharing the same schema, stored column by column.
+  * The schema is kept once per batch instead of once per tuple, and the values of
+  * each attribute sit in a typed ColumnVector.
+  *
+  * @param schema the schema of every row in this batch.
+  * @param columns one ColumnVector per attribute, in schema order.
+  * @param rowCount number of valid rows in the columns.
+  */
+final class ColumnarBatch(
+    val schema: Schema,
+    val columns: Array[ColumnVector],
+    val rowCount: Int
+) extends Serializable {
+
+  def getField(row: Int, column: Int): AnyRef = columns(column).get(row)
+
+  /**
+    * Materializes one row of this batch into a Texera Tuple.
+    * The fields are not checked against the schema again, the typed columns only hold
+    * values of their attribute type.
+    * @param row the row index, must be smaller than rowCount.
+    */
+  def getTuple(row: Int): Tuple = {
+    val fields = new Array[Object](columns.length)
+    var i = 0
+    while (i < columns.length) {
+      fields(i) = columns(i).get(row)
+      i += 1
+    }
+    Tuple.ofTrustedFields(schema, fields)
+  }
+
+  def iterator: Iterator[Tuple] = (0 until rowCount).iterator.map(getTuple)
+
+  def toArray: Array[Tuple] = {
+    val tuples = new Array[Tuple](rowCount)
+    var i = 0
+    while (i < rowCount) {
+      tuples(i) = getTuple(i)
+      i += 1
+    }
+    tuples
+  }
+
+  override def equals(obj: Any): Boolean = {
+    obj match {
+      case other: ColumnarBatch =>
+        if (rowCount != other.rowCount || schema != other.schema) {
+          return false
+        }
+        var row = 0
+        while (row < rowCount) {
+          var col = 0
+          while (col < columns.length) {
+            if (getField(row, col) != other.getField(row, col)) {
+              return false
+            }
+            col += 1
+          }
+          row += 1
+        }
+        true
+      case _ => false
+    }
+  }
+
+  override def hashCode(): Int = schema.hashCode() * 31 + rowCount
+
+  override def toString: String = s"ColumnarBatch($schema, rows=$rowCount)"
+}
+
+/**
+  * Appends tuples of one schema directly into column vectors.
+  *
+  * @param schema the schema of all the appended tuples.
+  * @param capacity the maximum number of rows of the built batch.
+  */
+class ColumnarBatchBuilder(val schema: Schema, val capacity: Int) {
+  private val attributeCount = schema.getAttributes.size()
+  private var columns: Array[ColumnVector] = allocateColumns()
+  private var size = 0
+
+  def currentSize: Int = size
+
+  def isFull: Boolean = size == capacity
+
+  /**
+    * Checks whether a tuple can be appended to this builder without changing its schema.
+    */
+  def accepts(tuple: Tuple): Boolean = {
+    (tuple.getSchema eq schema) || tuple.getSchema == schema
+  }
+
+  def append(tuple: Tuple): Unit = {
+    var i = 0
+    while (i < attributeCount) {
+      columns(i).set(size, tuple.get(i).asInstanceOf[AnyRef])
+      i += 1
+    }
+    size += 1
+  }
+
+  /**
+    * Returns the tuples appended so far as a ColumnarBatch and resets this builder.
+    */
+  def build(): ColumnarBatch = {
+    val builtColumns =
+      if (size == capacity) columns else columns.map(column => column.truncate(size))
+    val batch = new ColumnarBatch(schema, builtColumns, size)
+    columns = allocateColumns()
+    size = 0
+    batch
+  }
+
+  private[this] def allocateColumns(): Array[ColumnVector] = {
+    val attributes = schema.getAttributes
+    val allocated = new Array[ColumnVector](attributeCount)
+    var i = 0
+    while (i < attributeCount) {
+      allocated(i) = ColumnVector.allocate(attributes.get(i).getType, capacity)
+      i += 1
+    }
+    allocated
+  }
+}
@@ -2,10 +2,15 @@ package edu.uci.ics.texera.workflow.common.workflow
 
 import akka.actor.ActorRef
 import edu.uci.ics.amber.engine.architecture.controller.Workflow
+import edu.uci.ics.amber.engine.common.Constants
 import edu.uci.ics.amber.engine.common.virtualidentity.{LinkIdentity, OperatorIdentity}
 import edu.uci.ics.amber.engine.operators.OpExecConfig
 import edu.uci.ics.texera.workflow.common.{ConstraintViolation, WorkflowContext}
-import edu.uci.ics.texera.workflow.common.operators.OperatorDescriptor
+import edu.uci.ics.texera.workflow.common.operators.{
+  FusedOpExecConfig,
+  OneToOneOpExecConfig,
+  OperatorDescriptor
+}
 import edu.uci.ics.texera.workflow.common.operators.source.SourceOperatorDescriptor
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.{OperatorSchemaInfo, Schema}
@@ -41,6 +46,9 @@ class WorkflowCompiler(val workflowInfo: WorkflowInfo, val context: WorkflowCont
 
   val workflow = new WorkflowDAG(workflowInfo)
 
+  // map from each fused operator to the operator which replaces its chain
+  var fusedInto: Map[OperatorIdentity, OperatorIdentity] = Map()
+
   init()
 
   def init(): Unit = {
@@ -87,18 +95,25 @@ class WorkflowCompiler(val workflowInfo: WorkflowInfo, val context: WorkflowCont
       amberOperators.put(amberOperator.id, amberOperator)
     })
 
+    fusedInto = if (Constants.enableOperatorFusion) fuseOperatorChains(amberOperators) else Map()
+
     val outLinks: mutable.Map[OperatorIdentity, mutable.Set[OperatorIdentity]] = mutable.Map()
     workflowInfo.links.foreach(link => {
-      val origin = OperatorIdentity(this.context.jobID, link.origin.operatorID)
-      val dest = OperatorIdentity(this.context.jobID, link.destination.operatorID)
-      val destSet = outLinks.getOrElse(origin, mutable.Set())
-      destSet.add(dest)
-      outLinks.update(origin, destSet)
-      val layerLink = LinkIdentity(
-        Option(amberOperators(origin).topology.layers.last.id),
-        Option(amberOperators(dest).topology.layers.head.id)
-      )
-      amberOperators(dest).setInputToOrdinalMapping(layerLink, link.destination.portOrdinal)
+      val originID = OperatorIdentity(this.context.jobID, link.origin.operatorID)
+      val destID = OperatorIdentity(this.context.jobID, link.destination.operatorID)
+      val origin = fusedInto.getOrElse(originID, originID)
+      val dest = fusedInto.getOrElse(destID, destID)
+      // links inside a fused chain no longer exist
+      if (origin != dest) {
+        val destSet = outLinks.getOrElse(origin, mutable.Set())
+        destSet.add(dest)
+        outLinks.update(origin, destSet)
+        val layerLink = LinkIdentity(
+          Option(amberOperators(origin).topology.layers.last.id),
+          Option(amberOperators(dest).topology.layers.head.id)
+        )
+        amberOperators(dest).setInputToOrdinalMapping(layerLink, link.destination.portOrdinal)
+      }
     })
 
     val outLinksImmutableValue: mutable.Map[OperatorIdentity, Set[OperatorIdentity]] =
@@ -112,6 +127,53 @@ class WorkflowCompiler(val workflowInfo: WorkflowInfo, val context: WorkflowCont
     new Workflow(amberOperators, outLinksImmutable)
   }
 
+  /**
+    * Replaces every chain of plain one-to-one operators with a single FusedOpExecConfig.
+    * Two operators are chained if the upstream one has exactly one output link,
+    * and that link is the only input link of the downstream one. Subclasses of
+    * OneToOneOpExecConfig (e.g. HashOpExecConfig) are never fused since they change
+    * how their input is partitioned. Operators with a breakpoint are never fused either,
+    * since breakpoints are evaluated on the output of the operator they are attached to.
+    * @param amberOperators the compiled operators, updated in place.
+    * @return a map from every fused operator to the operator that replaced it.
+    */
+  def fuseOperatorChains(
+      amberOperators: mutable.Map[OperatorIdentity, OpExecConfig]
+  ): Map[OperatorIdentity, OperatorIdentity] = {
+    def toIdentity(operatorID: String) = OperatorIdentity(this.context.jobID, operatorID)
+    val breakpointOperators = workflowInfo.breakpoints.map(bp => toIdentity(bp.operatorID)).toSet
+    def isFusable(op: OperatorIdentity): Boolean =
+      amberOperators(op).getClass == classOf[OneToOneOpExecConfig] &&
+        !breakpointOperators.contains(op)
+
+    val inLinks = workflowInfo.links.groupBy(link => toIdentity(link.destination.operatorID))
+    val downstream: Map[OperatorIdentity, OperatorIdentity] = workflowInfo.links
+      .groupBy(link => toIdentity(link.origin.operatorID))
+      .collect {
+        case (origin, links) if links.size == 1 && isFusable(origin) =>
+          (origin, toIdentity(links.head.destination.operatorID))
+      }
+      .filter { case (_, dest) => isFusable(dest) && inLinks(dest).size == 1 }
+    val chainHeads = downstream.keys.filter(op => !downstream.values.exists(_ == op))
+
+    val fusedInto = mutable.HashMap[OperatorIdentity, OperatorIdentity]()
+    chainHeads.foreach(head => {
+      val chain = mutable.ArrayBuffer(head)
+      while (downstream.contains(chain.last)) {
+        chain.append(downstream(chain.last))
+      }
+      val fused = new FusedOpExecConfig(
+        chain.map(op => amberOperators(op).asInstanceOf[OneToOneOpExecConfig]).toArray
+      )
+      chain.foreach(op => {
+        amberOperators.remove(op)
+        fusedInto.put(op, fused.id)
+      })
+      amberOperators.put(fused.id, fused)
+    })
+    fusedInto.toMap
+  }
+
   def initializeBreakpoint(controller: ActorRef): Unit = {
     for (pair <- this.workflowInfo.breakpoints) {
       addBreakpoint(controller, pair.operatorID, pair.breakpoint)
@@ -123,6 +185,12 @@ class WorkflowCompiler(val workflowInfo: WorkflowInfo, val context: WorkflowCont
       operatorID: String,
       breakpoint: Breakpoint
   ): Unit = {
+    if (fusedInto.contains(OperatorIdentity(this.context.jobID, operatorID))) {
+      // the workers of a fused operator only see the input and output of the whole chain
+      throw new RuntimeException(
+        s"cannot add a breakpoint to $operatorID after it has been fused with its neighbors"
+      )
+    }
     val breakpointID = "breakpoint-" + operatorID
     breakpoint match {
       case conditionBp: ConditionBreakpoint =>
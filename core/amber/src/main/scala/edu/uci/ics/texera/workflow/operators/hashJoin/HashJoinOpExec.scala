@@ -1,16 +1,27 @@
 package edu.uci.ics.texera.workflow.operators.hashJoin
 
-import edu.uci.ics.amber.engine.common.InputExhausted
-import edu.uci.ics.amber.engine.common.amberexception.WorkflowRuntimeException
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
-import edu.uci.ics.amber.error.WorkflowRuntimeError
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, OperatorSchemaInfo, Schema}
 
-import scala.collection.mutable
+import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
+import scala.util.hashing.MurmurHash3
 
+/**
+  * Hybrid hash join. The build input is hashed into Constants.joinPartitions partitions,
+  * and partitions are kept in memory as long as their estimated size fits in
+  * Constants.joinMemoryBudget. Beyond it, the largest partition is spilled to disk
+  * together with the probe tuples hashed to it, and joined in a second pass once
+  * both inputs are exhausted. Each spilled partition is expected to fit in memory alone.
+  *
+  * Probe tuples that arrive before the build input is exhausted are buffered, and
+  * spilled first when memory runs out.
+  */
 class HashJoinOpExec[K](
     val buildTable: LinkIdentity,
     val buildAttributeName: String,
@@ -21,11 +32,28 @@ class HashJoinOpExec[K](
   val buildSchema: Schema = operatorSchemaInfo.inputSchemas(0)
   val probeSchema: Schema = operatorSchemaInfo.inputSchemas(1)
   var isBuildTableFinished: Boolean = false
-  var buildTableHashMap: mutable.HashMap[K, ArrayBuffer[Tuple]] = _
+  var isProbeTableFinished: Boolean = false
   var outputProbeSchema: Schema = operatorSchemaInfo.outputSchema
 
-  var currentEntry: Iterator[Tuple] = _
-  var currentTuple: Tuple = _
+  private var partitions: Array[HashJoinPartition[K]] = _
+  private var memoryBytes = 0L
+
+  // probe tuples received before the build table is finished
+  private val earlyProbeTuples = new ArrayBuffer[ITuple]()
+  private var earlyProbeBytes = 0L
+  private var earlyProbeSpill: BatchSpillFile = _
+
+  // the probe attributes in the output, with their index in the probe tuple.
+  // outputProbeSchema doesnt have "probeAttribute" but the probe tuple does.
+  private lazy val probeOutputAttributes: Array[(Int, Attribute)] =
+    probeSchema.getAttributes.asScala.zipWithIndex.collect {
+      case (attribute, i) if attribute.getName != probeAttributeName =>
+        val attributeName = attribute.getName
+        val outputName =
+          if (buildSchema.getAttributeNames.contains(attributeName)) attributeName + "#@1"
+          else attributeName
+        (i, new Attribute(outputName, attribute.getType))
+    }.toArray
 
   override def processTexeraTuple(
       tuple: Either[Tuple, InputExhausted],
@@ -36,70 +64,130 @@ class HashJoinOpExec[K](
         // The operatorInfo() in HashJoinOpDesc has a inputPorts list. In that the
         // small input port comes first. So, it is assigned the inputNum 0. Similarly
         // the large input is assigned the inputNum 1.
-
         if (input == buildTable) {
-          val key = t.getField(buildAttributeName).asInstanceOf[K]
-          val storedTuples = buildTableHashMap.getOrElse(key, new ArrayBuffer[Tuple]())
-          storedTuples += t
-          buildTableHashMap.put(key, storedTuples)
+          insertBuildTuple(t)
           Iterator()
         } else if (!isBuildTableFinished) {
-          val err = WorkflowRuntimeError(
-            "Probe table came before build table ended",
-            "HashJoinOpExec",
-            Map("stacktrace" -> Thread.currentThread().getStackTrace.mkString("\n"))
-          )
-          throw new WorkflowRuntimeException(err)
+          bufferEarlyProbeTuple(t)
+          Iterator()
         } else {
-          val key = t.getField(probeAttributeName).asInstanceOf[K]
-          val storedTuples = buildTableHashMap.getOrElse(key, new ArrayBuffer[Tuple]())
-          if (storedTuples.isEmpty) {
-            Iterator()
-          }
-
-          storedTuples
-            .map(buildTuple => {
-              val builder = Tuple
-                .newBuilder(operatorSchemaInfo.outputSchema)
-                .add(buildTuple)
-
-              // outputProbeSchema doesnt have "probeAttribute" but t does. The following code
-              //  takes that into consideration while creating a tuple.
-              for (i <- 0 until t.getFields.size()) {
-                val attributeName = t.getSchema.getAttributeNames.get(i)
-                val attribute = t.getSchema.getAttribute(attributeName)
-
-                if (attributeName != probeAttributeName) {
-                  builder.add(
-                    new Attribute(
-                      if (buildSchema.getAttributeNames.contains(attributeName))
-                        attributeName + "#@1"
-                      else attributeName,
-                      attribute.getType
-                    ),
-                    t.getFields.get(i)
-                  )
-                }
-              }
-              builder.build()
-            })
-            .toIterator
+          probe(t)
         }
       case Right(_) =>
         if (input == buildTable) {
           isBuildTableFinished = true
+          val earlyResults = replayEarlyProbeTuples()
+          if (isProbeTableFinished) earlyResults ++ joinSpilledPartitions() else earlyResults
+        } else {
+          isProbeTableFinished = true
+          if (isBuildTableFinished) joinSpilledPartitions() else Iterator()
         }
-        Iterator()
-
     }
   }
 
   override def open(): Unit = {
-    buildTableHashMap = new mutable.HashMap[K, mutable.ArrayBuffer[Tuple]]()
+    partitions = Array.fill(Constants.joinPartitions)(new HashJoinPartition[K]())
   }
 
   override def close(): Unit = {
-    buildTableHashMap.clear()
+    partitions.foreach(_.close())
+    earlyProbeTuples.clear()
+    if (earlyProbeSpill != null) {
+      earlyProbeSpill.close()
+    }
+  }
+
+  private[this] def buildKey(t: Tuple): K = t.getField[Any](buildAttributeName).asInstanceOf[K]
+
+  private[this] def probeKey(t: Tuple): K = t.getField[Any](probeAttributeName).asInstanceOf[K]
+
+  private[this] def partitionOf(key: K): HashJoinPartition[K] = {
+    // a different hash than the one of the shuffle, whose keys all end up in this worker
+    val hash = MurmurHash3.finalizeHash(MurmurHash3.mix(0x6a09e667, key.##), 1)
+    partitions(Math.floorMod(hash, partitions.length))
+  }
+
+  private[this] def insertBuildTuple(t: Tuple): Unit = {
+    val key = buildKey(t)
+    val partition = partitionOf(key)
+    if (partition.isSpilled) {
+      partition.appendBuild(t)
+    } else {
+      val bytes = BatchSpillFile.estimateSize(t)
+      partition.insert(key, t, bytes)
+      memoryBytes += bytes
+      releaseMemory()
+    }
+  }
+
+  private[this] def bufferEarlyProbeTuple(t: Tuple): Unit = {
+    val bytes = BatchSpillFile.estimateSize(t)
+    earlyProbeTuples += t
+    earlyProbeBytes += bytes
+    memoryBytes += bytes
+    releaseMemory()
+  }
+
+  /** spills early probe tuples first, then the largest partitions, until memory fits the budget.
+    */
+  private[this] def releaseMemory(): Unit = {
+    while (memoryBytes > Constants.joinMemoryBudget) {
+      if (earlyProbeTuples.nonEmpty) {
+        if (earlyProbeSpill == null) {
+          earlyProbeSpill = new BatchSpillFile("amber-join-")
+        }
+        earlyProbeSpill.write(earlyProbeTuples.toArray)
+        earlyProbeTuples.clear()
+        memoryBytes -= earlyProbeBytes
+        earlyProbeBytes = 0
+      } else {
+        val largest = partitions.filter(!_.isSpilled).maxBy(_.memoryBytes)
+        if (largest.memoryBytes == 0) {
+          return
+        }
+        memoryBytes -= largest.spill()
+      }
+    }
+  }
+
+  private[this] def replayEarlyProbeTuples(): Iterator[Tuple] = {
+    val spilled =
+      if (earlyProbeSpill == null) Iterator.empty
+      else Iterator.continually(earlyProbeSpill).takeWhile(_.nonEmpty).flatMap(_.read())
+    val buffered = earlyProbeTuples.toArray
+    earlyProbeTuples.clear()
+    memoryBytes -= earlyProbeBytes
+    earlyProbeBytes = 0
+    (spilled ++ buffered.iterator).flatMap(t => probe(t.asInstanceOf[Tuple]))
+  }
+
+  private[this] def probe(t: Tuple): Iterator[Tuple] = {
+    val key = probeKey(t)
+    val partition = partitionOf(key)
+    if (partition.isSpilled) {
+      partition.appendProbe(t)
+      Iterator()
+    } else {
+      partition.lookup(key).map(buildTuple => join(buildTuple, t))
+    }
+  }
+
+  private[this] def joinSpilledPartitions(): Iterator[Tuple] = {
+    partitions.iterator.filter(_.isSpilled).flatMap { partition =>
+      partition.joinSpilled(buildKey, probeKey).map {
+        case (buildTuple, probeTuple) => join(buildTuple, probeTuple)
+      }
+    }
+  }
+
+  private[this] def join(buildTuple: Tuple, probeTuple: Tuple): Tuple = {
+    val builder = Tuple
+      .newBuilder(operatorSchemaInfo.outputSchema)
+      .add(buildTuple)
+    probeOutputAttributes.foreach {
+      case (i, attribute) => builder.add(attribute, probeTuple.get(i))
+    }
+    builder.build()
   }
 
 }
@@ -5,6 +5,11 @@ import edu.uci.ics.amber.engine.architecture.controller.Workflow
 import edu.uci.ics.amber.engine.architecture.deploysemantics.deploymentfilter.UseAll
 import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.RoundRobinDeployment
 import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  ReplicateHotKeys,
+  SkewHandling,
+  SplitHotKeys
+}
 import edu.uci.ics.amber.engine.common.Constants
 import edu.uci.ics.amber.engine.common.virtualidentity.util.{makeLayer, toOperatorIdentity}
 import edu.uci.ics.amber.engine.common.virtualidentity.{
@@ -66,6 +71,19 @@ class HashJoinOpExecConfig[K](
     }
   }
 
+  /**
+    * Hot build keys are split across Constants.hotKeyFanout join workers. The build side
+    * completes before the probe side starts, so its hot keys are known by then, and only
+    * the probe tuples of these keys are replicated to the workers the key was split to.
+    */
+  override def getSkewHandling(layer: LayerIdentity): SkewHandling = {
+    if (layer == buildTable.from.get) {
+      SplitHotKeys(Constants.hotKeyFanout)
+    } else {
+      ReplicateHotKeys(Constants.hotKeyFanout)
+    }
+  }
+
   override def assignBreakpoint(
       breakpoint: GlobalBreakpoint[_]
   ): Array[ActorVirtualIdentity] = {
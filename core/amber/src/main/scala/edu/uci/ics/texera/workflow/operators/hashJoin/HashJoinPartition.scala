@@ -0,0 +1,129 @@
+package edu.uci.ics.texera.workflow.operators.hashJoin
+
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * One hash partition of the build side of a HashJoinOpExec.
+  * The build tuples of a partition sit in an in-memory hash table until the partition is
+  * spilled. From then on, its build tuples and the probe tuples hashed to it are appended
+  * to two spill files, and joined in a second pass once both inputs are exhausted.
+  */
+class HashJoinPartition[K] {
+  private var table = new mutable.HashMap[K, ArrayBuffer[Tuple]]()
+  private var bytes = 0L
+
+  private var buildSpill: BatchSpillFile = _
+  private var probeSpill: BatchSpillFile = _
+  private val buildBuffer = new ArrayBuffer[ITuple]()
+  private val probeBuffer = new ArrayBuffer[ITuple]()
+
+  /**
+    * @return estimated size of the build tuples kept in memory.
+    */
+  def memoryBytes: Long = bytes
+
+  def isSpilled: Boolean = buildSpill != null
+
+  def insert(key: K, tuple: Tuple, tupleBytes: Long): Unit = {
+    table.getOrElseUpdate(key, new ArrayBuffer[Tuple]()) += tuple
+    bytes += tupleBytes
+  }
+
+  def lookup(key: K): Iterator[Tuple] = {
+    table.get(key) match {
+      case Some(tuples) => tuples.iterator
+      case None         => Iterator.empty
+    }
+  }
+
+  /**
+    * Moves the build tuples of this partition to disk.
+    * @return estimated size of the memory released.
+    */
+  def spill(): Long = {
+    buildSpill = new BatchSpillFile("amber-join-")
+    probeSpill = new BatchSpillFile("amber-join-")
+    table.valuesIterator.foreach(_.foreach(appendBuild))
+    table = null
+    val released = bytes
+    bytes = 0
+    released
+  }
+
+  def appendBuild(tuple: Tuple): Unit = append(tuple, buildBuffer, buildSpill)
+
+  def appendProbe(tuple: Tuple): Unit = append(tuple, probeBuffer, probeSpill)
+
+  /**
+    * Joins the spilled build and probe tuples of this partition: the build tuples are
+    * loaded into a hash table, then the probe tuples are streamed against it.
+    * The spill files are deleted once the returned iterator is exhausted.
+    * @return pairs of matching build and probe tuples.
+    */
+  def joinSpilled(buildKey: Tuple => K, probeKey: Tuple => K): Iterator[(Tuple, Tuple)] = {
+    flush(buildBuffer, buildSpill)
+    flush(probeBuffer, probeSpill)
+    if (!buildSpill.nonEmpty) {
+      close()
+      return Iterator.empty
+    }
+    val spilledTable = new mutable.HashMap[K, ArrayBuffer[Tuple]]()
+    readAll(buildSpill).foreach { tuple =>
+      spilledTable.getOrElseUpdate(buildKey(tuple), new ArrayBuffer[Tuple]()) += tuple
+    }
+    val pairs = readAll(probeSpill).flatMap { probeTuple =>
+      spilledTable.get(probeKey(probeTuple)) match {
+        case Some(buildTuples) => buildTuples.iterator.map(buildTuple => (buildTuple, probeTuple))
+        case None              => Iterator.empty
+      }
+    }
+    pairs ++ {
+      close()
+      Iterator.empty
+    }
+  }
+
+  def close(): Unit = {
+    if (buildSpill != null) {
+      buildSpill.close()
+      probeSpill.close()
+    }
+    buildBuffer.clear()
+    probeBuffer.clear()
+    if (table != null) {
+      table.clear()
+    }
+    bytes = 0
+  }
+
+  private[this] def append(
+      tuple: Tuple,
+      buffer: ArrayBuffer[ITuple],
+      spillFile: BatchSpillFile
+  ): Unit = {
+    buffer += tuple
+    if (buffer.length >= Constants.defaultBatchSize) {
+      flush(buffer, spillFile)
+    }
+  }
+
+  private[this] def flush(buffer: ArrayBuffer[ITuple], spillFile: BatchSpillFile): Unit = {
+    if (buffer.nonEmpty) {
+      spillFile.write(buffer.toArray)
+      buffer.clear()
+    }
+  }
+
+  private[this] def readAll(spillFile: BatchSpillFile): Iterator[Tuple] = {
+    Iterator
+      .continually(spillFile)
+      .takeWhile(_.nonEmpty)
+      .flatMap(_.read().iterator.map(_.asInstanceOf[Tuple]))
+  }
+}
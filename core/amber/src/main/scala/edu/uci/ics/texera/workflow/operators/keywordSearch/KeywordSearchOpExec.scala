@@ -16,11 +16,11 @@ class KeywordSearchOpExec(var counter: Int, val opDesc: KeywordSearchOpDesc) ext
   this.setFilterFunc(this.findKeyword)
 
   def findKeyword(tuple: Tuple): Boolean = {
-    if (tuple.getField(opDesc.attribute) == null) {
+    val field: Any = tuple.getField(opDesc.attribute)
+    if (field == null) {
       false
     } else {
-      val fieldValue = tuple.getField(opDesc.attribute).toString
-      memoryIndex.addField(opDesc.attribute, fieldValue, analyzer)
+      memoryIndex.addField(opDesc.attribute, field.toString, analyzer)
       val isMatch = memoryIndex.search(query) > 0.0f
       memoryIndex.reset()
       isMatch
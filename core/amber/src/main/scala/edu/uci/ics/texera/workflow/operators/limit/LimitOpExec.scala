@@ -1,13 +1,16 @@
 package edu.uci.ics.texera.workflow.operators.limit
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.{ISatisfiableOperatorExecutor, InputExhausted}
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 
-class LimitOpExec(val limit: Int) extends OperatorExecutor {
+class LimitOpExec(val limit: Int) extends OperatorExecutor with ISatisfiableOperatorExecutor {
   var count = 0
 
+  // the upstream operators can stop once enough tuples are output
+  override def isSatisfied: Boolean = count >= limit
+
   override def processTexeraTuple(
       tuple: Either[Tuple, InputExhausted],
       input: LinkIdentity
@@ -0,0 +1,39 @@
+package edu.uci.ics.texera.workflow.operators.limit
+
+import edu.uci.ics.amber.engine.architecture.breakpoint.globalbreakpoint.GlobalBreakpoint
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploymentfilter.ForceLocal
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.RandomDeployment
+import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
+import edu.uci.ics.amber.engine.common.virtualidentity.util.makeLayer
+import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, OperatorIdentity}
+import edu.uci.ics.amber.engine.operators.OpExecConfig
+
+/**
+  * A single worker counts the tuples of all the upstream workers, so the limit holds
+  * for the whole output even if the input is skewed, and the upstream operators can be
+  * stopped as soon as it is reached.
+  */
+class LimitOpExecConfig(override val id: OperatorIdentity, val limit: Int)
+    extends OpExecConfig(id) {
+
+  override lazy val topology: Topology = {
+    new Topology(
+      Array(
+        new WorkerLayer(
+          makeLayer(id, "main"),
+          _ => new LimitOpExec(limit),
+          1,
+          ForceLocal(),
+          RandomDeployment()
+        )
+      ),
+      Array()
+    )
+  }
+
+  override def assignBreakpoint(
+      breakpoint: GlobalBreakpoint[_]
+  ): Array[ActorVirtualIdentity] = {
+    topology.layers(0).identifiers
+  }
+}
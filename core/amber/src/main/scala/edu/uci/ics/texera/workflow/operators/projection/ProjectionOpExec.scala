@@ -1,13 +1,21 @@
 package edu.uci.ics.texera.workflow.operators.projection
 
 import com.google.common.base.Preconditions
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.amber.error.ErrorUtils.safely
 import edu.uci.ics.texera.workflow.common.operators.map.MapOpExec
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
-import edu.uci.ics.texera.workflow.common.tuple.schema.OperatorSchemaInfo
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatch
+import edu.uci.ics.texera.workflow.common.tuple.schema.{OperatorSchemaInfo, Schema}
 
 class ProjectionOpExec(var attributes: List[String], val operatorSchemaInfo: OperatorSchemaInfo)
     extends MapOpExec {
 
+  // positions of the output attributes in the input schema, resolved once per input schema
+  @transient private var resolvedInputSchema: Schema = _
+  @transient private var projectedIndices: Array[Int] = _
+
   def project(tuple: Tuple): Tuple = {
     Preconditions.checkArgument(attributes.nonEmpty)
     val builder = Tuple.newBuilder(operatorSchemaInfo.outputSchema)
@@ -23,4 +31,84 @@ class ProjectionOpExec(var attributes: List[String], val operatorSchemaInfo: Ope
   }
 
   setMapFunc(project)
+
+  /**
+    * Projects a batch by copying fields by position, without looking up
+    * attribute names for every tuple.
+    */
+  override def processBatch(
+      batch: Array[ITuple],
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    Preconditions.checkArgument(attributes.nonEmpty)
+    val outputSchema = operatorSchemaInfo.outputSchema
+    val output = new Array[ITuple](batch.length)
+    var outputSize = 0
+    var i = 0
+    while (i < batch.length) {
+      try {
+        val tuple = batch(i).asInstanceOf[Tuple]
+        val indices = resolveIndices(tuple.getSchema)
+        val fields = new Array[Object](indices.length)
+        var j = 0
+        while (j < indices.length) {
+          fields(j) = tuple.get(indices(j))
+          j += 1
+        }
+        output(outputSize) = new Tuple(outputSchema, fields: _*)
+        outputSize += 1
+      } catch safely {
+        case e => onFailure(batch(i), e)
+      }
+      i += 1
+    }
+    if (outputSize == batch.length) output else output.slice(0, outputSize)
+  }
+
+  /**
+    * Projects a columnar batch by reading the projected columns directly,
+    * the input rows are only materialized for the ones that fail.
+    */
+  override def processColumnarBatch(
+      batch: ColumnarBatch,
+      input: LinkIdentity,
+      onFailure: (ITuple, Throwable) => Unit
+  ): Array[ITuple] = {
+    Preconditions.checkArgument(attributes.nonEmpty)
+    val outputSchema = operatorSchemaInfo.outputSchema
+    val output = new Array[ITuple](batch.rowCount)
+    var outputSize = 0
+    var row = 0
+    while (row < batch.rowCount) {
+      try {
+        val indices = resolveIndices(batch.schema)
+        val fields = new Array[Object](indices.length)
+        var j = 0
+        while (j < indices.length) {
+          fields(j) = batch.getField(row, indices(j))
+          j += 1
+        }
+        output(outputSize) = new Tuple(outputSchema, fields: _*)
+        outputSize += 1
+      } catch safely {
+        case e => onFailure(batch.getTuple(row), e)
+      }
+      row += 1
+    }
+    if (outputSize == batch.rowCount) output else output.slice(0, outputSize)
+  }
+
+  private[this] def resolveIndices(inputSchema: Schema): Array[Int] = {
+    if (!(inputSchema eq resolvedInputSchema)) {
+      if (resolvedInputSchema == null || inputSchema != resolvedInputSchema) {
+        val outputAttributes = operatorSchemaInfo.outputSchema.getAttributes
+        projectedIndices = Array.tabulate(outputAttributes.size())(j =>
+          inputSchema.getIndex(outputAttributes.get(j).getName).intValue()
+        )
+      }
+      resolvedInputSchema = inputSchema
+    }
+    projectedIndices
+  }
 }
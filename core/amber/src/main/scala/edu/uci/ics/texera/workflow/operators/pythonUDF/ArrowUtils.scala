@@ -149,28 +149,28 @@ object ArrowUtils {
             case 16 | 32 =>
               vector
                 .asInstanceOf[IntVector]
-                .set(index, !isNull, if (isNull) 0 else value.asInstanceOf[Int])
+                .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Int])
 
             case 64 | _ =>
               vector
                 .asInstanceOf[BigIntVector]
-                .set(index, !isNull, if (isNull) 0 else value.asInstanceOf[Long])
+                .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Long])
           }
 
         case _: ArrowType.Bool =>
           vector
             .asInstanceOf[BitVector]
-            .set(index, !isNull, if (isNull) 0 else value.asInstanceOf[Boolean])
+            .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Boolean])
 
         case _: ArrowType.FloatingPoint =>
           vector
             .asInstanceOf[Float8Vector]
-            .set(index, !isNull, if (isNull) 0 else value.asInstanceOf[Double])
+            .setSafe(index, !isNull, if (isNull) 0 else value.asInstanceOf[Double])
 
         case _: ArrowType.Timestamp =>
           vector
             .asInstanceOf[TimeStampVector]
-            .set(
+            .setSafe(
               index,
               !isNull,
               if (isNull) 0L
@@ -182,7 +182,7 @@ object ArrowUtils {
           else
             vector
               .asInstanceOf[VarCharVector]
-              .set(index, value.asInstanceOf[String].getBytes(StandardCharsets.UTF_8))
+              .setSafe(index, value.asInstanceOf[String].getBytes(StandardCharsets.UTF_8))
 
       }
     }
@@ -1,6 +1,6 @@
 package edu.uci.ics.texera.workflow.operators.regex
 
-import java.util.regex.Pattern
+import java.util.regex.{Matcher, Pattern}
 
 import edu.uci.ics.texera.workflow.common.operators.filter.FilterOpExec
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
@@ -9,14 +9,16 @@ class RegexOpExec(val opDesc: RegexOpDesc) extends FilterOpExec {
   val pattern: Pattern =
     if (opDesc.caseInsensitive) Pattern.compile(opDesc.regex, Pattern.CASE_INSENSITIVE)
     else Pattern.compile(opDesc.regex)
+  // one matcher is reset for every tuple instead of allocating a new one
+  @transient lazy val matcher: Matcher = pattern.matcher("")
   this.setFilterFunc(this.matchRegex)
 
   def matchRegex(tuple: Tuple): Boolean = {
-    val tupleValue = Option[Any](tuple.getField(opDesc.attribute)).map(x => x.toString)
-    if (tupleValue.isEmpty)
+    val tupleValue: Any = tuple.getField(opDesc.attribute)
+    if (tupleValue == null)
       false
     else
-      pattern.matcher(tupleValue.get).find
+      matcher.reset(tupleValue.toString).find
   }
 
 }
@@ -2,12 +2,16 @@ package edu.uci.ics.texera.workflow.operators.sink
 
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
-import edu.uci.ics.amber.engine.common.{ITupleSinkOperatorExecutor, InputExhausted}
+import edu.uci.ics.amber.engine.common.{
+  ITupleSinkOperatorExecutor,
+  InputExhausted,
+  ResultChange,
+  VersionedResultStore
+}
 import edu.uci.ics.texera.workflow.common.{IncrementalOutputMode, ProgressiveUtils}
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.OperatorSchemaInfo
 
-import scala.collection.mutable
 import IncrementalOutputMode._
 
 class SimpleSinkOpExec(
@@ -16,25 +20,18 @@ class SimpleSinkOpExec(
     val chartType: Option[String]
 ) extends ITupleSinkOperatorExecutor {
 
-  val results: mutable.ListBuffer[Tuple] = mutable.ListBuffer()
+  // the delta results are discarded once they are received
+  val results: VersionedResultStore = new VersionedResultStore(outputMode == SET_SNAPSHOT)
 
-  def getResultTuples(): List[ITuple] = {
-    outputMode match {
-      case SET_SNAPSHOT =>
-        results.toList
-      case SET_DELTA =>
-        val ret = results.toList
-        // clear the delta result buffer after every progressive output
-        results.clear()
-        ret
-    }
-  }
+  override def getResultChanges(ackedVersion: Long): List[ResultChange] =
+    results.changesSince(ackedVersion)
 
   override def getOutputMode(): IncrementalOutputMode = this.outputMode
 
   override def open(): Unit = {}
 
-  override def close(): Unit = {}
+  // the changes not received yet are kept for the last result query
+  override def close(): Unit = results.close()
 
   override def processTuple(
       tuple: Either[ITuple, InputExhausted],
@@ -47,7 +44,7 @@ class SimpleSinkOpExec(
             updateSetSnapshot(t.asInstanceOf[Tuple])
             Iterator()
           case SET_DELTA =>
-            results += t.asInstanceOf[Tuple]
+            results.insert(t)
             Iterator()
         }
       case Right(_) =>
@@ -59,9 +56,9 @@ class SimpleSinkOpExec(
     val (isInsertion, tupleValue) =
       ProgressiveUtils.getTupleFlagAndValue(deltaUpdate, operatorSchemaInfo)
     if (isInsertion) {
-      results += tupleValue
+      results.insert(tupleValue)
     } else {
-      results -= tupleValue
+      results.retract(tupleValue)
     }
   }
 
@@ -0,0 +1,55 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.{Constants, ISenderAwareOperatorExecutor, InputExhausted}
+import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
+import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+
+/**
+  * Puts the sorted ranges of the sort workers together in order.
+  * The ranges don't overlap, so no merge is needed: the first range is output as it arrives,
+  * the later ones are kept in arrival order, which is sorted, and output one after another
+  * at the end of the input. They are spilled whenever they exceed Constants.sortMemoryBudget.
+  * @param rangeSenders the sort worker of each range, in the order of the ranges.
+  */
+class SortConcatOpExec(rangeSenders: Array[ActorVirtualIdentity])
+    extends OperatorExecutor
+    with ISenderAwareOperatorExecutor {
+  // the later ranges, the first range is never kept
+  private val runs = Array.fill(rangeSenders.length)(new SortRun())
+  private var currentRange = 0
+  private var bufferedBytes = 0L
+
+  override def setInputSender(sender: ActorVirtualIdentity): Unit = {
+    currentRange = rangeSenders.indexOf(sender)
+    require(currentRange != -1, s"$sender is not a sort worker")
+  }
+
+  override def processTexeraTuple(
+      tuple: Either[Tuple, InputExhausted],
+      input: LinkIdentity
+  ): Iterator[Tuple] = {
+    tuple match {
+      case Left(t) =>
+        if (currentRange == 0) {
+          return Iterator(t)
+        }
+        runs(currentRange).add(t)
+        bufferedBytes += BatchSpillFile.estimateSize(t)
+        if (bufferedBytes > Constants.sortMemoryBudget) {
+          runs.foreach(_.spill())
+          bufferedBytes = 0
+        }
+        Iterator()
+      case Right(_) =>
+        runs.iterator.drop(1).flatMap(_.iterator)
+    }
+  }
+
+  override def open(): Unit = {}
+
+  override def close(): Unit = {
+    runs.foreach(_.close())
+  }
+}
@@ -0,0 +1,18 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
+import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaTitle
+import edu.uci.ics.texera.workflow.common.metadata.annotations.AutofillAttributeName
+
+class SortCriteriaUnit {
+  @JsonProperty(value = "attribute", required = true)
+  @JsonSchemaTitle("Attribute")
+  @JsonPropertyDescription("attribute to sort by")
+  @AutofillAttributeName
+  var attributeName: String = _
+
+  @JsonProperty(value = "sortPreference", required = true)
+  @JsonSchemaTitle("Sort Preference")
+  @JsonPropertyDescription("ascending or descending")
+  var sortPreference: SortPreference = SortPreference.ASC
+}
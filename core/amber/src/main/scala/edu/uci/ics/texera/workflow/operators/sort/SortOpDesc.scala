@@ -0,0 +1,56 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize
+import com.google.common.base.Preconditions
+import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaTitle
+import edu.uci.ics.amber.engine.operators.OpExecConfig
+import edu.uci.ics.texera.workflow.common.metadata.{
+  InputPort,
+  OperatorGroupConstants,
+  OperatorInfo,
+  OutputPort
+}
+import edu.uci.ics.texera.workflow.common.operators.OperatorDescriptor
+import edu.uci.ics.texera.workflow.common.tuple.schema.{OperatorSchemaInfo, Schema}
+
+class SortOpDesc extends OperatorDescriptor {
+
+  @JsonProperty(value = "sortAttributes", required = true)
+  @JsonSchemaTitle("Sort Attributes")
+  @JsonPropertyDescription("attributes to sort by, the first one takes precedence")
+  var sortAttributes: List[SortCriteriaUnit] = List()
+
+  @JsonProperty()
+  @JsonSchemaTitle("Limit")
+  @JsonPropertyDescription("only output the first rows of the sorted result")
+  @JsonDeserialize(contentAs = classOf[java.lang.Integer])
+  var limit: Option[Int] = None
+
+  override def operatorExecutor(operatorSchemaInfo: OperatorSchemaInfo): OpExecConfig = {
+    if (sortAttributes.isEmpty) {
+      throw new RuntimeException("Sort: no attribute to sort by")
+    }
+    val inputSchema = operatorSchemaInfo.inputSchemas(0)
+    new SortOpExecConfig(
+      operatorIdentifier,
+      sortAttributes.map(unit => inputSchema.getIndex(unit.attributeName).intValue()).toArray,
+      sortAttributes.map(_.sortPreference == SortPreference.DESC).toArray,
+      limit
+    )
+  }
+
+  override def operatorInfo: OperatorInfo =
+    OperatorInfo(
+      "Sort",
+      "Sort the tuples by the values of some attributes",
+      OperatorGroupConstants.UTILITY_GROUP,
+      inputPorts = List(InputPort()),
+      outputPorts = List(OutputPort())
+    )
+
+  override def getOutputSchema(schemas: Array[Schema]): Schema = {
+    Preconditions.checkArgument(schemas.length == 1)
+    schemas(0)
+  }
+}
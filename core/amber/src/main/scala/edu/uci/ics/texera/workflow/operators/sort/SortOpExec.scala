@@ -0,0 +1,61 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.KeyComparator
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Sorts its input with an external merge sort: the tuples are sorted and spilled as a run
+  * whenever they exceed Constants.sortMemoryBudget, the runs are merged at the end.
+  */
+class SortOpExec(keyColumns: Array[Int], descending: Array[Boolean]) extends OperatorExecutor {
+  private val ordering = new KeyComparator(keyColumns, descending).tupleOrdering[Tuple]
+  private val buffer = new ArrayBuffer[Tuple]()
+  private var bufferedBytes = 0L
+  private val runs = new ArrayBuffer[SortRun]()
+
+  override def processTexeraTuple(
+      tuple: Either[Tuple, InputExhausted],
+      input: LinkIdentity
+  ): Iterator[Tuple] = {
+    tuple match {
+      case Left(t) =>
+        buffer.append(t)
+        bufferedBytes += BatchSpillFile.estimateSize(t)
+        if (bufferedBytes > Constants.sortMemoryBudget) {
+          val run = sortBuffer()
+          run.spill()
+          runs.append(run)
+        }
+        Iterator()
+      case Right(_) =>
+        runs.append(sortBuffer())
+        SortRun.merge(runs, ordering)
+    }
+  }
+
+  def runCount: Int = runs.length
+
+  private def sortBuffer(): SortRun = {
+    val tuples = buffer.toArray
+    buffer.clear()
+    bufferedBytes = 0
+    // TimSort, already sorted stretches of the input are merged in linear time
+    java.util.Arrays.sort(tuples, ordering)
+    val run = new SortRun()
+    run.addAll(tuples)
+    run
+  }
+
+  override def open(): Unit = {}
+
+  override def close(): Unit = {
+    runs.foreach(_.close())
+    runs.clear()
+  }
+}
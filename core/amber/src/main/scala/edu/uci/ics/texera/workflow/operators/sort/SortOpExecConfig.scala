@@ -0,0 +1,79 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.architecture.breakpoint.globalbreakpoint.GlobalBreakpoint
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploymentfilter.{ForceLocal, UseAll}
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.{
+  RandomDeployment,
+  RoundRobinDeployment
+}
+import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
+import edu.uci.ics.amber.engine.architecture.linksemantics.AllToOne
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.virtualidentity.util.makeLayer
+import edu.uci.ics.amber.engine.common.virtualidentity.{
+  ActorVirtualIdentity,
+  LayerIdentity,
+  OperatorIdentity
+}
+import edu.uci.ics.amber.engine.operators.OpExecConfig
+
+/**
+  * Without a limit, the input is shuffled by ranges of the sort keys, each "sort" worker
+  * sorts one range and a single "concat" worker outputs the ranges one after another.
+  * With a limit, each "localTopK" worker keeps the first `limit` tuples of its input and
+  * a single "globalTopK" worker keeps the first `limit` of theirs.
+  * @param keyColumns the indices of the attributes to sort by, in order of precedence.
+  * @param descending whether each attribute is sorted in descending order.
+  */
+class SortOpExecConfig(
+    id: OperatorIdentity,
+    val keyColumns: Array[Int],
+    val descending: Array[Boolean],
+    val limit: Option[Int]
+) extends OpExecConfig(id) {
+
+  override lazy val topology: Topology = {
+    val (firstLayerName, lastLayerName) =
+      if (limit.isEmpty) ("sort", "concat") else ("localTopK", "globalTopK")
+    val firstLayer = new WorkerLayer(
+      makeLayer(id, firstLayerName),
+      _ =>
+        limit match {
+          case Some(k) => new TopKOpExec(k, keyColumns, descending)
+          case None    => new SortOpExec(keyColumns, descending)
+        },
+      Constants.defaultNumWorkers,
+      UseAll(),
+      RoundRobinDeployment()
+    )
+    val lastLayer = new WorkerLayer(
+      makeLayer(id, lastLayerName),
+      _ =>
+        limit match {
+          case Some(k) => new TopKOpExec(k, keyColumns, descending)
+          // the range shuffle sends range i to the i-th identifier of the sort layer
+          case None => new SortConcatOpExec(firstLayer.identifiers)
+        },
+      1,
+      ForceLocal(),
+      RandomDeployment()
+    )
+    new Topology(
+      Array(firstLayer, lastLayer),
+      Array(new AllToOne(firstLayer, lastLayer, Constants.defaultBatchSize))
+    )
+  }
+
+  // top-k does not need its input in ranges, any partitioning of it works
+  override def requiredRangeShuffle: Boolean = limit.isEmpty
+
+  override def getPartitionColumnIndices(layer: LayerIdentity): Array[Int] = keyColumns
+
+  override def getPartitionDescending(layer: LayerIdentity): Array[Boolean] = descending
+
+  override def assignBreakpoint(
+      breakpoint: GlobalBreakpoint[_]
+  ): Array[ActorVirtualIdentity] = {
+    topology.layers(0).identifiers
+  }
+}
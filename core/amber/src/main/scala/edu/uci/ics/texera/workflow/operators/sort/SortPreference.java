@@ -0,0 +1,23 @@
+package edu.uci.ics.texera.workflow.operators.sort;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum SortPreference {
+
+    ASC("ascending"),
+
+    DESC("descending");
+
+    private final String name;
+
+    SortPreference(String name) {
+        this.name = name;
+    }
+
+    // use the name string instead of enum string in JSON
+    @JsonValue
+    public String getName() {
+        return this.name;
+    }
+
+}
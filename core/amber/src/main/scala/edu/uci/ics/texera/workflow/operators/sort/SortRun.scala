@@ -0,0 +1,87 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.architecture.worker.BatchSpillFile
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+object SortRun {
+
+  /**
+    * K-way merges sorted runs.
+    * @return the tuples of all the runs in the given order.
+    */
+  def merge(runs: Seq[SortRun], ordering: Ordering[Tuple]): Iterator[Tuple] = {
+    if (runs.length == 1) {
+      return runs.head.iterator
+    }
+    new Iterator[Tuple] {
+      // the run with the smallest next tuple is dequeued first
+      private val queue = mutable.PriorityQueue(
+        runs.map(_.iterator.buffered).filter(_.hasNext): _*
+      )(Ordering.by[BufferedIterator[Tuple], Tuple](_.head)(ordering).reverse)
+
+      override def hasNext: Boolean = queue.nonEmpty
+
+      override def next(): Tuple = {
+        val run = queue.dequeue()
+        val tuple = run.next()
+        if (run.hasNext) {
+          queue.enqueue(run)
+        }
+        tuple
+      }
+    }
+  }
+}
+
+/**
+  * A run of tuples in sorted order. Its tuples are kept in memory until it is spilled,
+  * tuples added after a spill follow the spilled ones.
+  */
+class SortRun {
+  private val spillFile = new BatchSpillFile("amber-sort-")
+  private val buffer = new ArrayBuffer[Tuple]()
+  private var lastTuple: Tuple = _
+
+  def last: Tuple = lastTuple
+
+  def add(tuple: Tuple): Unit = {
+    buffer.append(tuple)
+    lastTuple = tuple
+  }
+
+  def addAll(tuples: Array[Tuple]): Unit = {
+    buffer ++= tuples
+    if (tuples.nonEmpty) {
+      lastTuple = tuples.last
+    }
+  }
+
+  /**
+    * Writes the tuples in memory to a temp file.
+    */
+  def spill(): Unit = {
+    buffer.grouped(Constants.defaultBatchSize).foreach(batch => spillFile.write(batch.toArray))
+    buffer.clear()
+  }
+
+  /**
+    * @return the tuples of the run in order, the spilled ones are read back lazily.
+    */
+  def iterator: Iterator[Tuple] = {
+    val spilled = Iterator
+      .continually(spillFile)
+      .takeWhile(_.nonEmpty)
+      .flatMap(_.read())
+      .map(_.asInstanceOf[Tuple])
+    spilled ++ buffer.iterator
+  }
+
+  def close(): Unit = {
+    spillFile.close()
+    buffer.clear()
+  }
+}
@@ -0,0 +1,43 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.KeyComparator
+import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+
+import scala.collection.mutable
+
+/**
+  * Keeps the first k tuples of its input in sort order with a bounded heap, and outputs
+  * them sorted at the end of the input.
+  */
+class TopKOpExec(k: Int, keyColumns: Array[Int], descending: Array[Boolean])
+    extends OperatorExecutor {
+  private val ordering = new KeyComparator(keyColumns, descending).tupleOrdering[Tuple]
+  // the head is the last of the first k tuples, the first one to be replaced
+  private val heap = mutable.PriorityQueue[Tuple]()(ordering)
+
+  override def processTexeraTuple(
+      tuple: Either[Tuple, InputExhausted],
+      input: LinkIdentity
+  ): Iterator[Tuple] = {
+    tuple match {
+      case Left(t) =>
+        if (heap.size < k) {
+          heap.enqueue(t)
+        } else if (k > 0 && ordering.lt(t, heap.head)) {
+          heap.dequeue()
+          heap.enqueue(t)
+        }
+        Iterator()
+      case Right(_) =>
+        // dequeueAll returns the tuples from the last to the first
+        heap.dequeueAll.reverseIterator
+    }
+  }
+
+  override def open(): Unit = {}
+
+  override def close(): Unit = {}
+}
@@ -32,6 +32,11 @@ class ParallelCSVScanSourceOpDesc extends ScanSourceOpDesc {
   @JsonPropertyDescription("whether the CSV file contains a header line")
   var hasHeader: Boolean = true
 
+  @JsonProperty()
+  @JsonSchemaTitle("Columns")
+  @JsonPropertyDescription("the columns to read, all columns if empty")
+  var columns: List[String] = List()
+
   fileTypeName = Option("CSV")
 
   @throws[IOException]
@@ -67,6 +72,37 @@ class ParallelCSVScanSourceOpDesc extends ScanSourceOpDesc {
 
   }
 
+  /**
+    * The indices of the columns to read in ascending order, or null to read all columns.
+    * @param fileSchema the schema of all columns of the file
+    */
+  def keptFields(fileSchema: Schema): Array[Int] = {
+    if (columns.isEmpty) {
+      return null
+    }
+    Schema.checkAttributeExists(fileSchema, columns.asJava)
+    columns.map(column => fileSchema.getIndex(column).intValue()).distinct.sorted.toArray
+  }
+
+  /**
+    * The schema of the columns to read, in the order of the file.
+    * @param fileSchema the schema of all columns of the file
+    */
+  def projectSchema(fileSchema: Schema): Schema = {
+    val kept = keptFields(fileSchema)
+    if (kept == null) {
+      return fileSchema
+    }
+    Schema.newBuilder
+      .add(kept.map(i => fileSchema.getAttributes.get(i)).toIterable.asJava)
+      .build
+  }
+
+  override def sourceSchema(): Schema = {
+    if (filePath.isEmpty) return null
+    projectSchema(inferSchema())
+  }
+
   /**
     * Infer Texera.Schema based on the top few lines of data.
     * @return Texera.Schema build for this operator
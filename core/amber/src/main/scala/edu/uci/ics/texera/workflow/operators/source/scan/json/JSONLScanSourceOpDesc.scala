@@ -1,22 +1,29 @@
 package edu.uci.ics.texera.workflow.operators.source.scan.json
 
-import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
+import com.fasterxml.jackson.annotation.{JsonIgnore, JsonProperty, JsonPropertyDescription}
 import com.fasterxml.jackson.databind.JsonNode
 import edu.uci.ics.amber.engine.common.Constants
 import edu.uci.ics.amber.engine.operators.OpExecConfig
 import edu.uci.ics.texera.workflow.common.Utils.objectMapper
 import edu.uci.ics.texera.workflow.common.operators.OneToOneOpExecConfig
+import edu.uci.ics.texera.workflow.common.scanner.LineBlockReader
 import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils.inferSchemaFromRows
 import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, OperatorSchemaInfo, Schema}
 import edu.uci.ics.texera.workflow.operators.source.scan.ScanSourceOpDesc
 import edu.uci.ics.texera.workflow.operators.source.scan.json.JSONUtil.JSONToMap
 
-import java.io.{BufferedReader, FileReader, IOException}
+import java.io.{File, IOException}
+import java.nio.file.Paths
 import scala.collection.JavaConverters._
-import scala.collection.convert.ImplicitConversions.`iterator asScala`
 import scala.collection.mutable.ArrayBuffer
 class JSONLScanSourceOpDesc extends ScanSourceOpDesc {
 
+  /** the number of splits of the file, the first lines of each split are used for
+    * the type inference.
+    */
+  @JsonIgnore
+  var INFER_SPLITS: Int = 10
+
   @JsonProperty(required = true)
   @JsonPropertyDescription("flatten nested objects and arrays")
   var flatten: Boolean = false
@@ -29,23 +36,25 @@ class JSONLScanSourceOpDesc extends ScanSourceOpDesc {
   ): OpExecConfig = {
     filePath match {
       case Some(path) =>
-        // count lines and partition the task to each worker
-        val reader = new BufferedReader(new FileReader(path))
-        val offsetValue = offset.getOrElse(0)
-        var lines = reader.lines().iterator().drop(offsetValue)
-        if (limit.isDefined) lines = lines.take(limit.get)
-        val count: Int = lines.map(_ => 1).sum
-        reader.close()
-
+        val totalBytes: Long = new File(path).length()
         val numWorkers = Constants.defaultNumWorkers
 
         new OneToOneOpExecConfig(
           operatorIdentifier,
           (i: Int) => {
-            val startOffset: Int = offsetValue + count / numWorkers * i
-            val endOffset: Int =
-              offsetValue + (if (i != numWorkers - 1) count / numWorkers * (i + 1) else count)
-            new JSONLScanSourceOpExec(this, startOffset, endOffset)
+            if (offset.isDefined || limit.isDefined) {
+              // offset and limit count lines from the start of the file,
+              // so the first worker reads the whole file
+              if (i == 0)
+                new JSONLScanSourceOpExec(this, 0, totalBytes, offset.getOrElse(0), limit)
+              else
+                new JSONLScanSourceOpExec(this, 0, 0)
+            } else {
+              // partition the file by bytes, each worker reads the lines starting in its split
+              val startOffset: Long = totalBytes * i / numWorkers
+              val endOffset: Long = totalBytes * (i + 1) / numWorkers
+              new JSONLScanSourceOpExec(this, startOffset, endOffset)
+            }
           }
         )
 
@@ -56,36 +65,28 @@ class JSONLScanSourceOpDesc extends ScanSourceOpDesc {
   }
 
   /**
-    * Infer Texera.Schema based on the top few lines of data.
+    * Infer Texera.Schema based on a few lines of data. The lines are taken from the
+    * start of each of several splits of the file, or from the offset if an offset or
+    * a limit is given.
     *
     * @return Texera.Schema build for this operator
     */
   @Override
   def inferSchema(): Schema = {
-    val reader = new BufferedReader(new FileReader(filePath.get))
     var fieldNames = Set[String]()
 
     val allFields: ArrayBuffer[Map[String, String]] = ArrayBuffer()
 
-    val startOffset = offset.getOrElse(0)
-    val endOffset =
-      startOffset + limit.getOrElse(INFER_READ_LIMIT).min(INFER_READ_LIMIT)
-    reader
-      .lines()
-      .iterator()
-      .asScala
-      .slice(startOffset, endOffset)
-      .foreach(line => {
-        val root: JsonNode = objectMapper.readTree(line)
-        if (root.isObject) {
-          val fields: Map[String, String] = JSONToMap(root, flatten = flatten)
-          fieldNames = fieldNames.++(fields.keySet)
-          allFields += fields
-        }
-      })
+    sampleLines().foreach(line => {
+      val root: JsonNode = objectMapper.readTree(line)
+      if (root.isObject) {
+        val fields: Map[String, String] = JSONToMap(root, flatten = flatten)
+        fieldNames = fieldNames.++(fields.keySet)
+        allFields += fields
+      }
+    })
 
     val sortedFieldNames = fieldNames.toList.sorted
-    reader.close()
 
     val attributeTypes = inferSchemaFromRows(allFields.iterator.map(fields => {
       val result = ArrayBuffer[Object]()
@@ -108,4 +109,28 @@ class JSONLScanSourceOpDesc extends ScanSourceOpDesc {
       .build
   }
 
+  private def sampleLines(): Seq[String] = {
+    val totalBytes = new File(filePath.get).length()
+    val count = limit.getOrElse(INFER_READ_LIMIT).min(INFER_READ_LIMIT)
+    val (lineOffset, splits) =
+      if (offset.isDefined || limit.isDefined) (offset.getOrElse(0), 1) else (0, INFER_SPLITS)
+    (0 until splits).flatMap(i => {
+      val reader = new LineBlockReader(
+        Paths.get(filePath.get),
+        totalBytes * i / splits,
+        totalBytes * (i + 1) / splits
+      )
+      try {
+        Iterator
+          .continually(reader.nextLine())
+          .takeWhile(identity)
+          .slice(lineOffset, lineOffset + count)
+          .map(_ => reader.getLine)
+          .toList
+      } finally {
+        reader.close()
+      }
+    })
+  }
+
 }
@@ -1,54 +1,122 @@
 package edu.uci.ics.texera.workflow.operators.source.scan.json
 
+import com.fasterxml.jackson.core.{JsonFactory, JsonParser, JsonToken}
 import edu.uci.ics.texera.workflow.common.Utils.objectMapper
 import edu.uci.ics.texera.workflow.common.operators.source.SourceOperatorExecutor
+import edu.uci.ics.texera.workflow.common.scanner.LineBlockReader
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeType._
 import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils.parseField
-import edu.uci.ics.texera.workflow.common.tuple.schema.Schema
-import edu.uci.ics.texera.workflow.operators.source.scan.json.JSONUtil.JSONToMap
+import edu.uci.ics.texera.workflow.common.tuple.schema.{AttributeType, Schema}
 
-import java.io.{BufferedReader, FileReader}
+import java.nio.file.Paths
 import scala.collection.Iterator
 import scala.collection.JavaConverters._
 
 class JSONLScanSourceOpExec private[json] (
     val desc: JSONLScanSourceOpDesc,
-    val startOffset: Int,
-    val endOffset: Int
+    val startOffset: Long,
+    val endOffset: Long,
+    // offset and limit in lines, only given to a worker which reads the whole file
+    val lineOffset: Int = 0,
+    val lineLimit: Option[Int] = None
 ) extends SourceOperatorExecutor {
+  private val jsonFactory: JsonFactory = objectMapper.getFactory
   private var schema: Schema = _
-  private var rows: Iterator[String] = _
-  private var reader: BufferedReader = _
+  private var attributeTypes: Array[AttributeType] = _
+  // the index of each attribute by its name, the name of a nested field if flattened
+  private var attributeIndices: java.util.HashMap[String, Integer] = _
+  private var reader: LineBlockReader = _
 
   override def produceTexeraTuple(): Iterator[Tuple] = {
-    rows
-      .map(line => {
-        try {
-          val fields = scala.collection.mutable.ArrayBuffer.empty[Object]
-          val data = JSONToMap(objectMapper.readTree(line), flatten = desc.flatten)
-
-          for (fieldName <- schema.getAttributeNames.asScala) {
-            if (data.contains(fieldName))
-              fields += parseField(data(fieldName), schema.getAttribute(fieldName).getType)
-            else {
-              fields += null
-            }
-          }
-
-          Tuple.newBuilder(schema).addSequentially(fields.toArray).build
-        } catch {
-          case _: Throwable => null
-        }
-      })
-      .filter(tuple => tuple != null)
-
+    var lines = Iterator.continually(reader.nextLine()).takeWhile(identity).drop(lineOffset)
+    lineLimit.foreach(limit => lines = lines.take(limit))
+    lines.map(_ => parseLine()).filter(tuple => tuple != null)
   }
+
   override def open(): Unit = {
     schema = desc.inferSchema()
-    reader = new BufferedReader(new FileReader(desc.filePath.get))
-    rows = reader.lines().iterator().asScala.slice(startOffset, endOffset)
+    attributeTypes = schema.getAttributes.asScala.map(_.getType).toArray
+    attributeIndices = new java.util.HashMap[String, Integer]()
+    schema.getAttributeNames.asScala.zipWithIndex.foreach {
+      case (name, i) => attributeIndices.put(name, i)
+    }
+    reader = new LineBlockReader(Paths.get(desc.filePath.get), startOffset, endOffset)
   }
 
   override def close(): Unit = reader.close()
 
+  /**
+    * Parse the current line of the reader into a Texera.Tuple, the fields of the JSON
+    * object are put into the fields of their attributes as they are streamed.
+    *
+    * @return the Texera.Tuple, or null if the line is not a JSON object of the schema.
+    */
+  private def parseLine(): Tuple = {
+    val parser =
+      jsonFactory.createParser(reader.getBuffer, reader.getLineStart, reader.getLineLength)
+    try {
+      if (parser.nextToken() != JsonToken.START_OBJECT) return null
+      val fields = new Array[AnyRef](attributeTypes.length)
+      parseObject(parser, fields, "")
+      new Tuple(schema, fields: _*)
+    } catch {
+      case _: Throwable => null
+    } finally {
+      parser.close()
+    }
+  }
+
+  // names the fields the same as JSONUtil.JSONToMap
+  private def parseObject(parser: JsonParser, fields: Array[AnyRef], parentName: String): Unit = {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      val name =
+        if (parentName.isEmpty) parser.getCurrentName
+        else parentName + "." + parser.getCurrentName
+      parser.nextToken() match {
+        case JsonToken.START_OBJECT | JsonToken.START_ARRAY if desc.flatten =>
+          parseNested(parser, fields, name)
+        case JsonToken.START_OBJECT | JsonToken.START_ARRAY =>
+          parser.skipChildren()
+        case token =>
+          val index = attributeIndices.get(name)
+          if (index != null) fields(index) = parseValue(parser, token, attributeTypes(index))
+      }
+    }
+  }
+
+  private def parseNested(parser: JsonParser, fields: Array[AnyRef], name: String): Unit = {
+    if (parser.currentToken() == JsonToken.START_OBJECT) {
+      parseObject(parser, fields, name)
+    } else {
+      // the elements of an array are named by their position, values in it are ignored
+      var i = 0
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        i += 1
+        if (parser.currentToken().isStructStart) parseNested(parser, fields, name + i)
+      }
+    }
+  }
+
+  private def parseValue(
+      parser: JsonParser,
+      token: JsonToken,
+      attributeType: AttributeType
+  ): AnyRef = {
+    attributeType match {
+      case _ if token == JsonToken.VALUE_NULL => null
+      case INTEGER
+          if token == JsonToken.VALUE_NUMBER_INT &&
+            parser.getNumberType == JsonParser.NumberType.INT =>
+        Int.box(parser.getIntValue)
+      case LONG
+          if token == JsonToken.VALUE_NUMBER_INT &&
+            parser.getNumberType != JsonParser.NumberType.BIG_INTEGER =>
+        Long.box(parser.getLongValue)
+      case DOUBLE if token.isNumeric => Double.box(parser.getDoubleValue)
+      case BOOLEAN if token.isBoolean => Boolean.box(parser.getBooleanValue)
+      case _                          => parseField(parser.getText, attributeType)
+    }
+  }
+
 }
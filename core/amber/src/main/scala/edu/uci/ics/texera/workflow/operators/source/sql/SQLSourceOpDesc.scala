@@ -3,6 +3,7 @@ package edu.uci.ics.texera.workflow.operators.source.sql
 import com.fasterxml.jackson.annotation.{JsonProperty, JsonPropertyDescription}
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize
 import com.kjetland.jackson.jsonSchema.annotations.{JsonSchemaInject, JsonSchemaTitle}
+import edu.uci.ics.amber.engine.common.Constants
 import edu.uci.ics.texera.workflow.common.metadata.annotations.{AutofillAttributeName, UIWidget}
 import edu.uci.ics.texera.workflow.common.operators.source.SourceOperatorDescriptor
 import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
@@ -111,6 +112,22 @@ abstract class SQLSourceOpDesc extends SourceOperatorDescriptor {
     querySchema
   }
 
+  /**
+    * The number of workers reading the table. In progressive mode the windows of the
+    * batchByColumn are split among the workers, unless a limit or an offset requires
+    * the rows to be read in order by a single worker.
+    *
+    * @return the number of workers
+    */
+  protected def numWorkers: Int = {
+    if (
+      progressive.getOrElse(false) && batchByColumn.isDefined && interval > 0L
+      && limit.isEmpty && offset.isEmpty
+    )
+      Math.max(Constants.defaultNumWorkers, 1)
+    else 1
+  }
+
   // needs to define getters for sub classes to override Jackson Annotations
   def getKeywords: Option[String] = keywords
 
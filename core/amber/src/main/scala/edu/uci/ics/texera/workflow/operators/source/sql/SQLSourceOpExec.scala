@@ -9,11 +9,10 @@ import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils.{
   parseTimestamp
 }
 
-import java.sql._
+import java.sql.{Connection, PreparedStatement, ResultSet, SQLException, Timestamp}
 import scala.collection.Iterator
 import scala.collection.mutable.ArrayBuffer
 import scala.jdk.CollectionConverters._
-import scala.util.control.Breaks.{break, breakable}
 
 abstract class SQLSourceOpExec(
     // source configs
@@ -29,7 +28,11 @@ abstract class SQLSourceOpExec(
     batchByColumn: Option[String],
     min: Option[String],
     max: Option[String],
-    interval: Long
+    interval: Long,
+    // parallelism related, the windows of the batchByColumn are assigned to the
+    // workers round-robin
+    workerIndex: Int = 0,
+    numWorkers: Int = 1
 ) extends SourceOperatorExecutor {
 
   // connection and query related
@@ -37,103 +40,66 @@ abstract class SQLSourceOpExec(
   val batchByAttribute: Option[Attribute] =
     if (progressive.getOrElse(false)) Option(schema.getAttribute(batchByColumn.get)) else None
   var connection: Connection = _
-  var curQuery: Option[PreparedStatement] = None
-  var curResultSet: Option[ResultSet] = None
+  var curQuery: PreparedStatement = _
+  var curResultSet: ResultSet = _
   var curLowerBound: Number = _
   var upperBound: Number = _
   var cachedTuple: Option[Tuple] = None
   var querySent: Boolean = false
 
+  // number of rows the JDBC driver fetches at a time, so that the results are streamed
+  // instead of being loaded into memory at once
+  val FETCH_SIZE = 10000
+  private val attributes: Array[Attribute] = schema.getAttributes.asScala.toArray
+  // the column of each attribute in curResultSet, and the number of rows read from it
+  private var curColumnIndices: Array[Int] = _
+  private var curRowCount = 0L
+
   /**
     * A generator of a Texera.Tuple, which converted from a SQL row
     * @return Iterator[Tuple]
     */
   override def produceTexeraTuple(): Iterator[Tuple] = {
     new Iterator[Tuple]() {
+      // whether curResultSet is on a row which is not returned yet
+      private var hasNextRow = false
+
+      /**
+        * Move to the next row of curResultSet.
+        * - If curResultSet is exhausted, send the next query until no more queries are available.
+        *
+        * @throws SQLException all possible exceptions from JDBC
+        * @return whether there is a next row
+        */
+      @throws[SQLException]
       override def hasNext: Boolean = {
-        cachedTuple match {
-          // if existing Tuple in cache, means there exist next Tuple.
-          case Some(_) => true
-          case None    =>
-            // cache the next Tuple
-            cachedTuple = Option(next)
-            cachedTuple.isDefined
+        while (!hasNextRow) {
+          if (curResultSet == null) {
+            curQuery = getNextQuery
+            if (curQuery == null) return false
+            curResultSet = curQuery.executeQuery
+            curColumnIndices = attributes.map(attr => curResultSet.findColumn(attr.getName))
+            curRowCount = 0
+          }
+          hasNextRow = curResultSet.next()
+          if (!hasNextRow) closeCurQuery()
         }
-
+        true
       }
 
       /**
-        * Fetch the next row from resultSet, parse it into Texera.Tuple and return.
-        * - If resultSet is exhausted, send the next query until no more queries are available.
-        * - If no more queries, return null.
+        * Parse the current row of curResultSet into Texera.Tuple and return.
         *
         * @throws SQLException all possible exceptions from JDBC
         * @return Texera.Tuple
         */
       @throws[SQLException]
       override def next: Tuple = {
-
-        // if has the next Tuple in cache, return it and clear the cache
-        cachedTuple.foreach(tuple => {
-          cachedTuple = None
-          return tuple
-        })
-
-        // otherwise, send query to fetch for the next Tuple
-
-        while (true) {
-          breakable {
-
-            curResultSet match {
-              case Some(resultSet) =>
-                if (resultSet.next()) {
-
-                  // manually skip until the offset position in order to adapt to progressive batches
-                  curOffset.fold()(offset => {
-                    if (offset > 0) {
-                      curOffset = Option(offset - 1)
-                      break
-                    }
-                  })
-
-                  // construct Texera.Tuple from the next result.
-                  val tuple = buildTupleFromRow
-
-                  if (tuple == null)
-                    break
-
-                  // update the limit in order to adapt to progressive batches
-                  curLimit.fold()(limit => {
-                    if (limit > 0) {
-                      curLimit = Option(limit - 1)
-                    }
-                  })
-                  return tuple
-                } else {
-                  // close the current resultSet and query
-                  curResultSet.foreach(resultSet => resultSet.close())
-                  curQuery.foreach(query => query.close())
-                  curResultSet = None
-                  curQuery = None
-                  break
-                }
-              case None =>
-                curQuery = getNextQuery
-                curQuery match {
-                  case Some(query) =>
-                    curResultSet = Option(query.executeQuery)
-                    break
-                  case None =>
-                    curResultSet = None
-                    return null
-                }
-            }
-
-          }
-        }
-        null
+        if (!hasNext) throw new NoSuchElementException
+        hasNextRow = false
+        curRowCount += 1
+        buildTupleFromRow
       }
-
     }
   }
 
@@ -163,11 +129,8 @@ abstract class SQLSourceOpExec(
     */
   @throws[SQLException]
   override def close(): Unit = {
-
-    curResultSet.foreach(resultSet => resultSet.close())
-
-    curQuery.foreach(query => query.close())
-
+    if (curResultSet != null) curResultSet.close()
+    if (curQuery != null) curQuery.close()
     if (connection != null) connection.close()
   }
 
@@ -179,27 +142,14 @@ abstract class SQLSourceOpExec(
     */
   @throws[SQLException]
   protected def buildTupleFromRow: Tuple = {
-    val tupleBuilder = Tuple.newBuilder(schema)
-
-    for (attr <- schema.getAttributes.asScala) {
-
-      breakable {
-        val columnName = attr.getName
-        val columnType = attr.getType
-        val value = curResultSet.get.getObject(columnName)
-
-        if (value == null) {
-          // add the field as null
-          tupleBuilder.add(attr, null)
-          break
-        }
-
-        // otherwise, transform the type of the value
-        tupleBuilder.add(attr, parseField(value, columnType))
-
-      }
+    val fields = new Array[AnyRef](attributes.length)
+    var i = 0
+    while (i < attributes.length) {
+      // null stays null, other values are transformed to the type of the attribute
+      fields(i) = parseField(curResultSet.getObject(curColumnIndices(i)), attributes(i).getType)
+      i += 1
     }
-    tupleBuilder.build
+    new Tuple(schema, fields: _*)
   }
 
   /**
@@ -257,7 +207,8 @@ abstract class SQLSourceOpExec(
     * There will be a lower bound and upper bound for each sliding window.
     *
     * The last window would be [lower, upper], while the other windows will
-    * be [lower, nextLower)
+    * be [lower, lower + interval). With several workers, each worker moves on
+    * to its next window, numWorkers intervals later.
     *
     * @param queryBuilder the target query builder
     * @throws IllegalArgumentException if the given batchByAttribute's type is
@@ -265,18 +216,17 @@ abstract class SQLSourceOpExec(
     */
   @throws[IllegalArgumentException]
   protected def addBatchSlidingWindow(queryBuilder: StringBuilder): Unit = {
-    var nextLowerBound: Number = null
+    var windowUpperBound: Number = null
     var isLastBatch = false
 
     batchByAttribute match {
       case Some(attribute) =>
+        windowUpperBound = addIntervals(curLowerBound, 1)
         attribute.getType match {
           case INTEGER | LONG | TIMESTAMP =>
-            nextLowerBound = curLowerBound.longValue + interval
-            isLastBatch = nextLowerBound.longValue >= upperBound.longValue
+            isLastBatch = windowUpperBound.longValue >= upperBound.longValue
           case DOUBLE =>
-            nextLowerBound = curLowerBound.doubleValue + interval
-            isLastBatch = nextLowerBound.doubleValue >= upperBound.doubleValue
+            isLastBatch = windowUpperBound.doubleValue >= upperBound.doubleValue
           case BOOLEAN | STRING | ANY | _ =>
             throw new IllegalArgumentException("Unexpected type: " + attribute.getType)
         }
@@ -286,13 +236,33 @@ abstract class SQLSourceOpExec(
           (if (isLastBatch)
              " <= " + batchAttributeToString(upperBound)
            else
-             " < " + batchAttributeToString(nextLowerBound))
+             " < " + batchAttributeToString(windowUpperBound))
       case None =>
         throw new IllegalArgumentException(
           "no valid batchByColumn to iterate: " + batchByColumn.getOrElse("")
         )
     }
-    curLowerBound = nextLowerBound
+    curLowerBound = addIntervals(curLowerBound, numWorkers)
+  }
+
+  /**
+    * Move a value of the batchByAttribute by a number of intervals.
+    *
+    * @param value a Number, the value to start from.
+    * @param count the number of intervals to add.
+    * @throws IllegalArgumentException if the batchByAttribute type is unexpected
+    * @return a Number of the same type as value
+    */
+  @throws[IllegalArgumentException]
+  private def addIntervals(value: Number, count: Int): Number = {
+    batchByAttribute.get.getType match {
+      case INTEGER | LONG | TIMESTAMP =>
+        value.longValue + interval * count
+      case DOUBLE =>
+        value.doubleValue + interval * count
+      case BOOLEAN | STRING | ANY | _ =>
+        throw new IllegalArgumentException("Unexpected type: " + batchByAttribute.get.getType)
+    }
   }
 
   /**
@@ -376,6 +346,12 @@ abstract class SQLSourceOpExec(
 
   protected def addKeywordSearch(queryBuilder: StringBuilder): Unit
 
+  /**
+    * Whether the offset is added to the query of the batch it falls in when progressive
+    * mode is enabled. Otherwise the rows before the offset have to be skipped while reading.
+    */
+  protected def isOffsetPushedToBatches: Boolean = true
+
   /**
     * generate sql query string using the info provided by user. One of following
     * select * from TableName where 1 = 1 AND MATCH (ColumnName) AGAINST ( ? IN BOOLEAN MODE) LIMIT ?;
@@ -386,7 +362,8 @@ abstract class SQLSourceOpExec(
     * with an optional appropriate batchByColumn sliding window,
     * e.g. create_at >= '2017-01-14 03:47:59.0' AND create_at < '2017-01-15 03:47:59.0'
     *
-    * Or a fixed offset [OFFSET ?] to be added if not progressive.
+    * Or an offset [OFFSET ?] to be added if not progressive, or to the batch the offset
+    * falls in if progressive.
     *
     * @throws IllegalArgumentException if the given batchByAttribute's type is
     *                          not supported to be incremental.
@@ -404,8 +381,7 @@ abstract class SQLSourceOpExec(
     addBaseSelect(queryBuilder)
 
     // add keyword search if applicable
-    if (search.getOrElse(false) && searchByColumn.isDefined && keywords.isDefined)
-      addKeywordSearch(queryBuilder)
+    if (hasKeywordSearch) addKeywordSearch(queryBuilder)
 
     // add sliding window if progressive mode is enabled
     if (progressive.getOrElse(false) && batchByColumn.isDefined && interval > 0L)
@@ -419,8 +395,8 @@ abstract class SQLSourceOpExec(
         return None
     }
 
-    // add fixed offset if not progressive
-    if (!progressive.getOrElse(false) && curOffset.isDefined) addOffset(queryBuilder)
+    // add the offset if it is not consumed yet
+    if (hasOffsetInQuery) addOffset(queryBuilder)
 
     // end
     terminateSQL(queryBuilder)
@@ -428,50 +404,107 @@ abstract class SQLSourceOpExec(
     Option(queryBuilder.result())
   }
 
+  private def hasKeywordSearch: Boolean =
+    search.getOrElse(false) && searchByColumn.isDefined && keywords.isDefined
+
+  private def hasOffsetInQuery: Boolean =
+    curOffset.isDefined && (!progressive.getOrElse(false) || isOffsetPushedToBatches)
+
   /**
     * Get the next query.
     * - If progressive mode is enabled, this method will be invoked
-    * many times, each yielding the next mini query.
+    * many times, each yielding the next mini query. The batches before
+    * the offset are skipped by their row counts.
     * - If progressive mode is not enabled, this method will be invoked
     * only once, returning the one giant query.
     * @throws SQLException all possible exceptions from JDBC
-    * @return a PreparedStatement to be filled with values.
+    * @return a PreparedStatement filled with values, or null if there are no more queries.
     */
   @throws[SQLException]
-  private def getNextQuery: Option[PreparedStatement] = {
-    if (hasNextQuery) {
-      val nextQuery = generateSqlQuery
-      nextQuery match {
-        case Some(query) =>
-          val preparedStatement = connection.prepareStatement(query)
-          var curIndex = 1
-
-          // fill up the keywords
-          if (search.getOrElse(false) && searchByColumn.isDefined && keywords.isDefined) {
-            preparedStatement.setString(curIndex, keywords.get)
-            curIndex += 1
-          }
+  private def getNextQuery: PreparedStatement = {
+    while (hasNextQuery) {
+      if (!progressive.getOrElse(false) || interval <= 0L || curOffset.forall(_ <= 0)) {
+        return prepareNextQuery()
+      }
+      val lowerBound = curLowerBound
+      val batchRowCount = countNextBatch()
+      if (batchRowCount > curOffset.get) {
+        // the offset falls in this batch, query it again with the offset
+        curLowerBound = lowerBound
+        return prepareNextQuery()
+      }
+      curOffset = Option(curOffset.get - batchRowCount)
+    }
+    null
+  }
 
-          // fill up limit
-          curLimit match {
-            case Some(limit) =>
-              if (limit > 0) preparedStatement.setLong(curIndex, limit)
-              curIndex += 1
-            case None =>
-          }
+  @throws[SQLException]
+  private def prepareNextQuery(): PreparedStatement = {
+    val query = generateSqlQuery.orNull
+    if (query == null) return null
+    val preparedStatement = connection.prepareStatement(query)
+    preparedStatement.setFetchSize(FETCH_SIZE)
+    var curIndex = 1
+
+    // fill up the keywords
+    if (hasKeywordSearch) {
+      preparedStatement.setString(curIndex, keywords.get)
+      curIndex += 1
+    }
+
+    // fill up limit
+    curLimit match {
+      case Some(limit) =>
+        if (limit > 0) preparedStatement.setLong(curIndex, limit)
+        curIndex += 1
+      case None =>
+    }
 
-          // fill up offset if progressive mode is not enabled
-          if (!progressive.getOrElse(false))
-            curOffset match {
-              case Some(offset) =>
-                preparedStatement.setLong(curIndex, offset)
-              case None =>
-            }
+    // fill up offset, which is consumed by this query
+    if (hasOffsetInQuery) {
+      preparedStatement.setLong(curIndex, curOffset.get)
+      curOffset = None
+    }
 
-          Option(preparedStatement)
-        case None => None
-      }
-    } else None
+    preparedStatement
+  }
+
+  /**
+    * Count the rows of the next batch on the server side, moving on to the batch after it.
+    *
+    * @throws SQLException all possible exceptions from JDBC
+    * @return the number of rows in the next batch
+    */
+  @throws[SQLException]
+  private def countNextBatch(): Long = {
+    val queryBuilder = new StringBuilder
+    queryBuilder ++= "\n" + "SELECT COUNT(*) FROM " + table + " where 1 = 1"
+    if (hasKeywordSearch) addKeywordSearch(queryBuilder)
+    addBatchSlidingWindow(queryBuilder)
+    terminateSQL(queryBuilder)
+
+    val preparedStatement = connection.prepareStatement(queryBuilder.result())
+    if (hasKeywordSearch) preparedStatement.setString(1, keywords.get)
+    val resultSet = preparedStatement.executeQuery
+    resultSet.next
+    val count = resultSet.getLong(1)
+    resultSet.close()
+    preparedStatement.close()
+    count
+  }
+
+  /**
+    * Close curResultSet and curQuery, counting the rows read from them against the limit.
+    *
+    * @throws SQLException all possible exceptions from JDBC
+    */
+  @throws[SQLException]
+  private def closeCurQuery(): Unit = {
+    curLimit = curLimit.map(limit => limit - curRowCount)
+    curResultSet.close()
+    curQuery.close()
+    curResultSet = null
+    curQuery = null
   }
 
   /**
@@ -504,6 +537,9 @@ abstract class SQLSourceOpExec(
           case _ =>
             throw new IllegalArgumentException(s"Unsupported type ${batchByAttribute.get.getType}")
         }
+
+      // each worker starts at its own window
+      curLowerBound = addIntervals(curLowerBound, workerIndex)
     } else {
       throw new IllegalArgumentException(
         s"Missing required progressive configuration, $batchByAttribute, $min or $max."
@@ -2,7 +2,10 @@ package edu.uci.ics.texera.workflow.operators.source.sql
 
 import edu.uci.ics.amber.engine.architecture.breakpoint.globalbreakpoint.GlobalBreakpoint
 import edu.uci.ics.amber.engine.architecture.deploysemantics.deploymentfilter.UseAll
-import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.OneOnEach
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.{
+  OneOnEach,
+  RoundRobinDeployment
+}
 import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
 import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import edu.uci.ics.amber.engine.common.virtualidentity.OperatorIdentity
@@ -12,7 +15,8 @@ import edu.uci.ics.texera.workflow.common.operators.source.SourceOperatorExecuto
 
 class SQLSourceOpExecConfig(
     tag: OperatorIdentity,
-    opExec: Int => SourceOperatorExecutor
+    opExec: Int => SourceOperatorExecutor,
+    numWorkers: Int = 1
 ) extends OpExecConfig(tag) {
 
   override lazy val topology: Topology = {
@@ -21,9 +25,9 @@ class SQLSourceOpExecConfig(
         new WorkerLayer(
           makeLayer(tag, "main"),
           opExec,
-          1,
+          numWorkers,
           UseAll(), // it's source operator
-          OneOnEach()
+          if (numWorkers > 1) RoundRobinDeployment() else OneOnEach()
         )
       ),
       Array()
@@ -45,7 +45,7 @@ class AsterixDBSourceOpDesc extends SQLSourceOpDesc {
   override def operatorExecutor(operatorSchemaInfo: OperatorSchemaInfo): OpExecConfig =
     new SQLSourceOpExecConfig(
       this.operatorIdentifier,
-      (worker: Any) =>
+      (i: Int) =>
         new AsterixDBSourceOpExec(
           sourceSchema(),
           host,
@@ -61,8 +61,11 @@ class AsterixDBSourceOpDesc extends SQLSourceOpDesc {
           batchByColumn,
           min,
           max,
-          interval
-        )
+          interval,
+          i,
+          numWorkers
+        ),
+      numWorkers
     )
 
   override def sourceSchema(): Schema = {
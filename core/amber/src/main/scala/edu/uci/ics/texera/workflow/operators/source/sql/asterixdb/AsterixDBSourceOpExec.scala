@@ -34,7 +34,9 @@ class AsterixDBSourceOpExec private[asterixdb] (
     batchByColumn: Option[String],
     min: Option[String],
     max: Option[String],
-    interval: Long
+    interval: Long,
+    workerIndex: Int,
+    numWorkers: Int
 ) extends SQLSourceOpExec(
       schema,
       table,
@@ -47,7 +49,9 @@ class AsterixDBSourceOpExec private[asterixdb] (
       batchByColumn,
       min,
       max,
-      interval
+      interval,
+      workerIndex,
+      numWorkers
     ) {
   // update AsterixDB API version upon initialization.
   updateAsterixDBVersionMapping(host, port)
@@ -123,6 +127,8 @@ class AsterixDBSourceOpExec private[asterixdb] (
                 curQueryString = if (hasNextQuery) generateSqlQuery else None
                 curQueryString match {
                   case Some(query) =>
+                    // the offset of a single query is skipped by the server
+                    if (!progressive.getOrElse(false)) curOffset = None
                     curResultIterator = queryAsterixDB(host, port, query)
                     break
                   case None =>
@@ -252,6 +258,9 @@ class AsterixDBSourceOpExec private[asterixdb] (
     queryBuilder ++= " OFFSET " + curOffset.get
   }
 
+  // the rows before the offset are skipped while reading progressive batches
+  override protected def isOffsetPushedToBatches: Boolean = false
+
   @throws[IllegalArgumentException]
   override def batchAttributeToString(value: Number): String = {
     batchByAttribute match {
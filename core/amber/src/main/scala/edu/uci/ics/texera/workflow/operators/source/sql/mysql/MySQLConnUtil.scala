@@ -10,8 +10,9 @@ object MySQLConnUtil {
       username: String,
       password: String
   ): Connection = {
-    val url =
-      "jdbc:mysql://" + host + ":" + port + "/" + database + "?autoReconnect=true&useSSL=true"
+    // use a server side cursor so that results are fetched by the fetch size of a statement
+    val url = "jdbc:mysql://" + host + ":" + port + "/" + database +
+      "?autoReconnect=true&useSSL=true&useCursorFetch=true"
     val connection = DriverManager.getConnection(url, username, password)
     // set to readonly to improve efficiency
     connection.setReadOnly(true)
@@ -19,7 +19,7 @@ class MySQLSourceOpDesc extends SQLSourceOpDesc {
   override def operatorExecutor(operatorSchemaInfo: OperatorSchemaInfo): OpExecConfig =
     new SQLSourceOpExecConfig(
       this.operatorIdentifier,
-      (worker: Any) =>
+      (i: Int) =>
         new MySQLSourceOpExec(
           this.querySchema,
           host,
@@ -37,8 +37,11 @@ class MySQLSourceOpDesc extends SQLSourceOpDesc {
           batchByColumn,
           min,
           max,
-          interval
-        )
+          interval,
+          i,
+          numWorkers
+        ),
+      numWorkers
     )
 
   override def operatorInfo: OperatorInfo =
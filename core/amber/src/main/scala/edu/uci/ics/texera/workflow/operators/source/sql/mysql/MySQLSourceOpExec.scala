@@ -23,7 +23,9 @@ class MySQLSourceOpExec private[mysql] (
     batchByColumn: Option[String],
     min: Option[String],
     max: Option[String],
-    interval: Long
+    interval: Long,
+    workerIndex: Int,
+    numWorkers: Int
 ) extends SQLSourceOpExec(
       schema,
       table,
@@ -36,7 +38,9 @@ class MySQLSourceOpExec private[mysql] (
       batchByColumn,
       min,
       max,
-      interval
+      interval,
+      workerIndex,
+      numWorkers
     ) {
 
   val FETCH_TABLE_NAMES_SQL =
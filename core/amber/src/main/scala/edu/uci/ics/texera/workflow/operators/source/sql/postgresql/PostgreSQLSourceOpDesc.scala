@@ -19,7 +19,7 @@ class PostgreSQLSourceOpDesc extends SQLSourceOpDesc {
   override def operatorExecutor(operatorSchemaInfo: OperatorSchemaInfo): OpExecConfig =
     new SQLSourceOpExecConfig(
       operatorIdentifier,
-      (worker: Any) =>
+      (i: Int) =>
         new PostgreSQLSourceOpExec(
           querySchema,
           host,
@@ -37,8 +37,11 @@ class PostgreSQLSourceOpDesc extends SQLSourceOpDesc {
           batchByColumn,
           min,
           max,
-          interval
-        )
+          interval,
+          i,
+          numWorkers
+        ),
+      numWorkers
     )
   override def operatorInfo: OperatorInfo =
     OperatorInfo(
@@ -23,7 +23,9 @@ class PostgreSQLSourceOpExec private[postgresql] (
     batchByColumn: Option[String],
     min: Option[String],
     max: Option[String],
-    interval: Long
+    interval: Long,
+    workerIndex: Int,
+    numWorkers: Int
 ) extends SQLSourceOpExec(
       schema,
       table,
@@ -36,13 +38,20 @@ class PostgreSQLSourceOpExec private[postgresql] (
       batchByColumn,
       min,
       max,
-      interval
+      interval,
+      workerIndex,
+      numWorkers
     ) {
   val FETCH_TABLE_NAMES_SQL =
     "SELECT table_name FROM information_schema.tables WHERE table_type='BASE TABLE';"
 
   @throws[SQLException]
-  override def establishConn(): Connection = connect(host, port, database, username, password)
+  override def establishConn(): Connection = {
+    val connection = connect(host, port, database, username, password)
+    // results are only fetched by the fetch size of a statement inside a transaction
+    connection.setAutoCommit(false)
+    connection
+  }
 
   @throws[RuntimeException]
   override def addKeywordSearch(queryBuilder: StringBuilder): Unit = {
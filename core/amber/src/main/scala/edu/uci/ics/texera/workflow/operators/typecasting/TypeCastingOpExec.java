@@ -1,12 +1,18 @@
 package edu.uci.ics.texera.workflow.operators.typecasting;
 
+import edu.uci.ics.amber.engine.common.tuple.ITuple;
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity;
 import edu.uci.ics.texera.workflow.common.operators.map.MapOpExec;
 import edu.uci.ics.texera.workflow.common.tuple.Tuple;
 import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils;
 import edu.uci.ics.texera.workflow.common.tuple.schema.OperatorSchemaInfo;
+import edu.uci.ics.texera.workflow.common.tuple.schema.Schema;
 import scala.Function1;
+import scala.Function2;
+import scala.runtime.BoxedUnit;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 
 public class TypeCastingOpExec extends  MapOpExec{
@@ -23,4 +29,26 @@ public class TypeCastingOpExec extends  MapOpExec{
         return AttributeTypeUtils.TupleCasting(t, opDesc.attribute, opDesc.resultType, operatorSchemaInfo);
     }
 
+    /**
+     * Casts a batch by position: the output schema keeps the attribute order of the input,
+     * so only the field at the casted index is replaced.
+     */
+    @Override
+    public ITuple[] processBatch(ITuple[] batch, LinkIdentity input, Function2<ITuple, Throwable, BoxedUnit> onFailure) {
+        Schema outputSchema = operatorSchemaInfo.outputSchema();
+        int castIndex = outputSchema.getIndex(opDesc.attribute);
+        ITuple[] output = new ITuple[batch.length];
+        int outputSize = 0;
+        for (int i = 0; i < batch.length; i++) {
+            try {
+                Object[] fields = ((Tuple) batch[i]).getFields().toArray();
+                fields[castIndex] = AttributeTypeUtils.parseField(fields[castIndex], opDesc.resultType);
+                output[outputSize++] = new Tuple(outputSchema, fields);
+            } catch (Exception e) {
+                onFailure.apply(batch[i], e);
+            }
+        }
+        return outputSize == batch.length ? output : Arrays.copyOf(output, outputSize);
+    }
+
 }
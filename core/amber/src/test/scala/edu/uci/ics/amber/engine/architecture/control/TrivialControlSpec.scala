@@ -46,7 +46,7 @@ class TrivialControlSpec
           actor ! RegisterActorRef(id, idMap(id))
         }
       case NetworkMessage(msgID, WorkflowControlMessage(_, _, ReturnPayload(id, returnValue))) =>
-        probe.sender() ! NetworkAck(msgID)
+        probe.sender() ! NetworkAck(msgID, 0)
         assert(returnValue.asInstanceOf[T] == expectedValues(id.toInt))
         flag += 1
       case other =>
@@ -16,12 +16,16 @@ class TrivialControlTester(id: ActorVirtualIdentity, parentNetworkCommunicationA
     extends WorkflowActor(id, parentNetworkCommunicationActorRef) {
 
   lazy val controlInputPort: NetworkInputPort[ControlPayload] =
-    new NetworkInputPort[ControlPayload](this.logger, this.handleControlPayloadWithTryCatch)
+    new NetworkInputPort[ControlPayload](
+      this.logger,
+      this.creditManager,
+      this.handleControlPayloadWithTryCatch
+    )
   override val rpcHandlerInitializer: AsyncRPCHandlerInitializer =
     wire[TesterAsyncRPCHandlerInitializer]
 
   override def receive: Receive = {
-    disallowActorRefRelatedMessages orElse {
+    disallowActorRefRelatedMessages orElse flushNetworkAcks orElse {
       case NetworkMessage(
             id,
             internalMessage @ WorkflowControlMessage(from, sequenceNumber, payload)
@@ -5,16 +5,24 @@ import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue
 import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue.{
   EndMarker,
   EndOfAllMarker,
-  InputTuple,
+  InputBatch,
+  InputColumnarBatch,
   SenderChangeMarker
 }
-import edu.uci.ics.amber.engine.common.ambermessage.{DataFrame, EndOfUpstream}
+import edu.uci.ics.amber.engine.common.ambermessage.{
+  ColumnarDataFrame,
+  DataFrame,
+  EndOfUpstream
+}
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.{
   ActorVirtualIdentity,
   LayerIdentity,
   LinkIdentity
 }
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
 import org.scalamock.scalatest.MockFactory
 import org.scalatest.flatspec.AnyFlatSpec
 
@@ -23,14 +31,12 @@ class BatchToTupleConverterSpec extends AnyFlatSpec with MockFactory {
   val linkID2: LinkIdentity = LinkIdentity(Option(LayerIdentity("", "", "")), None)
   private val mockInternalQueue = mock[WorkerInternalQueue]
   private val fakeID = ActorVirtualIdentity("testReceiver")
-  "tuple producer" should "break batch into tuples and output" in {
+  "tuple producer" should "queue batches as a whole" in {
     val batchToTupleConverter = wire[BatchToTupleConverter]
     val inputBatch = DataFrame(Array.fill(4)(ITuple(1, 2, 3, 5, "9.8", 7.6)))
     inSequence {
-      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1))
-      inputBatch.frame.foreach { i =>
-        (mockInternalQueue.appendElement _).expects(InputTuple(i))
-      }
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, fakeID))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatch.frame))
       (mockInternalQueue.appendElement _).expects(EndMarker)
       (mockInternalQueue.appendElement _).expects(EndOfAllMarker)
     }
@@ -43,22 +49,18 @@ class BatchToTupleConverterSpec extends AnyFlatSpec with MockFactory {
     val batchToTupleConverter = wire[BatchToTupleConverter]
     val inputBatchFromUpstream1 = DataFrame(Array.fill(4)(ITuple(1, 2, 3, 5, "9.8", 7.6)))
     val inputBatchFromUpstream2 = DataFrame(Array.fill(4)(ITuple(2, 3, 4, 5, "6.7", 8.9)))
+    val first = ActorVirtualIdentity("first upstream")
+    val second = ActorVirtualIdentity("second upstream")
     inSequence {
-      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1))
-      inputBatchFromUpstream1.frame.foreach { i =>
-        (mockInternalQueue.appendElement _).expects(InputTuple(i))
-      }
-      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID2))
-      inputBatchFromUpstream2.frame.foreach { i =>
-        (mockInternalQueue.appendElement _).expects(InputTuple(i))
-      }
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, first))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatchFromUpstream1.frame))
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID2, second))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatchFromUpstream2.frame))
       (mockInternalQueue.appendElement _).expects(EndMarker)
-      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1))
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, first))
       (mockInternalQueue.appendElement _).expects(EndMarker)
       (mockInternalQueue.appendElement _).expects(EndOfAllMarker)
     }
-    val first = ActorVirtualIdentity("first upstream")
-    val second = ActorVirtualIdentity("second upstream")
     batchToTupleConverter.registerInput(first, linkID1)
     batchToTupleConverter.registerInput(second, linkID2)
     batchToTupleConverter.processDataPayload(first, inputBatchFromUpstream1)
@@ -68,4 +70,36 @@ class BatchToTupleConverterSpec extends AnyFlatSpec with MockFactory {
 
   }
 
+  "tuple producer" should "mark a change of sender within a link" in {
+    val batchToTupleConverter = wire[BatchToTupleConverter]
+    val inputBatch = DataFrame(Array.fill(4)(ITuple(1, 2, 3, 5, "9.8", 7.6)))
+    val first = ActorVirtualIdentity("first upstream")
+    val second = ActorVirtualIdentity("second upstream")
+    inSequence {
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, first))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatch.frame))
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, second))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatch.frame))
+      (mockInternalQueue.appendElement _).expects(InputBatch(inputBatch.frame))
+    }
+    batchToTupleConverter.registerInput(first, linkID1)
+    batchToTupleConverter.registerInput(second, linkID1)
+    batchToTupleConverter.processDataPayload(first, inputBatch)
+    batchToTupleConverter.processDataPayload(second, inputBatch)
+    batchToTupleConverter.processDataPayload(second, inputBatch)
+  }
+
+  "tuple producer" should "queue columnar batches without materializing their rows" in {
+    val batchToTupleConverter = wire[BatchToTupleConverter]
+    val schema = Schema.newBuilder().add(new Attribute("id", AttributeType.INTEGER)).build()
+    val builder = new ColumnarBatchBuilder(schema, 4)
+    (0 until 4).foreach(i => builder.append(new Tuple(schema, Int.box(i))))
+    val batch = builder.build()
+    inSequence {
+      (mockInternalQueue.appendElement _).expects(SenderChangeMarker(linkID1, fakeID))
+      (mockInternalQueue.appendElement _).expects(InputColumnarBatch(batch))
+    }
+    batchToTupleConverter.registerInput(fakeID, linkID1)
+    batchToTupleConverter.processDataPayload(fakeID, ColumnarDataFrame(batch))
+  }
 }
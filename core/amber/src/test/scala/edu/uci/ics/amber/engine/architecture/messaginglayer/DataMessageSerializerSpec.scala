@@ -0,0 +1,120 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import akka.actor.ActorSystem
+import akka.serialization.SerializationExtension
+import akka.testkit.TestKit
+import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkMessage
+import edu.uci.ics.amber.engine.common.ambermessage.{
+  ColumnarDataFrame,
+  DataFrame,
+  EndOfUpstream,
+  WorkflowControlMessage,
+  WorkflowDataMessage
+}
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.ReturnPayload
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpecLike
+
+import java.sql.Timestamp
+
+class DataMessageSerializerSpec
+    extends TestKit(ActorSystem("DataMessageSerializerSpec"))
+    with AnyFlatSpecLike
+    with BeforeAndAfterAll {
+
+  private val serialization = SerializationExtension(system)
+  private val fakeID = ActorVirtualIdentity("testSender")
+
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("int", AttributeType.INTEGER),
+      new Attribute("long", AttributeType.LONG),
+      new Attribute("double", AttributeType.DOUBLE),
+      new Attribute("bool", AttributeType.BOOLEAN),
+      new Attribute("string", AttributeType.STRING),
+      new Attribute("timestamp", AttributeType.TIMESTAMP),
+      new Attribute("any", AttributeType.ANY)
+    )
+    .build()
+
+  def tupleAt(i: Int): Tuple = {
+    val timestamp = new Timestamp(i * 1000L - 5000L)
+    timestamp.setNanos(i)
+    new Tuple(
+      schema,
+      Int.box(i - 10),
+      Long.box(i * -31L),
+      Double.box(i / 7.0),
+      Boolean.box(i % 3 == 0),
+      if (i % 5 == 0) null else "category-" + (i % 4) + "-é",
+      timestamp,
+      if (i % 2 == 0) List(i, "nested") else "any-" + i
+    )
+  }
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  def roundTrip(obj: AnyRef): AnyRef = {
+    val serializer = serialization.findSerializerFor(obj)
+    assert(serializer.isInstanceOf[DataMessageSerializer])
+    serializer.fromBinary(serializer.toBinary(obj), None)
+  }
+
+  "data message serializer" should "round trip frames of texera tuples" in {
+    val message = WorkflowDataMessage(fakeID, 42, DataFrame((0 until 100).map(tupleAt).toArray))
+    val result = roundTrip(message).asInstanceOf[WorkflowDataMessage]
+    assert(result == message)
+    val tuples = result.payload.asInstanceOf[DataFrame].frame.map(_.asInstanceOf[Tuple])
+    assert(tuples.forall(_.getSchema eq tuples.head.getSchema))
+  }
+
+  "data message serializer" should "round trip frames with mixed tuples" in {
+    val otherSchema = Schema.newBuilder().add(new Attribute("string", AttributeType.STRING)).build()
+    val frame = Array[ITuple](
+      tupleAt(1),
+      ITuple(1, 2L, "three", null, 4.5, true),
+      new Tuple(otherSchema, "other"),
+      tupleAt(2)
+    )
+    val message = WorkflowDataMessage(fakeID, 0, DataFrame(frame))
+    assert(roundTrip(message) == message)
+    val endMessage = WorkflowDataMessage(fakeID, 1, EndOfUpstream())
+    assert(roundTrip(endMessage) == endMessage)
+  }
+
+  "data message serializer" should "round trip columnar batches" in {
+    val builder = new ColumnarBatchBuilder(schema, 50)
+    (0 until 30).foreach(i => builder.append(tupleAt(i)))
+    val message = WorkflowDataMessage(fakeID, 7, ColumnarDataFrame(builder.build()))
+    assert(roundTrip(message) == message)
+  }
+
+  "data message serializer" should "serialize network envelopes of data and control messages" in {
+    val dataMessage =
+      NetworkMessage(3, WorkflowDataMessage(fakeID, 2, DataFrame(Array(tupleAt(1)))))
+    assert(roundTrip(dataMessage) == dataMessage)
+    val controlMessage =
+      NetworkMessage(4, WorkflowControlMessage(fakeID, 5, ReturnPayload(1, "ok")))
+    assert(roundTrip(controlMessage) == controlMessage)
+  }
+
+  "data message serializer" should "write fewer bytes than the default serializer" in {
+    // without the ANY column, whose values are delegated to the default serializer
+    val typedSchema = Schema.newBuilder().add(schema.getAttributes.subList(0, 6)).build()
+    val frame = (0 until 400).map { i =>
+      new Tuple(typedSchema, tupleAt(i).getFields.subList(0, 6)): ITuple
+    }
+    val message = WorkflowDataMessage(fakeID, 0, DataFrame(frame.toArray))
+    val defaultBytes = serialization.serializerFor(classOf[Serializable]).toBinary(message)
+    val bytes = serialization.serialize(message).get
+    assert(bytes.length < defaultBytes.length)
+  }
+}
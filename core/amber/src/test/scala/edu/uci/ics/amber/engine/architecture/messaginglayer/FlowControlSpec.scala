@@ -0,0 +1,103 @@
+package edu.uci.ics.amber.engine.architecture.messaginglayer
+
+import akka.actor.ActorSystem
+import akka.testkit.TestProbe
+import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.{
+  NetworkAck,
+  NetworkMessage
+}
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.ambermessage.{
+  DataFrame,
+  WorkflowControlMessage,
+  WorkflowDataMessage,
+  WorkflowMessage
+}
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.ReturnPayload
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.concurrent.duration._
+
+class FlowControlSpec extends AnyFlatSpec {
+
+  private val fakeID = ActorVirtualIdentity("testSender")
+
+  def dataMessage(seq: Long): WorkflowMessage =
+    WorkflowDataMessage(fakeID, seq, DataFrame(Array(ITuple(seq))))
+
+  def controlMessage(seq: Long): WorkflowMessage =
+    WorkflowControlMessage(fakeID, seq, ReturnPayload(seq, null))
+
+  "flow control" should "hold data messages beyond the credits of the receiver" in {
+    val flowControl = new FlowControl()
+    (0 until Constants.initialCredits).foreach { i =>
+      assert(flowControl.canSend(dataMessage(i)))
+      flowControl.markMessageInTransit(NetworkMessage(i, dataMessage(i)))
+    }
+    assert(!flowControl.canSend(dataMessage(Constants.initialCredits)))
+    // control messages do not consume credits
+    assert(flowControl.canSend(controlMessage(0)))
+    (0 until 3).foreach(i => flowControl.enqueueMessage(dataMessage(Constants.initialCredits + i)))
+
+    // the receiver has received all but one message, and has space for 2 more
+    flowControl.ack(Constants.initialCredits - 2, 2)
+    assert(flowControl.getBufferedMessagesToSend.size == 1)
+    flowControl.ack(Constants.initialCredits - 1, 2)
+    assert(flowControl.getBufferedMessagesToSend.size == 2)
+    assert(flowControl.getInTransitMessages.isEmpty)
+  }
+
+  "flow control" should "ignore outdated acks" in {
+    val flowControl = new FlowControl()
+    (0 until 4).foreach(i => flowControl.markMessageInTransit(NetworkMessage(i, dataMessage(i))))
+    flowControl.ack(2, 10)
+    flowControl.ack(1, 0)
+    assert(flowControl.getInTransitMessages.map(_.messageID).toList == List(3))
+    assert(flowControl.canSend(dataMessage(4)))
+  }
+
+  "credit manager" should "ack cumulatively after a batch of messages" in {
+    val sender = TestProbe.apply("sender")(ActorSystem())
+    val creditManager = new CreditManager(TestProbe()(sender.system).ref, () => 20, () => {})
+    (0 until Constants.ackBatchSize - 1).foreach(i => creditManager.receive(sender.ref, i, true))
+    sender.expectNoMessage(100.milliseconds)
+    creditManager.receive(sender.ref, Constants.ackBatchSize - 1, true)
+    sender.expectMsg(NetworkAck(Constants.ackBatchSize - 1, 20))
+  }
+
+  "credit manager" should "re-open the window once the receiver has space again" in {
+    val sender = TestProbe.apply("sender")(ActorSystem())
+    var free = 0
+    var flushes = 0
+    val creditManager =
+      new CreditManager(TestProbe()(sender.system).ref, () => free, () => flushes += 1)
+    creditManager.receive(sender.ref, 0, true)
+    creditManager.flush()
+    sender.expectMsg(NetworkAck(0, 0))
+    // keeps polling for space
+    assert(flushes == 2)
+    creditManager.flush()
+    sender.expectNoMessage(100.milliseconds)
+    free = 5
+    creditManager.flush()
+    sender.expectMsg(NetworkAck(0, 5))
+  }
+
+  "credit manager" should "stop sharing the free space with senders which ended their data" in {
+    val system = ActorSystem()
+    val finished = TestProbe.apply("finished")(system)
+    val running = TestProbe.apply("running")(system)
+    val creditManager = new CreditManager(TestProbe()(system).ref, () => 20, () => {})
+    creditManager.receive(finished.ref, 0, true)
+    (0 until Constants.ackBatchSize).foreach(i => creditManager.receive(running.ref, i, true))
+    // the free space is shared by both senders
+    running.expectMsg(NetworkAck(Constants.ackBatchSize - 1, 10))
+    creditManager.receive(finished.ref, 1, true, isEndOfData = true)
+    (0 until Constants.ackBatchSize).foreach(i =>
+      creditManager.receive(running.ref, Constants.ackBatchSize + i, true)
+    )
+    running.expectMsg(NetworkAck(2 * Constants.ackBatchSize - 1, 20))
+  }
+}
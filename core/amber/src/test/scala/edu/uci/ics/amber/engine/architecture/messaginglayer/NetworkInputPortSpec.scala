@@ -10,15 +10,21 @@ import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
 import org.scalamock.scalatest.MockFactory
 import org.scalatest.flatspec.AnyFlatSpec
 
+import scala.concurrent.duration._
+
 class NetworkInputPortSpec extends AnyFlatSpec with MockFactory {
 
   private val mockHandler = mock[(ActorVirtualIdentity, DataPayload) => Unit]
   private val fakeID = ActorVirtualIdentity("testReceiver")
   private val logger: WorkflowLogger = WorkflowLogger("NetworkInputPortSpec")
 
+  def creditManager(receiver: TestProbe): CreditManager =
+    new CreditManager(receiver.ref, () => 10, () => {})
+
   "network input port" should "output payload in FIFO order" in {
     val testActor = TestProbe.apply("test")(ActorSystem())
-    val inputPort = new NetworkInputPort[DataPayload](logger, mockHandler)
+    val inputPort =
+      new NetworkInputPort[DataPayload](logger, creditManager(testActor), mockHandler)
     val payloads = (0 until 4).map { i =>
       DataFrame(Array(ITuple(i)))
     }.toArray
@@ -45,7 +51,8 @@ class NetworkInputPortSpec extends AnyFlatSpec with MockFactory {
 
   "network input port" should "de-duplicate payload" in {
     val testActor = TestProbe.apply("test")(ActorSystem())
-    val inputPort = new NetworkInputPort[DataPayload](logger, mockHandler)
+    val inputPort =
+      new NetworkInputPort[DataPayload](logger, creditManager(testActor), mockHandler)
 
     val payload = DataFrame(Array(ITuple(0)))
     val message = WorkflowDataMessage(fakeID, 0, payload)
@@ -68,7 +75,8 @@ class NetworkInputPortSpec extends AnyFlatSpec with MockFactory {
 
   "network input port" should "send ack to the sender actor ref" in {
     val testActor = TestProbe.apply("test")(ActorSystem())
-    val inputPort = new NetworkInputPort[DataPayload](logger, (_, _) => {})
+    val credits = creditManager(testActor)
+    val inputPort = new NetworkInputPort[DataPayload](logger, credits, (_, _) => {})
 
     val payload = DataFrame(Array(ITuple(0)))
     val message = WorkflowDataMessage(fakeID, 0, payload)
@@ -81,7 +89,10 @@ class NetworkInputPortSpec extends AnyFlatSpec with MockFactory {
       message.sequenceNumber,
       message.payload
     )
-    testActor.expectMsg(NetworkAck(messageID))
+    // acks are delayed until the flush
+    testActor.expectNoMessage(100.milliseconds)
+    credits.flush()
+    testActor.expectMsg(NetworkAck(messageID, 10))
   }
 
 }
@@ -0,0 +1,72 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.HashBasedShufflePartitioning
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+
+/**
+  * Microbenchmark of the receiver selection of the hash shuffle, comparing the previous
+  * implementation (collecting the key fields into a List and using List.hashCode)
+  * with the KeyHasher based one. It is not run as part of the tests, run it with:
+  * sbt "Test/runMain edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.HashBasedShufflePartitionerBenchmark"
+  */
+object HashBasedShufflePartitionerBenchmark {
+  val numTuples = 1000000
+  val numReceivers = 16
+  val warmupRounds = 5
+  val measuredRounds = 10
+
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("int", AttributeType.INTEGER),
+      new Attribute("long", AttributeType.LONG),
+      new Attribute("double", AttributeType.DOUBLE),
+      new Attribute("string", AttributeType.STRING)
+    )
+    .build()
+
+  def legacySelect(tuple: ITuple, keyColumns: Array[Int]): Int = {
+    (keyColumns.map(i => tuple.get(i)).toList.hashCode() % numReceivers + numReceivers) %
+      numReceivers
+  }
+
+  def measure(name: String, tuples: Array[ITuple], select: ITuple => Int): Unit = {
+    var checksum = 0L
+    def round(): Long = {
+      val start = System.nanoTime()
+      var i = 0
+      while (i < tuples.length) {
+        checksum += select(tuples(i))
+        i += 1
+      }
+      System.nanoTime() - start
+    }
+    (0 until warmupRounds).foreach(_ => round())
+    val best = (0 until measuredRounds).map(_ => round()).min
+    println(
+      f"$name%-40s ${best.toDouble / tuples.length}%8.2f ns/tuple (checksum $checksum)"
+    )
+  }
+
+  def main(args: Array[String]): Unit = {
+    val random = new scala.util.Random(42)
+    // a zipf-like key distribution, a few keys are much more frequent than the others
+    val tuples: Array[ITuple] = Array.fill(numTuples) {
+      val key = (math.pow(random.nextDouble(), 3) * 100000).toInt
+      new Tuple(schema, Int.box(key), Long.box(key * 1000L), Double.box(key / 3.0), "user" + key)
+    }
+    val receivers = (0 until numReceivers).map(i => ActorVirtualIdentity(s"r$i")).toArray
+
+    Array(("int", Array(0)), ("long", Array(1)), ("double", Array(2)), ("string", Array(3)))
+      .foreach {
+        case (keyType, keyColumns) =>
+          val partitioner =
+            HashBasedShufflePartitioner(HashBasedShufflePartitioning(400, receivers, keyColumns))
+          measure(s"legacy List.hashCode, $keyType key", tuples, legacySelect(_, keyColumns))
+          measure(s"KeyHasher, $keyType key", tuples, partitioner.selectBatchingIndex)
+      }
+  }
+}
@@ -0,0 +1,166 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.{
+  HashBasedShufflePartitioning,
+  NoSkewHandling,
+  ReplicateHotKeys,
+  SkewHandling,
+  SplitHotKeys
+}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+class HashBasedShufflePartitionerSpec extends AnyFlatSpec {
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("int", AttributeType.INTEGER),
+      new Attribute("long", AttributeType.LONG),
+      new Attribute("double", AttributeType.DOUBLE),
+      new Attribute("string", AttributeType.STRING),
+      new Attribute("bool", AttributeType.BOOLEAN)
+    )
+    .build()
+
+  def tupleAt(i: Int): Tuple =
+    new Tuple(
+      schema,
+      Int.box(i),
+      Long.box(i * 31L),
+      Double.box(i / 7.0),
+      "key-" + i,
+      Boolean.box(i % 3 == 0)
+    )
+
+  val receivers: Array[ActorVirtualIdentity] =
+    (0 until 16).map(i => ActorVirtualIdentity(s"r$i")).toArray
+
+  def partitioner(
+      numReceivers: Int,
+      keyColumns: Array[Int],
+      skewHandling: SkewHandling = NoSkewHandling,
+      batchSize: Int = 10
+  ): HashBasedShufflePartitioner = {
+    HashBasedShufflePartitioner(
+      HashBasedShufflePartitioning(
+        batchSize,
+        receivers.take(numReceivers),
+        keyColumns,
+        skewHandling
+      )
+    )
+  }
+
+  "KeyHasher" should "hash specialized key types the same as the generic hasher" in {
+    (0 until 5).foreach { column =>
+      val specialized = KeyHasher(schema, Array(column))
+      val generic = new GenericKeyHasher(Array(column))
+      (0 until 1000).foreach { i =>
+        val tuple = tupleAt(i)
+        assert(specialized.hash(tuple) == generic.hash(tuple))
+        assert(specialized.hash(tuple) == generic.hash(ITuple.fromSeq(tuple.toArray())))
+      }
+    }
+  }
+
+  "KeyHasher" should "hash equal numbers of different types the same" in {
+    val numbers = Schema
+      .newBuilder()
+      .add(
+        new Attribute("int", AttributeType.INTEGER),
+        new Attribute("long", AttributeType.LONG),
+        new Attribute("double", AttributeType.DOUBLE)
+      )
+      .build()
+    Seq(0, 1, -1, 42, Int.MaxValue, Int.MinValue).foreach { i =>
+      val tuple = new Tuple(numbers, Int.box(i), Long.box(i), Double.box(i))
+      val hashes = (0 until 3).map(column => KeyHasher(numbers, Array(column)).hash(tuple))
+      assert(hashes.distinct.size == 1)
+      assert(hashes.head == KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, i.##), 1))
+    }
+    assert(KeyHasher.hashDouble(1.5) != KeyHasher.hashDouble(1.0))
+    assert(KeyHasher.hashDouble(1e12) == KeyHasher.hashLong(1000000000000L))
+  }
+
+  "KeyHasher" should "hash null keys" in {
+    val tuple = new Tuple(schema, null, null, null, null, null)
+    val nullHash = KeyHasher.finalizeHash(KeyHasher.mix(KeyHasher.seed, 0), 1)
+    (0 until 5).foreach(column => assert(KeyHasher(schema, Array(column)).hash(tuple) == nullHash))
+  }
+
+  "HashBasedShufflePartitioner" should "send tuples of the same key to the same receiver" in {
+    val keyColumns = Array(3, 0)
+    val texera = partitioner(7, keyColumns)
+    val amber = partitioner(7, keyColumns)
+    (0 until 1000).foreach { i =>
+      val index = texera.selectBatchingIndex(tupleAt(i))
+      assert(index >= 0 && index < 7)
+      assert(index == texera.selectBatchingIndex(tupleAt(i)))
+      assert(index == amber.selectBatchingIndex(ITuple.fromSeq(tupleAt(i).toArray())))
+    }
+  }
+
+  "HashBasedShufflePartitioner" should "spread consecutive integer keys evenly" in {
+    val numReceivers = 8
+    val numKeys = 80000
+    val counts = new Array[Int](numReceivers)
+    val shuffle = partitioner(numReceivers, Array(0))
+    (0 until numKeys).foreach(i => counts(shuffle.selectBatchingIndex(tupleAt(i * 64))) += 1)
+    val expected = numKeys / numReceivers
+    counts.foreach(count => assert(math.abs(count - expected) < expected * 0.05))
+  }
+
+  "CountMinSketch" should "never under-estimate a key" in {
+    val sketch = new CountMinSketch(4, 64)
+    val counts = (0 until 1000).map(i => i -> (i % 17 + 1)).toMap
+    counts.foreach { case (key, count) => (0 until count).foreach(_ => sketch.add(key)) }
+    counts.foreach { case (key, count) => assert(sketch.estimate(key) >= count) }
+    assert(sketch.totalCount == counts.values.sum)
+  }
+
+  "HashBasedShufflePartitioner" should "split a hot key across fanout receivers" in {
+    val shuffle = partitioner(8, Array(0), SplitHotKeys(4))
+    val home = partitioner(8, Array(0)).selectBatchingIndex(tupleAt(0))
+    val hotKeyReceivers = (0 until 20000).flatMap { i =>
+      // every other tuple has the same key
+      val index = shuffle.selectBatchingIndex(tupleAt(if (i % 2 == 0) 0 else i))
+      if (i % 2 == 0) Some(index) else None
+    }.toSet
+    assert(shuffle.hotKeyCount == 1)
+    assert(hotKeyReceivers == (0 until 4).map(i => (home + i) % 8).toSet)
+  }
+
+  "HashBasedShufflePartitioner" should "not split keys without skew" in {
+    val shuffle = partitioner(8, Array(0), SplitHotKeys(4))
+    val plain = partitioner(8, Array(0))
+    (0 until 20000).foreach { i =>
+      assert(shuffle.selectBatchingIndex(tupleAt(i)) == plain.selectBatchingIndex(tupleAt(i)))
+    }
+    assert(shuffle.hotKeyCount == 0)
+  }
+
+  "HashBasedShufflePartitioner" should "replicate only the tuples of hot keys" in {
+    val shuffle = partitioner(8, Array(0), ReplicateHotKeys(3), batchSize = 1)
+    val plain = partitioner(8, Array(0))
+    val hotHome = plain.selectBatchingIndex(tupleAt(5))
+    val coldHome = plain.selectBatchingIndex(tupleAt(6))
+    // tuples are buffered until the hot keys are known
+    assert(shuffle.isAwaitingHotKeys)
+    assert(shuffle.addTupleToBatch(tupleAt(6)).isEmpty)
+    val hotKey = KeyHasher(schema, Array(0)).hash(tupleAt(5))
+    val buffered = shuffle.setHotKeys(Array(hotKey)).map(_._1).toList
+    assert(buffered == List(receivers(coldHome)))
+    val sentTo = shuffle.addTupleToBatch(tupleAt(5)).map(_._1).toList
+    assert(sentTo == (0 until 3).map(i => receivers((hotHome + i) % 8)).toList)
+  }
+
+  "HashBasedShufflePartitioner" should "report the hot keys it split" in {
+    val shuffle = partitioner(8, Array(0), SplitHotKeys(4))
+    (0 until 20000).foreach(i => shuffle.selectBatchingIndex(tupleAt(if (i % 2 == 0) 0 else i)))
+    assert(shuffle.isSplittingHotKeys)
+    assert(shuffle.getHotKeys.toList == List(KeyHasher(schema, Array(0)).hash(tupleAt(0))))
+  }
+}
@@ -0,0 +1,137 @@
+package edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners
+
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploymentfilter.UseAll
+import edu.uci.ics.amber.engine.architecture.deploysemantics.deploystrategy.RoundRobinDeployment
+import edu.uci.ics.amber.engine.architecture.deploysemantics.layer.WorkerLayer
+import edu.uci.ics.amber.engine.architecture.linksemantics.RangeBasedShuffle
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.RangeBasedShufflePartitioning
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.util.makeLayer
+import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, OperatorIdentity}
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+class RangeBasedShufflePartitionerSpec extends AnyFlatSpec {
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("int", AttributeType.INTEGER),
+      new Attribute("string", AttributeType.STRING)
+    )
+    .build()
+
+  def tupleAt(i: Int): Tuple = new Tuple(schema, Int.box(i), "key-" + (i % 10))
+
+  val receivers: Array[ActorVirtualIdentity] =
+    (0 until 8).map(i => ActorVirtualIdentity(s"r$i")).toArray
+
+  def partitioner(
+      numReceivers: Int,
+      keyColumns: Array[Int] = Array(0),
+      descending: Array[Boolean] = Array(false),
+      batchSize: Int = 1
+  ): RangeBasedShufflePartitioner = {
+    RangeBasedShufflePartitioner(
+      RangeBasedShufflePartitioning(
+        batchSize,
+        receivers.take(numReceivers),
+        keyColumns,
+        descending
+      )
+    )
+  }
+
+  def layer(name: String, numWorkers: Int): WorkerLayer =
+    new WorkerLayer(
+      makeLayer(OperatorIdentity("workflow", "sort"), name),
+      _ => null,
+      numWorkers,
+      UseAll(),
+      RoundRobinDeployment()
+    )
+
+  "KeyComparator" should "order nulls first and reverse descending columns" in {
+    val comparator = new KeyComparator(Array(0, 1), Array(false, true))
+    def key(fields: AnyRef*): Array[AnyRef] = fields.toArray
+    assert(comparator.compareKeys(key(null, "a"), key(Int.box(1), "a")) < 0)
+    assert(comparator.compareKeys(key(Int.box(1), "b"), key(Int.box(1), "a")) < 0)
+    assert(comparator.compareKeys(key(Int.box(2), "b"), key(Int.box(1), "a")) > 0)
+    assert(comparator.compare(tupleAt(3), key(Int.box(3), "key-3")) == 0)
+    assert(comparator.compareTuples(tupleAt(3), tupleAt(13)) < 0)
+  }
+
+  "RangeBasedShufflePartitioner" should "buffer tuples until the boundaries are known" in {
+    val shuffle = partitioner(4)
+    (0 until 100).foreach(i => assert(shuffle.addTupleToBatch(tupleAt(i)).isEmpty))
+    assert(shuffle.isAwaitingBoundaries)
+    val (tupleCount, sample) = shuffle.getSample
+    assert(tupleCount == 100)
+    assert(sample.length == 100)
+
+    shuffle.setBoundaries(Array(24, 49, 74).map(i => Array[AnyRef](Int.box(i))))
+    assert(!shuffle.isAwaitingBoundaries)
+    val sent = shuffle.drainBuffered().toList
+    assert(sent.size == 100)
+    sent.groupBy(_._1).values.foreach(batches => assert(batches.size == 25))
+  }
+
+  "RangeBasedShufflePartitioner" should "send tuples to the receiver of their range" in {
+    val shuffle = partitioner(4)
+    shuffle.setBoundaries(Array(24, 49, 74).map(i => Array[AnyRef](Int.box(i))))
+    assert(shuffle.selectBatchingIndex(tupleAt(-5)) == 0)
+    assert(shuffle.selectBatchingIndex(tupleAt(24)) == 0)
+    assert(shuffle.selectBatchingIndex(tupleAt(25)) == 1)
+    assert(shuffle.selectBatchingIndex(tupleAt(74)) == 2)
+    assert(shuffle.selectBatchingIndex(tupleAt(1000)) == 3)
+    assert(shuffle.selectBatchingIndex(ITuple(60, "key-0")) == 2)
+
+    val descending = partitioner(2, descending = Array(true))
+    descending.setBoundaries(Array(Array[AnyRef](Int.box(50))))
+    assert(descending.selectBatchingIndex(tupleAt(80)) == 0)
+    assert(descending.selectBatchingIndex(tupleAt(20)) == 1)
+  }
+
+  "RangeBasedShufflePartitioner" should "spread a key which is several boundaries" in {
+    val shuffle = partitioner(4)
+    shuffle.setBoundaries(Array(7, 7, 9).map(i => Array[AnyRef](Int.box(i))))
+    val indices = (0 until 30).map(_ => shuffle.selectBatchingIndex(tupleAt(7))).toSet
+    assert(indices == Set(0, 1, 2))
+    assert(shuffle.selectBatchingIndex(tupleAt(8)) == 2)
+    assert(shuffle.selectBatchingIndex(tupleAt(9)) == 2)
+  }
+
+  "RangeBasedShufflePartitioner" should "not wait for boundaries of a single receiver" in {
+    val shuffle = partitioner(1)
+    assert(!shuffle.isAwaitingBoundaries)
+    assert(shuffle.addTupleToBatch(tupleAt(0)).size == 1)
+  }
+
+  "RangeBasedShufflePartitioner" should "spill buffered tuples beyond the memory budget" in {
+    val budget = Constants.sortMemoryBudget
+    Constants.sortMemoryBudget = 1024
+    try {
+      val shuffle = partitioner(2, batchSize = 10)
+      (0 until 1000).foreach(i => shuffle.addTupleToBatch(tupleAt(i)))
+      assert(shuffle.getSample._1 == 1000)
+      shuffle.setBoundaries(Array(Array[AnyRef](Int.box(499))))
+      val sent = shuffle.drainBuffered().toList ++ shuffle.noMore()
+      // 50 full batches and an end of upstream to each receiver
+      assert(sent.size == 102)
+    } finally {
+      Constants.sortMemoryBudget = budget
+    }
+  }
+
+  "RangeBasedShuffle" should "compute boundaries of about the same number of tuples" in {
+    val link = new RangeBasedShuffle(layer("from", 2), layer("to", 4), 10, Array(0), Array(false))
+    // the second sender has three times the tuples of the first, sampled as often
+    link.addSample(100, (0 until 100).map(i => Array[AnyRef](Int.box(i))).toArray)
+    assert(!link.isSampled)
+    link.addSample(300, (100 until 200).map(i => Array[AnyRef](Int.box(i))).toArray)
+    assert(link.isSampled)
+    val boundaries = link.computeBoundaries().map(_(0).asInstanceOf[Integer].intValue())
+    assert(boundaries.toList == List(99, 133, 166))
+  }
+}
@@ -3,6 +3,7 @@ package edu.uci.ics.amber.engine.architecture.worker
 import akka.actor.ActorContext
 import com.softwaremill.macwire.wire
 import edu.uci.ics.amber.engine.architecture.messaginglayer.{
+  BackpressureGate,
   BatchToTupleConverter,
   ControlOutputPort,
   DataOutputPort,
@@ -12,6 +13,7 @@ import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue._
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.PauseHandler.PauseWorker
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.QueryStatisticsHandler.QueryStatistics
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.ResumeHandler.ResumeWorker
+import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.StopProducingHandler.StopProducing
 import edu.uci.ics.amber.engine.common.ambermessage.ControlPayload
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.ControlInvocation
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCServer.{CommandCompleted, ControlCommand}
@@ -25,14 +27,17 @@ import edu.uci.ics.amber.engine.common.virtualidentity.{
   LayerIdentity,
   LinkIdentity
 }
-import edu.uci.ics.amber.engine.common.{InputExhausted, WorkflowLogger}
+import edu.uci.ics.amber.engine.common.{IBatchOperatorExecutor, InputExhausted, WorkflowLogger}
 import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
 import org.scalamock.scalatest.MockFactory
 import org.scalatest.BeforeAndAfterEach
 import org.scalatest.flatspec.AnyFlatSpec
 
 import scala.concurrent.duration.{DurationInt, FiniteDuration}
-import scala.concurrent.{Await, ExecutionContext, Future}
+import scala.concurrent.{Await, ExecutionContext, Future, Promise}
 
 class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfterEach {
   lazy val logger: WorkflowLogger = WorkflowLogger("testDP")
@@ -46,13 +51,14 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
       Option(LayerIdentity("testDP", "mockOp", "src")),
       Option(LayerIdentity("testDP", "mockOp", "dst"))
     )
+  val senderID: ActorVirtualIdentity = ActorVirtualIdentity("upstream")
   val tuples: Seq[ITuple] = (0 until 400).map(ITuple(_))
 
   def sendDataToDP(dp: DataProcessor, data: Seq[ITuple], interval: Long = -1): Future[_] = {
     Future {
-      dp.appendElement(SenderChangeMarker(linkID))
+      dp.appendElement(SenderChangeMarker(linkID, senderID))
       data.foreach { x =>
-        dp.appendElement(InputTuple(x))
+        dp.appendElement(InputBatch(Array(x)))
         if (interval > 0) {
           Thread.sleep(interval)
         }
@@ -77,6 +83,15 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
     }(ExecutionContext.global)
   }
 
+  // the batch producer has no range shuffle to wait for at the end of the input
+  def expectNoRangeShuffles(): Unit = {
+    (batchProducer.rangeSamples _).expects().returning(Iterable.empty).anyNumberOfTimes()
+    (batchProducer.isAwaitingRangeBoundaries _).expects().returning(false).anyNumberOfTimes()
+    (batchProducer.drainRangeBuffers _).expects(*).anyNumberOfTimes()
+    (batchProducer.hotKeyReports _).expects().returning(Iterable.empty).anyNumberOfTimes()
+    (batchProducer.isAwaitingHotKeys _).expects().returning(false).anyNumberOfTimes()
+  }
+
   def waitForDataProcessing(
       workerStateManager: WorkerStateManager,
       timeout: FiniteDuration = 5.seconds
@@ -99,11 +114,13 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
   case class DummyControl() extends ControlCommand[CommandCompleted]
 
   "data processor" should "process data messages" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
     val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
     val operator = mock[OperatorExecutor]
     val asyncRPCServer: AsyncRPCServer = null
     val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
     inAnyOrder {
+      expectNoRangeShuffles()
       (batchProducer.emitEndOfUpstream _).expects().anyNumberOfTimes()
       (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
       inSequence {
@@ -123,12 +140,84 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
 
   }
 
+  "data processor" should "process data messages in batches if the operator supports it" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
+    val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
+    val operator = mock[IBatchOperatorExecutor]
+    val asyncRPCServer: AsyncRPCServer = null
+    val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
+    var processedTuples = Seq[ITuple]()
+    inAnyOrder {
+      expectNoRangeShuffles()
+      (batchProducer.emitEndOfUpstream _).expects().anyNumberOfTimes()
+      (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
+      (operator.processTuple _).expects(*, *).never()
+      inSequence {
+        (operator.open _).expects().once()
+        (operator.processBatch _)
+          .expects(*, linkID, *)
+          .atLeastOnce()
+          .onCall { (batch: Array[ITuple], _: LinkIdentity, _: (ITuple, Throwable) => Unit) =>
+            processedTuples ++= batch
+            Array[ITuple]()
+          }
+        (operator.processTuple _).expects(Right(InputExhausted()), linkID)
+        (operator.close _).expects().once()
+      }
+    }
+
+    val dp = wire[DataProcessor]
+    Await.result(sendDataToDP(dp, tuples), 3.seconds)
+    waitForDataProcessing(workerStateManager)
+    dp.shutdown()
+    assert(processedTuples == tuples)
+  }
+
+  "data processor" should "pass columnar batches to batch operators as they are" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
+    val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
+    val operator = mock[IBatchOperatorExecutor]
+    val asyncRPCServer: AsyncRPCServer = null
+    val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
+    val schema = Schema.newBuilder().add(new Attribute("id", AttributeType.INTEGER)).build()
+    val builder = new ColumnarBatchBuilder(schema, tuples.length)
+    tuples.foreach(t => builder.append(new Tuple(schema, t.get(0).asInstanceOf[Integer])))
+    val batch = builder.build()
+    inAnyOrder {
+      expectNoRangeShuffles()
+      (batchProducer.emitEndOfUpstream _).expects().anyNumberOfTimes()
+      (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
+      (operator.processTuple _).expects(*, *).never()
+      (operator.processBatch _).expects(*, *, *).never()
+      inSequence {
+        (operator.open _).expects().once()
+        (operator.processColumnarBatch _)
+          .expects(batch, linkID, *)
+          .returning(Array[ITuple]())
+          .once()
+        (operator.processTuple _).expects(Right(InputExhausted()), linkID)
+        (operator.close _).expects().once()
+      }
+    }
+
+    val dp = wire[DataProcessor]
+    dp.appendElement(SenderChangeMarker(linkID, senderID))
+    dp.appendElement(InputColumnarBatch(batch))
+    dp.appendElement(EndMarker)
+    dp.appendElement(EndOfAllMarker)
+    waitForDataProcessing(workerStateManager)
+    assert(dp.collectStatistics()._1 == tuples.length)
+    dp.shutdown()
+  }
+
   "data processor" should "prioritize control messages" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
     val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
     val operator = mock[OperatorExecutor]
     val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
     val asyncRPCServer: AsyncRPCServer = mock[AsyncRPCServer]
     inAnyOrder {
+      expectNoRangeShuffles()
       (asyncRPCServer.logControlInvocation _).expects(*, *).anyNumberOfTimes()
       (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
       inSequence {
@@ -160,11 +249,13 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
   }
 
   "data processor" should "process control command without inputting data" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
     val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
     val operator = mock[OperatorExecutor]
     val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
     val asyncRPCServer: AsyncRPCServer = mock[AsyncRPCServer]
     inAnyOrder {
+      expectNoRangeShuffles()
       (operator.open _).expects().once()
       (asyncRPCServer.logControlInvocation _).expects(*, *).anyNumberOfTimes()
       (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
@@ -180,7 +271,93 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
     dp.shutdown()
   }
 
+  "data processor" should "stop producing output while downstream has no credits" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
+    val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
+    val operator = mock[OperatorExecutor]
+    val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
+    val asyncRPCServer: AsyncRPCServer = mock[AsyncRPCServer]
+    // the n-th output tuple completes outputs(n)
+    val outputs = Array.fill(3)(Promise[Unit]())
+    @volatile var outputCount = 0
+    @volatile var outputWhileBlocked = false
+    inAnyOrder {
+      expectNoRangeShuffles()
+      (operator.open _).expects().once()
+      (asyncRPCServer.logControlInvocation _).expects(*, *).anyNumberOfTimes()
+      (asyncRPCClient.send[CommandCompleted] _).expects(*, *).anyNumberOfTimes()
+      (asyncRPCServer.receive _).expects(*, *).once()
+      (breakpointManager.evaluateTuple _).expects(*).anyNumberOfTimes().returning(false)
+      (operator.processTuple _)
+        .expects(Left(tuples.head), linkID)
+        .returning(tuples.iterator.take(3))
+      (operator.processTuple _).expects(Right(InputExhausted()), linkID)
+      // every output tuple fills a message which waits for credits
+      (batchProducer.passTupleToDownstream _)
+        .expects(*)
+        .onCall { _: ITuple =>
+          outputWhileBlocked |= backpressureGate.isBlocked
+          backpressureGate.messageQueued()
+          outputs(outputCount).success(())
+          outputCount += 1
+        }
+        .repeat(3)
+      (batchProducer.emitEndOfUpstream _).expects().once()
+      (operator.close _).expects().once()
+    }
+    val dp = wire[DataProcessor]
+    Await.result(sendDataToDP(dp, tuples.take(1)), 1.second)
+    Await.result(outputs(0).future, 3.seconds)
+    // controls are still processed while waiting
+    Await.result(sendControlToDP(dp, Seq(ControlInvocation(0, DummyControl()))), 1.second)
+    waitForControlProcessing(dp)
+    assert(!outputs(1).isCompleted)
+    // each credit lets exactly one more output through
+    (1 until 3).foreach { i =>
+      backpressureGate.messageSent()
+      Await.result(outputs(i).future, 3.seconds)
+    }
+    backpressureGate.messageSent()
+    waitForDataProcessing(workerStateManager)
+    dp.shutdown()
+    assert(outputCount == 3)
+    assert(!outputWhileBlocked)
+  }
+
+  "data processor" should "drop its input and output once it stops producing" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
+    val id = ActorVirtualIdentity("test")
+    val operator = mock[OperatorExecutor]
+    (operator.open _).expects().once()
+    val ctx: ActorContext = null
+    val batchToTupleConverter = mock[BatchToTupleConverter]
+    val asyncRPCClient: AsyncRPCClient = mock[AsyncRPCClient]
+    (asyncRPCClient.send _).expects(*, *).anyNumberOfTimes()
+    val asyncRPCServer: AsyncRPCServer = wire[AsyncRPCServer]
+    val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
+    val dp: DataProcessor = wire[DataProcessor]
+    val handlerInitializer = wire[WorkerAsyncRPCHandlerInitializer]
+    expectNoRangeShuffles()
+    (batchProducer.passTupleToDownstream _).expects(*).never()
+    inSequence {
+      // the stop arrives while the first tuple is processed
+      (operator.processTuple _)
+        .expects(Left(tuples.head), linkID)
+        .onCall { (_: Either[ITuple, InputExhausted], _: LinkIdentity) =>
+          dp.enqueueCommand(ControlInvocation(0, StopProducing()), CONTROLLER)
+          tuples.iterator
+        }
+      (controlOutputPort.sendTo _).expects(*, *).once()
+      (batchProducer.emitEndOfUpstream _).expects().once()
+      (operator.close _).expects().once()
+    }
+    Await.result(sendDataToDP(dp, tuples), 3.seconds)
+    waitForDataProcessing(workerStateManager)
+    dp.shutdown()
+  }
+
   "data processor" should "process only control commands while paused" in {
+    val backpressureGate: BackpressureGate = new BackpressureGate(1)
     val id = ActorVirtualIdentity("test")
     val operator = mock[OperatorExecutor]
     (operator.open _).expects().once()
@@ -192,6 +369,7 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
     val workerStateManager: WorkerStateManager = new WorkerStateManager(Running)
     val dp: DataProcessor = wire[DataProcessor]
     val handlerInitializer = wire[WorkerAsyncRPCHandlerInitializer]
+    expectNoRangeShuffles()
     inSequence {
       (operator.processTuple _).expects(*, *).once()
       (controlOutputPort.sendTo _).expects(*, *).repeat(4)
@@ -199,15 +377,15 @@ class DataProcessorSpec extends AnyFlatSpec with MockFactory with BeforeAndAfter
       (batchProducer.emitEndOfUpstream _).expects().once()
       (operator.close _).expects().once()
     }
-    dp.appendElement(InputTuple(ITuple(1)))
+    dp.appendElement(InputBatch(Array(ITuple(1))))
     Thread.sleep(500)
     dp.enqueueCommand(ControlInvocation(0, PauseWorker()), CONTROLLER)
-    dp.appendElement(InputTuple(ITuple(2)))
+    dp.appendElement(InputBatch(Array(ITuple(2))))
     dp.enqueueCommand(ControlInvocation(1, QueryStatistics()), CONTROLLER)
     Thread.sleep(1000)
-    dp.appendElement(InputTuple(ITuple(3)))
+    dp.appendElement(InputBatch(Array(ITuple(3))))
     dp.enqueueCommand(ControlInvocation(2, QueryStatistics()), CONTROLLER)
-    dp.appendElement(InputTuple(ITuple(4)))
+    dp.appendElement(InputBatch(Array(ITuple(4))))
     dp.enqueueCommand(ControlInvocation(3, ResumeWorker()), CONTROLLER)
     dp.appendElement(EndMarker)
     dp.appendElement(EndOfAllMarker)
@@ -0,0 +1,126 @@
+package edu.uci.ics.amber.engine.architecture.worker
+
+import edu.uci.ics.amber.engine.architecture.worker.WorkerInternalQueue.{
+  EndMarker,
+  InputBatch,
+  InputColumnarBatch
+}
+import edu.uci.ics.amber.engine.common.Constants
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.sql.Timestamp
+
+class WorkerInternalQueueSpec extends AnyFlatSpec {
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("int", AttributeType.INTEGER),
+      new Attribute("long", AttributeType.LONG),
+      new Attribute("double", AttributeType.DOUBLE),
+      new Attribute("bool", AttributeType.BOOLEAN),
+      new Attribute("string", AttributeType.STRING),
+      new Attribute("timestamp", AttributeType.TIMESTAMP)
+    )
+    .build()
+
+  val otherSchema: Schema = Schema
+    .newBuilder()
+    .add(new Attribute("string", AttributeType.STRING))
+    .build()
+
+  def tupleAt(i: Int): Tuple = {
+    val timestamp = new Timestamp(i * 1000L)
+    timestamp.setNanos(i)
+    new Tuple(
+      schema,
+      Int.box(i),
+      Long.box(i * 31L),
+      Double.box(i / 7.0),
+      Boolean.box(i % 3 == 0),
+      if (i % 5 == 0) null else "tuple-" + i + "-é",
+      timestamp
+    )
+  }
+
+  def fieldsOf(tuples: Array[ITuple]): Seq[Seq[Any]] = tuples.map(t => (0 until t.length).map(t.get))
+
+  "batch spill file" should "read back the batches it wrote" in {
+    val spillFile = new BatchSpillFile()
+    val batches: Seq[Array[ITuple]] = Seq(
+      (0 until 50).map(tupleAt).toArray,
+      Array(tupleAt(1), new Tuple(otherSchema, "other"), tupleAt(2)),
+      Array(ITuple(1, 2L, "three", null, 4.5))
+    )
+    batches.foreach(spillFile.write)
+    assert(spillFile.spilledBytes > 0)
+    val readBatches = batches.map(_ => spillFile.read())
+    readBatches.zip(batches).foreach {
+      case (read, batch) =>
+        assert(fieldsOf(read) == fieldsOf(batch))
+        assert(read.map(_.getClass).toSeq == batch.map(_.getClass).toSeq)
+    }
+    assert(readBatches(1)(1).asInstanceOf[Tuple].getSchema == otherSchema)
+    assert(readBatches(1)(2).asInstanceOf[Tuple].getSchema == schema)
+    assert(spillFile.spilledBytes == 0)
+  }
+
+  "worker internal queue" should "spill batches beyond its byte limit and keep them in order" in {
+    val maxBytes = Constants.dataQueueMaxBytes
+    Constants.dataQueueMaxBytes = 20000
+    try {
+      val queue = new WorkerInternalQueue {}
+      val batches = (0 until 20).map(i => (0 until 40).map(j => tupleAt(i * 40 + j): ITuple).toArray)
+      batches.foreach(batch => queue.appendElement(InputBatch(batch)))
+      queue.appendElement(EndMarker)
+      assert(queue.getDataQueueLength == 21)
+      assert(queue.getDataQueueBytes <= Constants.dataQueueMaxBytes)
+      assert(queue.getSpilledBytes > 0)
+      batches.foreach { batch =>
+        queue.getElement match {
+          case InputBatch(tuples) => assert(fieldsOf(tuples) == fieldsOf(batch))
+          case other              => fail(s"unexpected element $other")
+        }
+      }
+      assert(queue.getElement == EndMarker)
+      assert(queue.getDataQueueBytes == 0)
+      assert(queue.getSpilledBytes == 0)
+    } finally {
+      Constants.dataQueueMaxBytes = maxBytes
+    }
+  }
+
+  "worker internal queue" should "keep columnar batches and read spilled ones as tuples" in {
+    val maxBytes = Constants.dataQueueMaxBytes
+    Constants.dataQueueMaxBytes = 4000
+    try {
+      val queue = new WorkerInternalQueue {}
+      val batches = (0 until 10).map { i =>
+        val builder = new ColumnarBatchBuilder(schema, 40)
+        (0 until 40).foreach(j => builder.append(tupleAt(i * 40 + j)))
+        builder.build()
+      }
+      batches.foreach(batch => queue.appendElement(InputColumnarBatch(batch)))
+      assert(queue.getDataQueueBytes > 0)
+      assert(queue.getSpilledBytes > 0)
+      queue.getElement match {
+        case InputColumnarBatch(batch) => assert(batch eq batches.head)
+        case other                     => fail(s"unexpected element $other")
+      }
+      batches.tail.foreach { batch =>
+        queue.getElement match {
+          case InputColumnarBatch(read) => assert(read eq batch)
+          case InputBatch(tuples)       => assert(tuples.toSeq == batch.toArray.toSeq)
+          case other                    => fail(s"unexpected element $other")
+        }
+      }
+      assert(queue.getDataQueueBytes == 0)
+      assert(queue.getSpilledBytes == 0)
+    } finally {
+      Constants.dataQueueMaxBytes = maxBytes
+    }
+  }
+}
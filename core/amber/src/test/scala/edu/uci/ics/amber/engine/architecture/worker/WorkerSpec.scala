@@ -3,15 +3,19 @@ package edu.uci.ics.amber.engine.architecture.worker
 import akka.actor.{ActorSystem, Props}
 import akka.testkit.{ImplicitSender, TestActorRef, TestKit, TestProbe}
 import edu.uci.ics.amber.clustering.SingleNodeListener
+import edu.uci.ics.amber.engine.architecture.controller.promisehandlers.WorkerStatisticsUpdatedHandler.WorkerStatisticsUpdated
 import edu.uci.ics.amber.engine.architecture.messaginglayer.NetworkCommunicationActor.NetworkMessage
 import edu.uci.ics.amber.engine.architecture.messaginglayer.{
   ControlOutputPort,
   TupleToBatchConverter
 }
 import edu.uci.ics.amber.engine.architecture.sendsemantics.partitionings.OneToOnePartitioning
+import edu.uci.ics.amber.engine.architecture.worker.WorkflowWorker.PushStatistics
 import edu.uci.ics.amber.engine.architecture.worker.promisehandlers.AddPartitioningHandler.AddPartitioning
 import edu.uci.ics.amber.engine.common.ambermessage.WorkflowControlMessage
+import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient
 import edu.uci.ics.amber.engine.common.rpc.AsyncRPCClient.ControlInvocation
+import edu.uci.ics.amber.engine.common.statetransition.WorkerStateManager.Ready
 import edu.uci.ics.amber.engine.common.tuple.ITuple
 import edu.uci.ics.amber.engine.common.virtualidentity.util.CONTROLLER
 import edu.uci.ics.amber.engine.common.virtualidentity.{ActorVirtualIdentity, LinkIdentity}
@@ -68,4 +72,38 @@ class WorkerSpec
     Thread.sleep(3000)
   }
 
+  it should "push its statistics to the controller only when they change" in {
+    val mockControlOutputPort = mock[ControlOutputPort]
+    val mockOpExecutor = new IOperatorExecutor {
+      override def open(): Unit = {}
+
+      override def close(): Unit = {}
+
+      override def processTuple(
+          tuple: Either[ITuple, InputExhausted],
+          input: LinkIdentity
+      ): Iterator[ITuple] = ???
+    }
+    (mockControlOutputPort.sendTo _)
+      .expects(where {
+        (to, payload) =>
+          payload match {
+            case ControlInvocation(AsyncRPCClient.IgnoreReplyAndDoNotLog, update) =>
+              to == CONTROLLER && update.asInstanceOf[WorkerStatisticsUpdated].stats.copy(
+                metrics = WorkerMetrics()
+              ) == WorkerStatistics(Ready, 0, 0)
+            case _ => false
+          }
+      })
+      .once()
+
+    val worker = TestActorRef(
+      new WorkflowWorker(ActorVirtualIdentity("worker-3"), mockOpExecutor, TestProbe().ref) {
+        override lazy val controlOutputPort: ControlOutputPort = mockControlOutputPort
+      }
+    )
+    worker ! PushStatistics
+    worker ! PushStatistics
+  }
+
 }
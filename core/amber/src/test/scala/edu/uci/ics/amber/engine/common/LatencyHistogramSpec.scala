@@ -0,0 +1,44 @@
+package edu.uci.ics.amber.engine.common
+
+import org.scalatest.flatspec.AnyFlatSpec
+
+class LatencyHistogramSpec extends AnyFlatSpec {
+
+  def histogramOf(durations: Seq[Long]): HistogramSnapshot = {
+    val histogram = new LatencyHistogram()
+    durations.foreach(histogram.record)
+    histogram.snapshot()
+  }
+
+  "latency histogram" should "compute percentiles within its precision" in {
+    val durations = (1 to 100000).map(i => i * 997L)
+    val snapshot = histogramOf(durations)
+    assert(snapshot.count == durations.size)
+    assert(snapshot.maxNanos == durations.max)
+    assert(snapshot.meanNanos == durations.sum / durations.size)
+    Seq(1.0, 50.0, 90.0, 99.0, 99.9, 100.0).foreach(percentile => {
+      val exact = durations((durations.size * percentile / 100).toInt - 1)
+      val estimate = snapshot.percentileNanos(percentile)
+      assert(estimate >= exact && estimate <= exact * 1.125)
+    })
+  }
+
+  it should "map durations to buckets starting at their lower bound" in {
+    (0L to 5000L).foreach(nanos => {
+      val bucket = LatencyHistogram.bucketOf(nanos)
+      assert(LatencyHistogram.lowerBoundOf(bucket) <= nanos)
+      assert(LatencyHistogram.lowerBoundOf(bucket + 1) > nanos)
+    })
+  }
+
+  it should "merge snapshots and subtract an earlier snapshot" in {
+    val histogram = new LatencyHistogram()
+    (1 to 100).foreach(i => histogram.record(i * 1000L))
+    val earlier = histogram.snapshot()
+    (101 to 300).foreach(i => histogram.record(i * 1000L))
+    val later = histogram.snapshot().minus(earlier)
+    assert(later == histogramOf((101 to 300).map(_ * 1000L)))
+    assert(earlier.merge(later) == histogramOf((1 to 300).map(_ * 1000L)))
+    assert(HistogramSnapshot.empty.merge(earlier) == earlier)
+  }
+}
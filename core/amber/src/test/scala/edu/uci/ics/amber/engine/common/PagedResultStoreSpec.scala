@@ -0,0 +1,85 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.collection.mutable
+import scala.util.Random
+
+class PagedResultStoreSpec extends AnyFlatSpec {
+
+  def withSmallPages(memoryBudget: Long)(test: => Unit): Unit = {
+    val (pageSize, budget) = (Constants.resultPageSize, Constants.resultStoreMemoryBudget)
+    Constants.resultPageSize = 16
+    Constants.resultStoreMemoryBudget = memoryBudget
+    try test
+    finally {
+      Constants.resultPageSize = pageSize
+      Constants.resultStoreMemoryBudget = budget
+    }
+  }
+
+  def checkAgainstList(store: PagedResultStore): Unit = {
+    val expected = mutable.ListBuffer[ITuple]()
+    val random = new Random(42)
+    (0 until 3000).foreach(_ => {
+      val tuple = ITuple(random.nextInt(200), "value")
+      if (random.nextInt(3) == 0) {
+        val position = expected.indexOf(tuple)
+        assert(store.retract(tuple) == position)
+        expected -= tuple
+      } else {
+        assert(store.insert(tuple) == expected.size)
+        expected += tuple
+      }
+    })
+    assert(store.size == expected.size)
+    assert(store.getTuples == expected.toList)
+    (0 until 50).foreach(_ => {
+      val from = random.nextInt(expected.size)
+      assert(store.slice(from, from + 10) == expected.slice(from, from + 10).toList)
+    })
+    store.close()
+  }
+
+  "PagedResultStore" should "retract the earliest equal tuple" in {
+    withSmallPages(Long.MaxValue) {
+      checkAgainstList(new PagedResultStore())
+    }
+  }
+
+  it should "read spilled pages back" in {
+    withSmallPages(2000) {
+      checkAgainstList(new PagedResultStore())
+    }
+  }
+
+  it should "reclaim the pages of retracted tuples" in {
+    withSmallPages(2000) {
+      val store = new PagedResultStore()
+      (0 until 100).foreach(i => store.insert(ITuple(i)))
+      (100 until 10000).foreach(i => {
+        assert(store.retract(ITuple(i - 100)) == 0)
+        assert(store.insert(ITuple(i)) == 99)
+        // the holes never outnumber the 100 live tuples, plus a partial page
+        assert(store.pageCount <= 2 * 100 / 16 + 2)
+      })
+      assert(store.getTuples == (9900 until 10000).map(i => ITuple(i)).toList)
+      assert(store.slice(50, 53) == List(ITuple(9950), ITuple(9951), ITuple(9952)))
+      store.close()
+    }
+  }
+
+  it should "track the dirty pages on write" in {
+    val store = new PagedResultStore()
+    (0 until 35).foreach(i => store.insert(ITuple(i)))
+    assert(store.dirtyPageIndices(10) == List(1, 2, 3, 4))
+    assert(store.dirtyPageIndices(10).isEmpty)
+    store.insert(ITuple(35))
+    assert(store.dirtyPageIndices(10) == List(4))
+    store.retract(ITuple(12))
+    assert(store.dirtyPageIndices(10) == List(2, 3, 4))
+    store.retract(ITuple(35))
+    assert(store.dirtyPageIndices(10) == List(4))
+  }
+}
@@ -0,0 +1,48 @@
+package edu.uci.ics.amber.engine.common
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import org.scalatest.flatspec.AnyFlatSpec
+
+class VersionedResultStoreSpec extends AnyFlatSpec {
+
+  "VersionedResultStore" should "hand out the changes after the acknowledged version" in {
+    val store = new VersionedResultStore()
+    val replica = new PagedResultStore()
+    (0 until 10).foreach(i => store.insert(ITuple(i)))
+    store.retract(ITuple(3))
+    store.retract(ITuple(42))
+    assert(store.version == 11)
+    val changes = store.changesSince(0)
+    assert(changes.size == 11)
+    assert(replica.applyChanges(changes) == changes)
+
+    store.retract(ITuple(0))
+    store.insert(ITuple(3))
+    val newChanges = store.changesSince(11)
+    assert(newChanges == List(ResultChange(false, 0, ITuple(0)), ResultChange(true, 8, ITuple(3))))
+    assert(replica.applyChanges(newChanges) == newChanges)
+    assert(replica.getTuples == (1 until 10).filter(_ != 3).map(ITuple(_)).toList :+ ITuple(3))
+    assert(store.changesSince(13).isEmpty)
+  }
+
+  it should "keep the changes until they are acknowledged" in {
+    val store = new VersionedResultStore()
+    (0 until 5).foreach(i => store.insert(ITuple(i)))
+    // two queries with the same acknowledged version
+    val first = store.changesSince(0)
+    store.insert(ITuple(5))
+    val second = store.changesSince(0)
+    assert(second == first :+ ResultChange(true, 5, ITuple(5)))
+    assert(store.changesSince(5) == second.drop(5))
+    assertThrows[AssertionError](store.changesSince(0))
+  }
+
+  it should "only keep the unacknowledged changes without tuples" in {
+    val store = new VersionedResultStore(keepTuples = false)
+    (0 until 5).foreach(i => store.insert(ITuple(i)))
+    assert(store.changesSince(0).map(_.position) == (0 until 5))
+    (5 until 8).foreach(i => store.insert(ITuple(i)))
+    assert(store.changesSince(5).map(_.tuple) == (5 until 8).map(ITuple(_)))
+    assert(store.changesSince(8).isEmpty)
+  }
+}
@@ -23,6 +23,7 @@ import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeType
 import edu.uci.ics.texera.workflow.common.workflow._
 import edu.uci.ics.texera.workflow.operators.aggregate.AggregationFunction
+import edu.uci.ics.texera.workflow.operators.sort.SortPreference
 import org.scalatest.{BeforeAndAfterAll, BeforeAndAfterEach}
 import org.scalatest.flatspec.AnyFlatSpecLike
 import java.sql.PreparedStatement
@@ -359,6 +360,103 @@ class DataProcessingSpec
     executeWorkflow(id, workflow)
   }
 
+  "Engine" should "execute jsonl->sort->sink workflow in sort order" in {
+    val jsonlOp = TestOperators.mediumFlattenJSONLScanOpDesc()
+    val sortOpDesc =
+      TestOperators.sortOpDesc(List(("year", SortPreference.DESC), ("id", SortPreference.ASC)))
+    val sink = TestOperators.sinkOpDesc()
+    val (id, workflow) = buildWorkflow(
+      mutable.MutableList[OperatorDescriptor](jsonlOp, sortOpDesc, sink),
+      mutable.MutableList[OperatorLink](
+        OperatorLink(OperatorPort(jsonlOp.operatorID, 0), OperatorPort(sortOpDesc.operatorID, 0)),
+        OperatorLink(OperatorPort(sortOpDesc.operatorID, 0), OperatorPort(sink.operatorID, 0))
+      )
+    )
+    val results = executeWorkflow(id, workflow)(sink.operatorID)
+      .map(t => t.asInstanceOf[Tuple])
+      .map(t => (Option(t.getField[Integer]("year")), Option(t.getField[java.lang.Long]("id"))))
+      .map { case (year, id) => (year.map(_.intValue()), id.map(_.longValue())) }
+
+    assert(results.size == 1000)
+    // nulls come first in ascending order, so last in descending order
+    assert(results == results.sortBy {
+      case (year, id) => (year.isEmpty, -year.getOrElse(0), id.nonEmpty, id.getOrElse(0L))
+    })
+  }
+
+  "Engine" should "execute jsonl->sort with limit->sink workflow normally" in {
+    val jsonlOp = TestOperators.mediumFlattenJSONLScanOpDesc()
+    val sortOpDesc = TestOperators.sortOpDesc(List(("id", SortPreference.DESC)), Some(10))
+    val sink = TestOperators.sinkOpDesc()
+    val (id, workflow) = buildWorkflow(
+      mutable.MutableList[OperatorDescriptor](jsonlOp, sortOpDesc, sink),
+      mutable.MutableList[OperatorLink](
+        OperatorLink(OperatorPort(jsonlOp.operatorID, 0), OperatorPort(sortOpDesc.operatorID, 0)),
+        OperatorLink(OperatorPort(sortOpDesc.operatorID, 0), OperatorPort(sink.operatorID, 0))
+      )
+    )
+    val results = executeWorkflow(id, workflow)(sink.operatorID)
+      .map(t => t.asInstanceOf[Tuple].getField[java.lang.Long]("id").longValue())
+
+    assert(results.size == 10)
+    assert(results == results.sorted.reverse)
+  }
+
+  "Engine" should "execute jsonl->limit->keyword->limit->sink workflow and stop early" in {
+    val jsonlOp = TestOperators.mediumFlattenJSONLScanOpDesc()
+    val firstLimitOpDesc = TestOperators.limitOpDesc(500)
+    val keywordOpDesc = TestOperators.keywordSearchOpDesc("gender", "Female")
+    val secondLimitOpDesc = TestOperators.limitOpDesc(10)
+    val sink = TestOperators.sinkOpDesc()
+    val (id, workflow) = buildWorkflow(
+      mutable.MutableList[OperatorDescriptor](
+        jsonlOp,
+        firstLimitOpDesc,
+        keywordOpDesc,
+        secondLimitOpDesc,
+        sink
+      ),
+      mutable.MutableList[OperatorLink](
+        OperatorLink(
+          OperatorPort(jsonlOp.operatorID, 0),
+          OperatorPort(firstLimitOpDesc.operatorID, 0)
+        ),
+        OperatorLink(
+          OperatorPort(firstLimitOpDesc.operatorID, 0),
+          OperatorPort(keywordOpDesc.operatorID, 0)
+        ),
+        OperatorLink(
+          OperatorPort(keywordOpDesc.operatorID, 0),
+          OperatorPort(secondLimitOpDesc.operatorID, 0)
+        ),
+        OperatorLink(
+          OperatorPort(secondLimitOpDesc.operatorID, 0),
+          OperatorPort(sink.operatorID, 0)
+        )
+      )
+    )
+    val results = executeWorkflow(id, workflow)(sink.operatorID)
+    assert(results.size == 10)
+    assert(results.forall(_.asInstanceOf[Tuple].getField[String]("gender") == "Female"))
+  }
+
+  "Engine" should "execute csv->limit->sink workflow with a limit above the input size" in {
+    val csvOpDesc = TestOperators.smallCsvScanOpDesc()
+    val limitOpDesc = TestOperators.limitOpDesc(1000000)
+    val sink = TestOperators.sinkOpDesc()
+    val (id, workflow) = buildWorkflow(
+      mutable.MutableList[OperatorDescriptor](csvOpDesc, limitOpDesc, sink),
+      mutable.MutableList[OperatorLink](
+        OperatorLink(
+          OperatorPort(csvOpDesc.operatorID, 0),
+          OperatorPort(limitOpDesc.operatorID, 0)
+        ),
+        OperatorLink(OperatorPort(limitOpDesc.operatorID, 0), OperatorPort(sink.operatorID, 0))
+      )
+    )
+    assert(executeWorkflow(id, workflow)(sink.operatorID).size == 100)
+  }
+
   // TODO: use mock data to perform the test, remove dependency on the real AsterixDB
 //  "Engine" should "execute asterixdb->sink workflow normally" in {
 //
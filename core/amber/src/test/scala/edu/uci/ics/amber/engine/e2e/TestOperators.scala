@@ -6,7 +6,9 @@ import edu.uci.ics.texera.workflow.operators.aggregate.{
 }
 import edu.uci.ics.texera.workflow.operators.hashJoin.HashJoinOpDesc
 import edu.uci.ics.texera.workflow.operators.keywordSearch.KeywordSearchOpDesc
+import edu.uci.ics.texera.workflow.operators.limit.LimitOpDesc
 import edu.uci.ics.texera.workflow.operators.sink.SimpleSinkOpDesc
+import edu.uci.ics.texera.workflow.operators.sort.{SortCriteriaUnit, SortOpDesc, SortPreference}
 import edu.uci.ics.texera.workflow.operators.source.scan.csv.CSVScanSourceOpDesc
 import edu.uci.ics.texera.workflow.operators.source.scan.json.JSONLScanSourceOpDesc
 import edu.uci.ics.texera.workflow.operators.source.sql.asterixdb.AsterixDBSourceOpDesc
@@ -88,6 +90,28 @@ object TestOperators {
     aggOp
   }
 
+  def sortOpDesc(
+      sortAttributes: List[(String, SortPreference)],
+      limit: Option[Int] = None
+  ): SortOpDesc = {
+    val sortOp = new SortOpDesc()
+    sortOp.sortAttributes = sortAttributes.map {
+      case (attributeName, sortPreference) =>
+        val unit = new SortCriteriaUnit()
+        unit.attributeName = attributeName
+        unit.sortPreference = sortPreference
+        unit
+    }
+    sortOp.limit = limit
+    sortOp
+  }
+
+  def limitOpDesc(limit: Int): LimitOpDesc = {
+    val limitOp = new LimitOpDesc()
+    limitOp.limit = limit
+    limitOp
+  }
+
   def inMemoryMySQLSourceOpDesc(
       host: String,
       port: String,
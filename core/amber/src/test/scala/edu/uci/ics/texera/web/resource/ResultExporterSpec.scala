@@ -0,0 +1,124 @@
+package edu.uci.ics.texera.web.resource
+
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.apache.arrow.memory.RootAllocator
+import org.apache.arrow.vector.ipc.ArrowStreamReader
+import org.scalatest.BeforeAndAfterEach
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.io.{File, FileInputStream}
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import scala.collection.JavaConverters._
+
+class ResultExporterSpec extends AnyFlatSpec with BeforeAndAfterEach {
+
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(new Attribute("id", AttributeType.INTEGER))
+    .add(new Attribute("text", AttributeType.STRING))
+    .build()
+
+  val result: List[ITuple] = (0 until 25000).map(i => {
+    new Tuple(schema, Int.box(i), if (i % 10 == 0) null else s"""text, "$i"""")
+  }).toList
+
+  var file: File = _
+
+  override def beforeEach(): Unit = {
+    file = File.createTempFile("result-export-", ".export")
+  }
+
+  override def afterEach(): Unit = {
+    file.delete()
+    new File(file.getPath + ".progress").delete()
+  }
+
+  def export(
+      format: String,
+      readResult: (Int, Int) => List[ITuple] = result.slice,
+      resultID: String = "execution-1"
+  ): Unit = {
+    var progress = List[Int]()
+    new ResultExporter(readResult, result.size, format, file, resultID).export((exported, total) => {
+      assert(total == result.size)
+      progress :+= exported
+    })
+    assert(progress.last == result.size)
+  }
+
+  def lines(): List[String] =
+    new String(Files.readAllBytes(file.toPath), StandardCharsets.UTF_8).split("\n").toList
+
+  "ResultExporter" should "export the result as csv" in {
+    export("csv")
+    assert(lines().head == "id,text")
+    assert(lines().size == result.size + 1)
+    assert(lines()(1) == "0,")
+    assert(lines()(2) == "1,\"text, \"\"1\"\"\"")
+  }
+
+  it should "export the result as json lines" in {
+    export("jsonl")
+    assert(lines().size == result.size)
+    assert(lines()(1) == "{\"id\":1,\"text\":\"text, \\\"1\\\"\"}")
+  }
+
+  it should "resume an interrupted export" in {
+    assertThrows[RuntimeException](export("csv", (from, until) => {
+      if (from >= ResultExporter.CHUNK_ROW_COUNT) throw new RuntimeException("interrupted")
+      result.slice(from, until)
+    }))
+    assert(lines().size == ResultExporter.CHUNK_ROW_COUNT + 1)
+    var readFrom = List[Int]()
+    export("csv", (from, until) => {
+      readFrom :+= from
+      result.slice(from, until)
+    })
+    assert(readFrom.head == ResultExporter.CHUNK_ROW_COUNT)
+    assert(lines().size == result.size + 1)
+    assert(lines().last == "24999,\"text, \"\"24999\"\"\"")
+    assert(!new File(file.getPath + ".progress").exists())
+  }
+
+  it should "not resume the export of another execution with the same row count" in {
+    assertThrows[RuntimeException](export("csv", (from, until) => {
+      if (from >= ResultExporter.CHUNK_ROW_COUNT) throw new RuntimeException("interrupted")
+      result.slice(from, until)
+    }))
+    var readFrom = List[Int]()
+    export(
+      "csv",
+      (from, until) => {
+        readFrom :+= from
+        result.slice(from, until)
+      },
+      "execution-2"
+    )
+    assert(readFrom.head == 0)
+    assert(lines().size == result.size + 1)
+    assert(lines().count(_ == "id,text") == 1)
+  }
+
+  it should "export the result as an arrow stream" in {
+    export("arrow")
+    val allocator = new RootAllocator()
+    val reader = new ArrowStreamReader(new FileInputStream(file), allocator)
+    var rows = 0
+    while (reader.loadNextBatch()) {
+      val root = reader.getVectorSchemaRoot
+      (0 until root.getRowCount).foreach(i => {
+        val expected = result(rows + i).asInstanceOf[Tuple]
+        assert(root.getVector("id").getObject(i) == expected.getField[Integer]("id"))
+        val text = root.getVector("text").getObject(i)
+        assert(Option(text).map(_.toString).orNull == expected.getField[String]("text"))
+      })
+      rows += root.getRowCount
+    }
+    reader.close()
+    allocator.close()
+    assert(rows == result.size)
+  }
+}
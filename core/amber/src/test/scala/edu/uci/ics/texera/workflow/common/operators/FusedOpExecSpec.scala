@@ -0,0 +1,142 @@
+package edu.uci.ics.texera.workflow.common.operators
+
+import edu.uci.ics.amber.engine.common.{IBatchOperatorExecutor, IOperatorExecutor, InputExhausted}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.amber.engine.common.virtualidentity.LinkIdentity
+import edu.uci.ics.texera.workflow.common.operators.filter.FilterOpExec
+import edu.uci.ics.texera.workflow.common.operators.map.MapOpExec
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.columnar.ColumnarBatchBuilder
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.collection.mutable
+
+class FusedOpExecSpec extends AnyFlatSpec {
+  val attribute = new Attribute("num", AttributeType.INTEGER)
+  val schema: Schema = Schema.newBuilder().add(attribute).build()
+
+  def tuple(i: Int): Tuple = Tuple.newBuilder(schema).add(attribute, i).build()
+
+  def num(t: ITuple): Int = t.asInstanceOf[Tuple].getField[Int]("num")
+
+  class EvenFilter extends FilterOpExec {
+    setFilterFunc(t => t.getField[Int]("num") % 2 == 0)
+  }
+
+  class PlusOne extends MapOpExec {
+    setMapFunc(t => tuple(t.getField[Int]("num") + 1))
+  }
+
+  /**
+    * Emits the number of tuples it has seen only when its input is exhausted.
+    */
+  class Count extends OperatorExecutor {
+    var count = 0
+    override def open(): Unit = {}
+    override def close(): Unit = {}
+    override def processTexeraTuple(
+        t: Either[Tuple, InputExhausted],
+        input: LinkIdentity
+    ): Iterator[Tuple] = {
+      t match {
+        case Left(_) =>
+          count += 1
+          Iterator()
+        case Right(_) => Iterator(tuple(count))
+      }
+    }
+  }
+
+  def links(n: Int): Array[LinkIdentity] = Array.fill(n)(null)
+
+  it should "pass tuples through every executor of the chain" in {
+    val fused = FusedOpExec(Array(new EvenFilter, new PlusOne), links(2))
+    val output = (0 until 10).flatMap(i => fused.processTuple(Left(tuple(i)), null)).map(num)
+    assert(output == List(1, 3, 5, 7, 9))
+  }
+
+  it should "flush the output of an exhausted executor before exhausting the next one" in {
+    val fused = FusedOpExec(Array(new Count, new PlusOne, new Count), links(3))
+    (0 until 10).foreach(i => assert(fused.processTuple(Left(tuple(i)), null).isEmpty))
+    val output = fused.processTuple(Right(InputExhausted()), null).map(num).toList
+    // the first count emits one tuple, which the second count sees before its own exhaustion
+    assert(output == List(1))
+  }
+
+  it should "support batches only if every executor supports them" in {
+    val batchChain = FusedOpExec(Array(new EvenFilter, new PlusOne), links(2))
+    val tupleChain = FusedOpExec(Array(new EvenFilter, new Count), links(2))
+    assert(batchChain.isInstanceOf[IBatchOperatorExecutor])
+    assert(!tupleChain.isInstanceOf[IBatchOperatorExecutor])
+  }
+
+  it should "produce the same result for a batch as for single tuples" in {
+    val fused = FusedOpExec(Array(new PlusOne, new EvenFilter, new PlusOne), links(3))
+      .asInstanceOf[IBatchOperatorExecutor]
+    val input: Array[ITuple] = (0 until 10).map(tuple).toArray
+    val batchOutput = fused.processBatch(input, null, (_, e) => throw e).map(num).toList
+    val tupleOutput = input.flatMap(t => fused.processTuple(Left(t), null)).map(num).toList
+    assert(batchOutput == List(3, 5, 7, 9, 11))
+    assert(batchOutput == tupleOutput)
+  }
+
+  it should "produce the same result for a columnar batch as for its tuples" in {
+    val fused = FusedOpExec(Array(new PlusOne, new EvenFilter, new PlusOne), links(3))
+      .asInstanceOf[FusedOpExec with IBatchOperatorExecutor]
+    val builder = new ColumnarBatchBuilder(schema, 10)
+    (0 until 10).foreach(i => builder.append(tuple(i)))
+    val output = fused.processColumnarBatch(builder.build(), null, (_, e) => throw e).map(num)
+    assert(output.toList == List(3, 5, 7, 9, 11))
+    assert(fused.stageOutputCounts == List(10, 5, 5))
+  }
+
+  it should "process every tuple of a batch once when one of them fails" in {
+    val seen = mutable.ArrayBuffer[Int]()
+    class FailOnThree extends MapOpExec {
+      setMapFunc(t => {
+        seen.append(num(t))
+        if (num(t) == 3) throw new RuntimeException("three")
+        t
+      })
+    }
+    val fused = FusedOpExec(Array(new FailOnThree, new PlusOne), links(2))
+      .asInstanceOf[IBatchOperatorExecutor]
+    val failed = mutable.ArrayBuffer[Int]()
+    val input: Array[ITuple] = (0 until 6).map(tuple).toArray
+    val output = fused.processBatch(input, null, (t, _) => failed.append(num(t))).map(num).toList
+    assert(seen == (0 until 6))
+    assert(failed == List(3))
+    assert(output == List(1, 2, 3, 5, 6))
+  }
+
+  it should "count the output of every executor of the chain" in {
+    val tupleChain = FusedOpExec(Array(new EvenFilter, new PlusOne), links(2))
+    (0 until 10).foreach(i => tupleChain.processTuple(Left(tuple(i)), null).toList)
+    assert(tupleChain.stageOutputCounts == List(5, 5))
+    val batchChain = FusedOpExec(Array(new EvenFilter, new PlusOne), links(2))
+      .asInstanceOf[FusedOpExec with IBatchOperatorExecutor]
+    batchChain.processBatch((0 until 10).map(tuple).toArray, null, (_, e) => throw e)
+    assert(batchChain.stageOutputCounts == List(5, 5))
+  }
+
+  it should "give each executor the input link it had before fusion" in {
+    val seen = mutable.ArrayBuffer[LinkIdentity]()
+    class LinkRecorder extends IOperatorExecutor {
+      override def open(): Unit = {}
+      override def close(): Unit = {}
+      override def processTuple(
+          t: Either[ITuple, InputExhausted],
+          input: LinkIdentity
+      ): Iterator[ITuple] = {
+        seen.append(input)
+        t.left.toOption.iterator
+      }
+    }
+    val innerLink = LinkIdentity(None, None)
+    val fused = FusedOpExec(Array(new LinkRecorder, new LinkRecorder), Array(null, innerLink))
+    val outerLink = LinkIdentity(None, None)
+    fused.processTuple(Left(tuple(0)), outerLink).toList
+    assert(seen.size == 2 && (seen(0) eq outerLink) && (seen(1) eq innerLink))
+  }
+}
@@ -0,0 +1,108 @@
+package edu.uci.ics.texera.workflow.common.operators.aggregate
+
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.collection.JavaConverters._
+
+class AggregateOpExecSpec extends AnyFlatSpec {
+  val tupleSchema: Schema = Schema
+    .newBuilder()
+    .add(new Attribute("name", AttributeType.STRING))
+    .add(new Attribute("id", AttributeType.INTEGER))
+    .add(new Attribute("value", AttributeType.DOUBLE))
+    .build()
+
+  val resultSchema: Schema = Schema.newBuilder().add("sum", AttributeType.DOUBLE).build()
+
+  def tuple(i: Int): Tuple =
+    new Tuple(
+      tupleSchema,
+      if (i % 7 == 0) null else "name-" + (i % 5),
+      if (i % 11 == 0) null else Int.box(i % 50),
+      Double.box(i)
+    )
+
+  def sumAggregation(groupByKeys: String*): DistributedAggregation[java.lang.Double] =
+    DistributedAggregation[java.lang.Double](
+      () => 0.0,
+      (partial, t) => partial + t.getField[java.lang.Double]("value"),
+      (partial1, partial2) => partial1 + partial2,
+      partial => Tuple.newBuilder(resultSchema).add("sum", AttributeType.DOUBLE, partial).build(),
+      schema => Schema.newBuilder().add(groupByKeys.map(schema.getAttribute): _*).build()
+    )
+
+  def aggregate(
+      aggregation: DistributedAggregation[java.lang.Double]
+  ): Map[List[AnyRef], Double] = {
+    // two partial aggregations feed one final aggregation
+    val partials = Array.fill(2)(new PartialAggregateOpExec(aggregation))
+    val finalAgg = new FinalAggregateOpExec(aggregation)
+    partials.foreach(_.open())
+    finalAgg.open()
+    val partialTuples = (0 until 2000).flatMap(i => {
+      partials(i % 2).processTexeraTuple(Left(tuple(i)), null).toList
+    }) ++ partials.flatMap(_.processTexeraTuple(Right(InputExhausted()), null))
+    partialTuples.foreach(t => assert(finalAgg.processTexeraTuple(Left(t), null).isEmpty))
+    val results = finalAgg.processTexeraTuple(Right(InputExhausted()), null).toList
+    partials.foreach(_.close())
+    finalAgg.close()
+    val groups = results.map(t => {
+      val fields = t.getFields.asScala.toList
+      (fields.init, fields.last.asInstanceOf[java.lang.Double].doubleValue())
+    })
+    assert(groups.map(_._1).distinct.size == groups.size)
+    groups.toMap
+  }
+
+  def expected(keyOf: Tuple => List[AnyRef]): Map[List[AnyRef], Double] = {
+    (0 until 2000)
+      .map(tuple)
+      .groupBy(keyOf)
+      .mapValues(_.map(_.getField[java.lang.Double]("value").doubleValue()).sum)
+  }
+
+  it should "aggregate groups of a numeric key" in {
+    assert(aggregate(sumAggregation("id")) == expected(t => List(t.getField[AnyRef]("id"))))
+  }
+
+  it should "aggregate groups of several keys" in {
+    val keyOf = (t: Tuple) => List(t.getField[AnyRef]("name"), t.getField[AnyRef]("id"))
+    assert(aggregate(sumAggregation("name", "id")) == expected(keyOf))
+  }
+
+  it should "aggregate without group by keys" in {
+    assert(aggregate(sumAggregation()) == expected(_ => List()))
+  }
+
+  it should "emit and spill groups beyond the memory budget" in {
+    val keyOf = (t: Tuple) => List(t.getField[AnyRef]("name"), t.getField[AnyRef]("id"))
+    val budget = Constants.aggregationMemoryBudget
+    Constants.aggregationMemoryBudget = 2000
+    try {
+      assert(aggregate(sumAggregation("name", "id")) == expected(keyOf))
+    } finally {
+      Constants.aggregationMemoryBudget = budget
+    }
+  }
+
+  "group by hash table" should "keep the keys of its groups" in {
+    val keySchema = Schema
+      .newBuilder()
+      .add("object", AttributeType.ANY)
+      .add("string", AttributeType.STRING)
+      .build()
+    val table =
+      new GroupByHashTable[AnyRef](Array(0, 1), Array(AttributeType.ANY, AttributeType.STRING))
+    val keys = (0 until 1000).map(i => {
+      List[AnyRef](List(i % 10), if (i % 3 == 0) null else "é-" + (i % 40))
+    })
+    val groups = keys.map(key => table.findOrInsert(new Tuple(keySchema, key: _*)))
+    assert(table.size == keys.distinct.size)
+    keys.zip(groups).foreach {
+      case (key, group) => assert(table.keyFields(group).toList == key)
+    }
+  }
+}
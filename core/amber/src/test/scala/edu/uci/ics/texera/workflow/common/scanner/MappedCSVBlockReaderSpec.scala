@@ -0,0 +1,86 @@
+package edu.uci.ics.texera.workflow.common.scanner
+
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeType
+import org.scalatest.BeforeAndAfterEach
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import scala.collection.mutable.ArrayBuffer
+
+class MappedCSVBlockReaderSpec extends AnyFlatSpec with BeforeAndAfterEach {
+
+  val types: Array[AttributeType] =
+    Array(AttributeType.INTEGER, AttributeType.STRING, AttributeType.DOUBLE, AttributeType.LONG)
+
+  // quoted fields with delimiters, line breaks and quotes in them, written with ' for "
+  val records: Seq[String] = (0 until 500).map(i =>
+    (i % 5 match {
+      case 0 => s"$i,plain $i,$i.25,${i * 10000000000L}"
+      case 1 => s"$i,'with, delimiter',-$i.5,$i"
+      case 2 => s"$i,'with\nline, break\n',0.$i,"
+      case 3 => s"$i,'with ''quotes'' \n',$i,$i\r"
+      case 4 => s"$i,,'$i.75', $i "
+    }).replace('\'', '"')
+  )
+
+  var file: File = _
+
+  override def beforeEach(): Unit = {
+    file = File.createTempFile("mapped-csv-", ".csv")
+    Files.write(file.toPath, records.mkString("\n").getBytes(StandardCharsets.UTF_8))
+  }
+
+  override def afterEach(): Unit = file.delete()
+
+  def read(
+      start: Long,
+      end: Long,
+      kept: Array[Int] = null,
+      attributeTypes: Array[AttributeType] = types
+  ): List[List[Any]] = {
+    val reader = new MappedCSVBlockReader(file.toPath, start, end, ',', attributeTypes, kept)
+    val result = new ArrayBuffer[List[Any]]()
+    while (reader.hasNext) {
+      val fields = reader.readRecord()
+      if (fields != null) result.append(fields.toList)
+    }
+    reader.close()
+    result.toList
+  }
+
+  "MappedCSVBlockReader" should "parse quoted fields into typed values" in {
+    val result = read(0, file.length())
+    assert(result.size == records.size)
+    assert(result(0) == List(0, "plain 0", 0.25, 0L))
+    assert(result(1) == List(1, "with, delimiter", -1.5, 1L))
+    assert(result(2) == List(2, "with\nline, break\n", 0.2, null))
+    assert(result(3) == List(3, "with \"quotes\" \n", 3.0, 3L))
+    assert(result(4) == List(4, null, 4.75, 4L))
+    assert(result(5)(3) == 50000000000L)
+    assert(result.map(_(2)).forall(_.isInstanceOf[java.lang.Double]))
+    assert(result(32)(2) == "0.32".toDouble)
+  }
+
+  "MappedCSVBlockReader" should "read every record once across any split" in {
+    val expected = read(0, file.length())
+    val length = file.length()
+    for (numSplits <- Seq(2, 3, 7, 64, 1000)) {
+      val splits = (0 to numSplits).map(i => length * i / numSplits)
+      val result = splits.zip(splits.tail).flatMap { case (start, end) => read(start, end) }
+      assert(result == expected, s"with $numSplits splits")
+    }
+  }
+
+  "MappedCSVBlockReader" should "only parse the kept fields" in {
+    val result = read(0, file.length(), Array(0, 3))
+    assert(result.take(2) == List(List(0, 0L), List(1, 1L)))
+  }
+
+  "MappedCSVBlockReader" should "discard blank and malformed records" in {
+    Files.write(file.toPath, "1,a\n\n\r\nx,b\n3,c,d\n\"4\",\"e\"".getBytes(StandardCharsets.UTF_8))
+    val result = read(0, file.length(), attributeTypes = types.take(2))
+    assert(result == List(List(1, "a"), List(4, "e")))
+  }
+}
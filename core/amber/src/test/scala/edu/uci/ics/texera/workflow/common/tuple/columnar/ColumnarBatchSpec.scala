@@ -0,0 +1,85 @@
+package edu.uci.ics.texera.workflow.common.tuple.columnar
+
+import edu.uci.ics.amber.engine.architecture.sendsemantics.partitioners.DataFrameBuilder
+import edu.uci.ics.amber.engine.common.ambermessage.{ColumnarDataFrame, DataFrame}
+import edu.uci.ics.amber.engine.common.tuple.ITuple
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.sql.Timestamp
+
+class ColumnarBatchSpec extends AnyFlatSpec {
+  val schema: Schema = Schema
+    .newBuilder()
+    .add(
+      new Attribute("col-int", AttributeType.INTEGER),
+      new Attribute("col-long", AttributeType.LONG),
+      new Attribute("col-double", AttributeType.DOUBLE),
+      new Attribute("col-bool", AttributeType.BOOLEAN),
+      new Attribute("col-timestamp", AttributeType.TIMESTAMP),
+      new Attribute("col-string", AttributeType.STRING),
+      new Attribute("col-any", AttributeType.ANY)
+    )
+    .build()
+
+  def tupleAt(i: Int): Tuple = {
+    val timestamp = new Timestamp(1000L * i)
+    timestamp.setNanos(i)
+    Tuple
+      .newBuilder(schema)
+      .addSequentially(
+        Array(
+          Int.box(i),
+          Long.box(i * 10L),
+          Double.box(i / 3.0),
+          Boolean.box(i % 2 == 0),
+          timestamp,
+          "str-" + i,
+          List(i)
+        )
+      )
+      .build()
+  }
+
+  it should "keep every field of the tuples through a round trip" in {
+    val builder = new ColumnarBatchBuilder(schema, 10)
+    val tuples = (0 until 7).map(tupleAt)
+    tuples.foreach(builder.append)
+    val batch = builder.build()
+
+    assert(batch.rowCount == 7)
+    assert(batch.iterator.toList == tuples.toList)
+  }
+
+  it should "keep null fields through a round trip" in {
+    val builder = new ColumnarBatchBuilder(schema, 2)
+    val tuple = new Tuple(schema, null, null, null, null, null, null, null)
+    builder.append(tuple)
+    builder.append(tupleAt(1))
+    val batch = builder.build()
+
+    assert(batch.getTuple(0) == tuple)
+    assert(batch.getTuple(1) == tupleAt(1))
+  }
+
+  it should "build a columnar data frame for texera tuples of one schema" in {
+    val builder = new DataFrameBuilder(3)
+    assert(!builder.add(tupleAt(0)))
+    assert(!builder.add(tupleAt(1)))
+    assert(builder.add(tupleAt(2)))
+    builder.build() match {
+      case ColumnarDataFrame(batch) =>
+        assert(batch.toArray.toList == (0 until 3).map(tupleAt).toList)
+      case other => fail(s"unexpected payload $other")
+    }
+  }
+
+  it should "fall back to a row-based data frame for other tuples" in {
+    val builder = new DataFrameBuilder(3)
+    builder.add(tupleAt(0))
+    builder.add(ITuple(1, 2, 3))
+    assert(builder.build() == DataFrame(Array(tupleAt(0), ITuple(1, 2, 3))))
+  }
+
+}
@@ -1,6 +1,6 @@
 package edu.uci.ics.texera.workflow.operators.hashJoin
 
-import edu.uci.ics.amber.engine.common.InputExhausted
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
 import edu.uci.ics.amber.engine.common.virtualidentity.{LayerIdentity, LinkIdentity}
 import edu.uci.ics.texera.workflow.common.tuple.Tuple
 import edu.uci.ics.texera.workflow.common.tuple.schema.{
@@ -13,6 +13,8 @@ import edu.uci.ics.texera.workflow.common.tuple.schema.{
 import org.scalatest.BeforeAndAfter
 import org.scalatest.flatspec.AnyFlatSpec
 
+import scala.collection.JavaConverters._
+
 class HashJoinOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
   val build: LinkIdentity = linkID()
   val probe: LinkIdentity = linkID()
@@ -111,4 +113,64 @@ class HashJoinOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
 
     opExec.close()
   }
+
+  def joinExec(): HashJoinOpExec[String] = {
+    opDesc = new HashJoinOpDesc[String]()
+    opDesc.buildAttributeName = "build_1"
+    opDesc.probeAttributeName = "probe_1"
+    val inputSchemas = Array(schema("build"), schema("probe"))
+    val outputSchema = opDesc.getOutputSchema(inputSchemas)
+    new HashJoinOpExec[String](
+      build,
+      "build_1",
+      "probe_1",
+      OperatorSchemaInfo(inputSchemas, outputSchema)
+    )
+  }
+
+  it should "buffer probe tuples received before the build table is finished" in {
+    opExec = joinExec()
+    opExec.open()
+    (5 to 9).foreach(i => {
+      assert(opExec.processTexeraTuple(Left(tuple("probe", 1, i)), probe).isEmpty)
+    })
+    (0 to 7).foreach(i => {
+      assert(opExec.processTexeraTuple(Left(tuple("build", 1, i)), build).isEmpty)
+    })
+    val outputTuples = opExec.processTexeraTuple(Right(InputExhausted()), build).toList
+    assert(outputTuples.size == 3)
+    assert(opExec.processTexeraTuple(Right(InputExhausted()), probe).isEmpty)
+    opExec.close()
+  }
+
+  it should "spill partitions beyond the memory budget and join them in a second pass" in {
+    def joinAll(): Set[List[AnyRef]] = {
+      opExec = joinExec()
+      opExec.open()
+      // the probe tuples of even keys arrive while the build table is still being received
+      (0 until 200).foreach(i => {
+        assert(opExec.processTexeraTuple(Left(tuple("build", 1, i)), build).isEmpty)
+        if (i % 2 == 0) {
+          assert(opExec.processTexeraTuple(Left(tuple("probe", 1, 100 + i)), probe).isEmpty)
+        }
+      })
+      val outputTuples = opExec.processTexeraTuple(Right(InputExhausted()), build).toList ++
+        (101 until 300 by 2).flatMap(i => {
+          opExec.processTexeraTuple(Left(tuple("probe", 1, i)), probe).toList
+        }) ++
+        opExec.processTexeraTuple(Right(InputExhausted()), probe).toList
+      opExec.close()
+      outputTuples.map(_.getFields.asScala.toList).toSet
+    }
+
+    val inMemory = joinAll()
+    val budget = Constants.joinMemoryBudget
+    Constants.joinMemoryBudget = 4000
+    try {
+      assert(joinAll() == inMemory)
+    } finally {
+      Constants.joinMemoryBudget = budget
+    }
+    assert(inMemory.size == 100)
+  }
 }
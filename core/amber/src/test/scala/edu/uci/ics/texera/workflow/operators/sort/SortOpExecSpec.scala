@@ -0,0 +1,110 @@
+package edu.uci.ics.texera.workflow.operators.sort
+
+import edu.uci.ics.amber.engine.common.{Constants, InputExhausted}
+import edu.uci.ics.amber.engine.common.virtualidentity.ActorVirtualIdentity
+import edu.uci.ics.texera.workflow.common.operators.OperatorExecutor
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.BeforeAndAfter
+import org.scalatest.flatspec.AnyFlatSpec
+
+import scala.util.Random
+
+class SortOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
+  val tupleSchema: Schema = Schema
+    .newBuilder()
+    .add(new Attribute("group", AttributeType.STRING))
+    .add(new Attribute("value", AttributeType.INTEGER))
+    .build()
+
+  def tuple(group: String, value: Integer): Tuple = new Tuple(tupleSchema, group, value)
+
+  // sorted by group ascending, then value descending
+  val keyColumns: Array[Int] = Array(0, 1)
+  val descending: Array[Boolean] = Array(false, true)
+
+  val input: Seq[Tuple] = {
+    val random = new Random(42)
+    (0 until 1000).map(_ => tuple("g" + random.nextInt(10), random.nextInt(100)))
+  }
+
+  def expected(tuples: Seq[Tuple]): Seq[(String, Int)] =
+    tuples.map(fields).sortBy { case (group, value) => (group, -value) }
+
+  def fields(t: Tuple): (String, Int) =
+    (t.getField[String]("group"), t.getField[Integer]("value").intValue())
+
+  var memoryBudget: Long = _
+  before {
+    memoryBudget = Constants.sortMemoryBudget
+  }
+  after {
+    Constants.sortMemoryBudget = memoryBudget
+  }
+
+  def run(opExec: OperatorExecutor, tuples: Seq[Tuple]): List[Tuple] = {
+    opExec.open()
+    tuples.foreach(t => assert(opExec.processTexeraTuple(Left(t), null).isEmpty))
+    val output = opExec.processTexeraTuple(Right(InputExhausted()), null).toList
+    opExec.close()
+    output
+  }
+
+  "SortOpExec" should "sort its input in memory" in {
+    val opExec = new SortOpExec(keyColumns, descending)
+    assert(run(opExec, input).map(fields) == expected(input))
+  }
+
+  "SortOpExec" should "merge spilled runs beyond the memory budget" in {
+    Constants.sortMemoryBudget = 4096
+    val opExec = new SortOpExec(keyColumns, descending)
+    opExec.open()
+    input.foreach(t => opExec.processTexeraTuple(Left(t), null))
+    val output = opExec.processTexeraTuple(Right(InputExhausted()), null).toList
+    assert(opExec.runCount > 1)
+    assert(output.map(fields) == expected(input))
+    opExec.close()
+  }
+
+  "SortOpExec" should "sort null values first" in {
+    val opExec = new SortOpExec(Array(1), Array(false))
+    val output = run(opExec, Seq(tuple("a", 3), tuple("b", null), tuple("c", 1)))
+    assert(output.map(_.getField[String]("group")) == List("b", "c", "a"))
+  }
+
+  "SortConcatOpExec" should "output interleaved sorted ranges in order" in {
+    // the sorted ranges of three sort workers, arriving in batches of 10
+    val senders = Array.tabulate(3)(i => ActorVirtualIdentity(s"sort-$i"))
+    val ranges = expected(input).grouped(400).toSeq
+    val interleaved = ranges.indices
+      .map(i => ranges(i).grouped(10).toSeq.map(batch => (i, batch)))
+      .reduce((a, b) => a.zipAll(b, null, null).flatMap { case (x, y) => Seq(x, y) })
+      .filter(_ != null)
+    Constants.sortMemoryBudget = 4096
+    val opExec = new SortConcatOpExec(senders)
+    opExec.open()
+    val output = interleaved.flatMap {
+      case (range, batch) =>
+        opExec.setInputSender(senders(range))
+        batch.flatMap {
+          case (group, value) => opExec.processTexeraTuple(Left(tuple(group, value)), null)
+        }
+    }
+    // the first range is output right away
+    assert(output.map(fields) == ranges.head)
+    val rest = opExec.processTexeraTuple(Right(InputExhausted()), null).toList
+    assert((output ++ rest).map(fields) == expected(input))
+    opExec.close()
+  }
+
+  "TopKOpExec" should "output the first k tuples in order" in {
+    val opExec = new TopKOpExec(10, keyColumns, descending)
+    assert(run(opExec, input).map(fields) == expected(input).take(10))
+  }
+
+  "TopKOpExec" should "output all tuples if there are less than k" in {
+    val opExec = new TopKOpExec(2000, keyColumns, descending)
+    assert(run(opExec, input).map(fields) == expected(input))
+    assert(run(new TopKOpExec(0, keyColumns, descending), input).isEmpty)
+  }
+}
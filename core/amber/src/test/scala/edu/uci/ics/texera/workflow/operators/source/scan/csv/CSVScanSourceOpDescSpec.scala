@@ -30,6 +30,24 @@ class CSVScanSourceOpDescSpec extends AnyFlatSpec with BeforeAndAfter {
 
   }
 
+  it should "read only the chosen columns, in the order of the file" in {
+
+    parallelCsvScanSourceOpDesc.fileName = Some("src/test/resources/country_sales_small.csv")
+    parallelCsvScanSourceOpDesc.customDelimiter = Some(",")
+    parallelCsvScanSourceOpDesc.hasHeader = true
+    parallelCsvScanSourceOpDesc.columns = List("Unit Price", "Country")
+    parallelCsvScanSourceOpDesc.setContext(workflowContext)
+    val fileSchema: Schema = parallelCsvScanSourceOpDesc.inferSchema()
+
+    assert(parallelCsvScanSourceOpDesc.keptFields(fileSchema).sameElements(Array(1, 9)))
+    assert(
+      parallelCsvScanSourceOpDesc.sourceSchema().getAttributeNames.toList == List(
+        "Country",
+        "Unit Price"
+      )
+    )
+  }
+
   it should "infer schema from headerless single-line-data csv" in {
 
     parallelCsvScanSourceOpDesc.fileName =
@@ -0,0 +1,65 @@
+package edu.uci.ics.texera.workflow.operators.source.scan.json
+
+import edu.uci.ics.texera.workflow.common.Utils.objectMapper
+import edu.uci.ics.texera.workflow.common.WorkflowContext
+import edu.uci.ics.texera.workflow.common.tuple.Tuple
+import edu.uci.ics.texera.workflow.common.tuple.schema.AttributeTypeUtils.parseField
+import edu.uci.ics.texera.workflow.operators.source.scan.json.JSONUtil.JSONToMap
+import org.scalatest.BeforeAndAfter
+import org.scalatest.flatspec.AnyFlatSpec
+
+import java.io.File
+import java.nio.file.{Files, Paths}
+import scala.collection.JavaConverters._
+
+class JSONLScanSourceOpExecSpec extends AnyFlatSpec with BeforeAndAfter {
+  val fileName = "src/test/resources/1000.jsonl"
+  val totalBytes: Long = new File(fileName).length()
+  var desc: JSONLScanSourceOpDesc = _
+
+  before {
+    desc = new JSONLScanSourceOpDesc()
+    desc.fileName = Some(fileName)
+    desc.flatten = true
+    desc.setContext(new WorkflowContext())
+  }
+
+  def read(opExec: JSONLScanSourceOpExec): List[Tuple] = {
+    opExec.open()
+    val tuples = opExec.produceTexeraTuple().toList
+    opExec.close()
+    tuples
+  }
+
+  "JSONLScanSourceOpExec" should "read every line once across byte splits" in {
+    val expected = read(new JSONLScanSourceOpExec(desc, 0, totalBytes))
+    assert(expected.size == 1000)
+    for (numSplits <- Seq(2, 3, 7, 100)) {
+      val splits = (0 to numSplits).map(i => totalBytes * i / numSplits)
+      val tuples = splits.zip(splits.tail).flatMap {
+        case (start, end) => read(new JSONLScanSourceOpExec(desc, start, end))
+      }
+      assert(tuples == expected, s"with $numSplits splits")
+    }
+  }
+
+  "JSONLScanSourceOpExec" should "name flattened fields the same as the schema inference" in {
+    val tuples = read(new JSONLScanSourceOpExec(desc, 0, totalBytes))
+    val lines = Files.readAllLines(Paths.get(fileName)).asScala
+    lines.zip(tuples).foreach {
+      case (line, tuple) =>
+        val fields = JSONToMap(objectMapper.readTree(line), flatten = true)
+        for (attr <- tuple.getSchema.getAttributes.asScala) {
+          val expected = fields.get(attr.getName).map(parseField(_, attr.getType))
+          assert(Option(tuple.getField[AnyRef](attr.getName)) == expected)
+        }
+    }
+  }
+
+  "JSONLScanSourceOpExec" should "apply the offset and limit in lines" in {
+    val tuples = read(new JSONLScanSourceOpExec(desc, 0, totalBytes, 10, Some(5)))
+    val expected = read(new JSONLScanSourceOpExec(desc, 0, totalBytes)).slice(10, 15)
+    assert(tuples == expected)
+    assert(read(new JSONLScanSourceOpExec(desc, 0, 0)).isEmpty)
+  }
+}
@@ -0,0 +1,59 @@
+package edu.uci.ics.texera.workflow.operators.source.sql
+
+import edu.uci.ics.texera.workflow.common.tuple.schema.{Attribute, AttributeType, Schema}
+import org.scalatest.flatspec.AnyFlatSpec
+
+class SQLSourceOpExecSpec extends AnyFlatSpec {
+  val schema: Schema = Schema.newBuilder().add(new Attribute("id", AttributeType.LONG)).build()
+
+  // a progressive source over ids 0 to 99 in windows of 10, without a database
+  class WindowOpExec(workerIndex: Int, numWorkers: Int)
+      extends SQLSourceOpExec(
+        schema,
+        "t",
+        None,
+        None,
+        None,
+        None,
+        None,
+        Option(true),
+        Option("id"),
+        Option("0"),
+        Option("99"),
+        10,
+        workerIndex,
+        numWorkers
+      ) {
+    override protected def loadTableNames(): Unit = tableNames += "t"
+
+    override protected def addKeywordSearch(queryBuilder: StringBuilder): Unit = {}
+
+    def windows: List[String] = {
+      open()
+      Iterator
+        .continually(hasNextQuery)
+        .takeWhile(identity)
+        .map(_ => generateSqlQuery.get.split("where 1 = 1")(1))
+        .toList
+    }
+  }
+
+  "SQLSourceOpExec" should "query the range window by window" in {
+    val windows = new WindowOpExec(0, 1).windows
+    assert(windows.size == 10)
+    assert(windows.head == " AND id >= 0 AND id < 10;")
+    assert(windows.last == " AND id >= 90 AND id <= 99;")
+  }
+
+  "SQLSourceOpExec" should "split the windows of the range among the workers" in {
+    val windows = (0 until 3).map(i => new WindowOpExec(i, 3).windows)
+    assert(windows.map(_.size) == List(4, 3, 3))
+    assert(windows(1).head == " AND id >= 10 AND id < 20;")
+    assert(windows(1)(1) == " AND id >= 40 AND id < 50;")
+    assert(windows.flatten.sorted == new WindowOpExec(0, 1).windows.sorted)
+  }
+
+  "SQLSourceOpExec" should "not query past the range on a worker without windows" in {
+    assert(new WindowOpExec(11, 12).windows.isEmpty)
+  }
+}
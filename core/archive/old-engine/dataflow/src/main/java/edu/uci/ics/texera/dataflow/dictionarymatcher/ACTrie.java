@@ -4,6 +4,9 @@ package edu.uci.ics.texera.dataflow.dictionarymatcher;
  * Created by Chang on 9/23/17.
  */
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -11,26 +14,42 @@ import java.util.*;
  * for all dictionary entries with a prefix trie and failure transactions.
  * Wiki page link: https://github.com/Texera/texera/wiki/Aho-Corasick-String-Matching-Algorithm
  * Created by Chang on 8/29/17.
+ *
+ * The automaton is kept in primitive arrays, with nodes numbered in BFS order:
+ * the transitions of node i are childChars[childStart[i], childStart[i + 1]), sorted so they
+ * are binary searched, and lead to the nodes at the same positions of childNodes.
+ * Each node has a failure link and an output link to the longest proper suffix node which
+ * matches a keyword, so matching a text allocates nothing but the emits themselves.
  */
 public class ACTrie {
-    private final TrieNode rootNode;
+
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+    // written at the start of a serialized automaton
+    private static final int FORMAT_VERSION = 1;
+
     private boolean caseInsensitive = false;
+    // keywords added since the automaton was last built
+    private final List<String> pendingKeywords = new ArrayList<>();
+    private final List<String> allKeywords = new ArrayList<>();
 
-    public ACTrie() {
-        this.rootNode = TrieNode.newRootNode();
+    private int[] childStart = {0, 0};
+    private char[] childChars = new char[0];
+    private int[] childNodes = new int[0];
+    private int[] failure = {ROOT};
+    private int[] outputLink = {NO_NODE};
+    // the keywords matched by node i are keywords[keywordStart[i], keywordStart[i + 1])
+    private int[] keywordStart = {0, 0};
+    private String[] keywords = new String[0];
+
+    /**
+     * Receives the matches of a text, in the order of their end positions.
+     */
+    public interface EmitHandler {
+        void emit(int start, int end, String keyword);
     }
 
-    private void addKeyword(String keyword) {
-        if (keyword == null || keyword.length() == 0) return;
-        String originalWord = keyword;
-        if (caseInsensitive) {
-            keyword = keyword.toLowerCase();
-        }
-        TrieNode currentNode = this.rootNode;
-        for (Character character : keyword.toCharArray()) {
-            currentNode = currentNode.addTrieNode(character);
-        }
-        currentNode.addEmit(originalWord);
+    public ACTrie() {
     }
 
     public void addKeywords(List<String> keywordList) {
@@ -38,86 +57,254 @@ public class ACTrie {
             return;
         }
         for (String keyword : keywordList) {
-            addKeyword(keyword);
+            if (keyword != null && keyword.length() != 0) {
+                pendingKeywords.add(keyword);
+            }
         }
     }
 
     /**
-     * Run a BFS on the constructed prefix trie to setup links between
-     * failed matching node to its longest common suffix on other branches.
+     * Builds the automaton of all the keywords added so far: the prefix trie, then the links
+     * between failed matching node to its longest common suffix on other branches.
      */
     public void constructFailureTransactions() {
-        Deque<TrieNode> queue = new ArrayDeque<>();
-        for (TrieNode node : this.rootNode.getChildrenNodes()) {
-            node.setFailure(this.rootNode);
-            queue.add(node);
-        }
-        while (!queue.isEmpty()) {
-            TrieNode currentNode = queue.poll();
-            for (Character character : currentNode.getTransactions()) {
-                TrieNode nextNode = currentNode.getNextTrieNode(character);
-                if (nextNode != null) {
-                    queue.add(nextNode);
-                    TrieNode failureNode = currentNode.getFailure();
-                    while (failureNode.getNextTrieNode(character) == null) {
-                        failureNode = failureNode.getFailure();
+        allKeywords.addAll(pendingKeywords);
+        pendingKeywords.clear();
+
+        // sorted keywords with a common prefix are contiguous, and so are the children of a node
+        String[] sorted = new String[allKeywords.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = normalize(allKeywords.get(i));
+        }
+        Integer[] order = new Integer[sorted.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> sorted[a].compareTo(sorted[b]));
+
+        IntList childStartList = new IntList();
+        CharList childCharList = new CharList();
+        IntList childNodeList = new IntList();
+        IntList keywordStartList = new IntList();
+        List<String> keywordList = new ArrayList<>();
+
+        // the nodes to expand in BFS order, as the range of sorted keywords under them
+        IntList rangeStarts = new IntList();
+        IntList rangeEnds = new IntList();
+        IntList depths = new IntList();
+        rangeStarts.add(0);
+        rangeEnds.add(order.length);
+        depths.add(0);
+        for (int node = 0; node < rangeStarts.size(); node++) {
+            int start = rangeStarts.get(node);
+            int end = rangeEnds.get(node);
+            int depth = depths.get(node);
+            childStartList.add(childCharList.size());
+            keywordStartList.add(keywordList.size());
+            int i = start;
+            // the keywords ending at this node come first, their originals are all emitted
+            while (i < end && sorted[order[i]].length() == depth) {
+                String original = allKeywords.get(order[i]);
+                if (!keywordList.subList(keywordStartList.get(node), keywordList.size()).contains(original)) {
+                    keywordList.add(original);
+                }
+                i++;
+            }
+            while (i < end) {
+                char c = sorted[order[i]].charAt(depth);
+                int childEnd = i + 1;
+                while (childEnd < end && sorted[order[childEnd]].charAt(depth) == c) {
+                    childEnd++;
+                }
+                childCharList.add(c);
+                childNodeList.add(rangeStarts.size());
+                rangeStarts.add(i);
+                rangeEnds.add(childEnd);
+                depths.add(depth + 1);
+                i = childEnd;
+            }
+        }
+        int nodeCount = rangeStarts.size();
+        childStartList.add(childCharList.size());
+        keywordStartList.add(keywordList.size());
+
+        childStart = childStartList.toArray();
+        childChars = childCharList.toArray();
+        childNodes = childNodeList.toArray();
+        keywordStart = keywordStartList.toArray();
+        keywords = keywordList.toArray(new String[0]);
+        failure = new int[nodeCount];
+        outputLink = new int[nodeCount];
+        outputLink[ROOT] = NO_NODE;
+
+        // a parent precedes its children in BFS order, so its links are already set
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = childStart[node]; edge < childStart[node + 1]; edge++) {
+                int child = childNodes[edge];
+                char c = childChars[edge];
+                int failureNode = ROOT;
+                if (node != ROOT) {
+                    int candidate = failure[node];
+                    while (candidate != ROOT && findChild(candidate, c) == NO_NODE) {
+                        candidate = failure[candidate];
                     }
-                    TrieNode newFailureNode = failureNode.getNextTrieNode(character);
-                    nextNode.setFailure(newFailureNode);
-                    nextNode.addEmits(newFailureNode.getEmits());
+                    int next = findChild(candidate, c);
+                    failureNode = next == NO_NODE ? ROOT : next;
                 }
+                failure[child] = failureNode;
+                outputLink[child] = hasKeywords(failureNode) ? failureNode : outputLink[failureNode];
             }
         }
     }
 
     /**
      * Traverse the input text and firstly try to follow the success transactions to its child node.
-     * If it doesn't exist, turn to follow the failure transactions. When reaching a node with non-empty
-     * output keywords, add them along with the start and end positions into resultList.
+     * If it doesn't exist, turn to follow the failure transactions. When reaching a node with
+     * output keywords, pass them along with the start and end positions to the handler.
+     *
+     * @param text
+     * @param handler
+     */
+    public void parseText(String text, EmitHandler handler) {
+        if (text == null || text.isEmpty()) return;
+
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (caseInsensitive) {
+                c = Character.toLowerCase(c);
+            }
+            int next = findChild(node, c);
+            while (next == NO_NODE && node != ROOT) {
+                node = failure[node];
+                next = findChild(node, c);
+            }
+            node = next == NO_NODE ? ROOT : next;
+
+            int output = hasKeywords(node) ? node : outputLink[node];
+            while (output != NO_NODE) {
+                for (int k = keywordStart[output]; k < keywordStart[output + 1]; k++) {
+                    String keyword = keywords[k];
+                    handler.emit(i - keyword.length() + 1, i + 1, keyword);
+                }
+                output = outputLink[output];
+            }
+        }
+    }
+
+    /**
+     * Collects the matches of a text into a list.
      *
      * @param text
      * @return
      */
     public List<Emit> parseText(String text) {
         List<Emit> resultList = new ArrayList<>();
-        if (text == null || text.isEmpty()) return resultList;
-
-        if (caseInsensitive) {
-            text = text.toLowerCase();
-        }
-        TrieNode currentNode = this.rootNode;
-        char[] textArray = text.toCharArray();
-        for (int i = 0; i < textArray.length; i++) {
-            Character character = textArray[i];
-            currentNode = getNextTransition(character, currentNode);
-            if (!currentNode.getEmits().isEmpty()) {
-                resultList.addAll(storeEmits(currentNode, i));
-            }
-        }
+        parseText(text, (start, end, keyword) -> resultList.add(new Emit(start, end, keyword)));
         return resultList;
     }
 
-    private TrieNode getNextTransition(Character c, TrieNode node) {
-        TrieNode nextNode = node.getNextTrieNode(c);
-        while (nextNode == null) {
-            node = node.getFailure();
-            nextNode = node.getNextTrieNode(c);
+    /**
+     * Writes the automaton, so it can be loaded with readFrom without rebuilding it.
+     * Keywords added after the automaton was built are not written.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeBoolean(caseInsensitive);
+        out.writeInt(failure.length);
+        for (int i = 0; i < failure.length; i++) {
+            out.writeInt(childStart[i + 1] - childStart[i]);
+            out.writeInt(failure[i]);
+            out.writeInt(outputLink[i]);
+            out.writeInt(keywordStart[i + 1] - keywordStart[i]);
+        }
+        for (int edge = 0; edge < childChars.length; edge++) {
+            out.writeChar(childChars[edge]);
+            out.writeInt(childNodes[edge]);
+        }
+        for (String keyword : keywords) {
+            out.writeUTF(keyword);
         }
-        return nextNode;
     }
 
-    private List<Emit> storeEmits(TrieNode node, int position) {
-        List<Emit> resultList = new ArrayList<>();
-        for (String matchedKeyword : node.getEmits()) {
-            resultList.add(new Emit(position - matchedKeyword.length() + 1, position + 1, matchedKeyword));
+    public static ACTrie readFrom(DataInput in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported automaton format " + version);
         }
-        return resultList;
+        ACTrie trie = new ACTrie();
+        trie.caseInsensitive = in.readBoolean();
+        int nodeCount = in.readInt();
+        trie.childStart = new int[nodeCount + 1];
+        trie.failure = new int[nodeCount];
+        trie.outputLink = new int[nodeCount];
+        trie.keywordStart = new int[nodeCount + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            trie.childStart[i + 1] = trie.childStart[i] + in.readInt();
+            trie.failure[i] = in.readInt();
+            trie.outputLink[i] = in.readInt();
+            trie.keywordStart[i + 1] = trie.keywordStart[i] + in.readInt();
+        }
+        trie.childChars = new char[trie.childStart[nodeCount]];
+        trie.childNodes = new int[trie.childStart[nodeCount]];
+        for (int edge = 0; edge < trie.childChars.length; edge++) {
+            trie.childChars[edge] = in.readChar();
+            trie.childNodes[edge] = in.readInt();
+        }
+        trie.keywords = new String[trie.keywordStart[nodeCount]];
+        for (int k = 0; k < trie.keywords.length; k++) {
+            trie.keywords[k] = in.readUTF();
+        }
+        // the keywords of a node are all equal to its path once normalized
+        for (int node = 0; node < nodeCount; node++) {
+            if (trie.hasKeywords(node)) {
+                trie.allKeywords.addAll(Arrays.asList(trie.keywords).subList(trie.keywordStart[node], trie.keywordStart[node + 1]));
+            }
+        }
+        return trie;
     }
 
     public void setCaseInsensitive(boolean caseInsensitive) {
         this.caseInsensitive = caseInsensitive;
     }
 
+    public int getNodeCount() {
+        return failure.length;
+    }
+
+    private String normalize(String keyword) {
+        if (!caseInsensitive) {
+            return keyword;
+        }
+        // lower cases char by char, so the positions of a text and its lower case are the same
+        char[] chars = keyword.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private boolean hasKeywords(int node) {
+        return keywordStart[node + 1] > keywordStart[node];
+    }
+
+    private int findChild(int node, char c) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = childChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return childNodes[mid];
+            }
+        }
+        return NO_NODE;
+    }
+
     public static class Emit {
         private int start;
         private int end;
@@ -142,5 +329,48 @@ public class ACTrie {
             return this.keyword;
         }
     }
-}
 
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static class CharList {
+        private char[] values = new char[16];
+        private int size = 0;
+
+        void add(char value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        char[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
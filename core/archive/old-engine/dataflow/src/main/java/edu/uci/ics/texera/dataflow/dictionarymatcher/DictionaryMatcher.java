@@ -12,7 +12,9 @@ import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
+import edu.uci.ics.texera.dataflow.resource.dictionary.DictionaryManager;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.dataflow.utils.TokenCache;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -26,12 +28,18 @@ import java.util.stream.Collectors;
 public class DictionaryMatcher extends AbstractSingleInputOperator {
 
     private final DictionaryPredicate predicate;
+    private final TokenCache tokenCache;
     
     private boolean addPayload = false;
     private boolean addResultAttribute = false;
 
     public DictionaryMatcher(DictionaryPredicate predicate) {
+        this(predicate, new TokenCache(0));
+    }
+
+    public DictionaryMatcher(DictionaryPredicate predicate, TokenCache tokenCache) {
         this.predicate = predicate;
+        this.tokenCache = tokenCache;
     }
 
     private Schema inputSchema;
@@ -70,10 +78,8 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
     }
 
     private void  preprocessDictionaryTrie(){
-        dictionaryTrie = new ACTrie();
-        dictionaryTrie.setCaseInsensitive(true);
-        dictionaryTrie.addKeywords(predicate.getDictionary().getDictionaryEntries());
-        dictionaryTrie.constructFailureTransactions();
+        // loaded if the automaton of the same entries was cached, built otherwise
+        dictionaryTrie = DictionaryManager.getDictionaryTrie(predicate.getDictionary().getDictionaryEntries());
     }
 
     @Override
@@ -101,7 +107,7 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
         if (addPayload) {
             Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
             tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getAnalyzerString())));
+                    tokenCache.generatePayloadFromTuple(inputTuple, predicate.getAnalyzerString())));
             inputTuple = tupleBuilderPayload.build();
         }
 
@@ -132,13 +138,9 @@ public class DictionaryMatcher extends AbstractSingleInputOperator {
                 if (attributeType != AttributeType.STRING && attributeType != AttributeType.TEXT) {
                     throw new DataflowException("KeywordMatcher: Fields other than STRING and TEXT are not supported yet");
                 }
-                List<ACTrie.Emit> matchingEmits = dictionaryTrie.parseText(fieldValue);
-
-                if (!matchingEmits.isEmpty()) {
-                    for(ACTrie.Emit emit : matchingEmits){
-                        matchingResults.add(new Span(attributeName, emit.getStart(), emit.getEnd(), emit.getKeyword(), fieldValue.substring(emit.getStart(), emit.getEnd())));
-                    }
-                }
+                List<Span> spans = matchingResults;
+                dictionaryTrie.parseText(fieldValue, (start, end, keyword) ->
+                        spans.add(new Span(attributeName, start, end, keyword, fieldValue.substring(start, end))));
             }
 
         } else if (predicate.getKeywordMatchingType() == KeywordMatchingType.REGEX) {
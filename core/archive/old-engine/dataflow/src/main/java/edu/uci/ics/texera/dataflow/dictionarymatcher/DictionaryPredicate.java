@@ -14,6 +14,7 @@ import edu.uci.ics.texera.dataflow.annotation.AdvancedOption;
 import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.plangen.QueryContext;
 import edu.uci.ics.texera.dataflow.keywordmatcher.KeywordMatchingType;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
@@ -98,6 +99,14 @@ public class DictionaryPredicate extends PredicateBase {
     public IOperator newOperator() {
         return new DictionaryMatcher(this);
     }
+
+    @Override
+    public IOperator newOperator(QueryContext ctx) {
+        if (ctx == null) {
+            return newOperator();
+        }
+        return new DictionaryMatcher(this, ctx.getTokenCache());
+    }
     
     public static Map<String, Object> getOperatorMetadata() {
         return ImmutableMap.<String, Object>builder()
@@ -15,7 +15,7 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
-import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.dataflow.utils.TokenCache;
 
 /**
  *  @author Zuozhi Wang (zuozhiw)
@@ -27,6 +27,7 @@ import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     
     private final FuzzyTokenPredicate predicate;
+    private final TokenCache tokenCache;
     
     private Schema inputSchema;
     
@@ -34,7 +35,12 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
     private boolean addResultAttribute = false;
     
     public FuzzyTokenMatcher(FuzzyTokenPredicate predicate) {
+        this(predicate, new TokenCache(0));
+    }
+
+    public FuzzyTokenMatcher(FuzzyTokenPredicate predicate, TokenCache tokenCache) {
         this.predicate = predicate;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -72,7 +78,7 @@ public class FuzzyTokenMatcher extends AbstractSingleInputOperator {
         if (addPayload) {
             Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
             tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerStr())));
+                    tokenCache.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerStr())));
             inputTuple = tupleBuilderPayload.build();
         }
         
@@ -16,6 +16,7 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.plangen.QueryContext;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
@@ -133,6 +134,14 @@ public class FuzzyTokenPredicate extends PredicateBase {
         return new FuzzyTokenMatcher(this);
     }
 
+    @Override
+    public IOperator newOperator(QueryContext ctx) {
+        if (ctx == null) {
+            return newOperator();
+        }
+        return new FuzzyTokenMatcher(this, ctx.getTokenCache());
+    }
+
     public static Map<String, Object> getOperatorMetadata() {
         return ImmutableMap.<String, Object>builder()
             .put(PropertyNameConstants.USER_FRIENDLY_NAME, "Fuzzy Token Match")
@@ -14,10 +14,12 @@ import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.dataflow.utils.TokenCache;
 
 public class KeywordMatcher extends AbstractSingleInputOperator {
 
     private final KeywordPredicate predicate;
+    private final TokenCache tokenCache;
 
     private Schema inputSchema;
     private Set<String> queryTokenSet;
@@ -28,7 +30,12 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
     private boolean addResultAttribute = false;
 
     public KeywordMatcher(KeywordPredicate predicate) {
+        this(predicate, new TokenCache(0));
+    }
+
+    public KeywordMatcher(KeywordPredicate predicate, TokenCache tokenCache) {
         this.predicate = predicate;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -87,7 +94,7 @@ public class KeywordMatcher extends AbstractSingleInputOperator {
         if (addPayload) {
             Tuple.Builder tupleBuilderPayload = new Tuple.Builder(inputTuple);
             tupleBuilderPayload.add(SchemaConstants.PAYLOAD_ATTRIBUTE, new ListField<Span>(
-                    DataflowUtils.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerString())));
+                    tokenCache.generatePayloadFromTuple(inputTuple, predicate.getLuceneAnalyzerString())));
             inputTuple = tupleBuilderPayload.build();
         }
         
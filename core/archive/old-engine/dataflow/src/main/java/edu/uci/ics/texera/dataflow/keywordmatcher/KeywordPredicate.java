@@ -14,6 +14,7 @@ import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.plangen.QueryContext;
 
 
 /**
@@ -157,6 +158,14 @@ public class KeywordPredicate extends PredicateBase {
     public IOperator newOperator() {
         return new KeywordMatcher(this);
     }
+
+    @Override
+    public IOperator newOperator(QueryContext ctx) {
+        if (ctx == null) {
+            return newOperator();
+        }
+        return new KeywordMatcher(this, ctx.getTokenCache());
+    }
     
     public static Map<String, Object> getOperatorMetadata() {
         return ImmutableMap.<String, Object>builder()
@@ -19,6 +19,8 @@ import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
 import edu.uci.ics.texera.dataflow.connector.OneToNBroadcastConnector;
 import edu.uci.ics.texera.dataflow.join.Join;
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.api.schema.Schema;
 
 
@@ -260,6 +262,7 @@ public class LogicalPlan {
         buildOperators();
         validateOperatorGraph();
         connectOperators(operatorObjectMap);
+        pushDownLimitOffset(operatorObjectMap);
         HashMap<String, ISink> sinkMap = findSinkOperators(operatorObjectMap);
 
         return new Plan(sinkMap);
@@ -516,6 +519,25 @@ public class LogicalPlan {
         }
     }
 
+    /*
+     * Pushes the offset and limit of a sink down into the scan which feeds it directly,
+     *   so that the DataReader skips the offset without loading the documents, and stops after the limit.
+     */
+    private void pushDownLimitOffset(HashMap<String, IOperator> operatorObjectMap) {
+        for (IOperator operator : operatorObjectMap.values()) {
+            if (! (operator instanceof ILimitOffsetSink)) {
+                continue;
+            }
+            ILimitOffsetSink sink = (ILimitOffsetSink) operator;
+            if (sink.getInputOperator() instanceof ScanBasedSourceOperator) {
+                ScanBasedSourceOperator scanSource = (ScanBasedSourceOperator) sink.getInputOperator();
+                scanSource.setOffset(sink.getOffset());
+                scanSource.setLimit(sink.getLimit());
+                sink.setInputOffsetApplied(true);
+            }
+        }
+    }
+
     /*
      * Finds all sink operators in the operator graph.
      * his function assumes that the graph is valid and there is at least one sink in the graph.
@@ -1,9 +1,14 @@
 package edu.uci.ics.texera.dataflow.plangen;
 
+import edu.uci.ics.texera.dataflow.utils.TokenCache;
+
 public class QueryContext {
 
     private String projectOwnerID;
 
+    // shared by the operators of the plan, so each tuple is tokenized once per analyzer
+    private final TokenCache tokenCache = new TokenCache();
+
     public void setProjectOwnerID(String projectOwnerID) {
         this.projectOwnerID = projectOwnerID;
     }
@@ -12,4 +17,8 @@ public class QueryContext {
         return projectOwnerID;
     }
 
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
 }
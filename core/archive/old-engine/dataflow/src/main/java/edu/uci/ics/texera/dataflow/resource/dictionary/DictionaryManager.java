@@ -1,11 +1,22 @@
 package edu.uci.ics.texera.dataflow.resource.dictionary;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +28,8 @@ import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.ACTrie;
+import edu.uci.ics.texera.dataflow.dictionarymatcher.Dictionary;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.DataWriter;
 import edu.uci.ics.texera.storage.RelationManager;
@@ -76,6 +89,14 @@ public class DictionaryManager {
                 throw new StorageException(e);
             }
         }
+
+        if(! Files.exists(DictionaryManagerConstants.DICTIONARY_TRIE_DIR_PATH)) {
+            try {
+                Files.createDirectories(DictionaryManagerConstants.DICTIONARY_TRIE_DIR_PATH);
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
     }
 
     /**
@@ -105,6 +126,7 @@ public class DictionaryManager {
         writeContentToFile(dictID, dictionaryContent);
         writeNameToFile(dictID, dictionaryName);
         writeDescriptionToFile(dictID, dictionaryDescription);
+        getDictionaryTrie(getDictionaryEntries(dictionaryContent));
     }
 
     public void deleteDictionary(String dictID) {
@@ -116,6 +138,15 @@ public class DictionaryManager {
 
         dataWriter.close();
 
+        Path contentFilePath = DictionaryManagerConstants.DICTIONARY_CONTENT_DIR_PATH.resolve(dictID);
+        try {
+            if (Files.exists(contentFilePath)) {
+                String dictionaryContent = Files.lines(contentFilePath).collect(Collectors.joining(","));
+                Files.deleteIfExists(getTrieFilePath(getDictionaryEntries(dictionaryContent)));
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
     }
 
 
@@ -230,6 +261,92 @@ public class DictionaryManager {
         }
     }
     
+    /**
+     * Gets the entries of a dictionary, as a DictionaryMatcher gets them from its content:
+     *   the lines of the content joined by commas (see getDictionaryContent), split on commas.
+     */
+    public List<String> getDictionaryEntries(String dictID) throws StorageException {
+        return getDictionaryEntries(getDictionaryContent(dictID));
+    }
+
+    private static List<String> getDictionaryEntries(String dictionaryContent) {
+        return new Dictionary(Arrays.asList(dictionaryContent.split(","))).getDictionaryEntries();
+    }
+
+    /**
+     * Gets the Aho-Corasick automaton of a dictionary for case-insensitive substring matching.
+     */
+    public ACTrie getDictionaryTrie(String dictID) throws StorageException {
+        return getDictionaryTrie(getDictionaryEntries(dictID));
+    }
+
+    /**
+     * Gets the case-insensitive Aho-Corasick automaton of a list of dictionary entries.
+     * Automata are cached in files keyed by a hash of their entries, so the automaton of the same entries 
+     *   is loaded instead of rebuilt, whether they come from a stored dictionary or from a predicate.
+     * The automaton is built on a cache miss, and still returned if it cannot be written.
+     */
+    public static ACTrie getDictionaryTrie(List<String> entries) {
+        Path trieFilePath = getTrieFilePath(entries);
+        if (Files.exists(trieFilePath)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(trieFilePath)))) {
+                return ACTrie.readFrom(in);
+            } catch (IOException e) {
+                // a file from another format version or a partial write, rebuilt below
+            }
+        }
+        ACTrie trie = new ACTrie();
+        trie.setCaseInsensitive(true);
+        trie.addKeywords(entries);
+        trie.constructFailureTransactions();
+        try {
+            writeTrieToFile(trieFilePath, trie);
+        } catch (IOException e) {
+            // the cache is only an optimization
+        }
+        return trie;
+    }
+
+    /*
+     * The file of the automaton of a list of entries is named by the SHA-256 of the entries in order.
+     */
+    private static Path getTrieFilePath(List<String> entries) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            DataOutputStream out = new DataOutputStream(new DigestOutputStream(new ByteArrayOutputStream(), digest));
+            out.writeInt(entries.size());
+            for (String entry : entries) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            StringBuilder fileName = new StringBuilder();
+            for (byte b : digest.digest()) {
+                fileName.append(String.format("%02x", b));
+            }
+            return DictionaryManagerConstants.DICTIONARY_TRIE_DIR_PATH.resolve(fileName.toString());
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    /*
+     * Writes to a temporary file which is then moved in place, so a concurrent reader never sees a partial file.
+     */
+    private static void writeTrieToFile(Path trieFilePath, ACTrie trie) throws IOException {
+        Files.createDirectories(trieFilePath.getParent());
+        Path tempFilePath = Files.createTempFile(trieFilePath.getParent(), trieFilePath.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFilePath)))) {
+                trie.writeTo(out);
+            }
+            Files.move(tempFilePath, trieFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFilePath);
+        }
+    }
+
     public static void main(String args) {
     	System.out.println("HEllo WOrld");
     }
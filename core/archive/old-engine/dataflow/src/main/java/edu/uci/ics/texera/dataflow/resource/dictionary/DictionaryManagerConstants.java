@@ -22,6 +22,9 @@ public class DictionaryManagerConstants {
     public static final Path DICTIONARY_DESCRIPTION_DIR_PATH = Utils.getTexeraHomePath().resolve("user-resources").resolve("dictionaries").resolve("descriptions");
     public static final String DICTIONARY_DESCRIPTION_DIR = DICTIONARY_CONTENT_DIR_PATH.toString();
 
+    // the Aho-Corasick automata of dictionaries, by a hash of their entries
+    public static final Path DICTIONARY_TRIE_DIR_PATH = Utils.getTexeraHomePath().resolve("user-resources").resolve("dictionaries").resolve("tries");
+
     public static final String NAME = "name";
     public static final Attribute NAME_ATTR = new Attribute(NAME, AttributeType.STRING);
     
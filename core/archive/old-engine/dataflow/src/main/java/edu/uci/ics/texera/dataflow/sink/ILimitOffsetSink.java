@@ -0,0 +1,25 @@
+package edu.uci.ics.texera.dataflow.sink;
+
+import edu.uci.ics.texera.api.dataflow.IOperator;
+import edu.uci.ics.texera.api.dataflow.ISink;
+
+/**
+ * A sink which skips the first "offset" tuples of its input, then outputs at most "limit" tuples.
+ * 
+ * The plan pushes the offset and limit down into a scan which feeds the sink directly,
+ *   which skips the offset without loading the documents, and tells the sink it doesn't need to skip them.
+ */
+public interface ILimitOffsetSink extends ISink {
+
+    IOperator getInputOperator();
+
+    int getLimit();
+
+    int getOffset();
+
+    /**
+     * @param inputOffsetApplied, whether the input of the sink already skips the offset
+     */
+    void setInputOffsetApplied(boolean inputOffsetApplied);
+
+}
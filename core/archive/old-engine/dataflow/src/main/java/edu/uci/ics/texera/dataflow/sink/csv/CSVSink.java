@@ -16,7 +16,6 @@ import au.com.bytecode.opencsv.CSVWriter;
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
-import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.schema.Attribute;
@@ -24,8 +23,9 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.Utils;
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
 
-public class CSVSink implements ISink {
+public class CSVSink implements ILimitOffsetSink {
 
     private CSVSinkPredicate predicate;
     private IOperator inputOperator;
@@ -36,6 +36,8 @@ public class CSVSink implements ISink {
     private CSVWriter csvWriter;
 
     private int cursor = CLOSED;
+    // the input already skips the offset, see ILimitOffsetSink
+    private boolean inputOffsetApplied = false;
     
     private Path csvIndexDirectory = Utils.getDefaultIndexDirectory().resolve("csv");
     private String fileName;
@@ -53,6 +55,21 @@ public class CSVSink implements ISink {
         return this.inputOperator;
     }
 
+    @Override
+    public int getLimit() {
+        return predicate.getLimit();
+    }
+
+    @Override
+    public int getOffset() {
+        return predicate.getOffset();
+    }
+
+    @Override
+    public void setInputOffsetApplied(boolean inputOffsetApplied) {
+        this.inputOffsetApplied = inputOffsetApplied;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return outputSchema;
@@ -87,7 +104,7 @@ public class CSVSink implements ISink {
     	// write csv headers
     	List<String> attributeNames = outputSchema.getAttributeNames();
     	csvWriter.writeNext(attributeNames.stream().toArray(String[]::new));
-        cursor = OPENED;
+        cursor = inputOffsetApplied ? predicate.getOffset() : OPENED;
     }
 
     @Override
@@ -19,7 +19,6 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
-import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.DateField;
@@ -31,6 +30,7 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.Utils;
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
 
 /**
  * ExcelSink is a sink that can write a list of tuples into an excel file
@@ -38,7 +38,7 @@ import edu.uci.ics.texera.api.utils.Utils;
  * @author Jinggang Diao
  *
  */
-public class ExcelSink implements ISink {
+public class ExcelSink implements ILimitOffsetSink {
     
     private ExcelSinkPredicate predicate;
     private IOperator inputOperator;
@@ -50,6 +50,8 @@ public class ExcelSink implements ISink {
     private FileOutputStream fileOut;
     private Sheet sheet;
     private int cursor = CLOSED;
+    // the input already skips the offset, see ILimitOffsetSink
+    private boolean inputOffsetApplied = false;
     
     private Path excelIndexDirectory = Utils.getDefaultIndexDirectory().resolve("excel");
     private String fileName;
@@ -67,6 +69,21 @@ public class ExcelSink implements ISink {
         return this.inputOperator;
     }
 
+    @Override
+    public int getLimit() {
+        return predicate.getLimit();
+    }
+
+    @Override
+    public int getOffset() {
+        return predicate.getOffset();
+    }
+
+    @Override
+    public void setInputOffsetApplied(boolean inputOffsetApplied) {
+        this.inputOffsetApplied = inputOffsetApplied;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return outputSchema;
@@ -103,7 +120,7 @@ public class ExcelSink implements ISink {
     		String attributeName = attributeNames.get(i);
         	row.createCell(i).setCellValue(attributeName);
     	}
-        cursor = OPENED;
+        cursor = inputOffsetApplied ? predicate.getOffset() : OPENED;
     }
 
     @Override
@@ -18,7 +18,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
-import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.DateField;
@@ -32,8 +31,9 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.Utils;
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
 
-public class JSONSink implements ISink {
+public class JSONSink implements ILimitOffsetSink {
 
     private JSONSinkPredicate predicate;
     private IOperator inputOperator;
@@ -44,6 +44,8 @@ public class JSONSink implements ISink {
     private ObjectMapper mapper;
     private JsonGenerator jsonGenerator;
     private int cursor = CLOSED;
+    // the input already skips the offset, see ILimitOffsetSink
+    private boolean inputOffsetApplied = false;
     
     private Path jsonIndexDirectory = Utils.getDefaultIndexDirectory().resolve("json");
     private String fileName;
@@ -61,6 +63,21 @@ public class JSONSink implements ISink {
         return this.inputOperator;
     }
 
+    @Override
+    public int getLimit() {
+        return predicate.getLimit();
+    }
+
+    @Override
+    public int getOffset() {
+        return predicate.getOffset();
+    }
+
+    @Override
+    public void setInputOffsetApplied(boolean inputOffsetApplied) {
+        this.inputOffsetApplied = inputOffsetApplied;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return outputSchema;
@@ -96,7 +113,7 @@ public class JSONSink implements ISink {
 			throw new DataflowException(e);
 		}
     	
-        cursor = OPENED;
+        cursor = inputOffsetApplied ? predicate.getOffset() : OPENED;
     }
 
     @Override
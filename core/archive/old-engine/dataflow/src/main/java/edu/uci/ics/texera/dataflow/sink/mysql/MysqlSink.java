@@ -13,7 +13,6 @@ import java.util.stream.Stream;
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.dataflow.IOperator;
-import edu.uci.ics.texera.api.dataflow.ISink;
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.DoubleField;
@@ -24,11 +23,14 @@ import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
 
-public class MysqlSink implements ISink {
+public class MysqlSink implements ILimitOffsetSink {
     private final MysqlSinkPredicate predicate;
     private IOperator inputOperator;
     private int cursor = CLOSED;
+    // the input already skips the offset, see ILimitOffsetSink
+    private boolean inputOffsetApplied = false;
     private Schema outputSchema;
     private Connection connection;
     private Statement statement;
@@ -42,6 +44,25 @@ public class MysqlSink implements ISink {
         this.inputOperator = inputOperator;
     }
 
+    public IOperator getInputOperator() {
+        return this.inputOperator;
+    }
+
+    @Override
+    public int getLimit() {
+        return predicate.getLimit();
+    }
+
+    @Override
+    public int getOffset() {
+        return predicate.getOffset();
+    }
+
+    @Override
+    public void setInputOffsetApplied(boolean inputOffsetApplied) {
+        this.inputOffsetApplied = inputOffsetApplied;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return outputSchema;
@@ -54,7 +75,7 @@ public class MysqlSink implements ISink {
      */
     @Override
     public void open() throws TexeraException {
-        if (cursor == OPENED) {
+        if (cursor != CLOSED) {
             return;
         }
         inputOperator.open();
@@ -72,7 +93,7 @@ public class MysqlSink implements ISink {
             statement = connection.createStatement();
             mysqlDropTable();
             mysqlCreateTable();
-            cursor = OPENED;
+            cursor = inputOffsetApplied ? predicate.getOffset() : OPENED;
         } catch (SQLException | InstantiationException | IllegalAccessException | ClassNotFoundException e) {
             throw new DataflowException("MysqlSink failed to connect to mysql database." + e.getMessage());
         }
@@ -1,5 +1,6 @@
 package edu.uci.ics.texera.dataflow.sink.tuple;
 
+import edu.uci.ics.texera.dataflow.sink.ILimitOffsetSink;
 import edu.uci.ics.texera.dataflow.sink.ITupleSink;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,9 +18,11 @@ import edu.uci.ics.texera.api.tuple.Tuple;
  * @author Zuozhi Wang
  *
  */
-public class TupleSink implements ITupleSink {
+public class TupleSink implements ITupleSink, ILimitOffsetSink {
     private IOperator inputOperator;
     private int cursor = CLOSED;
+    // the input already skips the offset, see ILimitOffsetSink
+    private boolean inputOffsetApplied = false;
     private Schema outputSchema;
     private TupleSinkPredicate predicate;
 
@@ -51,6 +54,21 @@ public class TupleSink implements ITupleSink {
         return this.inputOperator;
     }
 
+    @Override
+    public int getLimit() {
+        return predicate.getLimit();
+    }
+
+    @Override
+    public int getOffset() {
+        return predicate.getOffset();
+    }
+
+    @Override
+    public void setInputOffsetApplied(boolean inputOffsetApplied) {
+        this.inputOffsetApplied = inputOffsetApplied;
+    }
+
     @Override
     public Schema getOutputSchema() {
         return outputSchema;
@@ -68,7 +86,7 @@ public class TupleSink implements ITupleSink {
         inputSchema = inputOperator.getOutputSchema();
         outputSchema = new Schema.Builder(inputSchema)
                 .removeIfExists(SchemaConstants.PAYLOAD).build();
-        cursor = OPENED;
+        cursor = inputOffsetApplied ? predicate.getOffset() : OPENED;
     }
 
     @Override
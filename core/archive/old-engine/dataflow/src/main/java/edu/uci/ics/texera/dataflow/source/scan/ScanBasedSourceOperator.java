@@ -77,6 +77,26 @@ public class ScanBasedSourceOperator implements ISourceOperator {
         return dataReader.getOutputSchema();
     }
 
+    /**
+     * The limit and offset are applied by the DataReader, 
+     *   which stops reading the table once the limit is reached.
+     */
+    public void setLimit(int limit) {
+        dataReader.setLimit(limit);
+    }
+
+    public int getLimit() {
+        return dataReader.getLimit();
+    }
+
+    public void setOffset(int offset) {
+        dataReader.setOffset(offset);
+    }
+
+    public int getOffset() {
+        return dataReader.getOffset();
+    }
+
     public Schema transformToOutputSchema(Schema... inputSchema) throws DataflowException {
         if (inputSchema == null || inputSchema.length == 0) {
             if (getOutputSchema() == null) {
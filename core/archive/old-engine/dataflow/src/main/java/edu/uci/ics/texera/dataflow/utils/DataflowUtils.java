@@ -8,8 +8,6 @@ import java.util.stream.Collectors;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
-import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
-import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.util.CharArraySet;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 
@@ -25,7 +23,7 @@ public class DataflowUtils {
     public static final String LUCENE_SCAN_QUERY = "*:*";
 
     public static ArrayList<String> tokenizeQuery(String luceneAnalyzerStr, String query) {
-        return tokenizeQuery(LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzerStr), query);
+        return tokenizeQuery(LuceneAnalyzerConstants.getPooledLuceneAnalyzer(luceneAnalyzerStr), query);
     }
 
     /**
@@ -92,7 +90,7 @@ public class DataflowUtils {
     }
 
     public static List<Span> generatePayloadFromTuple(Tuple tuple, String luceneAnalyzer) throws DataflowException {
-        return generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.getLuceneAnalyzer(luceneAnalyzer));
+        return generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.getPooledLuceneAnalyzer(luceneAnalyzer));
     }
 
     public static List<Span> generatePayloadFromTuple(Tuple tuple, Analyzer luceneAnalyzer) {
@@ -109,32 +107,7 @@ public class DataflowUtils {
 
     public static List<Span> generatePayload(String attributeName, String fieldValue, Analyzer luceneAnalyzer) {
         List<Span> payload = new ArrayList<>();
-
-        try {
-            TokenStream tokenStream = luceneAnalyzer.tokenStream(null, new StringReader(fieldValue));
-            OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
-            CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
-            PositionIncrementAttribute positionIncrementAttribute =
-                    tokenStream.addAttribute(PositionIncrementAttribute.class);
-
-            int tokenPositionCounter = -1;
-            tokenStream.reset();
-            while (tokenStream.incrementToken()) {
-                tokenPositionCounter += positionIncrementAttribute.getPositionIncrement();
-
-                int tokenPosition = tokenPositionCounter;
-                int charStart = offsetAttribute.startOffset();
-                int charEnd = offsetAttribute.endOffset();
-                String analyzedTermStr = charTermAttribute.toString();
-                String originalTermStr = fieldValue.substring(charStart, charEnd);
-
-                payload.add(new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr, tokenPosition));
-            }
-            tokenStream.close();
-        } catch (IOException e) {
-            throw new DataflowException(e);
-        }
-
+        TokenCache.Tokens.tokenize(fieldValue, luceneAnalyzer).appendSpans(attributeName, fieldValue, payload);
         return payload;
     }
 
@@ -0,0 +1,203 @@
+package edu.uci.ics.texera.dataflow.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.exception.DataflowException;
+import edu.uci.ics.texera.api.schema.Attribute;
+import edu.uci.ics.texera.api.schema.AttributeType;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+/**
+ * TokenCache keeps the tokens of the TEXT fields of tuples, keyed by (tuple ID, attribute, analyzer),
+ *   so the operators of a plan which generate the payload of the same tuple with the same analyzer,
+ *   e.g. a keyword matcher, a dictionary matcher and a fuzzy token matcher on the same source,
+ *   only tokenize its text once.
+ *
+ * The tokens of a field are kept as (start, end, token position) triples in an int array
+ *   along with the analyzed terms, and only turned into spans when a payload is generated.
+ * Tuples without an _id are tokenized every time.
+ *
+ * A cache is shared by the operators of a plan through its QueryContext,
+ *   an operator created outside of a plan uses a cache of capacity 0, which keeps nothing.
+ *
+ */
+public class TokenCache {
+
+    // the number of fields kept, the least recently used field is evicted after that
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final Map<TokenKey, Tokens> cache;
+
+    public TokenCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TokenCache(int capacity) {
+        this.cache = new LinkedHashMap<TokenKey, Tokens>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TokenKey, Tokens> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Generates the payload of all the TEXT fields of a tuple,
+     *   same as DataflowUtils.generatePayloadFromTuple, with the cached tokens if there are.
+     *
+     * @param tuple
+     * @param luceneAnalyzerString
+     * @return
+     * @throws DataflowException, if the luceneAnalyzerString is invalid
+     */
+    public List<Span> generatePayloadFromTuple(Tuple tuple, String luceneAnalyzerString) throws DataflowException {
+        String tupleID = tuple.getSchema().containsAttribute(SchemaConstants._ID) ?
+                tuple.getField(SchemaConstants._ID).getValue().toString() : null;
+
+        List<Span> payload = new ArrayList<>();
+        for (Attribute attribute : tuple.getSchema().getAttributes()) {
+            // generate payload only for TEXT field
+            if (attribute.getType() != AttributeType.TEXT) {
+                continue;
+            }
+            String attributeName = attribute.getName();
+            String fieldValue = tuple.getField(attributeName).getValue().toString();
+            getTokens(tupleID, attributeName, fieldValue, luceneAnalyzerString)
+                .appendSpans(attributeName, fieldValue, payload);
+        }
+        return payload;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    private Tokens getTokens(String tupleID, String attributeName, String fieldValue, String luceneAnalyzerString) {
+        Analyzer luceneAnalyzer = LuceneAnalyzerConstants.getPooledLuceneAnalyzer(luceneAnalyzerString);
+        if (tupleID == null) {
+            return Tokens.tokenize(fieldValue, luceneAnalyzer);
+        }
+
+        TokenKey key = new TokenKey(tupleID, attributeName, luceneAnalyzerString);
+        Tokens tokens;
+        synchronized (this) {
+            tokens = cache.get(key);
+        }
+        // an operator may have changed the text of the field and kept the tuple ID
+        if (tokens != null && tokens.text.equals(fieldValue)) {
+            return tokens;
+        }
+        tokens = Tokens.tokenize(fieldValue, luceneAnalyzer);
+        synchronized (this) {
+            cache.put(key, tokens);
+        }
+        return tokens;
+    }
+
+    private static class TokenKey {
+        private final String tupleID;
+        private final String attributeName;
+        private final String luceneAnalyzerString;
+
+        TokenKey(String tupleID, String attributeName, String luceneAnalyzerString) {
+            this.tupleID = tupleID;
+            this.attributeName = attributeName;
+            this.luceneAnalyzerString = luceneAnalyzerString;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tupleID, attributeName, luceneAnalyzerString);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TokenKey)) {
+                return false;
+            }
+            TokenKey other = (TokenKey) obj;
+            return tupleID.equals(other.tupleID) && attributeName.equals(other.attributeName)
+                    && luceneAnalyzerString.equals(other.luceneAnalyzerString);
+        }
+    }
+
+    /**
+     * The tokens of a text: token i starts at offsets[3 * i], ends at offsets[3 * i + 1],
+     *   is at the token position offsets[3 * i + 2], and is analyzed into terms[i].
+     */
+    static class Tokens {
+        private final String text;
+        private final int[] offsets;
+        private final String[] terms;
+
+        private Tokens(String text, int[] offsets, String[] terms) {
+            this.text = text;
+            this.offsets = offsets;
+            this.terms = terms;
+        }
+
+        static Tokens tokenize(String text, Analyzer luceneAnalyzer) {
+            int[] offsets = new int[48];
+            List<String> terms = new ArrayList<>();
+
+            try {
+                TokenStream tokenStream = luceneAnalyzer.tokenStream(null, new StringReader(text));
+                OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+                CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+                PositionIncrementAttribute positionIncrementAttribute =
+                        tokenStream.addAttribute(PositionIncrementAttribute.class);
+
+                int tokenPositionCounter = -1;
+                tokenStream.reset();
+                while (tokenStream.incrementToken()) {
+                    tokenPositionCounter += positionIncrementAttribute.getPositionIncrement();
+
+                    int index = terms.size() * 3;
+                    if (index == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[index] = offsetAttribute.startOffset();
+                    offsets[index + 1] = offsetAttribute.endOffset();
+                    offsets[index + 2] = tokenPositionCounter;
+                    terms.add(charTermAttribute.toString());
+                }
+                tokenStream.close();
+            } catch (IOException e) {
+                throw new DataflowException(e);
+            }
+
+            return new Tokens(text, Arrays.copyOf(offsets, terms.size() * 3), terms.toArray(new String[0]));
+        }
+
+        void appendSpans(String attributeName, String fieldValue, List<Span> payload) {
+            for (int i = 0; i < terms.length; i++) {
+                int charStart = offsets[3 * i];
+                int charEnd = offsets[3 * i + 1];
+                payload.add(new Span(attributeName, charStart, charEnd, terms[i],
+                        fieldValue.substring(charStart, charEnd), offsets[3 * i + 2]));
+            }
+        }
+    }
+
+}
@@ -1,6 +1,5 @@
 package edu.uci.ics.texera.dataflow.wordcount;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -8,9 +7,6 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Terms;
-import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.MatchAllDocsQuery;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
@@ -21,10 +17,12 @@ import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.IDField;
 import edu.uci.ics.texera.api.field.IField;
 import edu.uci.ics.texera.api.field.IntegerField;
+import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
+import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.storage.DataReader;
 import edu.uci.ics.texera.storage.RelationManager;
@@ -85,39 +83,31 @@ public class WordCountIndexSource implements ISourceOperator {
     }
     
     private void computeWordCount() throws TexeraException {
-        try {
-            HashMap<String, Integer> wordCountMap = new HashMap<>();
-            DataReader dataReader = RelationManager.getInstance().getTableDataReader(
-                    predicate.getTableName(), new MatchAllDocsQuery());
-            
-            dataReader.open();
-            
-            IndexReader luceneIndexReader = dataReader.getLuceneIndexReader();
-            
-            for (int i = 0; i< luceneIndexReader.numDocs(); i++) {
-                Terms termVector = luceneIndexReader.getTermVector(i, predicate.getAttribute());
-                
-                TermsEnum termsEnum = termVector.iterator();
-                while(termsEnum.next() != null){
-                    String key = termsEnum.term().utf8ToString();
-                    wordCountMap.put(key, wordCountMap.get(key)==null ?
-                            ((int) termsEnum.totalTermFreq()) :
-                                wordCountMap.get(key) + ((int) termsEnum.totalTermFreq()));
+        HashMap<String, Integer> wordCountMap = new HashMap<>();
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(
+                predicate.getTableName(), new MatchAllDocsQuery());
+        // the payload is decoded from the tokens written with the table, or built from the term vectors,
+        //   so the words of tables bulk loaded without term vectors are counted too
+        dataReader.setPayloadAdded(true);
+
+        dataReader.open();
+
+        Tuple tuple;
+        while ((tuple = dataReader.getNextTuple()) != null) {
+            ListField<Span> payloadField = tuple.getField(SchemaConstants.PAYLOAD);
+            for (Span span : payloadField.getValue()) {
+                if (span.getAttributeName().equals(predicate.getAttribute())) {
+                    wordCountMap.merge(span.getKey(), 1, Integer::sum);
                 }
             }
-            
-            luceneIndexReader.close();
-            dataReader.close();
-            
-            sortedWordCountMap = wordCountMap.entrySet().stream()
-                    .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                    .collect(Collectors.toList());
-            wordCountIterator = sortedWordCountMap.iterator();
-            
-        } catch (IOException e) {
-            throw new DataflowException(e);
         }
-        
+
+        dataReader.close();
+
+        sortedWordCountMap = wordCountMap.entrySet().stream()
+                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
+                .collect(Collectors.toList());
+        wordCountIterator = sortedWordCountMap.iterator();
     }
     
 
@@ -23,7 +23,7 @@ import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.dataflow.common.AbstractSingleInputOperator;
-import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.dataflow.utils.TokenCache;
 
 /**
  * @author Qinhua Huang
@@ -31,6 +31,7 @@ import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
 
 public class WordCountOperator extends AbstractSingleInputOperator implements ISourceOperator{
     private WordCountOperatorPredicate predicate;
+    private final TokenCache tokenCache;
     
     public static final String WORD = "word";
     public static final String COUNT = "count";
@@ -44,7 +45,12 @@ public class WordCountOperator extends AbstractSingleInputOperator implements IS
     private boolean addPayload = false;
     
     public WordCountOperator(WordCountOperatorPredicate predicate) {
+        this(predicate, new TokenCache(0));
+    }
+
+    public WordCountOperator(WordCountOperatorPredicate predicate, TokenCache tokenCache) {
         this.predicate = predicate;
+        this.tokenCache = tokenCache;
     }
     
     @Override
@@ -80,7 +86,7 @@ public class WordCountOperator extends AbstractSingleInputOperator implements IS
         while ((tuple = this.inputOperator.getNextTuple()) != null) {
             if (addPayload) {
                 tuple = new Tuple.Builder(tuple).add(SchemaConstants.PAYLOAD_ATTRIBUTE,new ListField<Span>(
-                                DataflowUtils.generatePayloadFromTuple(tuple, predicate.getLuceneAnalyzerString()))).build();
+                                tokenCache.generatePayloadFromTuple(tuple, predicate.getLuceneAnalyzerString()))).build();
             }
             
             ListField<Span> payloadField = tuple.getField("payload");
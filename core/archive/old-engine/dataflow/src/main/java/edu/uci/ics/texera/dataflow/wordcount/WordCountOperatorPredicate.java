@@ -10,6 +10,7 @@ import edu.uci.ics.texera.dataflow.annotation.AdvancedOption;
 import edu.uci.ics.texera.dataflow.common.OperatorGroupConstants;
 import edu.uci.ics.texera.dataflow.common.PredicateBase;
 import edu.uci.ics.texera.dataflow.common.PropertyNameConstants;
+import edu.uci.ics.texera.dataflow.plangen.QueryContext;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 /**
@@ -49,6 +50,14 @@ public class WordCountOperatorPredicate extends PredicateBase {
     public WordCountOperator newOperator() {
         return new WordCountOperator(this);
     }
+
+    @Override
+    public WordCountOperator newOperator(QueryContext ctx) {
+        if (ctx == null) {
+            return newOperator();
+        }
+        return new WordCountOperator(this, ctx.getTokenCache());
+    }
     
     public static Map<String, Object> getOperatorMetadata() {
         return ImmutableMap.<String, Object>builder()
@@ -1,11 +1,22 @@
 package edu.uci.ics.texera.dataflow.dictionarymatcher;
 
+import edu.uci.ics.texera.dataflow.resource.dictionary.DictionaryManager;
+import edu.uci.ics.texera.dataflow.resource.dictionary.DictionaryManagerConstants;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Created by Chang on 10/4/17.
@@ -100,5 +111,99 @@ public class ACTrieTest {
         Assert.assertTrue(exactResults.size() == 7);
     }
 
+    /**
+     * Test matching random texts against the matches found by scanning for every keyword.
+     * @throws Exception
+     */
+    @Test
+    public void testACTrieRandomTexts() throws Exception {
+        Random random = new Random(42);
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            keywords.add(randomString(random, 1 + random.nextInt(5)));
+        }
+        ACTrie trie = new ACTrie();
+        trie.setCaseInsensitive(true);
+        trie.addKeywords(keywords);
+        trie.constructFailureTransactions();
+        for (int t = 0; t < 50; t++) {
+            String text = randomString(random, 200);
+            List<String> expected = new ArrayList<>();
+            for (String keyword : new java.util.LinkedHashSet<>(keywords)) {
+                String lowerText = text.toLowerCase();
+                int index = lowerText.indexOf(keyword.toLowerCase());
+                while (index >= 0) {
+                    expected.add(index + ":" + (index + keyword.length()) + ":" + keyword);
+                    index = lowerText.indexOf(keyword.toLowerCase(), index + 1);
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            trie.parseText(text, (start, end, keyword) -> actual.add(start + ":" + end + ":" + keyword));
+            expected.sort(null);
+            actual.sort(null);
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Test loading a written automaton without rebuilding it.
+     * @throws Exception
+     */
+    @Test
+    public void testACTrieWriteAndRead() throws Exception {
+        ACTrie trie = new ACTrie();
+        trie.setCaseInsensitive(true);
+        trie.addKeywords(new ArrayList<>(Arrays.asList("he", "hers", "His", "she", "北京")));
+        trie.constructFailureTransactions();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        trie.writeTo(new DataOutputStream(bytes));
+        ACTrie loaded = ACTrie.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        String text = "ahisHERS, 去北京";
+        List<ACTrie.Emit> expected = trie.parseText(text);
+        List<ACTrie.Emit> actual = loaded.parseText(text);
+        Assert.assertEquals(loaded.getNodeCount(), trie.getNodeCount());
+        Assert.assertEquals(5, actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getStart(), actual.get(i).getStart());
+            Assert.assertEquals(expected.get(i).getEnd(), actual.get(i).getEnd());
+            Assert.assertEquals(expected.get(i).getKeyword(), actual.get(i).getKeyword());
+        }
+    }
+
+    /**
+     * Test caching the automaton of a list of entries: it is written on the first request
+     *   and loaded by the next request for the same entries.
+     * @throws Exception
+     */
+    @Test
+    public void testDictionaryTrieCache() throws Exception {
+        List<String> entries = new ArrayList<>(Arrays.asList("he", "hers", "His", "she", UUID.randomUUID().toString()));
+        long fileCount = countTrieFiles();
+        ACTrie built = DictionaryManager.getDictionaryTrie(entries);
+        Assert.assertEquals(fileCount + 1, countTrieFiles());
+
+        ACTrie loaded = DictionaryManager.getDictionaryTrie(new ArrayList<>(entries));
+        Assert.assertEquals(fileCount + 1, countTrieFiles());
+        Assert.assertEquals(built.getNodeCount(), loaded.getNodeCount());
+        Assert.assertEquals(4, loaded.parseText("ahisHERS").size());
+    }
+
+    private static long countTrieFiles() throws Exception {
+        if (! Files.exists(DictionaryManagerConstants.DICTIONARY_TRIE_DIR_PATH)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(DictionaryManagerConstants.DICTIONARY_TRIE_DIR_PATH)) {
+            return files.count();
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append("abcAB".charAt(random.nextInt(5)));
+        }
+        return builder.toString();
+    }
 
 }
@@ -34,6 +34,8 @@ import edu.uci.ics.texera.dataflow.regexmatcher.RegexMatcher;
 import edu.uci.ics.texera.dataflow.regexmatcher.RegexPredicate;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSink;
 import edu.uci.ics.texera.dataflow.sink.tuple.TupleSinkPredicate;
+import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
+import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
 import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 import junit.framework.Assert;
@@ -218,6 +220,36 @@ public class LogicalPlanTest {
         Assert.assertTrue(keywordSource instanceof KeywordMatcherSourceOperator);
     }
 
+    /*
+     * Test that the offset and limit of a sink are pushed down into the scan which feeds it directly.
+     *
+     * ScanSource --> TupleSink
+     *
+     */
+    @Test
+    public void testLimitOffsetPushDown() throws Exception {
+        String SCAN_SOURCE_ID = "scan source";
+        ScanSourcePredicate scanSourcePredicate = new ScanSourcePredicate(TEST_TABLE);
+        scanSourcePredicate.setID(SCAN_SOURCE_ID);
+        TupleSinkPredicate limitOffsetSinkPredicate = new TupleSinkPredicate(2, 1);
+        limitOffsetSinkPredicate.setID(TUPLE_SINK_ID);
+
+        LogicalPlan logicalPlan = new LogicalPlan();
+        logicalPlan.addOperator(scanSourcePredicate);
+        logicalPlan.addOperator(limitOffsetSinkPredicate);
+        logicalPlan.addLink(new OperatorLink(SCAN_SOURCE_ID, TUPLE_SINK_ID));
+
+        Plan queryPlan = logicalPlan.buildQueryPlan();
+
+        ISink tupleSink = queryPlan.getSinkMap().get(TUPLE_SINK_ID);
+        Assert.assertTrue(tupleSink instanceof TupleSink);
+
+        IOperator scanSource = ((TupleSink) tupleSink).getInputOperator();
+        Assert.assertTrue(scanSource instanceof ScanBasedSourceOperator);
+        Assert.assertEquals(2, ((ScanBasedSourceOperator) scanSource).getLimit());
+        Assert.assertEquals(1, ((ScanBasedSourceOperator) scanSource).getOffset());
+    }
+
     /*
      * Test a valid operator graph.
      *                  -> RegexMatcher -->
@@ -0,0 +1,88 @@
+package edu.uci.ics.texera.dataflow.utils;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
+import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.TextField;
+import edu.uci.ics.texera.api.span.Span;
+import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
+
+public class TokenCacheTest {
+
+    private static Tuple withID(Tuple tuple) {
+        return new Tuple.Builder(tuple).add(SchemaConstants._ID_ATTRIBUTE, IDField.newRandomID()).build();
+    }
+
+    /*
+     * The payload generated from the cached tokens is the same as the one generated by DataflowUtils.
+     */
+    @Test
+    public void testSamePayloadAsDataflowUtils() throws Exception {
+        TokenCache tokenCache = new TokenCache();
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            Tuple tupleWithID = withID(tuple);
+            List<Span> expected = DataflowUtils.generatePayloadFromTuple(tupleWithID,
+                    LuceneAnalyzerConstants.standardAnalyzerString());
+
+            Assert.assertEquals(expected, tokenCache.generatePayloadFromTuple(tupleWithID,
+                    LuceneAnalyzerConstants.standardAnalyzerString()));
+            // the second time, the payload comes from the cache
+            Assert.assertEquals(expected, tokenCache.generatePayloadFromTuple(tupleWithID,
+                    LuceneAnalyzerConstants.standardAnalyzerString()));
+        }
+        // the people tuples have one TEXT field
+        Assert.assertEquals(TestConstants.getSamplePeopleTuples().size(), tokenCache.size());
+    }
+
+    /*
+     * The same tuple is tokenized once for each analyzer.
+     */
+    @Test
+    public void testCachedPerAnalyzer() throws Exception {
+        TokenCache tokenCache = new TokenCache();
+        Tuple tuple = withID(TestConstants.getSamplePeopleTuples().get(0));
+
+        tokenCache.generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.standardAnalyzerString());
+        tokenCache.generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.standardAnalyzerString());
+        Assert.assertEquals(1, tokenCache.size());
+
+        List<Span> trigrams = tokenCache.generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.nGramAnalyzerString(3));
+        Assert.assertEquals(2, tokenCache.size());
+        Assert.assertEquals(DataflowUtils.generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.nGramAnalyzerString(3)),
+                trigrams);
+    }
+
+    /*
+     * A field whose text changed under the same tuple ID is tokenized again.
+     */
+    @Test
+    public void testChangedText() throws Exception {
+        TokenCache tokenCache = new TokenCache();
+        Tuple tuple = withID(TestConstants.getSamplePeopleTuples().get(0));
+        tokenCache.generatePayloadFromTuple(tuple, LuceneAnalyzerConstants.standardAnalyzerString());
+
+        Tuple changedTuple = new Tuple.Builder(tuple).remove(TestConstants.DESCRIPTION)
+                .add(TestConstants.DESCRIPTION_ATTR, new TextField("a different description")).build();
+        List<Span> payload = tokenCache.generatePayloadFromTuple(changedTuple,
+                LuceneAnalyzerConstants.standardAnalyzerString());
+
+        Assert.assertEquals(DataflowUtils.generatePayloadFromTuple(changedTuple,
+                LuceneAnalyzerConstants.standardAnalyzerString()), payload);
+    }
+
+    @Test
+    public void testZeroCapacity() throws Exception {
+        TokenCache tokenCache = new TokenCache(0);
+        for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+            tokenCache.generatePayloadFromTuple(withID(tuple), LuceneAnalyzerConstants.standardAnalyzerString());
+        }
+        Assert.assertEquals(0, tokenCache.size());
+    }
+
+}
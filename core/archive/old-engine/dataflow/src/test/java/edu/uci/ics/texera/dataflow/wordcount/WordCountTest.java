@@ -20,6 +20,7 @@ import edu.uci.ics.texera.api.utils.TestUtils;
 import edu.uci.ics.texera.dataflow.source.scan.ScanBasedSourceOperator;
 import edu.uci.ics.texera.dataflow.source.scan.ScanSourcePredicate;
 import edu.uci.ics.texera.dataflow.utils.DataflowUtils;
+import edu.uci.ics.texera.storage.BulkLoadConfig;
 import edu.uci.ics.texera.storage.DataWriter;
 import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
@@ -31,6 +32,8 @@ import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 public class WordCountTest {
     public static final String COUNT_TABLE = "wordcount_test";
     public static final String COUNT_CHINESE_TABLE = "wordcount_Chinese_test";
+    // bulk loaded without term vectors
+    public static final String COUNT_BULK_TABLE = "wordcount_bulk_test";
     
     public static HashMap<String, Integer> expectedResult = null;
     public static HashMap<String, Integer> expectedResultChinese = null;
@@ -63,6 +66,11 @@ public class WordCountTest {
         }
         dataWriterChinese.close();
         
+        relationManager.createTable(COUNT_BULK_TABLE, TestUtils.getDefaultTestIndex().resolve(COUNT_BULK_TABLE), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        relationManager.bulkLoadTable(COUNT_BULK_TABLE, TestConstants.getSamplePeopleTuples().iterator(), 
+                new BulkLoadConfig());
+        
         expectedResultChinese = computeExpectedResult(TestConstantsChineseWordCount.getSamplePeopleTuples(),
                 TestConstantsChineseWordCount.DESCRIPTION, LuceneAnalyzerConstants.getLuceneAnalyzer(
                         LuceneAnalyzerConstants.chineseAnalyzerString()));
@@ -72,6 +80,7 @@ public class WordCountTest {
     public static void cleanUp() throws TexeraException {
         RelationManager.getInstance().deleteTable(COUNT_TABLE);
         RelationManager.getInstance().deleteTable(COUNT_CHINESE_TABLE);
+        RelationManager.getInstance().deleteTable(COUNT_BULK_TABLE);
         expectedResult = null;
         expectedResultChinese = null;
     }
@@ -109,7 +118,7 @@ public class WordCountTest {
         WordCountIndexSource wordCountIndexSource = null;
         HashMap<String, Integer> result = new HashMap<String, Integer>();
         
-        if (tableName.equals(COUNT_TABLE)) {
+        if (tableName.equals(COUNT_TABLE) || tableName.equals(COUNT_BULK_TABLE)) {
             wordCountIndexSource = new WordCountIndexSource(new WordCountIndexSourcePredicate(tableName, TestConstants.DESCRIPTION));
         } else if (tableName.equals(COUNT_CHINESE_TABLE)) {
             wordCountIndexSource = new WordCountIndexSource(new WordCountIndexSourcePredicate(
@@ -174,4 +183,12 @@ public class WordCountTest {
         Assert.assertTrue(results.equals(expectedResultChinese));
     }
     
+    // Test WordCountIndexSource on a table without term vectors
+    @Test
+    public void test5() throws TexeraException {
+        HashMap<String, Integer> results = computeWordCountIndexSourceResult(COUNT_BULK_TABLE,
+                TestConstants.DESCRIPTION);
+        Assert.assertTrue(results.equals(expectedResult));
+    }
+    
 }
@@ -0,0 +1,113 @@
+package edu.uci.ics.texera.perftest.dictionarymatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.uci.ics.texera.dataflow.dictionarymatcher.ACTrie;
+
+/**
+ * Compares matching tweet-sized texts against a dictionary of entity names with the
+ * array based ACTrie and with the HashMap based trie it replaced.
+ *
+ * Run it with: java -cp perftest.jar edu.uci.ics.texera.perftest.dictionarymatcher.ACTrieBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ACTrieBenchmark {
+
+    private static final String WORDS = "the of and to in is was for on that with as by at from "
+            + "new york los angeles san francisco university california irvine texas washington "
+            + "president company game music news today people world city state north south";
+
+    @Param({ "1000", "100000" })
+    public int dictionarySize;
+
+    private ACTrie arrayTrie;
+    private HashMapACTrie hashMapTrie;
+    private List<String> texts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        String[] words = WORDS.split(" ");
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < dictionarySize; i++) {
+            // entity names of one to three words, with a suffix to keep them apart
+            StringBuilder entry = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int w = random.nextInt(3); w > 0; w--) {
+                entry.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            entries.add(entry.append(' ').append(Integer.toString(i, 36)).toString());
+        }
+        entries.addAll(java.util.Arrays.asList(words));
+
+        arrayTrie = new ACTrie();
+        arrayTrie.setCaseInsensitive(true);
+        arrayTrie.addKeywords(entries);
+        arrayTrie.constructFailureTransactions();
+
+        hashMapTrie = new HashMapACTrie();
+        hashMapTrie.setCaseInsensitive(true);
+        hashMapTrie.addKeywords(entries);
+        hashMapTrie.constructFailureTransactions();
+
+        texts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < 140) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+                if (random.nextInt(10) == 0) {
+                    text.append(Integer.toString(random.nextInt(dictionarySize), 36)).append(' ');
+                }
+            }
+            texts.add(text.toString());
+        }
+    }
+
+    @Benchmark
+    public void arrayTrieCallback(Blackhole blackhole) {
+        for (String text : texts) {
+            arrayTrie.parseText(text, (start, end, keyword) -> blackhole.consume(start));
+        }
+    }
+
+    @Benchmark
+    public void arrayTrieList(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(arrayTrie.parseText(text));
+        }
+    }
+
+    @Benchmark
+    public void hashMapTrie(Blackhole blackhole) {
+        for (String text : texts) {
+            blackhole.consume(hashMapTrie.parseText(text));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ACTrieBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -1,4 +1,4 @@
-package edu.uci.ics.texera.dataflow.dictionarymatcher;
+package edu.uci.ics.texera.perftest.dictionarymatcher;
 
 import java.util.*;
 
@@ -6,6 +6,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Objects;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,7 +18,7 @@ import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
-import edu.uci.ics.texera.storage.DataWriter;
+import edu.uci.ics.texera.storage.BulkLoadConfig;
 import edu.uci.ics.texera.storage.RelationManager;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
@@ -70,22 +72,23 @@ public class MedlineIndexWriter {
         return tuple;
     }
     
+    /*
+     * Loads the records with the bulk load of RelationManager, records which fail to parse are skipped.
+     */
     public static void writeMedlineIndex(Path medlineFilepath, String tableName) throws IOException, StorageException, ParseException {
         RelationManager relationManager = RelationManager.getInstance();
-        DataWriter dataWriter = relationManager.getTableDataWriter(tableName);
-        dataWriter.open();
         
-        BufferedReader reader = Files.newBufferedReader(medlineFilepath);
-        String line;
-        while ((line = reader.readLine()) != null) {
-            try {
-                dataWriter.insertTuple(recordToTuple(line));
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        try (BufferedReader reader = Files.newBufferedReader(medlineFilepath)) {
+            Iterator<Tuple> tuples = reader.lines().map(line -> {
+                try {
+                    return recordToTuple(line);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }).filter(Objects::nonNull).iterator();
+            relationManager.bulkLoadTable(tableName, tuples, new BulkLoadConfig());
         }
-        reader.close();
-        dataWriter.close(); 
     }
 
 }
@@ -0,0 +1,86 @@
+package edu.uci.ics.texera.storage;
+
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.TieredMergePolicy;
+
+/**
+ * BulkLoadConfig tunes how RelationManager.bulkLoadTable indexes a stream of tuples.
+ *
+ * Term vectors are not written by default: DataReader builds payloads from the tokens
+ *   DataWriter writes to doc values, and only falls back to the term vector of a field whose tokens
+ *   are too long for doc values, which is then still written.
+ *   Set termVectorsWritten for tables whose readers use the term vectors directly.
+ *
+ */
+public class BulkLoadConfig {
+
+    public static final int DEFAULT_RAM_BUFFER_SIZE_MB = 256;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private double ramBufferSizeMB = DEFAULT_RAM_BUFFER_SIZE_MB;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private MergePolicy mergePolicy = new TieredMergePolicy();
+    private boolean termVectorsWritten = false;
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the number of threads which convert tuples to documents and add them to the index.
+     */
+    public BulkLoadConfig setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("thread count must be at least 1");
+        }
+        this.threadCount = threadCount;
+        return this;
+    }
+
+    public double getRamBufferSizeMB() {
+        return ramBufferSizeMB;
+    }
+
+    /**
+     * Sets the memory the IndexWriter buffers documents in before flushing them to a new segment.
+     */
+    public BulkLoadConfig setRamBufferSizeMB(double ramBufferSizeMB) {
+        this.ramBufferSizeMB = ramBufferSizeMB;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of tuples handed to a thread at a time.
+     */
+    public BulkLoadConfig setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public MergePolicy getMergePolicy() {
+        return mergePolicy;
+    }
+
+    public BulkLoadConfig setMergePolicy(MergePolicy mergePolicy) {
+        this.mergePolicy = mergePolicy;
+        return this;
+    }
+
+    public boolean isTermVectorsWritten() {
+        return termVectorsWritten;
+    }
+
+    public BulkLoadConfig setTermVectorsWritten(boolean termVectorsWritten) {
+        this.termVectorsWritten = termVectorsWritten;
+        return this;
+    }
+
+}
@@ -4,23 +4,27 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import edu.uci.ics.texera.api.exception.DataflowException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.ScoreDoc;
-import org.apache.lucene.search.TopDocs;
-import org.apache.lucene.store.Directory;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
@@ -33,6 +37,7 @@ import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.*;
+import edu.uci.ics.texera.storage.utils.PayloadDocValues;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 /**
@@ -45,9 +50,16 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  * DataReader currently has the option to append a "payload" field to a tuple, the "payload" field is a list of spans. 
  * Each span contains the start, end, and token offset position of a token in the original document.
  * The "payload" contains spans for EVERY token in tuple.
+ * The payload of a field is decoded from the tokens DataWriter wrote next to it (see PayloadDocValues),
+ *   or built from its term vector if there are none.
  * 
  * The purpose of the "payload" field is to make subsequent keyword match, fuzzy token match, and dictionary match faster,
  * because they don't need to tokenize the tuple every time.
+ * 
+ * DataReader streams the matching documents: it walks the matches of the query segment by segment,
+ *   in the order of the documents in the index, and only loads a document when its tuple is asked for.
+ *   Nothing is read after the last tuple which is asked for, or after the limit if one is set.
+ * The IndexReader of a table is shared by its DataReaders, see RelationManager.acquireIndexSearcher.
  *   
  * 
  * DataReader for a specific table is only accessible from RelationManager.
@@ -66,9 +78,19 @@ public class DataReader implements IOperator {
 
     private IndexReader luceneIndexReader;
     private IndexSearcher luceneIndexSearcher;
-    private ScoreDoc[] scoreDocs;
+    private Weight luceneWeight;
+
+    // the segment being read, the matches of the query in it, and its documents which are not deleted
+    private int nextLeafIndex;
+    private LeafReaderContext currentLeaf;
+    private DocIdSetIterator currentLeafMatches;
+    private Bits currentLeafLiveDocs;
+    // the payload doc values of the segment by attribute, null if no document of the segment has them
+    private final Map<String, BinaryDocValues> currentLeafPayloadDocValues = new HashMap<>();
 
     private int cursor = CLOSED;
+    private int limit = Integer.MAX_VALUE;
+    private int offset = 0;
 
     private boolean payloadAdded;
 
@@ -92,13 +114,13 @@ public class DataReader implements IOperator {
         if (cursor != CLOSED) {
             return;
         }
+        luceneIndexSearcher = RelationManager.acquireIndexSearcher(this.dataStore.getDataDirectory());
+        luceneIndexReader = luceneIndexSearcher.getIndexReader();
         try {
-            Directory indexDirectory = FSDirectory.open(this.dataStore.getDataDirectory());
-            luceneIndexReader = DirectoryReader.open(indexDirectory);
-            luceneIndexSearcher = new IndexSearcher(luceneIndexReader);
-
-            TopDocs topDocs = luceneIndexSearcher.search(query, Integer.MAX_VALUE);
-            scoreDocs = topDocs.scoreDocs;
+            // the matches are not ranked, so they don't need to be scored
+            luceneWeight = luceneIndexSearcher.createNormalizedWeight(query, false);
+            nextLeafIndex = 0;
+            currentLeafMatches = null;
 
             inputSchema = this.dataStore.getSchema();
             if (payloadAdded) {
@@ -108,6 +130,7 @@ public class DataReader implements IOperator {
             }
 
         } catch (IOException e) {
+            close();
             throw new StorageException(e.getMessage(), e);
         }
 
@@ -120,12 +143,23 @@ public class DataReader implements IOperator {
             throw new StorageException(ErrorMessages.OPERATOR_NOT_OPENED);
         }
 
+        if (cursor - offset >= limit) {
+            return null;
+        }
+
         Tuple resultTuple;
         try {
-            if (cursor >= scoreDocs.length) {
+            // skip the matches before the offset without loading their documents
+            while (cursor < offset) {
+                if (nextMatchingDocID() == DocIdSetIterator.NO_MORE_DOCS) {
+                    return null;
+                }
+                cursor++;
+            }
+            int docID = nextMatchingDocID();
+            if (docID == DocIdSetIterator.NO_MORE_DOCS) {
                 return null;
             }
-            int docID = scoreDocs[cursor].doc;
             resultTuple = constructTuple(docID);
 
         } catch (IOException | ParseException e) {
@@ -139,12 +173,47 @@ public class DataReader implements IOperator {
     @Override
     public void close() throws StorageException {
         cursor = CLOSED;
-        if (luceneIndexReader != null) {
-            try {
-                luceneIndexReader.close();
-                luceneIndexReader = null;
-            } catch (IOException e) {
-                throw new StorageException(e.getMessage(), e);
+        currentLeaf = null;
+        currentLeafMatches = null;
+        currentLeafLiveDocs = null;
+        currentLeafPayloadDocValues.clear();
+        luceneWeight = null;
+        if (luceneIndexSearcher != null) {
+            IndexSearcher indexSearcher = luceneIndexSearcher;
+            luceneIndexSearcher = null;
+            luceneIndexReader = null;
+            RelationManager.releaseIndexSearcher(indexSearcher);
+        }
+    }
+
+    /*
+     * Returns the ID of the next document in the index which matches the query and is not deleted,
+     *   or NO_MORE_DOCS if there are no more.
+     */
+    private int nextMatchingDocID() throws IOException {
+        List<LeafReaderContext> leaves = luceneIndexReader.leaves();
+        while (true) {
+            if (currentLeafMatches == null) {
+                if (nextLeafIndex >= leaves.size()) {
+                    return DocIdSetIterator.NO_MORE_DOCS;
+                }
+                currentLeaf = leaves.get(nextLeafIndex++);
+                Scorer scorer = luceneWeight.scorer(currentLeaf);
+                // no document of this segment matches the query
+                if (scorer == null) {
+                    continue;
+                }
+                currentLeafMatches = scorer.iterator();
+                currentLeafLiveDocs = currentLeaf.reader().getLiveDocs();
+                currentLeafPayloadDocValues.clear();
+            }
+            int leafDocID = currentLeafMatches.nextDoc();
+            if (leafDocID == DocIdSetIterator.NO_MORE_DOCS) {
+                currentLeafMatches = null;
+                continue;
+            }
+            if (currentLeafLiveDocs == null || currentLeafLiveDocs.get(leafDocID)) {
+                return currentLeaf.docBase + leafDocID;
             }
         }
     }
@@ -154,7 +223,7 @@ public class DataReader implements IOperator {
         ArrayList<IField> docFields = documentToFields(luceneDocument);
 
         if (payloadAdded) {
-            ArrayList<Span> payloadSpanList = buildPayloadFromTermVector(docFields, docID);
+            ArrayList<Span> payloadSpanList = buildPayload(docFields, docID);
             ListField<Span> payloadField = new ListField<Span>(payloadSpanList);
             docFields.add(payloadField);
         }
@@ -173,7 +242,7 @@ public class DataReader implements IOperator {
         return fields;
     }
 
-    private ArrayList<Span> buildPayloadFromTermVector(List<IField> fields, int docID) throws IOException {
+    private ArrayList<Span> buildPayload(List<IField> fields, int docID) throws IOException {
         ArrayList<Span> payloadSpanList = new ArrayList<>();
 
         for (Attribute attr : inputSchema.getAttributes()) {
@@ -188,6 +257,12 @@ public class DataReader implements IOperator {
 
             String fieldValue = fields.get(inputSchema.getIndex(attributeName)).getValue().toString();
 
+            BinaryDocValues payloadDocValues = getPayloadDocValues(attributeName);
+            if (payloadDocValues != null && PayloadDocValues.decode(attributeName, fieldValue, 
+                    payloadDocValues.get(docID - currentLeaf.docBase), payloadSpanList)) {
+                continue;
+            }
+
             Terms termVector = luceneIndexReader.getTermVector(docID, attributeName);
             if (termVector == null) {
                 continue;
@@ -219,6 +294,14 @@ public class DataReader implements IOperator {
         return payloadSpanList;
     }
     
+    private BinaryDocValues getPayloadDocValues(String attributeName) throws IOException {
+        if (! currentLeafPayloadDocValues.containsKey(attributeName)) {
+            currentLeafPayloadDocValues.put(attributeName, 
+                    currentLeaf.reader().getBinaryDocValues(PayloadDocValues.getFieldName(attributeName)));
+        }
+        return currentLeafPayloadDocValues.get(attributeName);
+    }
+    
     public boolean isPayloadAdded() {
         return this.payloadAdded;
     }
@@ -226,6 +309,28 @@ public class DataReader implements IOperator {
     public void setPayloadAdded(boolean payloadAdded) {
         this.payloadAdded = payloadAdded;
     }
+    
+    /**
+     * Sets the maximum number of tuples to return, the reader stops reading the index after that.
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+    
+    /**
+     * Sets the number of matching tuples to skip before the first returned tuple.
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+    
+    public int getLimit() {
+        return this.limit;
+    }
+    
+    public int getOffset() {
+        return this.offset;
+    }
 
     public Schema getOutputSchema() {
         return outputSchema;
@@ -240,6 +345,10 @@ public class DataReader implements IOperator {
         }
     }
     
+    /**
+     * Gets the IndexReader of an open DataReader. 
+     * The IndexReader is shared, so it must not be closed by the caller.
+     */
     public IndexReader getLuceneIndexReader() {
         return this.luceneIndexReader;
     }
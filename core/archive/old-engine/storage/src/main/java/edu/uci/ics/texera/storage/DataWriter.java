@@ -3,10 +3,17 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -14,6 +21,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 
 import edu.uci.ics.texera.api.constants.ErrorMessages;
 import edu.uci.ics.texera.api.constants.SchemaConstants;
@@ -24,6 +32,7 @@ import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.storage.utils.PayloadDocValues;
 import edu.uci.ics.texera.storage.utils.StorageUtils;
 
 /**
@@ -43,6 +52,13 @@ import edu.uci.ics.texera.storage.utils.StorageUtils;
  * Update Operations:
  *   DataWriter can update the tuple, with the tuple's _id remaining the same.
  *   
+ * Bulk Insert Operations:
+ *   DataWriter can insert a stream of tuples with several threads through one IndexWriter (see BulkLoadConfig),
+ *   and commit them all at once.
+ *   
+ * By default, DataWriter also writes the tokens of each TEXT field to a BinaryDocValues field (see PayloadDocValues),
+ *   which DataReader decodes into the payload of the tuple instead of reading the term vectors of the document.
+ *   
  *   
  * DataWriter for a specific table is only accessible from RelationManager.
  * 
@@ -60,6 +76,7 @@ public class DataWriter {
     private IndexWriter luceneIndexWriter;
     
     private boolean isOpen = false;
+    private boolean payloadDocValuesWritten = true;
 
     /*
      * The package-only level constructor is only accessible inside the storage package.
@@ -81,6 +98,18 @@ public class DataWriter {
         return this.dataStore;
     }
     
+    public boolean isPayloadDocValuesWritten() {
+        return this.payloadDocValuesWritten;
+    }
+    
+    /**
+     * Sets if the tokens of TEXT fields are written for DataReader to build payloads from.
+     * Without them, DataReader builds the payloads from the term vectors, which is much slower.
+     */
+    public void setPayloadDocValuesWritten(boolean payloadDocValuesWritten) {
+        this.payloadDocValuesWritten = payloadDocValuesWritten;
+    }
+    
     public void open() throws StorageException {
         if (this.luceneIndexWriter == null || ! this.luceneIndexWriter.isOpen()) {
             try {
@@ -147,6 +176,119 @@ public class DataWriter {
         }
     }
     
+    /**
+     * Inserts a stream of tuples with several threads through one IndexWriter,
+     *   and commits them all at once after the last tuple.
+     * If any tuple fails to be inserted, none of the tuples are.
+     * 
+     * The DataWriter must not be open, it is opened with the IndexWriter settings of the config
+     *   and closed after the tuples are committed.
+     * The tuples are given IDs with a random prefix and a sequence number, 
+     *   instead of a random UUID each.
+     * 
+     * @param tuples, the tuples to insert, which must not contain the _id field
+     * @param config
+     * @return the number of tuples inserted
+     * @throws StorageException
+     */
+    public int bulkInsertTuples(Iterator<Tuple> tuples, BulkLoadConfig config) throws StorageException {
+        if (isOpen) {
+            throw new StorageException("DataWriter must not be opened before a bulk insert");
+        }
+        try {
+            Directory directory = FSDirectory.open(this.indexDirectory);
+            IndexWriterConfig conf = new IndexWriterConfig(analyzer);
+            conf.setRAMBufferSizeMB(config.getRamBufferSizeMB());
+            conf.setMergePolicy(config.getMergePolicy());
+            this.luceneIndexWriter = new IndexWriter(directory, conf);
+            this.isOpen = true;
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        
+        // the first 4 groups of a random UUID, the sequence number is the last group
+        String idPrefix = UUID.randomUUID().toString().substring(0, 24);
+        AtomicLong idSequence = new AtomicLong();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        
+        // when all threads are busy and the queue is full, the calling thread inserts the batch itself
+        int threadCount = config.getThreadCount();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threadCount * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            List<Tuple> batch = new ArrayList<>(config.getBatchSize());
+            while (failure.get() == null && tuples.hasNext()) {
+                batch.add(tuples.next());
+                if (batch.size() == config.getBatchSize() || ! tuples.hasNext()) {
+                    List<Tuple> fullBatch = batch;
+                    executor.execute(() -> insertBatch(fullBatch, idPrefix, idSequence, 
+                            config.isTermVectorsWritten(), failure));
+                    batch = new ArrayList<>(config.getBatchSize());
+                }
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdown();
+            try {
+                while (! executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    // wait for the last batches
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+        
+        if (failure.get() != null) {
+            try {
+                this.luceneIndexWriter.rollback();
+            } catch (IOException e) {
+                failure.get().addSuppressed(e);
+            }
+            this.isOpen = false;
+            throw new StorageException(failure.get().getMessage(), failure.get());
+        }
+        close();
+        
+        int insertedCount = (int) idSequence.get();
+        this.dataStore.incrementNumDocuments(insertedCount);
+        return insertedCount;
+    }
+    
+    private void insertBatch(List<Tuple> batch, String idPrefix, AtomicLong idSequence, boolean termVectorsWritten,
+            AtomicReference<Exception> failure) {
+        if (failure.get() != null) {
+            return;
+        }
+        try {
+            List<Document> documents = new ArrayList<>(batch.size());
+            Schema checkedSchema = null;
+            for (Tuple tuple : batch) {
+                // the tuples of a stream usually share one schema object, which is only checked once
+                if (tuple.getSchema() != checkedSchema) {
+                    if (tuple.getSchema().containsAttribute(SchemaConstants._ID)) {
+                        throw new StorageException(
+                                "Tuple must not contain _id field. _id must be generated by the system");
+                    }
+                    if (! Schema.Builder.getSchemaWithID(tuple.getSchema()).equals(this.schema)) {
+                        throw new StorageException("Tuple's schema is not the same as the table's schema");
+                    }
+                    checkedSchema = tuple.getSchema();
+                }
+                
+                String sequence = Long.toHexString(idSequence.getAndIncrement());
+                String id = idPrefix + "000000000000".substring(sequence.length()) + sequence;
+                Document document = new Document();
+                document.add(StorageUtils.getLuceneField(AttributeType._ID_TYPE, SchemaConstants._ID, id));
+                addLuceneFields(document, tuple, termVectorsWritten);
+                documents.add(document);
+            }
+            this.luceneIndexWriter.addDocuments(documents);
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+    
     /**
      * Deletes a tuple by its ID field.
      * 
@@ -213,17 +355,38 @@ public class DataWriter {
     /*
      * Converts a Texera tuple to a Lucene document
      */
-    private static Document getLuceneDocument(Tuple tuple) {
+    private Document getLuceneDocument(Tuple tuple) throws StorageException {
+        Document doc = new Document();
+        addLuceneFields(doc, tuple, true);
+        return doc;
+    }
+    
+    /*
+     * Adds the fields of a tuple to a Lucene document, with the term vectors of TEXT fields if termVectorsWritten.
+     */
+    private void addLuceneFields(Document doc, Tuple tuple, boolean termVectorsWritten) throws StorageException {
         List<IField> fields = tuple.getFields();
         List<Attribute> attributes = tuple.getSchema().getAttributes();
-        Document doc = new Document();
         for (int count = 0; count < fields.size(); count++) {
             IField field = fields.get(count);
             Attribute attr = attributes.get(count);
             AttributeType attributeType = attr.getType();
-            doc.add(StorageUtils.getLuceneField(attributeType, attr.getName(), field.getValue()));
+            if (attributeType != AttributeType.TEXT) {
+                doc.add(StorageUtils.getLuceneField(attributeType, attr.getName(), field.getValue()));
+                continue;
+            }
+            
+            BytesRef payloadBlock = null;
+            if (payloadDocValuesWritten) {
+                payloadBlock = PayloadDocValues.encode(field.getValue().toString(), analyzer);
+                if (payloadBlock != null) {
+                    doc.add(new BinaryDocValuesField(PayloadDocValues.getFieldName(attr.getName()), payloadBlock));
+                }
+            }
+            // the term vector is still written for the fields with too many tokens, DataReader needs it for the payload
+            doc.add(StorageUtils.getLuceneField(attributeType, attr.getName(), field.getValue(), 
+                    termVectorsWritten || payloadBlock == null));
         }
-        return doc;
     }
     
     /*
@@ -3,16 +3,23 @@ package edu.uci.ics.texera.storage;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
 
 import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.exception.DataflowException;
@@ -30,6 +37,11 @@ public class RelationManager {
     
     private static volatile RelationManager singletonInstance = null;
     
+    // the searchers of each index directory, shared by all the DataReaders of the directory
+    private static final ConcurrentHashMap<Path, SearcherManager> searcherManagers = new ConcurrentHashMap<>();
+    // the directories the searcher managers read, closed with their manager
+    private static final ConcurrentHashMap<Path, Directory> searcherDirectories = new ConcurrentHashMap<>();
+    
     private RelationManager() throws StorageException {
         if (! checkCatalogExistence()) {
             initializeCatalog();
@@ -156,6 +168,7 @@ public class RelationManager {
         dataWriter.open();
         dataWriter.clearData();
         dataWriter.close();
+        closeIndexSearchers(Paths.get(getTableDirectory(tableName)));
         StorageUtils.deleteDirectory(getTableDirectory(tableName));
 
         // generate a query for the table name
@@ -216,6 +229,20 @@ public class RelationManager {
         return new DataWriter(getTableDataStore(tableName), getTableAnalyzer(tableName));
     }
     
+    /**
+     * Inserts a stream of tuples to a table with several threads, and commits them all at once.
+     * If any tuple fails to be inserted, none of the tuples are.
+     * 
+     * @param tableName, the name of the table, case insensitive
+     * @param tuples, the tuples to insert, which must not contain the _id field
+     * @param config, the threads and IndexWriter settings of the load
+     * @return the number of tuples inserted
+     * @throws StorageException
+     */
+    public int bulkLoadTable(String tableName, Iterator<Tuple> tuples, BulkLoadConfig config) throws StorageException {
+        return getTableDataWriter(tableName).bulkInsertTuples(tuples, config);
+    }
+    
     /**
      * Gets a DataReader for a table based on a query.
      * DataReader can return tuples that match the query.
@@ -412,6 +439,68 @@ public class RelationManager {
         return tupleList;
     }
     
+    /*
+     * Acquires a searcher of the index in a directory, refreshed to the latest commit of the index.
+     * The searchers of a directory share one IndexReader until the index changes, 
+     *   instead of each DataReader opening its own.
+     * 
+     * The searcher must be released with releaseIndexSearcher once it is no longer used.
+     */
+    static IndexSearcher acquireIndexSearcher(Path indexDirectory) throws StorageException {
+        Path directory = indexDirectory.toAbsolutePath().normalize();
+        try {
+            SearcherManager searcherManager = searcherManagers.get(directory);
+            if (searcherManager == null) {
+                synchronized (searcherManagers) {
+                    searcherManager = searcherManagers.get(directory);
+                    if (searcherManager == null) {
+                        Directory luceneDirectory = FSDirectory.open(directory);
+                        searcherManager = new SearcherManager(luceneDirectory, null);
+                        searcherDirectories.put(directory, luceneDirectory);
+                        searcherManagers.put(directory, searcherManager);
+                    }
+                }
+            }
+            // only reopens the segments changed since the last refresh, if there are any
+            searcherManager.maybeRefreshBlocking();
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Releases a searcher acquired with acquireIndexSearcher. 
+     * Its IndexReader is closed once it is released by all its users and it is no longer the latest.
+     */
+    static void releaseIndexSearcher(IndexSearcher indexSearcher) throws StorageException {
+        try {
+            indexSearcher.getIndexReader().decRef();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
+    /*
+     * Closes the searchers of an index directory, and the Lucene directory they read, before the directory is deleted.
+     * Searchers which are still acquired stay usable until they are released.
+     */
+    private static void closeIndexSearchers(Path indexDirectory) throws StorageException {
+        Path directory = indexDirectory.toAbsolutePath().normalize();
+        SearcherManager searcherManager = searcherManagers.remove(directory);
+        Directory luceneDirectory = searcherDirectories.remove(directory);
+        try {
+            if (searcherManager != null) {
+                searcherManager.close();
+            }
+            if (luceneDirectory != null) {
+                luceneDirectory.close();
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+    }
+    
     /*
      * This is a helper function to check if the system catalog tables exist physically on the disk.
      */
@@ -1,6 +1,8 @@
 package edu.uci.ics.texera.storage.constants;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
@@ -24,6 +26,9 @@ public class LuceneAnalyzerConstants {
     
     public static final String CHINESE_ANALYZER = "chinese";
     
+    // analyzers already built by each thread, by analyzer string
+    private static final ThreadLocal<Map<String, Analyzer>> analyzerPool = ThreadLocal.withInitial(HashMap::new);
+    
     
     public static String standardAnalyzerString() {
         return STANDARD_ANALYZER;
@@ -70,6 +75,26 @@ public class LuceneAnalyzerConstants {
         throw new DataflowException(luceneAnalyzerString + " is not a valid lucene analyzer");
     }
 
+    
+    /**
+     * Gets the lucene analyzer based on the string, like getLuceneAnalyzer, but only builds it
+     *   the first time it is asked for by the current thread, and returns the same analyzer after that.
+     * 
+     * The analyzer is shared, so it must not be closed by the caller.
+     * 
+     * @param luceneAnalyzerString
+     * @return
+     * @throws DataflowException, if the luceneAnalyzerString is invalid
+     */
+    public static Analyzer getPooledLuceneAnalyzer(String luceneAnalyzerString) throws DataflowException {
+        Map<String, Analyzer> pool = analyzerPool.get();
+        Analyzer luceneAnalyzer = pool.get(luceneAnalyzerString);
+        if (luceneAnalyzer == null) {
+            luceneAnalyzer = getLuceneAnalyzer(luceneAnalyzerString);
+            pool.put(luceneAnalyzerString, luceneAnalyzer);
+        }
+        return luceneAnalyzer;
+    }
 
     public static Analyzer getStandardAnalyzer() {
         return new StandardAnalyzer();
@@ -0,0 +1,150 @@
+package edu.uci.ics.texera.storage.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+
+import edu.uci.ics.texera.api.exception.StorageException;
+import edu.uci.ics.texera.api.span.Span;
+
+/**
+ * PayloadDocValues encodes the tokens of a TEXT field into a compact block,
+ *   which DataWriter stores in a BinaryDocValues field next to the field,
+ *   so DataReader can rebuild the payload of the field without going through its term vector.
+ *
+ * The block starts with its format version, so a field without tokens has a block,
+ *   while a document written without blocks has none.
+ * Each token is then written as variable length ints, in the order of the tokens in the text:
+ *   the distance from the start of the previous token,
+ *   the length of the token shifted left by one, with the lowest bit set if the analyzed term is written,
+ *   the position increment,
+ *   and the analyzed term in UTF-8 with its length,
+ *     only if it is not the same as the lower case of the token in the text.
+ *
+ */
+public class PayloadDocValues {
+
+    // prefix of the BinaryDocValues field which keeps the tokens of an attribute
+    public static final String FIELD_PREFIX = "_payload_";
+
+    // blocks longer than this are not written, the term vector is used for these fields instead
+    public static final int MAX_BLOCK_LENGTH = 32766;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    public static String getFieldName(String attributeName) {
+        return FIELD_PREFIX + attributeName;
+    }
+
+    /**
+     * Tokenizes the value of a field and encodes its tokens.
+     *
+     * @param fieldValue
+     * @param luceneAnalyzer, the analyzer of the table
+     * @return the encoded tokens, or null if they are longer than MAX_BLOCK_LENGTH
+     * @throws StorageException
+     */
+    public static BytesRef encode(String fieldValue, Analyzer luceneAnalyzer) throws StorageException {
+        BytesRefBuilder block = new BytesRefBuilder();
+        block.append(FORMAT_VERSION);
+        boolean tooLong = false;
+        try (TokenStream tokenStream = luceneAnalyzer.tokenStream(null, new StringReader(fieldValue))) {
+            OffsetAttribute offsetAttribute = tokenStream.addAttribute(OffsetAttribute.class);
+            CharTermAttribute charTermAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            PositionIncrementAttribute positionIncrementAttribute =
+                    tokenStream.addAttribute(PositionIncrementAttribute.class);
+
+            int previousStart = 0;
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                int charStart = offsetAttribute.startOffset();
+                int charEnd = offsetAttribute.endOffset();
+                String analyzedTermStr = charTermAttribute.toString();
+                boolean termWritten = ! analyzedTermStr.equals(
+                        fieldValue.substring(charStart, charEnd).toLowerCase(Locale.ROOT));
+
+                writeVInt(block, charStart - previousStart);
+                writeVInt(block, ((charEnd - charStart) << 1) | (termWritten ? 1 : 0));
+                writeVInt(block, positionIncrementAttribute.getPositionIncrement());
+                if (termWritten) {
+                    BytesRef term = new BytesRef(analyzedTermStr);
+                    writeVInt(block, term.length);
+                    block.append(term);
+                }
+                previousStart = charStart;
+
+                if (block.length() > MAX_BLOCK_LENGTH) {
+                    tooLong = true;
+                    break;
+                }
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage(), e);
+        }
+        return tooLong ? null : block.get();
+    }
+
+    /**
+     * Decodes the tokens of a field and adds their spans to the payload.
+     * 
+     * @return false if the block is empty, i.e. the document was written without blocks
+     *
+     * @param attributeName
+     * @param fieldValue, the value of the field the block is encoded from
+     * @param block
+     * @param payload
+     */
+    public static boolean decode(String attributeName, String fieldValue, BytesRef block, List<Span> payload) {
+        if (block == null || block.length == 0) {
+            return false;
+        }
+        ByteArrayDataInput input = new ByteArrayDataInput(block.bytes, block.offset, block.length);
+        byte formatVersion = input.readByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new StorageException("unsupported payload block format " + formatVersion);
+        }
+        int charStart = 0;
+        int tokenPosition = -1;
+        while (! input.eof()) {
+            charStart += input.readVInt();
+            int lengthAndFlag = input.readVInt();
+            int charEnd = charStart + (lengthAndFlag >>> 1);
+            tokenPosition += input.readVInt();
+
+            String originalTermStr = fieldValue.substring(charStart, charEnd);
+            String analyzedTermStr;
+            if ((lengthAndFlag & 1) != 0) {
+                int termLength = input.readVInt();
+                // the position of the input is in block.bytes, not relative to the block
+                analyzedTermStr = new String(block.bytes, input.getPosition(), termLength, StandardCharsets.UTF_8);
+                input.skipBytes(termLength);
+            } else {
+                analyzedTermStr = originalTermStr.toLowerCase(Locale.ROOT);
+            }
+
+            payload.add(new Span(attributeName, charStart, charEnd, analyzedTermStr, originalTermStr, tokenPosition));
+        }
+        return true;
+    }
+
+    private static void writeVInt(BytesRefBuilder block, int value) {
+        while ((value & ~0x7F) != 0) {
+            block.append((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        block.append((byte) value);
+    }
+
+}
@@ -62,6 +62,15 @@ public class StorageUtils {
     }
 
     public static IndexableField getLuceneField(AttributeType attributeType, String attributeName, Object fieldValue) {
+        return getLuceneField(attributeType, attributeName, fieldValue, true);
+    }
+
+    /**
+     * Converts a field to a Lucene field, 
+     *   without the term vector of a TEXT field if termVectorStored is false.
+     */
+    public static IndexableField getLuceneField(AttributeType attributeType, String attributeName, Object fieldValue,
+            boolean termVectorStored) {
         IndexableField luceneField = null;
         switch (attributeType) {
         // _ID_TYPE is currently same as STRING
@@ -90,10 +99,10 @@ public class StorageUtils {
             org.apache.lucene.document.FieldType luceneFieldType = new org.apache.lucene.document.FieldType();
             luceneFieldType.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
             luceneFieldType.setStored(true);
-            luceneFieldType.setStoreTermVectors(true);
-            luceneFieldType.setStoreTermVectorOffsets(true);
-            luceneFieldType.setStoreTermVectorPayloads(true);
-            luceneFieldType.setStoreTermVectorPositions(true);
+            luceneFieldType.setStoreTermVectors(termVectorStored);
+            luceneFieldType.setStoreTermVectorOffsets(termVectorStored);
+            luceneFieldType.setStoreTermVectorPayloads(termVectorStored);
+            luceneFieldType.setStoreTermVectorPositions(termVectorStored);
             luceneFieldType.setTokenized(true);
 
             luceneField = new org.apache.lucene.document.Field(attributeName, (String) fieldValue, luceneFieldType);
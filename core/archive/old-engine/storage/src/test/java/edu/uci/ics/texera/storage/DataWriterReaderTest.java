@@ -1,16 +1,24 @@
 package edu.uci.ics.texera.storage;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.TermQuery;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import edu.uci.ics.texera.api.constants.SchemaConstants;
 import edu.uci.ics.texera.api.constants.test.TestConstants;
 import edu.uci.ics.texera.api.exception.TexeraException;
+import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.ListField;
+import edu.uci.ics.texera.api.span.Span;
 import edu.uci.ics.texera.api.tuple.Tuple;
 import edu.uci.ics.texera.api.utils.TestUtils;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
@@ -58,4 +66,98 @@ public class DataWriterReaderTest {
         Assert.assertTrue(TestUtils.equals(TestConstants.getSamplePeopleTuples(), returnedTuples));
     }
 
+    /*
+     * The reader skips the offset and stops after the limit.
+     */
+    @Test
+    public void testLimitOffset() throws Exception {
+        List<Tuple> allTuples = readAll(RelationManager.getInstance().getTableDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery()));
+        
+        DataReader dataReader = RelationManager.getInstance().getTableDataReader(
+                PEOPLE_TABLE, new MatchAllDocsQuery());
+        dataReader.setOffset(1);
+        dataReader.setLimit(2);
+        List<Tuple> returnedTuples = readAll(dataReader);
+        
+        Assert.assertEquals(allTuples.subList(1, 3), returnedTuples);
+    }
+    
+    /*
+     * A reader opened after a write sees it, and deleted tuples are not returned.
+     */
+    @Test
+    public void testReadAfterWrite() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        int tupleCount = readAll(relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery())).size();
+        
+        DataWriter dataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        dataWriter.open();
+        IDField idField = dataWriter.insertTuple(TestConstants.getSamplePeopleTuples().get(0));
+        dataWriter.close();
+        
+        Assert.assertEquals(tupleCount + 1, 
+                readAll(relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery())).size());
+        
+        dataWriter = relationManager.getTableDataWriter(PEOPLE_TABLE);
+        dataWriter.open();
+        dataWriter.deleteTuple(new TermQuery(new Term(SchemaConstants._ID, idField.getValue())));
+        dataWriter.close();
+        
+        Assert.assertEquals(tupleCount, 
+                readAll(relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery())).size());
+        Assert.assertNull(relationManager.getTupleByID(PEOPLE_TABLE, idField));
+    }
+    
+    /*
+     * The payload decoded from the payload doc values is the same as the one built from the term vectors.
+     */
+    @Test
+    public void testPayloadFromDocValues() throws Exception {
+        RelationManager relationManager = RelationManager.getInstance();
+        String termVectorTable = PEOPLE_TABLE + "_term_vector";
+        relationManager.createTable(termVectorTable, TestUtils.getDefaultTestIndex().resolve(termVectorTable), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        try {
+            DataWriter dataWriter = relationManager.getTableDataWriter(termVectorTable);
+            dataWriter.setPayloadDocValuesWritten(false);
+            dataWriter.open();
+            for (Tuple tuple : TestConstants.getSamplePeopleTuples()) {
+                dataWriter.insertTuple(tuple);
+            }
+            dataWriter.close();
+            
+            DataReader docValuesReader = relationManager.getTableDataReader(PEOPLE_TABLE, new MatchAllDocsQuery());
+            docValuesReader.setPayloadAdded(true);
+            DataReader termVectorReader = relationManager.getTableDataReader(termVectorTable, new MatchAllDocsQuery());
+            termVectorReader.setPayloadAdded(true);
+            
+            Set<Set<Span>> docValuesPayloads = getPayloads(readAll(docValuesReader));
+            Assert.assertFalse(docValuesPayloads.contains(new HashSet<Span>()));
+            Assert.assertEquals(getPayloads(readAll(termVectorReader)), docValuesPayloads);
+        } finally {
+            relationManager.deleteTable(termVectorTable);
+        }
+    }
+    
+    private static Set<Set<Span>> getPayloads(List<Tuple> tuples) {
+        Set<Set<Span>> payloads = new HashSet<>();
+        for (Tuple tuple : tuples) {
+            ListField<Span> payloadField = tuple.getField(SchemaConstants.PAYLOAD);
+            payloads.add(new HashSet<>(payloadField.getValue()));
+        }
+        return payloads;
+    }
+    
+    private static List<Tuple> readAll(DataReader dataReader) throws Exception {
+        List<Tuple> returnedTuples = new ArrayList<Tuple>();
+        Tuple nextTuple;
+        dataReader.open();
+        while ((nextTuple = dataReader.getNextTuple()) != null) {
+            returnedTuples.add(nextTuple);
+        }
+        dataReader.close();
+        return returnedTuples;
+    }
+
 }
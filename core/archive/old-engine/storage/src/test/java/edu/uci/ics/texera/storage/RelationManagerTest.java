@@ -2,26 +2,34 @@ package edu.uci.ics.texera.storage;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import edu.uci.ics.texera.api.constants.SchemaConstants;
+import edu.uci.ics.texera.api.constants.test.TestConstants;
 import edu.uci.ics.texera.api.exception.StorageException;
 import edu.uci.ics.texera.api.exception.TexeraException;
 import edu.uci.ics.texera.api.field.IDField;
+import edu.uci.ics.texera.api.field.ListField;
 import edu.uci.ics.texera.api.field.StringField;
 import edu.uci.ics.texera.api.schema.Attribute;
 import edu.uci.ics.texera.api.schema.AttributeType;
 import edu.uci.ics.texera.api.schema.Schema;
 import edu.uci.ics.texera.api.tuple.Tuple;
+import edu.uci.ics.texera.api.utils.TestUtils;
 import edu.uci.ics.texera.storage.constants.LuceneAnalyzerConstants;
 
 public class RelationManagerTest {
@@ -429,4 +437,76 @@ public class RelationManagerTest {
 
         relationManager.deleteTable(tableName);
     }
+
+    /*
+     * Bulk load tuples with several threads, each tuple should be inserted once with a unique ID,
+     *   and have its payload without a term vector.
+     */
+    @Test
+    public void test18() throws Exception {
+        String tableName = "relation_manager_test_bulk_load";
+        
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, TestUtils.getDefaultTestIndex().resolve(tableName), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        List<Tuple> tuples = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tuples.addAll(TestConstants.getSamplePeopleTuples());
+        }
+        int insertedCount = relationManager.bulkLoadTable(tableName, tuples.iterator(), 
+                new BulkLoadConfig().setThreadCount(4).setBatchSize(7));
+        Assert.assertEquals(tuples.size(), insertedCount);
+        
+        DataReader dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        dataReader.setPayloadAdded(true);
+        List<Tuple> results = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        dataReader.open();
+        Assert.assertNull(dataReader.getLuceneIndexReader().getTermVector(0, TestConstants.DESCRIPTION));
+        Tuple tuple;
+        while ((tuple = dataReader.getNextTuple()) != null) {
+            results.add(tuple);
+            ids.add(tuple.getField(SchemaConstants._ID).getValue().toString());
+            ListField<?> payload = tuple.getField(SchemaConstants.PAYLOAD);
+            Assert.assertFalse(payload.getValue().isEmpty());
+        }
+        dataReader.close();
+        
+        Assert.assertEquals(tuples.size(), ids.size());
+        Assert.assertTrue(TestUtils.equals(tuples, results));
+        
+        relationManager.deleteTable(tableName);
+    }
+    
+    /*
+     * If a tuple of a bulk load fails to be inserted, none of the tuples are.
+     */
+    @Test
+    public void test19() throws Exception {
+        String tableName = "relation_manager_test_bulk_load";
+        
+        RelationManager relationManager = RelationManager.getInstance();
+        relationManager.deleteTable(tableName);
+        relationManager.createTable(tableName, TestUtils.getDefaultTestIndex().resolve(tableName), 
+                TestConstants.SCHEMA_PEOPLE, LuceneAnalyzerConstants.standardAnalyzerString());
+        
+        List<Tuple> tuples = new ArrayList<>(TestConstants.getSamplePeopleTuples());
+        tuples.add(new Tuple(new Schema(new Attribute("content", AttributeType.STRING)), new StringField("wrong")));
+        tuples.addAll(TestConstants.getSamplePeopleTuples());
+        
+        try {
+            relationManager.bulkLoadTable(tableName, tuples.iterator(), new BulkLoadConfig().setBatchSize(2));
+            Assert.fail("bulk load of a tuple with a different schema should fail");
+        } catch (StorageException e) {
+        }
+        
+        DataReader dataReader = relationManager.getTableDataReader(tableName, new MatchAllDocsQuery());
+        dataReader.open();
+        Assert.assertNull(dataReader.getNextTuple());
+        dataReader.close();
+        
+        relationManager.deleteTable(tableName);
+    }
 }
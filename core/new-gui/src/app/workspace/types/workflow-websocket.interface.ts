@@ -72,6 +72,12 @@ export type ResultDownloadResponse = Readonly<{
   message: string
 }>;
 
+export type ResultExportProgressEvent = Readonly<{
+  downloadType: string,
+  exportedRows: number,
+  totalRows: number
+}>;
+
 export type TexeraWebsocketRequestTypeMap = {
   'HelloWorldRequest': WebSocketHelloWorld,
   'HeartBeatRequest': {},
@@ -102,7 +108,8 @@ export type TexeraWebsocketEventTypeMap = {
   'OperatorCurrentTuplesUpdateEvent': OperatorCurrentTuples,
   'PaginatedResultEvent': PaginatedResultEvent,
   'WorkflowExecutionErrorEvent': WorkflowExecutionError,
-  'ResultDownloadResponse': ResultDownloadResponse
+  'ResultDownloadResponse': ResultDownloadResponse,
+  'ResultExportProgressEvent': ResultExportProgressEvent
 };
 
 // helper type definitions to generate the request and event types